@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.spine.tools.gradle.model.ModelGenerator;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.gradle.benchmark.BenchmarkTaskName.runBenchmarks;
+import static org.gradle.api.tasks.SourceSet.MAIN_SOURCE_SET_NAME;
+
+/**
+ * A facade for the serialization benchmarks of the messages of a project.
+ *
+ * <p>The benchmarks are generated into the {@code jmh} source set, which is compiled against
+ * the main source set. The {@code runBenchmarks} task runs them with JMH and writes the results
+ * into {@code build/reports/benchmarks/results.json}, so that the results of the builds may be
+ * compared to each other.
+ *
+ * <p>By default, the benchmarks are run in a single fork with the short warmup and measurement
+ * to fit into a build: {@code -f 1 -wi 2 -w 1s -i 3 -r 1s}. Each of these options may be
+ * overridden by passing it to the task as a JMH command line argument, e.g.
+ * <pre>
+ *     {@code
+ *     runBenchmarks {
+ *         args '-i', '10'
+ *     }
+ *     }
+ * </pre>
+ * The default value of an option is only passed to JMH if the task arguments do not set
+ * the option, as JMH rejects the duplicated options.
+ */
+public final class MessageBenchmarking {
+
+    private static final String JAVA_PLUGIN = "java";
+    private static final String SOURCE_SET = "jmh";
+    private static final String JMH_VERSION = "1.26";
+    private static final String JMH_CORE = "org.openjdk.jmh:jmh-core:" + JMH_VERSION;
+    private static final String JMH_ANNOTATION_PROCESSOR =
+            "org.openjdk.jmh:jmh-generator-annprocess:" + JMH_VERSION;
+    private static final String JMH_MAIN = "org.openjdk.jmh.Main";
+    private static final String RESULTS_FILE = "reports/benchmarks/results.json";
+
+    /**
+     * The JMH options passed to the benchmarks unless the task arguments set them.
+     */
+    private static final ImmutableMap<String, String> DEFAULT_OPTIONS =
+            ImmutableMap.<String, String>builder()
+                        .put("-foe", "true")
+                        .put("-f", "1")
+                        .put("-wi", "2")
+                        .put("-w", "1s")
+                        .put("-i", "3")
+                        .put("-r", "1s")
+                        .build();
+
+    private final Project project;
+    private final ModelGenerator modelGenerator;
+    private boolean enabled = false;
+
+    public MessageBenchmarking(Project project) {
+        this.project = checkNotNull(project);
+        this.modelGenerator = new ModelGenerator(project);
+    }
+
+    /**
+     * Enables the generation of the benchmarks and the {@code runBenchmarks} task.
+     */
+    public void enable() {
+        enabled = true;
+        project.getPluginManager()
+               .withPlugin(JAVA_PLUGIN, plugin -> {
+                   if (!enabled) {
+                       return;
+                   }
+                   SourceSet sourceSet = sourceSet();
+                   modelGenerator.enableBenchmarks(SOURCE_SET);
+                   Task task = project.getTasks()
+                                      .findByName(runBenchmarks.name());
+                   if (task == null) {
+                       createTask(sourceSet);
+                   } else {
+                       task.setEnabled(true);
+                   }
+               });
+    }
+
+    /**
+     * Disables the generation of the benchmarks and the {@code runBenchmarks} task.
+     *
+     * <p>The {@code jmh} source set, if created, stays in place.
+     */
+    public void disable() {
+        enabled = false;
+        modelGenerator.disableBenchmarks();
+        Task task = project.getTasks()
+                           .findByName(runBenchmarks.name());
+        if (task != null) {
+            task.setEnabled(false);
+        }
+    }
+
+    private SourceSet sourceSet() {
+        SourceSetContainer sourceSets = project.getConvention()
+                                               .getPlugin(JavaPluginConvention.class)
+                                               .getSourceSets();
+        SourceSet existing = sourceSets.findByName(SOURCE_SET);
+        if (existing != null) {
+            return existing;
+        }
+        SourceSet main = sourceSets.getByName(MAIN_SOURCE_SET_NAME);
+        SourceSet sourceSet = sourceSets.create(SOURCE_SET);
+        sourceSet.setCompileClasspath(sourceSet.getCompileClasspath()
+                                               .plus(main.getOutput())
+                                               .plus(main.getCompileClasspath()));
+        sourceSet.setRuntimeClasspath(sourceSet.getRuntimeClasspath()
+                                               .plus(main.getOutput())
+                                               .plus(main.getRuntimeClasspath()));
+        DependencyHandler dependencies = project.getDependencies();
+        dependencies.add(sourceSet.getImplementationConfigurationName(), JMH_CORE);
+        dependencies.add(sourceSet.getAnnotationProcessorConfigurationName(),
+                         JMH_ANNOTATION_PROCESSOR);
+        return sourceSet;
+    }
+
+    private void createTask(SourceSet sourceSet) {
+        TaskContainer tasks = project.getTasks();
+        JavaExec task = tasks.create(runBenchmarks.name(), JavaExec.class);
+        task.setDescription("Runs the serialization benchmarks of the messages.");
+        File results = new File(project.getBuildDir(), RESULTS_FILE);
+        task.getMainClass()
+            .set(JMH_MAIN);
+        task.setClasspath(sourceSet.getRuntimeClasspath());
+        task.args("-rf", "json",
+                  "-rff", results.getAbsolutePath());
+        task.getArgumentProviders()
+            .add(new DefaultOptions(task));
+        task.getOutputs()
+            .file(results);
+        task.dependsOn(sourceSet.getClassesTaskName());
+        task.doFirst(t -> project.mkdir(results.getParentFile()));
+    }
+
+    /**
+     * Provides the {@linkplain #DEFAULT_OPTIONS default JMH options} which are not set in
+     * the arguments of the task.
+     */
+    private static final class DefaultOptions implements CommandLineArgumentProvider {
+
+        private final JavaExec task;
+
+        private DefaultOptions(JavaExec task) {
+            this.task = task;
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            List<String> args = task.getArgs();
+            ImmutableList.Builder<String> result = ImmutableList.builder();
+            DEFAULT_OPTIONS.forEach((option, value) -> {
+                if (args == null || !args.contains(option)) {
+                    result.add(option, value);
+                }
+            });
+            return result.build();
+        }
+    }
+}
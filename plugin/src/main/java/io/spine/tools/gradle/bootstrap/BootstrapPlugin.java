@@ -33,6 +33,7 @@ import io.spine.tools.gradle.project.PluginTarget;
 import io.spine.tools.gradle.project.ProjectSourceSuperset;
 import io.spine.tools.gradle.project.SourceSuperset;
 import io.spine.tools.gradle.protoc.ProtobufGenerator;
+import io.spine.tools.gradle.protoc.ProtocExecutable;
 import org.gradle.api.Project;
 
 /**
@@ -73,7 +74,7 @@ public final class BootstrapPlugin extends SpinePlugin {
     public void apply(Project project) {
         ArtifactSnapshot artifacts = ArtifactSnapshot.fromResources();
         applyExtension(project, artifacts);
-        configureProtocArtifact(project, artifacts);
+        configureProtoc(project, artifacts);
     }
 
     private static void applyExtension(Project project, ArtifactSnapshot artifacts) {
@@ -94,8 +95,11 @@ public final class BootstrapPlugin extends SpinePlugin {
         extension.disableJavaGeneration();
     }
 
-    private static void configureProtocArtifact(Project project, ArtifactSnapshot artifacts) {
+    private static void configureProtoc(Project project, ArtifactSnapshot artifacts) {
         ProtobufGenerator generator = new ProtobufGenerator(project);
-        generator.useCompiler(artifacts.protoc());
+        ProtocExecutable protoc = ProtocExecutable.fromArtifact(artifacts.protoc());
+        generator.useCompiler(protoc);
+        generator.enableDescriptorSetCache(protoc);
+        generator.enableCommandReport();
     }
 }
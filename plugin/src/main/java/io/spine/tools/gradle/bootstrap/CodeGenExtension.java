@@ -37,6 +37,11 @@ import io.spine.tools.gradle.protoc.ProtocPlugin;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.api.Project;
 
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.spine.tools.gradle.config.SpineDependency.base;
 import static io.spine.tools.gradle.config.SpineDependency.time;
@@ -147,6 +152,26 @@ abstract class CodeGenExtension implements Logging {
         return ImmutableSet.of();
     }
 
+    /**
+     * Obtains the constant of the given enum by its name.
+     *
+     * <p>Allows to configure the enum settings with plain strings in the build scripts.
+     *
+     * @throws IllegalArgumentException
+     *         if there is no constant with such a name
+     */
+    static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        checkNotNull(type);
+        checkNotNull(name);
+        E[] values = type.getEnumConstants();
+        Optional<E> value = Stream.of(values)
+                                  .filter(constant -> constant.name().equals(name))
+                                  .findFirst();
+        checkArgument(value.isPresent(),
+                      "Unknown value `%s`. Use one of %s.", name, Arrays.toString(values));
+        return value.get();
+    }
+
     /**
      * An abstract builder for the {@code CodeGenExtension} subtypes.
      */
@@ -28,9 +28,13 @@ package io.spine.tools.gradle.bootstrap;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.gradle.GenerateProtoTask;
 import io.spine.dart.PubCache;
 import io.spine.dart.gradle.Extension;
 import io.spine.tools.gradle.TaskName;
+import io.spine.tools.gradle.protoc.PackageDescriptorSets;
+import io.spine.tools.gradle.protoc.ProtoSources;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
@@ -40,9 +44,12 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.TaskContainer;
 
 import javax.annotation.OverridingMethodsMustInvokeSuper;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static io.spine.tools.gradle.BaseTaskName.assemble;
 import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
 import static io.spine.tools.gradle.ProtobufTaskName.generateTestProto;
@@ -51,11 +58,25 @@ import static io.spine.tools.gradle.bootstrap.DartTaskName.generateTestDart;
 import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.dart;
 import static io.spine.tools.gradle.protoc.ProtocPlugin.called;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.write;
 import static org.apache.tools.ant.taskdefs.condition.Os.FAMILY_WINDOWS;
 
 /**
  * An extension which configures Dart code generation.
+ *
+ * <p>In Gradle build script may be used as follows:
+ * <pre>
+ *     {@code
+ *     spine {
+ *         enableDart {
+ *             typesLayout = 'perPackage'
+ *         }
+ *     }
+ *     }
+ * </pre>
  */
 @VisibleForTesting // Would be package private, but needed for integration tests.
 public final class DartExtension extends CodeGenExtension {
@@ -63,8 +84,12 @@ public final class DartExtension extends CodeGenExtension {
     public static final String TYPES_FILE = "types.dart";
     private static final String DART_TOOL_NAME = "dart_code_gen";
     private static final Joiner commandJoiner = Joiner.on(' ');
+    private static final String SPLIT_DESCRIPTORS_DIR = "spine/dart";
+    private static final String IMPORT_PREFIX = ".";
+    private static final String REGISTRY_IMPORT_PREFIX = "..";
 
     private final Project project;
+    private DartTypesLayout typesLayout = DartTypesLayout.single;
 
     private DartExtension(Builder builder) {
         super(builder);
@@ -81,13 +106,47 @@ public final class DartExtension extends CodeGenExtension {
         createGenerationTasks();
     }
 
+    public DartTypesLayout getTypesLayout() {
+        return typesLayout;
+    }
+
+    /**
+     * Sets the layout of the registries of the known types.
+     *
+     * <p>With the {@link DartTypesLayout#perPackage perPackage} layout, a registry is generated
+     * per Protobuf package of the project, and {@code types.dart} loads them on demand through
+     * the deferred imports. The applications may then load the rarely used bounded contexts
+     * lazily, and the Dart compiler processes the packages separately.
+     *
+     * <p>Defaults to {@link DartTypesLayout#single single}.
+     *
+     * @param typesLayout
+     *         the layout of the registries
+     */
+    public void setTypesLayout(DartTypesLayout typesLayout) {
+        this.typesLayout = checkNotNull(typesLayout);
+    }
+
+    /**
+     * Sets the layout of the registries of the known types by its name.
+     *
+     * @param typesLayout
+     *         the name of the layout, e.g. {@code perPackage}
+     * @see #setTypesLayout(DartTypesLayout)
+     */
+    public void setTypesLayout(String typesLayout) {
+        setTypesLayout(enumValue(DartTypesLayout.class, typesLayout));
+    }
+
     private void createGenerationTasks() {
         Extension protoDart = project.getExtensions()
                                      .getByType(Extension.class);
         Task mainTask = createTask(generateDart,
+                                   generateProto,
                                    protoDart.getMainDescriptorSet(),
                                    protoDart.getLibDir());
         Task testTask = createTask(generateTestDart,
+                                   generateTestProto,
                                    protoDart.getTestDescriptorSet(),
                                    protoDart.getTestDir());
         Task assembleTask = project.getTasks()
@@ -101,6 +160,7 @@ public final class DartExtension extends CodeGenExtension {
     }
 
     private Task createTask(TaskName name,
+                            TaskName protoTask,
                             Property<Object> descriptorFile,
                             DirectoryProperty dartDir) {
         TaskContainer tasks = project.getTasks();
@@ -109,42 +169,86 @@ public final class DartExtension extends CodeGenExtension {
             return foundTask;
         }
         Task task = tasks.create(name.name());
-        task.doLast(t -> runDartTool(descriptorFile, dartDir));
+        task.doLast(t -> generateTypes(name, protoTask, descriptorFile, dartDir));
         return task;
     }
 
-    private void runDartTool(Property<Object> descriptorFile, DirectoryProperty dartDir) {
-        if (project.file(descriptorFile)
-                   .exists()) {
-            @SuppressWarnings("UseOfProcessBuilder")
-            ProcessBuilder processBuilder = buildDartToolProcess(descriptorFile, dartDir);
-            int exitCode;
-            try {
-                Process dartToolProcess = processBuilder.start();
-                exitCode = dartToolProcess.waitFor();
-            } catch (IOException | InterruptedException e) {
-                throw new GradleException(format("Failed to execute `%s`.", DART_TOOL_NAME), e);
-            }
-            if (exitCode != 0) {
-                throw onProcessError(processBuilder, exitCode);
-            }
+    private void generateTypes(TaskName name,
+                               TaskName protoTask,
+                               Property<Object> descriptorFile,
+                               DirectoryProperty dartDir) {
+        File descriptors = project.file(descriptorFile);
+        if (!descriptors.exists()) {
+            return;
+        }
+        File typesFile = dartDir.file(TYPES_FILE)
+                                .get()
+                                .getAsFile();
+        if (typesLayout == DartTypesLayout.single) {
+            runDartTool(descriptors, typesFile, IMPORT_PREFIX);
+        } else {
+            generatePerPackage(name, protoTask, descriptors, typesFile);
+        }
+    }
+
+    private void generatePerPackage(TaskName name,
+                                    TaskName protoTask,
+                                    File descriptors,
+                                    File typesFile) {
+        File splitDir = project.getBuildDir()
+                               .toPath()
+                               .resolve(SPLIT_DESCRIPTORS_DIR)
+                               .resolve(name.name())
+                               .toFile();
+        project.delete(splitDir);
+        GenerateProtoTask task = (GenerateProtoTask) project.getTasks()
+                                                            .getByName(protoTask.name());
+        Set<String> ownFiles = ProtoSources.byImportPath(task.getSourceFiles())
+                                           .keySet();
+        ImmutableMap<String, File> packages =
+                PackageDescriptorSets.split(descriptors, ownFiles, splitDir);
+        File typesDir = typesFile.getParentFile();
+        packages.forEach((protoPackage, descriptorSet) -> {
+            File registry = new File(typesDir, DartTypesIndex.registryFile(protoPackage));
+            runDartTool(descriptorSet, registry, REGISTRY_IMPORT_PREFIX);
+        });
+        String index = DartTypesIndex.of(packages.keySet())
+                                     .source();
+        try {
+            createDirectories(typesDir.toPath());
+            write(typesFile.toPath(), index.getBytes(UTF_8));
+        } catch (IOException e) {
+            throw new GradleException(format("Failed to write `%s`.", typesFile), e);
+        }
+    }
+
+    private void runDartTool(File descriptors, File destination, String importPrefix) {
+        @SuppressWarnings("UseOfProcessBuilder")
+        ProcessBuilder processBuilder = buildDartToolProcess(descriptors, destination,
+                                                             importPrefix);
+        int exitCode;
+        try {
+            Process dartToolProcess = processBuilder.start();
+            exitCode = dartToolProcess.waitFor();
+        } catch (IOException | InterruptedException e) {
+            throw new GradleException(format("Failed to execute `%s`.", DART_TOOL_NAME), e);
+        }
+        if (exitCode != 0) {
+            throw onProcessError(processBuilder, exitCode);
         }
     }
 
-    private ProcessBuilder buildDartToolProcess(Property<Object> descriptorFile,
-                                                DirectoryProperty dartDir) {
+    private ProcessBuilder buildDartToolProcess(File descriptors,
+                                                File destination,
+                                                String importPrefix) {
         Path command = dartCodeGenCommand();
         @SuppressWarnings("UseOfProcessBuilder")
         ProcessBuilder processBuilder = new ProcessBuilder(
                 command.toString(),
-                "--descriptor", project.file(descriptorFile)
-                                       .getAbsolutePath(),
-                "--destination", dartDir.file(TYPES_FILE)
-                                        .get()
-                                        .getAsFile()
-                                        .getAbsolutePath(),
+                "--descriptor", descriptors.getAbsolutePath(),
+                "--destination", destination.getAbsolutePath(),
                 "--standard-types", "spine_client",
-                "--import-prefix", "."
+                "--import-prefix", importPrefix
         ).inheritIO();
         return processBuilder;
     }
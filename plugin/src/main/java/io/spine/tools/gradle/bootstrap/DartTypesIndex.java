@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.bootstrap;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The index of the Dart type registries generated per Protobuf package.
+ *
+ * <p>The registry of a package is generated by the {@code dart_code_gen} tool into
+ * {@code types/<package>.dart}, where the dots of the package name are replaced with
+ * underscores. The index is written into {@code types.dart} and has the following API:
+ * <pre>
+ *     {@code
+ *     // The Protobuf packages which have type registries.
+ *     const List<String> packages
+ *
+ *     // Loads the type registry of the given package.
+ *     Future<dynamic> loadTypes(String package)
+ *
+ *     // Loads the type registries of all the packages.
+ *     Future<List<dynamic>> loadAllTypes()
+ *     }
+ * </pre>
+ *
+ * <p>The registries are imported as deferred libraries, so that the compilers may split them
+ * into separate units, and an application loads only the packages it uses.
+ */
+final class DartTypesIndex {
+
+    private static final String REGISTRIES_DIR = "types";
+    private static final String NO_PACKAGE = "no_package";
+
+    private final ImmutableList<String> packages;
+
+    private DartTypesIndex(ImmutableList<String> packages) {
+        this.packages = packages;
+    }
+
+    /**
+     * Creates the index of the registries of the given packages.
+     */
+    static DartTypesIndex of(Collection<String> packages) {
+        checkNotNull(packages);
+        return new DartTypesIndex(ImmutableList.copyOf(packages));
+    }
+
+    /**
+     * Obtains the path of the registry of the given package relative to the index.
+     */
+    static String registryFile(String protoPackage) {
+        return REGISTRIES_DIR + '/' + libraryName(protoPackage) + ".dart";
+    }
+
+    private static String libraryName(String protoPackage) {
+        return protoPackage.isEmpty()
+               ? NO_PACKAGE
+               : protoPackage.replace('.', '_');
+    }
+
+    /**
+     * Composes the source code of the index.
+     */
+    String source() {
+        StringBuilder code = new StringBuilder();
+        code.append("// Generated by the Spine Bootstrap plugin. Do not edit.\n\n");
+        for (String protoPackage : packages) {
+            code.append("import '")
+                .append(registryFile(protoPackage))
+                .append("' deferred as ")
+                .append(libraryName(protoPackage))
+                .append(";\n");
+        }
+        code.append('\n')
+            .append("/// The Protobuf packages which have type registries.\n")
+            .append("const List<String> packages = [");
+        for (int i = 0; i < packages.size(); i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            code.append('\'')
+                .append(packages.get(i))
+                .append('\'');
+        }
+        code.append("];\n\n")
+            .append("/// Loads the type registry of the given Protobuf package.\n")
+            .append("Future<dynamic> loadTypes(String package) async {\n")
+            .append("  switch (package) {\n");
+        for (String protoPackage : packages) {
+            String library = libraryName(protoPackage);
+            code.append("    case '").append(protoPackage).append("':\n")
+                .append("      await ").append(library).append(".loadLibrary();\n")
+                .append("      return ").append(library).append(".types();\n");
+        }
+        code.append("  }\n")
+            .append("  throw ArgumentError('Unknown package `$package`.');\n")
+            .append("}\n\n")
+            .append("/// Loads the type registries of all the packages.\n")
+            .append("Future<List<dynamic>> loadAllTypes() =>\n")
+            .append("    Future.wait(packages.map(loadTypes));\n");
+        return code.toString();
+    }
+}
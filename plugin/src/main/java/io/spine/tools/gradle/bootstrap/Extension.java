@@ -62,6 +62,7 @@ public final class Extension {
     private final JavaScriptExtension javaScript;
     private final DartExtension dart;
     private final ModelExtension modelExtension;
+    private final ProtocExtension protoc;
     private final ArtifactSnapshot artifacts;
     private final Project project;
     private boolean javaEnabled;
@@ -72,6 +73,7 @@ public final class Extension {
         this.javaScript = builder.buildJavaScriptExtension();
         this.dart = builder.buildDartExtension();
         this.modelExtension = builder.buildModelExtension();
+        this.protoc = ProtocExtension.of(builder.generator, builder.artifacts);
         this.project = builder.project;
         this.artifacts = builder.artifacts;
     }
@@ -129,6 +131,32 @@ public final class Extension {
         return java;
     }
 
+    /**
+     * Marks this project as a JavaScript project and configures the JavaScript code generation.
+     *
+     * @param configuration
+     *         Groovy style configuration
+     * @see #enableJavaScript()
+     */
+    public void enableJavaScript(Closure configuration) {
+        checkNotNull(configuration);
+        enableJavaScript();
+        configure(configuration, javaScript);
+    }
+
+    /**
+     * Marks this project as a JavaScript project and configures the JavaScript code generation.
+     *
+     * @param configuration
+     *         Java/Kotlin style configuration
+     * @see #enableJavaScript()
+     */
+    public void enableJavaScript(Action<JavaScriptExtension> configuration) {
+        checkNotNull(configuration);
+        enableJavaScript();
+        configuration.execute(javaScript);
+    }
+
     /**
      * Marks this project as a JavaScript project and configures the JavaScript code generation.
      *
@@ -171,6 +199,63 @@ public final class Extension {
         this.modelExtension.enableGeneration();
     }
 
+    /**
+     * Marks this project as a project that contains the Protobuf model definition and configures
+     * the model.
+     *
+     * @param configuration
+     *         Groovy style configuration
+     * @see #assembleModel()
+     */
+    public void assembleModel(Closure configuration) {
+        checkNotNull(configuration);
+        assembleModel();
+        configure(configuration, modelExtension);
+    }
+
+    /**
+     * Marks this project as a project that contains the Protobuf model definition and configures
+     * the model.
+     *
+     * @param configuration
+     *         Java/Kotlin style configuration
+     * @see #assembleModel()
+     */
+    public void assembleModel(Action<ModelExtension> configuration) {
+        checkNotNull(configuration);
+        assembleModel();
+        configuration.execute(modelExtension);
+    }
+
+    /**
+     * Obtains the configuration of the Protobuf compiler.
+     */
+    public ProtocExtension getProtoc() {
+        return protoc;
+    }
+
+    /**
+     * Configures the Protobuf compiler.
+     *
+     * @param configuration
+     *         Groovy style configuration
+     */
+    public void protoc(Closure configuration) {
+        checkNotNull(configuration);
+        configure(configuration, protoc);
+    }
+
+    /**
+     * Configures the Protobuf compiler.
+     *
+     * @param configuration
+     *         Java/Kotlin style configuration
+     */
+    public void protoc(Action<ProtocExtension> configuration) {
+        checkNotNull(configuration);
+        configuration.execute(protoc);
+    }
+
     /**
      * Returns {@code true} if the dependency enforcement is enabled for the current project.
      *
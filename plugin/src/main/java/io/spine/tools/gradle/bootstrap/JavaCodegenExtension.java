@@ -28,8 +28,11 @@ package io.spine.tools.gradle.bootstrap;
 
 import io.spine.logging.Logging;
 import io.spine.tools.gradle.TaskName;
+import io.spine.tools.gradle.benchmark.MessageBenchmarking;
 import io.spine.tools.gradle.config.ArtifactSnapshot;
+import io.spine.tools.gradle.model.ModelGenerator;
 import io.spine.tools.gradle.project.Dependant;
+import io.spine.tools.gradle.protoc.OptimizeForPolicy;
 import io.spine.tools.gradle.protoc.ProtobufGenerator;
 import io.spine.tools.gradle.protoc.ProtocPlugin;
 import io.spine.tools.gradle.protoc.ProtocPlugin.Name;
@@ -54,31 +57,52 @@ public final class JavaCodegenExtension implements Logging {
     private final ProtobufGenerator protobufGenerator;
     private final Dependant dependant;
     private final ArtifactSnapshot artifacts;
+    private final ModelGenerator modelGenerator;
+    private final MessageBenchmarking benchmarking;
 
     private boolean protobuf = true;
     private boolean grpc = false;
     private boolean spine = true;
+    private OptimizeForPolicy optimizeFor = OptimizeForPolicy.warn;
+    private boolean jsonCodecs = false;
+    private boolean columnExtractors = false;
+    private boolean benchmarks = false;
+    private boolean routingTable = false;
+    private boolean knownTypesIndex = false;
+    private boolean nativeImageConfig = false;
+    private ValidationMode validation = ValidationMode.runtime;
 
     private JavaCodegenExtension(Project project,
                                  ProtobufGenerator protobufGenerator,
+                                 ModelGenerator modelGenerator,
                                  Dependant dependant,
                                  ArtifactSnapshot artifacts) {
         this.project = project;
         this.protobufGenerator = protobufGenerator;
+        this.modelGenerator = modelGenerator;
         this.dependant = dependant;
         this.artifacts = artifacts;
+        this.benchmarking = new MessageBenchmarking(project);
     }
 
     /**
      * Creates a new instance of the extension.
+     *
+     * <p>The given Protobuf generator should be the one used by the other language extensions,
+     * so that all the languages are generated in a single {@code protoc} invocation per
+     * source set. The given model generator should be the one of the enclosing
+     * {@link JavaExtension}.
      */
     public static JavaCodegenExtension of(Project project,
+                                          ProtobufGenerator generator,
+                                          ModelGenerator modelGenerator,
                                           Dependant dependant,
                                           ArtifactSnapshot artifacts) {
         checkNotNull(project);
+        checkNotNull(generator);
+        checkNotNull(modelGenerator);
         checkNotNull(dependant);
-        ProtobufGenerator generator = new ProtobufGenerator(project);
-        return new JavaCodegenExtension(project, generator, dependant, artifacts);
+        return new JavaCodegenExtension(project, generator, modelGenerator, dependant, artifacts);
     }
 
     public boolean getProtobuf() {
@@ -93,6 +117,34 @@ public final class JavaCodegenExtension implements Logging {
         return spine;
     }
 
+    public OptimizeForPolicy getOptimizeFor() {
+        return optimizeFor;
+    }
+
+    public boolean getJsonCodecs() {
+        return jsonCodecs;
+    }
+
+    public boolean getBenchmarks() {
+        return benchmarks;
+    }
+
+    public ValidationMode getValidation() {
+        return validation;
+    }
+
+    public boolean getRoutingTable() {
+        return routingTable;
+    }
+
+    public boolean getKnownTypesIndex() {
+        return knownTypesIndex;
+    }
+
+    public boolean getNativeImageConfig() {
+        return nativeImageConfig;
+    }
+
     /**
      * Enables or disables Protobuf to Java code generation.
      *
@@ -107,6 +159,8 @@ public final class JavaCodegenExtension implements Logging {
         } else {
             protobufGenerator.disableBuiltIn(JAVA_PLUGIN);
         }
+        updateModelSources();
+        updateModelResources();
     }
 
     /**
@@ -144,6 +198,203 @@ public final class JavaCodegenExtension implements Logging {
         switchPlugin(SPINE_PLUGIN, spine);
         updateModelCompilerTask(generateRejections);
         updateModelCompilerTask(generateTestRejections);
+        updateModelSources();
+    }
+
+    /**
+     * Enables or disables generation of the JSON codecs of the messages.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, a JSON writer and parser are generated for each message, as well as
+     * a registry of them. The codecs stream the messages through Gson without
+     * the descriptor-driven {@code JsonFormat}, and are meant for the message-heavy endpoints
+     * of the {@linkplain JavaExtension#webServer() web servers}.
+     *
+     * @param jsonCodecs {@code true} to enable, {@code false} to disable
+     */
+    public void setJsonCodecs(boolean jsonCodecs) {
+        this.jsonCodecs = jsonCodecs;
+        updateModelSources();
+    }
+
+    /**
+     * Enables or disables generation of the serialization benchmarks of the messages.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, JMH benchmarks of parsing, serializing and rebuilding a random instance of
+     * each message are generated into the {@code jmh} source set. The {@code runBenchmarks} task
+     * runs them and writes the results into {@code build/reports/benchmarks/results.json}, so
+     * that the regressions caused by the model changes can be spotted in a build.
+     *
+     * @param benchmarks {@code true} to enable, {@code false} to disable
+     */
+    public void setBenchmarks(boolean benchmarks) {
+        this.benchmarks = benchmarks;
+        updateModelSources();
+    }
+
+    /**
+     * Enables or disables generation of the routing table of the commands and events.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, a class which obtains the IDs of the commands and events through
+     * the generated getters is generated, so that the default routes do not look up the ID
+     * fields via the descriptors. Requires the Spine-specific code generation.
+     *
+     * @param routingTable {@code true} to enable, {@code false} to disable
+     */
+    public void setRoutingTable(boolean routingTable) {
+        this.routingTable = routingTable;
+        updateModelSources();
+    }
+
+    /**
+     * Enables or disables generation of the binary index of the known types.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, the index of the Protobuf types declared in the project is packed into
+     * the project resources, so that a runtime which supports the index can build the type
+     * registry without scanning the classpath.
+     *
+     * @param knownTypesIndex {@code true} to enable, {@code false} to disable
+     */
+    public void setKnownTypesIndex(boolean knownTypesIndex) {
+        this.knownTypesIndex = knownTypesIndex;
+        updateModelResources();
+    }
+
+    /**
+     * Enables or disables generation of the GraalVM {@code native-image} configuration of
+     * the generated classes.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, the reflection configuration of the generated messages and enums is packed
+     * into the project resources under {@code META-INF/native-image}.
+     *
+     * @param nativeImageConfig {@code true} to enable, {@code false} to disable
+     */
+    public void setNativeImageConfig(boolean nativeImageConfig) {
+        this.nativeImageConfig = nativeImageConfig;
+        updateModelResources();
+    }
+
+    /**
+     * Sets the way the constraints of the messages are checked.
+     *
+     * <p>Defaults to {@link ValidationMode#runtime runtime}. In the
+     * {@link ValidationMode#generated generated} mode, a validator is generated for each message
+     * along with a registry of them called {@code <Module>Validators}. The validators check
+     * the constraints through the generated getters and the precompiled regular expressions, and
+     * allocate nothing for a valid message. The registry tells which messages it supports, so that
+     * the rest are passed to the runtime validation.
+     *
+     * @param validation
+     *         the validation mode
+     */
+    public void setValidation(ValidationMode validation) {
+        this.validation = checkNotNull(validation);
+        updateModelSources();
+    }
+
+    /**
+     * Sets the way the constraints of the messages are checked by the name of the mode.
+     *
+     * @param validation
+     *         the name of the mode, e.g. {@code generated}
+     * @see #setValidation(ValidationMode)
+     */
+    public void setValidation(String validation) {
+        setValidation(CodeGenExtension.enumValue(ValidationMode.class, validation));
+    }
+
+    /**
+     * Enables generation of the column extractors of the entity states.
+     *
+     * <p>The extractors are needed only on the server side, so the generation is enabled along
+     * with the server dependencies.
+     */
+    void enableColumnExtractors() {
+        this.columnExtractors = true;
+        updateModelSources();
+    }
+
+    /**
+     * Enables or disables the generation of the resources from the model according to
+     * the current settings.
+     *
+     * <p>The resources describe the Protobuf-generated Java classes, so they are generated only
+     * if the Protobuf to Java code generation is enabled.
+     */
+    void updateModelResources() {
+        if (knownTypesIndex && protobuf) {
+            modelGenerator.enableKnownTypesIndex();
+        } else {
+            modelGenerator.disableKnownTypesIndex();
+        }
+        if (nativeImageConfig && protobuf) {
+            modelGenerator.enableNativeImageConfig();
+        } else {
+            modelGenerator.disableNativeImageConfig();
+        }
+    }
+
+    /**
+     * Enables or disables the generation of the Java sources from the model according to
+     * the current settings.
+     *
+     * <p>The sources refer to the Protobuf-generated Java classes, so they are generated only if
+     * the Protobuf to Java code generation is enabled. The routing table is also generated only if
+     * the Spine-specific code generation is enabled.
+     */
+    void updateModelSources() {
+        if (routingTable && spine && protobuf) {
+            modelGenerator.enableRoutingTable();
+        } else {
+            modelGenerator.disableRoutingTable();
+        }
+        if (columnExtractors && protobuf) {
+            modelGenerator.enableColumnExtractors();
+        } else {
+            modelGenerator.disableColumnExtractors();
+        }
+        if (jsonCodecs && protobuf) {
+            modelGenerator.enableJsonCodecs();
+        } else {
+            modelGenerator.disableJsonCodecs();
+        }
+        if (validation == ValidationMode.generated && protobuf) {
+            modelGenerator.enableValidators();
+        } else {
+            modelGenerator.disableValidators();
+        }
+        if (benchmarks && protobuf) {
+            benchmarking.enable();
+        } else {
+            benchmarking.disable();
+        }
+    }
+
+    /**
+     * Sets the policy on the Protobuf files which set {@code optimize_for} to {@code CODE_SIZE}
+     * or {@code LITE_RUNTIME}.
+     *
+     * <p>Defaults to {@link OptimizeForPolicy#warn warn}. The {@code CODE_SIZE} messages are
+     * parsed and serialized reflectively, several times slower than the {@code SPEED} ones, and
+     * the {@code LITE_RUNTIME} ones lack the descriptors needed by Spine. The offending files are
+     * listed in {@code build/reports/protoc/optimize-for/<task name>.txt}. With
+     * the {@link OptimizeForPolicy#fail fail} policy, they also fail the build.
+     *
+     * @param optimizeFor
+     *         the policy on the files which are not optimized for speed
+     */
+    public void setOptimizeFor(OptimizeForPolicy optimizeFor) {
+        this.optimizeFor = checkNotNull(optimizeFor);
+        protobufGenerator.checkOptimizeFor(optimizeFor);
     }
 
     private void updateModelCompilerTask(TaskName taskName) {
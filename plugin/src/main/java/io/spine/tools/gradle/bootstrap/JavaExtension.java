@@ -35,6 +35,8 @@ import io.spine.tools.gradle.GeneratedSourceRoot;
 import io.spine.tools.gradle.compiler.Extension;
 import io.spine.tools.gradle.config.ArtifactSnapshot;
 import io.spine.tools.gradle.config.SpineDependency;
+import io.spine.tools.gradle.dispatch.DispatchIndexGenerator;
+import io.spine.tools.gradle.model.ModelGenerator;
 import io.spine.tools.gradle.project.SourceSuperset;
 import org.gradle.api.Action;
 import org.gradle.api.Project;
@@ -63,13 +65,21 @@ public final class JavaExtension extends CodeGenExtension {
     private final SourceSuperset directoryStructure;
     private final JavaCodegenExtension codegen;
     private final ArtifactSnapshot artifacts;
+    private final ModelGenerator modelGenerator;
+    private final DispatchIndexGenerator dispatchIndexGenerator;
 
     private JavaExtension(Builder builder) {
         super(builder);
         this.project = builder.project();
         this.directoryStructure = builder.sourceSuperset();
         this.artifacts = builder.artifactSnapshot();
-        this.codegen = JavaCodegenExtension.of(project, dependant(), artifacts);
+        this.modelGenerator = new ModelGenerator(project);
+        this.dispatchIndexGenerator = new DispatchIndexGenerator(project);
+        this.codegen = JavaCodegenExtension.of(project,
+                                               protobufGenerator(),
+                                               modelGenerator,
+                                               dependant(),
+                                               artifacts);
     }
 
     @Override
@@ -79,9 +89,13 @@ public final class JavaExtension extends CodeGenExtension {
         dependOn(testUtilTime().ofVersion(artifacts.spineTimeVersion()), testImplementation);
         pluginTarget().applyModelCompiler();
         pluginTarget().apply(SpinePluginScripts.modelCompilerConfig());
+        RejectionGeneration.configure(project);
         addSourceSets();
         excludeProtobufLite();
         pluginTarget().withIdeaPlugin(this::configureIdea);
+        protobufGenerator().checkOptimizeFor(codegen.getOptimizeFor());
+        codegen.updateModelSources();
+        codegen.updateModelResources();
     }
 
     private void configureIdea(IdeaModel idea) {
@@ -141,10 +155,16 @@ public final class JavaExtension extends CodeGenExtension {
      *
      * <p>Adds the {@code io.spine:spine-server} and {@code io.spine:spine-testutil-server}
      * dependencies to the project.
+     *
+     * <p>Also, packs the index of the message handlers declared in the project into
+     * the resources, so that the runtime does not have to discover them reflectively, and
+     * generates the column extractors of the entity states.
      */
     public void server() {
         dependOnCore(SpineDependency.server(), implementation);
         dependOnCore(SpineDependency.testUtilServer(), testImplementation);
+        dispatchIndexGenerator.enable();
+        codegen.enableColumnExtractors();
     }
 
     /**
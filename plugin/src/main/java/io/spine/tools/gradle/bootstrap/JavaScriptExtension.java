@@ -27,26 +27,203 @@
 package io.spine.tools.gradle.bootstrap;
 
 import com.google.errorprone.annotations.OverridingMethodsMustInvokeSuper;
+import io.spine.tools.gradle.js.JsCompaction;
+import io.spine.tools.gradle.js.JsProfile;
+import io.spine.tools.gradle.model.JsImportStyle;
+import io.spine.tools.gradle.model.ModelGenerator;
 import io.spine.tools.gradle.protoc.ProtocPlugin;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.js;
 
 /**
  * An extension which configures JavaScript code generation.
+ *
+ * <p>In Gradle build script may be used as follows:
+ * <pre>
+ *     {@code
+ *     spine {
+ *         enableJavaScript {
+ *             importStyle = 'es6'
+ *             lazyIndex = true
+ *             profile = 'production'
+ *             minify = true
+ *         }
+ *     }
+ *     }
+ * </pre>
  */
-final class JavaScriptExtension extends CodeGenExtension {
+public final class JavaScriptExtension extends CodeGenExtension {
+
+    private static final JsImportStyle DEFAULT_IMPORT_STYLE = JsImportStyle.commonjs;
+
+    private final ModelGenerator modelGenerator;
+    private final JsCompaction compaction;
 
-    private static final String IMPORT_STYLE_OPTION = "import_style=commonjs";
+    private boolean enabled = false;
+    private boolean lazyIndex = false;
+    private JsImportStyle importStyle = DEFAULT_IMPORT_STYLE;
+    private JsProfile profile = JsProfile.development;
+    private boolean minify = false;
 
     private JavaScriptExtension(Builder builder) {
         super(builder);
+        this.modelGenerator = new ModelGenerator(builder.project());
+        this.compaction = new JsCompaction(builder.project());
     }
 
     @OverridingMethodsMustInvokeSuper
     @Override
     void enableGeneration() {
         super.enableGeneration();
+        enabled = true;
+        applyImportStyle();
         pluginTarget().applyProtoJsPlugin();
+        modelGenerator.enableJsParsers();
+        updateLazyIndex();
+        updateCompaction();
+    }
+
+    @OverridingMethodsMustInvokeSuper
+    @Override
+    void disableGeneration() {
+        super.disableGeneration();
+        enabled = false;
+        modelGenerator.disableJsParsers();
+        updateLazyIndex();
+        updateCompaction();
+    }
+
+    public JsImportStyle getImportStyle() {
+        return importStyle;
+    }
+
+    /**
+     * Sets the style of the generated JS modules.
+     *
+     * <p>The style applies both to the code generated by {@code protoc} and to the parsers and
+     * the registries generated by Spine. The {@link JsImportStyle#es6 es6} modules may be
+     * tree-shaken by the bundlers.
+     *
+     * <p>Defaults to {@link JsImportStyle#commonjs commonjs}.
+     *
+     * @param importStyle
+     *         the style of the modules
+     */
+    public void setImportStyle(JsImportStyle importStyle) {
+        this.importStyle = checkNotNull(importStyle);
+        if (enabled) {
+            applyImportStyle();
+        }
+    }
+
+    /**
+     * Sets the style of the generated JS modules by its name.
+     *
+     * @param importStyle
+     *         the name of the style, e.g. {@code es6}
+     * @see #setImportStyle(JsImportStyle)
+     */
+    public void setImportStyle(String importStyle) {
+        setImportStyle(enumValue(JsImportStyle.class, importStyle));
+    }
+
+    public JsProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the profile of the generated JS code.
+     *
+     * <p>In the {@link JsProfile#production production} profile, the compact copy of
+     * the generated code without the comments is produced into {@code build/spine/js/compact} by
+     * a cacheable task which runs as a part of {@code assemble}. The code in the
+     * {@code generated} directory stays as is.
+     *
+     * <p>Defaults to {@link JsProfile#development development}.
+     *
+     * @param profile
+     *         the profile of the code
+     */
+    public void setProfile(JsProfile profile) {
+        this.profile = checkNotNull(profile);
+        updateCompaction();
+    }
+
+    /**
+     * Sets the profile of the generated JS code by its name.
+     *
+     * @param profile
+     *         the name of the profile, e.g. {@code production}
+     * @see #setProfile(JsProfile)
+     */
+    public void setProfile(String profile) {
+        setProfile(enumValue(JsProfile.class, profile));
+    }
+
+    public boolean getMinify() {
+        return minify;
+    }
+
+    /**
+     * Enables or disables minification of the compact JS code.
+     *
+     * <p>If enabled, the indentation and the trailing whitespace are removed along with
+     * the comments. Takes effect only in the {@linkplain #setProfile(JsProfile) production}
+     * profile.
+     *
+     * <p>Disabled by default.
+     *
+     * @param minify
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setMinify(boolean minify) {
+        this.minify = minify;
+        updateCompaction();
+    }
+
+    private void updateCompaction() {
+        if (enabled && profile == JsProfile.production) {
+            compaction.enable(minify);
+        } else {
+            compaction.disable();
+        }
+    }
+
+    private void applyImportStyle() {
+        protobufGenerator().enableBuiltIn(ProtocPlugin.withOption(js, importStyle.protocOption()));
+        modelGenerator.useJsImportStyle(importStyle);
+    }
+
+    public boolean getLazyIndex() {
+        return lazyIndex;
+    }
+
+    /**
+     * Enables or disables generation of the lazy registries of the messages.
+     *
+     * <p>If enabled, {@code lazy_index.js} and {@code lazy_index/<package>.js} files are generated
+     * along with {@code index.js}. The lazy registries load the message modules on demand, so that
+     * the bundlers may split them into separate chunks.
+     *
+     * <p>Takes effect only while the JavaScript code generation is enabled.
+     *
+     * <p>Disabled by default.
+     *
+     * @param lazyIndex
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setLazyIndex(boolean lazyIndex) {
+        this.lazyIndex = lazyIndex;
+        updateLazyIndex();
+    }
+
+    private void updateLazyIndex() {
+        if (enabled && lazyIndex) {
+            modelGenerator.enableJsLazyIndex();
+        } else {
+            modelGenerator.disableJsLazyIndex();
+        }
     }
 
     static Builder newBuilder() {
@@ -59,7 +236,7 @@ final class JavaScriptExtension extends CodeGenExtension {
          * Prevents direct instantiation.
          */
         private Builder() {
-            super(ProtocPlugin.withOption(js, IMPORT_STYLE_OPTION));
+            super(ProtocPlugin.withOption(js, DEFAULT_IMPORT_STYLE.protocOption()));
         }
 
         @Override
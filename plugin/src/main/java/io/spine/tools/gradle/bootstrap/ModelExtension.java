@@ -28,21 +28,43 @@ package io.spine.tools.gradle.bootstrap;
 
 import com.google.errorprone.annotations.OverridingMethodsMustInvokeSuper;
 import io.spine.tools.gradle.GeneratedSourceRoot;
+import io.spine.tools.gradle.model.ModelGenerator;
+import io.spine.tools.gradle.model.ShapeBudget;
 import io.spine.tools.gradle.project.SourceSuperset;
 import org.gradle.api.Project;
 
 /**
  * An extension which declares a module as one that contains the Protobuf model definition.
+ *
+ * <p>Also, configures the report of the shapes of the messages, which checks the messages against
+ * the size and structure budgets. In Gradle build script may be used as follows:
+ * <pre>
+ *     {@code
+ *     spine {
+ *         assembleModel {
+ *             shapeReport = true
+ *             maxMessageSize = 16384
+ *             maxNestingDepth = 6
+ *             failOnShapeViolations = true
+ *         }
+ *     }
+ *     }
+ * </pre>
  */
 public final class ModelExtension extends CodeGenExtension {
 
     private final Project project;
     private final SourceSuperset sourceSuperset;
+    private final ModelGenerator modelGenerator;
+    private final ShapeBudget.Builder shapeBudget = ShapeBudget.newBuilder();
+
+    private boolean shapeReport = false;
 
     private ModelExtension(Builder builder) {
         super(builder);
         this.project = builder.project();
         this.sourceSuperset = builder.sourceSuperset;
+        this.modelGenerator = new ModelGenerator(project);
     }
 
     @OverridingMethodsMustInvokeSuper
@@ -52,6 +74,87 @@ public final class ModelExtension extends CodeGenExtension {
         addSourceSets();
     }
 
+    public boolean getShapeReport() {
+        return shapeReport;
+    }
+
+    /**
+     * Enables or disables the report of the shapes of the messages.
+     *
+     * <p>Disabled by default.
+     *
+     * <p>If enabled, the {@code reportMessageShapes} task runs as a part of the {@code check}
+     * task. For each message, the task reports the serialized size range, the nesting depth,
+     * the repeated and map fields, and the number of the {@code Any}, {@code string} and
+     * {@code bytes} fields. The report is written into {@code build/reports/spine}. The messages
+     * which exceed the budget are reported as warnings, or fail the build if
+     * {@link #setFailOnShapeViolations(boolean) failOnShapeViolations} is set.
+     *
+     * @param shapeReport
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setShapeReport(boolean shapeReport) {
+        this.shapeReport = shapeReport;
+        if (shapeReport) {
+            modelGenerator.enableShapeReport(shapeBudget::build);
+        } else {
+            modelGenerator.disableShapeReport();
+        }
+    }
+
+    /**
+     * Sets the maximum estimated serialized size of a message in bytes.
+     *
+     * <p>Defaults to 64 KiB.
+     */
+    public void setMaxMessageSize(long maxMessageSize) {
+        shapeBudget.setMaxSize(maxMessageSize);
+    }
+
+    /**
+     * Sets the maximum nesting depth of a message.
+     *
+     * <p>Defaults to 8.
+     */
+    public void setMaxNestingDepth(int maxNestingDepth) {
+        shapeBudget.setMaxDepth(maxNestingDepth);
+    }
+
+    /**
+     * Sets the maximum number of the repeated and map fields of a message.
+     *
+     * <p>Defaults to 4.
+     */
+    public void setMaxUnboundedFields(int maxUnboundedFields) {
+        shapeBudget.setMaxUnboundedFields(maxUnboundedFields);
+    }
+
+    /**
+     * Sets the maximum number of the {@code Any}, {@code string} and {@code bytes} fields of
+     * a message.
+     *
+     * <p>Defaults to 16.
+     */
+    public void setMaxAnyAndStringFields(int maxAnyAndStringFields) {
+        shapeBudget.setMaxAnyAndStringFields(maxAnyAndStringFields);
+    }
+
+    /**
+     * Sets if the build should fail if a message exceeds the shape budget.
+     *
+     * <p>By default, the violations are reported as warnings.
+     */
+    public void setFailOnShapeViolations(boolean failOnShapeViolations) {
+        shapeBudget.setFailOnViolations(failOnShapeViolations);
+    }
+
+    /**
+     * Obtains the current shape budget.
+     */
+    public ShapeBudget getShapeBudget() {
+        return shapeBudget.build();
+    }
+
     /**
      * Adds a Gradle source set that contains the Protobuf files that define the model.
      */
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.bootstrap;
+
+import io.spine.tools.gradle.config.ArtifactSnapshot;
+import io.spine.tools.gradle.protoc.DescriptorForm;
+import io.spine.tools.gradle.protoc.ProtobufGenerator;
+import io.spine.tools.gradle.protoc.ProtocExecutable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A Gradle extension nested in {@link Extension spine} which configures the Protobuf compiler.
+ *
+ * <p>In Gradle build script may be used as follows:
+ * <pre>
+ *     {@code
+ *     spine {
+ *         protoc {
+ *             incremental = true
+ *             isolatedPlugins = true
+ *             sharded = true
+ *             shards = 8
+ *             sharedExtraction = true
+ *             selectiveExtraction = true
+ *             descriptorForm = 'stripped'
+ *         }
+ *     }
+ *     }
+ * </pre>
+ */
+public final class ProtocExtension {
+
+    private final ProtobufGenerator protobufGenerator;
+    private final ProtocExecutable protoc;
+
+    private boolean incremental = false;
+    private boolean isolatedPlugins = false;
+    private boolean sharded = false;
+    private boolean sharedExtraction = false;
+    private boolean selectiveExtraction = false;
+    private DescriptorForm descriptorForm = DescriptorForm.full;
+    private int shards = Runtime.getRuntime()
+                                .availableProcessors();
+
+    private ProtocExtension(ProtobufGenerator protobufGenerator, ProtocExecutable protoc) {
+        this.protobufGenerator = protobufGenerator;
+        this.protoc = protoc;
+    }
+
+    /**
+     * Creates a new instance of the extension.
+     */
+    static ProtocExtension of(ProtobufGenerator protobufGenerator, ArtifactSnapshot artifacts) {
+        checkNotNull(protobufGenerator);
+        checkNotNull(artifacts);
+        ProtocExecutable protoc = ProtocExecutable.fromArtifact(artifacts.protoc());
+        return new ProtocExtension(protobufGenerator, protoc);
+    }
+
+    public boolean getIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Enables or disables incremental compilation of the Protobuf sources.
+     *
+     * <p>If enabled, only the files changed since the previous build and the files which import
+     * them are passed to {@code protoc}.
+     *
+     * <p>Disabled by default.
+     *
+     * @param incremental
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        if (incremental) {
+            protobufGenerator.enableIncrementalCompilation();
+        } else {
+            protobufGenerator.disableIncrementalCompilation();
+        }
+    }
+
+    public boolean getIsolatedPlugins() {
+        return isolatedPlugins;
+    }
+
+    /**
+     * Enables or disables isolation of the outputs of the {@code protoc} built-ins and plugins.
+     *
+     * <p>If enabled, turning a built-in or a plugin on or off, e.g. with
+     * {@link JavaCodegenExtension#setGrpc(boolean)}, only touches the output of that built-in or
+     * plugin. The rest of the generated code stays as is and is not recompiled.
+     *
+     * <p>Disabled by default.
+     *
+     * @param isolatedPlugins
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setIsolatedPlugins(boolean isolatedPlugins) {
+        this.isolatedPlugins = isolatedPlugins;
+        if (isolatedPlugins) {
+            protobufGenerator.enablePluginIsolation();
+        } else {
+            protobufGenerator.disablePluginIsolation();
+        }
+    }
+
+    public boolean getSharded() {
+        return sharded;
+    }
+
+    /**
+     * Enables or disables sharded compilation of the Protobuf sources.
+     *
+     * <p>If enabled, the source set is split into {@linkplain #setShards(int) several shards}
+     * of similar size, and the shards are compiled in parallel.
+     *
+     * <p>Disabled by default.
+     *
+     * @param sharded
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setSharded(boolean sharded) {
+        this.sharded = sharded;
+        updateSharding();
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Sets the maximum number of shards to split a source set into.
+     *
+     * <p>Defaults to the number of the available processors.
+     *
+     * <p>Takes effect only if the sharded compilation is {@linkplain #setSharded(boolean) enabled}.
+     */
+    public void setShards(int shards) {
+        checkArgument(shards > 0, "Shard count must be positive, but was %s.", shards);
+        this.shards = shards;
+        updateSharding();
+    }
+
+    private void updateSharding() {
+        if (sharded) {
+            protobufGenerator.enableSharding(shards, protoc);
+        } else {
+            protobufGenerator.disableSharding();
+        }
+    }
+
+    public boolean getSharedExtraction() {
+        return sharedExtraction;
+    }
+
+    /**
+     * Enables or disables the shared extraction of the Protobuf files from the dependencies.
+     *
+     * <p>If enabled, the {@code .proto} files of the dependency JARs are extracted by a cacheable
+     * Gradle artifact transform. Each JAR is unpacked once per machine, and the result is shared
+     * by all the projects and builds. The transitive dependencies of the project become available
+     * for imports, while the code is still generated only for the {@code protobuf} configuration.
+     *
+     * <p>Disabled by default.
+     *
+     * @param sharedExtraction
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setSharedExtraction(boolean sharedExtraction) {
+        this.sharedExtraction = sharedExtraction;
+        if (sharedExtraction) {
+            protobufGenerator.enableSharedExtraction();
+        } else {
+            protobufGenerator.disableSharedExtraction();
+        }
+    }
+
+    public boolean getSelectiveExtraction() {
+        return selectiveExtraction;
+    }
+
+    /**
+     * Enables or disables the selective extraction of the Protobuf files from the dependencies.
+     *
+     * <p>If enabled, only the {@code .proto} files transitively imported by the project sources
+     * are put on the {@code protoc} include path. The files are extracted in the same way as with
+     * the {@linkplain #setSharedExtraction(boolean) shared extraction}, so the dependencies do not
+     * have to be listed by hand.
+     *
+     * <p>Disabled by default.
+     *
+     * @param selectiveExtraction
+     *         {@code true} to enable, {@code false} to disable
+     */
+    public void setSelectiveExtraction(boolean selectiveExtraction) {
+        this.selectiveExtraction = selectiveExtraction;
+        if (selectiveExtraction) {
+            protobufGenerator.enableSelectiveExtraction();
+        } else {
+            protobufGenerator.disableSelectiveExtraction();
+        }
+    }
+
+    public DescriptorForm getDescriptorForm() {
+        return descriptorForm;
+    }
+
+    /**
+     * Sets the form in which the descriptor sets are packed into the resources.
+     *
+     * <p>Defaults to {@link DescriptorForm#full full}. The {@link DescriptorForm#stripped stripped}
+     * form omits the comments of the Protobuf sources, and the {@link DescriptorForm#compact
+     * compact} one also omits the descriptors of the imported files. Both make the JAR smaller
+     * and the descriptors faster to parse at startup. The descriptor set generated by
+     * {@code protoc} keeps the comments for the documentation tools.
+     *
+     * @param descriptorForm
+     *         the form of the shipped descriptor sets
+     */
+    public void setDescriptorForm(DescriptorForm descriptorForm) {
+        this.descriptorForm = checkNotNull(descriptorForm);
+        protobufGenerator.shipDescriptors(descriptorForm);
+    }
+
+    /**
+     * Sets the form in which the descriptor sets are packed into the resources by its name.
+     *
+     * @param descriptorForm
+     *         the name of the form, e.g. {@code stripped}
+     * @see #setDescriptorForm(DescriptorForm)
+     */
+    public void setDescriptorForm(String descriptorForm) {
+        setDescriptorForm(CodeGenExtension.enumValue(DescriptorForm.class, descriptorForm));
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.bootstrap;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.logging.Logging;
+import io.spine.tools.gradle.TaskName;
+import io.spine.tools.gradle.compiler.Extension;
+import io.spine.tools.gradle.protoc.ProtoImportGraph;
+import io.spine.tools.gradle.protoc.ProtoSources;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.PathSensitivity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.spine.tools.gradle.ModelCompilerTaskName.generateRejections;
+import static io.spine.tools.gradle.ModelCompilerTaskName.generateTestRejections;
+import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
+import static io.spine.tools.gradle.ProtobufTaskName.generateTestProto;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.util.function.Function.identity;
+
+/**
+ * The declared inputs and outputs of the rejection generation tasks of the Model Compiler.
+ *
+ * <p>The Model Compiler does not declare what its {@code generateRejections} and
+ * {@code generateTestRejections} tasks read and write. Thus, Gradle runs them on every build,
+ * and each run rewrites all the rejection classes.
+ *
+ * <p>The inputs of a task are the {@code *rejections.proto} files of its source set along with
+ * the files they import, directly or transitively. The paths of the inputs are relative to
+ * the Protobuf source directory, so that the outputs may be taken from the build cache in
+ * another location of the project. The Model Compiler reads the rejection types from
+ * the descriptor set generated by the {@code generateProto} task of the source set. Only
+ * the descriptors of the rejection files and of their imports are an input, so that changes in
+ * the other Protobuf files do not make the task out of date. The indentation of the generated
+ * code configured in the {@code modelCompiler} extension is an input too. The output is the root
+ * directory of the generated rejections. Thus, the task is skipped if none of the inputs
+ * changed.
+ *
+ * <p>The outputs are cached only if no other task of the build writes into the same directory.
+ * Otherwise, the cached entry would hold the files of the other tasks as well.
+ */
+final class RejectionGeneration implements Logging {
+
+    private static final String REJECTIONS_FILE_SUFFIX = "rejections.proto";
+    private static final String TASK_EXTRA_PROPERTY = "spineRejectionGenerationConfigured";
+
+    private final Project project;
+    private final TaskName protoTask;
+    private final File protoDir;
+    private final File outputDir;
+
+    private RejectionGeneration(Project project,
+                                TaskName protoTask,
+                                File protoDir,
+                                File outputDir) {
+        this.project = project;
+        this.protoTask = protoTask;
+        this.protoDir = protoDir;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Declares the inputs and outputs of the rejection generation tasks of the given project.
+     *
+     * <p>The tasks should be already created by the Model Compiler. If a task is not found,
+     * it is skipped.
+     */
+    static void configure(Project project) {
+        checkNotNull(project);
+        configure(project, generateRejections, generateProto,
+                  Extension.getMainProtoSrcDir(project),
+                  Extension.getTargetGenRejectionsRootDir(project));
+        configure(project, generateTestRejections, generateTestProto,
+                  Extension.getTestProtoSrcDir(project),
+                  Extension.getTargetTestGenRejectionsRootDir(project));
+    }
+
+    private static void configure(Project project,
+                                  TaskName taskName,
+                                  TaskName protoTask,
+                                  String protoDir,
+                                  String outputDir) {
+        Task task = project.getTasks()
+                           .findByName(taskName.name());
+        if (task == null) {
+            return;
+        }
+        ExtraPropertiesExtension extra = task.getExtensions()
+                                             .getExtraProperties();
+        if (extra.has(TASK_EXTRA_PROPERTY)) {
+            return;
+        }
+        extra.set(TASK_EXTRA_PROPERTY, true);
+        RejectionGeneration generation = new RejectionGeneration(project,
+                                                                 protoTask,
+                                                                 project.file(protoDir),
+                                                                 project.file(outputDir));
+        generation.declareInputsAndOutputs(task);
+    }
+
+    private void declareInputsAndOutputs(Task task) {
+        task.getInputs()
+            .files(project.provider(this::rejectionSources))
+            .withPropertyName("rejectionSources")
+            .withPathSensitivity(PathSensitivity.RELATIVE);
+        task.getInputs()
+            .property("rejectionDescriptors", project.provider(this::rejectionDescriptorsHash));
+        task.getInputs()
+            .property("indent",
+                      project.provider(() -> String.valueOf(Extension.getIndent(project))));
+        task.getOutputs()
+            .dir(outputDir)
+            .withPropertyName("rejections");
+        // Gradle cannot track the implementation of a lambda, so the spec is a class.
+        task.getOutputs()
+            .cacheIf("No other task writes into the rejections directory.",
+                     new NoOverlappingOutputs(outputDir));
+        project.afterEvaluate(p -> {
+            if (project.getTasks().findByName(protoTask.name()) != null) {
+                task.dependsOn(protoTask.name());
+            }
+        });
+    }
+
+    /**
+     * Obtains the rejection files along with the files they import.
+     */
+    private FileCollection rejectionSources() {
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(project.fileTree(protoDir));
+        ImmutableSet<String> rejections = rejectionPaths(sources);
+        if (rejections.isEmpty()) {
+            return project.files();
+        }
+        ImmutableSet<String> paths = ProtoImportGraph.of(sources)
+                                                     .withDependencies(rejections);
+        return project.fileTree(protoDir)
+                      .matching(files -> files.include(paths));
+    }
+
+    private static ImmutableSet<String> rejectionPaths(ImmutableMap<String, File> sources) {
+        return sources.keySet()
+                      .stream()
+                      .filter(path -> path.endsWith(REJECTIONS_FILE_SUFFIX))
+                      .collect(toImmutableSet());
+    }
+
+    /**
+     * Hashes the descriptors of the rejection files and of the files they import, directly or
+     * transitively, as found in the descriptor set generated by the {@code generateProto} task.
+     *
+     * <p>Returns an empty string if there is no descriptor set.
+     */
+    private String rejectionDescriptorsHash() {
+        File descriptorSetFile = descriptorSetFile();
+        if (descriptorSetFile == null || !descriptorSetFile.exists()) {
+            return "";
+        }
+        ImmutableMap<String, FileDescriptorProto> files =
+                readDescriptorSet(descriptorSetFile)
+                        .getFileList()
+                        .stream()
+                        .collect(toImmutableMap(FileDescriptorProto::getName, identity(),
+                                                (first, second) -> first));
+        ImmutableSet<String> rejections =
+                rejectionPaths(ProtoSources.byImportPath(project.fileTree(protoDir)));
+        SortedMap<String, FileDescriptorProto> hashed = new TreeMap<>();
+        Deque<String> queue = new ArrayDeque<>(rejections);
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            FileDescriptorProto file = files.get(name);
+            if (file != null && !hashed.containsKey(name)) {
+                hashed.put(name, file);
+                queue.addAll(file.getDependencyList());
+            }
+        }
+        Hasher hasher = Hashing.sha256()
+                               .newHasher();
+        for (Map.Entry<String, FileDescriptorProto> file : hashed.entrySet()) {
+            hasher.putBytes(file.getValue()
+                                .toByteArray());
+        }
+        return hasher.hash()
+                     .toString();
+    }
+
+    /**
+     * Obtains the descriptor set generated by the {@code generateProto} task of the source set,
+     * or {@code null} if the task does not generate one.
+     */
+    private @Nullable File descriptorSetFile() {
+        Task task = project.getTasks()
+                           .findByName(protoTask.name());
+        if (task instanceof GenerateProtoTask) {
+            GenerateProtoTask generateTask = (GenerateProtoTask) task;
+            if (generateTask.getGenerateDescriptorSet()) {
+                return project.file(generateTask.getDescriptorPath());
+            }
+        }
+        return null;
+    }
+
+    private static FileDescriptorSet readDescriptorSet(File file) {
+        try {
+            return FileDescriptorSet.parseFrom(Files.toByteArray(file));
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Checks that no other task of the build declares an output inside or around the given
+     * directory.
+     */
+    private static final class NoOverlappingOutputs implements Spec<Task> {
+
+        private final Path outputDir;
+
+        private NoOverlappingOutputs(File outputDir) {
+            this.outputDir = outputDir.toPath()
+                                      .toAbsolutePath()
+                                      .normalize();
+        }
+
+        @Override
+        public boolean isSatisfiedBy(Task task) {
+            for (Task other : task.getProject()
+                                  .getGradle()
+                                  .getTaskGraph()
+                                  .getAllTasks()) {
+                if (other != task && overlaps(other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean overlaps(Task other) {
+            for (File output : other.getOutputs()
+                                    .getFiles()) {
+                Path path = output.toPath()
+                                  .toAbsolutePath()
+                                  .normalize();
+                if (path.startsWith(outputDir) || outputDir.startsWith(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
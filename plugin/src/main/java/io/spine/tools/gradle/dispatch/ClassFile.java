@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.dispatch;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+/**
+ * A minimal reader of a Java class file.
+ *
+ * <p>Reads only the name of the class and the names, descriptors and runtime-visible annotations
+ * of its methods. The rest of the class file is skipped. The classes are not loaded, so neither
+ * the compile classpath nor the static initialization is involved.
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html">
+ *         The class file format</a>
+ */
+final class ClassFile {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String ANNOTATIONS_ATTRIBUTE = "RuntimeVisibleAnnotations";
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final String className;
+    private final ImmutableList<Method> methods;
+
+    private ClassFile(String className, ImmutableList<Method> methods) {
+        this.className = className;
+        this.methods = methods;
+    }
+
+    /**
+     * Parses the given class file.
+     *
+     * @throws IllegalArgumentException
+     *         if the bytes do not represent a class file
+     */
+    static ClassFile read(byte[] bytes) {
+        checkNotNull(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed class file.", e);
+        }
+    }
+
+    private static ClassFile read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        Object[] constants = readConstants(in);
+        in.readUnsignedShort();
+        int thisClass = in.readUnsignedShort();
+        String className = binaryName((String) constants[(Integer) constants[thisClass]]);
+        in.readUnsignedShort();
+        skip(in, in.readUnsignedShort() * 2);
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            skip(in, 6);
+            skipAttributes(in);
+        }
+        ImmutableList.Builder<Method> methods = ImmutableList.builder();
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            int access = in.readUnsignedShort();
+            String name = (String) constants[in.readUnsignedShort()];
+            String descriptor = (String) constants[in.readUnsignedShort()];
+            ImmutableSet<String> annotations = readAnnotations(in, constants);
+            if ((access & (ACC_BRIDGE | ACC_SYNTHETIC)) == 0) {
+                methods.add(new Method(name, descriptor, annotations));
+            }
+        }
+        return new ClassFile(className, methods.build());
+    }
+
+    /**
+     * Reads the constant pool.
+     *
+     * <p>Only the UTF-8 strings and the class references are retained. The latter are stored as
+     * the indices of the UTF-8 names.
+     */
+    private static Object[] readConstants(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Object[] constants = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    constants[i] = in.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                    constants[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skip(in, 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skip(in, 3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELD_REF:
+                case CONSTANT_METHOD_REF:
+                case CONSTANT_INTERFACE_METHOD_REF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    skip(in, 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    skip(in, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException(format("Unknown constant tag %d.", tag));
+            }
+        }
+        return constants;
+    }
+
+    private static ImmutableSet<String> readAnnotations(DataInputStream in, Object[] constants)
+            throws IOException {
+        ImmutableSet.Builder<String> annotations = ImmutableSet.builder();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = (String) constants[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (!ANNOTATIONS_ATTRIBUTE.equals(name)) {
+                skip(in, length);
+                continue;
+            }
+            int annotationCount = in.readUnsignedShort();
+            for (int j = 0; j < annotationCount; j++) {
+                annotations.add((String) constants[in.readUnsignedShort()]);
+                skipElementValuePairs(in);
+            }
+        }
+        return annotations.build();
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            skip(in, 2);
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        char tag = (char) in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                skip(in, 4);
+                break;
+            case '@':
+                skip(in, 2);
+                skipElementValuePairs(in);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                skip(in, 2);
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 2);
+            skip(in, in.readInt());
+        }
+    }
+
+    private static void skip(DataInputStream in, int count) throws IOException {
+        if (in.skipBytes(count) != count) {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * Converts an internal name of a class, e.g. {@code io/spine/Foo$Bar}, into the binary name,
+     * e.g. {@code io.spine.Foo$Bar}.
+     */
+    static String binaryName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * Obtains the binary name of the class.
+     */
+    String className() {
+        return className;
+    }
+
+    /**
+     * Obtains the methods declared in the class, except for the bridge and synthetic ones.
+     */
+    ImmutableList<Method> methods() {
+        return methods;
+    }
+
+    /**
+     * A method declared in a class file.
+     */
+    static final class Method {
+
+        private final String name;
+        private final String descriptor;
+        private final ImmutableSet<String> annotations;
+
+        private Method(String name, String descriptor, ImmutableSet<String> annotations) {
+            this.name = name;
+            this.descriptor = descriptor;
+            this.annotations = annotations;
+        }
+
+        /**
+         * Obtains the name of the method.
+         */
+        String name() {
+            return name;
+        }
+
+        /**
+         * Obtains the descriptor of the method, e.g. {@code (Lio/spine/Foo;)V}.
+         */
+        String descriptor() {
+            return descriptor;
+        }
+
+        /**
+         * Obtains the descriptors of the runtime-visible annotations of the method,
+         * e.g. {@code Lio/spine/core/Subscribe;}.
+         */
+        ImmutableSet<String> annotations() {
+            return annotations;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.dispatch;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newBufferedWriter;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An index of the message handler methods declared in the compiled classes of a module.
+ *
+ * <p>The runtime may use the index to build the dispatch tables of the entities and other
+ * message handlers without scanning their methods reflectively. Each handler is resolved into
+ * a {@code MethodHandle} by its declaring class, name and descriptor, e.g. with
+ * {@code MethodHandles.Lookup.findVirtual(cls, name, MethodType.fromMethodDescriptorString(..))}.
+ *
+ * <p>The index is written into the module resources under {@value #RESOURCE_PATH}. It is a text
+ * file with a line per handler, sorted, with the following tab-separated columns:
+ * <pre>
+ *     kind  declaring class  message class  method name  method descriptor
+ * </pre>
+ *
+ * <p>The kind is the name of the {@link HandlerKind}. The class names are binary names.
+ * The message class is the type of the first parameter of the method.
+ */
+final class DispatchIndex {
+
+    static final String RESOURCE_PATH = "META-INF/spine/dispatch.idx";
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    private static final String SEPARATOR = "\t";
+
+    private final ImmutableSortedSet<String> entries;
+
+    private DispatchIndex(ImmutableSortedSet<String> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Creates the index of the classes in the given directories.
+     *
+     * @param classesDirs
+     *         the root directories of the compiled classes; non-existing ones are ignored
+     */
+    static DispatchIndex of(Iterable<File> classesDirs) {
+        checkNotNull(classesDirs);
+        ImmutableSortedSet.Builder<String> entries = ImmutableSortedSet.naturalOrder();
+        for (File dir : classesDirs) {
+            if (dir.isDirectory()) {
+                for (Path classFile : classFiles(dir.toPath())) {
+                    index(readClass(classFile), entries);
+                }
+            }
+        }
+        return new DispatchIndex(entries.build());
+    }
+
+    /**
+     * Creates the index of the given classes.
+     */
+    static DispatchIndex ofClasses(Iterable<ClassFile> classes) {
+        checkNotNull(classes);
+        ImmutableSortedSet.Builder<String> entries = ImmutableSortedSet.naturalOrder();
+        classes.forEach(cls -> index(cls, entries));
+        return new DispatchIndex(entries.build());
+    }
+
+    private static ImmutableList<Path> classFiles(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return ImmutableList.copyOf(
+                    files.filter(file -> file.toString().endsWith(CLASS_FILE_EXTENSION))
+                         .sorted()
+                         .collect(toList())
+            );
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private static ClassFile readClass(Path file) {
+        try {
+            return ClassFile.read(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private static void index(ClassFile cls, ImmutableSortedSet.Builder<String> entries) {
+        for (ClassFile.Method method : cls.methods()) {
+            Optional<String> messageClass = firstParameter(method.descriptor());
+            if (!messageClass.isPresent()) {
+                continue;
+            }
+            for (String annotation : method.annotations()) {
+                Optional<HandlerKind> kind = HandlerKind.byAnnotation(annotation);
+                if (kind.isPresent()) {
+                    String entry = String.join(SEPARATOR,
+                                               kind.get().name(), cls.className(),
+                                               messageClass.get(), method.name(),
+                                               method.descriptor());
+                    entries.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtains the binary name of the class of the first parameter of the method with
+     * the given descriptor.
+     *
+     * @return the class name or {@code Optional.empty()} if the method has no parameters or
+     *         the first parameter is of a primitive or an array type
+     */
+    private static Optional<String> firstParameter(String descriptor) {
+        if (descriptor.length() < 2 || descriptor.charAt(1) != 'L') {
+            return Optional.empty();
+        }
+        int end = descriptor.indexOf(';');
+        return Optional.of(ClassFile.binaryName(descriptor.substring(2, end)));
+    }
+
+    /**
+     * Obtains the lines of the index.
+     */
+    ImmutableSortedSet<String> entries() {
+        return entries;
+    }
+
+    /**
+     * Writes the index into the {@value #RESOURCE_PATH} file under the given resource root.
+     */
+    void writeTo(File resourceRoot) {
+        checkNotNull(resourceRoot);
+        File file = new File(resourceRoot, RESOURCE_PATH);
+        try {
+            Files.createDirectories(file.getParentFile()
+                                        .toPath());
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        try (Writer writer = newBufferedWriter(file.toPath(), UTF_8)) {
+            for (String entry : entries) {
+                writer.write(entry);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+}
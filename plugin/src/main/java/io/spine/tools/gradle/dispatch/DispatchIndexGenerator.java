@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.dispatch;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskContainer;
+
+import java.io.File;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.gradle.dispatch.DispatchTaskName.generateDispatchIndex;
+import static org.gradle.api.tasks.SourceSet.MAIN_SOURCE_SET_NAME;
+
+/**
+ * A facade for the generation of the {@linkplain DispatchIndex dispatch index} of a project.
+ *
+ * <p>The index is generated from the compiled classes of the main source set and is packed into
+ * the main resources.
+ */
+public final class DispatchIndexGenerator {
+
+    private static final String OUTPUT_DIR = "spine/dispatch";
+    private static final String JAVA_PLUGIN = "java";
+
+    private final Project project;
+
+    public DispatchIndexGenerator(Project project) {
+        this.project = checkNotNull(project);
+    }
+
+    /**
+     * Enables generation of the dispatch index.
+     *
+     * <p>If the generation is already enabled, does nothing.
+     */
+    public void enable() {
+        project.getPluginManager()
+               .withPlugin(JAVA_PLUGIN, plugin -> createTask());
+    }
+
+    private void createTask() {
+        TaskContainer tasks = project.getTasks();
+        if (tasks.findByName(generateDispatchIndex.name()) != null) {
+            return;
+        }
+        SourceSet main = project.getConvention()
+                                .getPlugin(JavaPluginConvention.class)
+                                .getSourceSets()
+                                .getByName(MAIN_SOURCE_SET_NAME);
+        FileCollection classesDirs = main.getOutput()
+                                         .getClassesDirs();
+        File outputDir = project.getBuildDir()
+                                .toPath()
+                                .resolve(OUTPUT_DIR)
+                                .resolve(generateDispatchIndex.name())
+                                .toFile();
+        Task task = tasks.create(generateDispatchIndex.name());
+        task.setDescription("Generates the index of the message handlers of the main scope.");
+        task.getInputs()
+            .files(classesDirs)
+            .withPropertyName("classes");
+        task.getOutputs()
+            .dir(outputDir);
+        task.doLast(t -> {
+            project.delete(outputDir);
+            DispatchIndex.of(classesDirs)
+                         .writeTo(outputDir);
+        });
+        main.getOutput()
+            .dir(ImmutableMap.of("builtBy", task), outputDir);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.dispatch;
+
+import java.util.Optional;
+
+/**
+ * A kind of a message handler method recognized by the Spine runtime.
+ */
+enum HandlerKind {
+
+    /**
+     * A command handler annotated with {@code io.spine.server.command.Assign}.
+     */
+    ASSIGN("io.spine.server.command.Assign"),
+
+    /**
+     * A commander method annotated with {@code io.spine.server.command.Command}.
+     */
+    COMMAND("io.spine.server.command.Command"),
+
+    /**
+     * An event reactor annotated with {@code io.spine.server.event.React}.
+     */
+    REACT("io.spine.server.event.React"),
+
+    /**
+     * A subscriber annotated with {@code io.spine.core.Subscribe}.
+     */
+    SUBSCRIBE("io.spine.core.Subscribe"),
+
+    /**
+     * An event applier of an aggregate annotated with {@code io.spine.server.aggregate.Apply}.
+     */
+    APPLY("io.spine.server.aggregate.Apply");
+
+    private final String annotationDescriptor;
+
+    HandlerKind(String annotationClass) {
+        this.annotationDescriptor = 'L' + annotationClass.replace('.', '/') + ';';
+    }
+
+    /**
+     * Finds the kind of a handler by the descriptor of its annotation.
+     */
+    static Optional<HandlerKind> byAnnotation(String descriptor) {
+        for (HandlerKind kind : values()) {
+            if (kind.annotationDescriptor.equals(descriptor)) {
+                return Optional.of(kind);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.js;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+
+/**
+ * A task which produces the compact copy of the generated JavaScript code.
+ *
+ * <p>The {@code .js} files are {@linkplain JsCompactor compacted}, the other files are copied as
+ * is. The directory structure is preserved.
+ *
+ * <p>The task is cacheable, so the compact code is taken from the build cache if the generated
+ * code has not changed.
+ */
+@CacheableTask
+public abstract class CompactJs extends DefaultTask {
+
+    private static final String JS_EXTENSION = ".js";
+
+    /**
+     * The directory with the generated JS code.
+     */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getSourceDir();
+
+    /**
+     * Tells if the code should be minified in addition to stripping the comments.
+     */
+    @Input
+    public abstract Property<Boolean> getMinify();
+
+    /**
+     * The directory to write the compact code into.
+     */
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    @TaskAction
+    void compact() {
+        File outputDir = getOutputDir().getAsFile()
+                                       .get();
+        getProject().delete(outputDir);
+        boolean minify = getMinify().get();
+        Path output = outputDir.toPath();
+        FileTree files = getSourceDir().getAsFileTree();
+        files.visit(details -> {
+            if (details.isDirectory()) {
+                return;
+            }
+            Path target = output.resolve(details.getRelativePath()
+                                                .getPathString());
+            compact(details.getFile().toPath(), target, minify);
+        });
+    }
+
+    private static void compact(Path source, Path target, boolean minify) {
+        try {
+            createDirectories(target.getParent());
+            if (source.getFileName()
+                      .toString()
+                      .endsWith(JS_EXTENSION)) {
+                String code = new String(readAllBytes(source), UTF_8);
+                write(target, JsCompactor.compact(code, minify)
+                                         .getBytes(UTF_8));
+            } else {
+                copy(source, target);
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+}
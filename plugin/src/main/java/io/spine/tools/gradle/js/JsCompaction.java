@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.js;
+
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.tools.gradle.TaskName;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.TaskContainer;
+
+import java.io.File;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.gradle.BaseTaskName.assemble;
+import static io.spine.tools.gradle.ProtoJsTaskName.generateJsonParsers;
+import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
+import static io.spine.tools.gradle.js.JsTaskName.compactJs;
+import static io.spine.tools.gradle.model.ModelTaskName.generateJsLazyIndex;
+import static io.spine.tools.gradle.model.ModelTaskName.generateJsParsers;
+import static io.spine.util.Exceptions.newIllegalStateException;
+
+/**
+ * A facade for the compaction of the generated JavaScript code of a project.
+ *
+ * <p>The compact code is written into {@code build/spine/js/compact} by the {@link CompactJs}
+ * task, which runs as a part of the {@code assemble} task. The code generated by {@code protoc}
+ * stays as is.
+ */
+public final class JsCompaction {
+
+    private static final String OUTPUT_DIR = "spine/js/compact";
+    private static final String JS_BUILT_IN = "js";
+
+    private final Project project;
+
+    public JsCompaction(Project project) {
+        this.project = checkNotNull(project);
+    }
+
+    /**
+     * Enables the compaction of the generated JS code.
+     *
+     * <p>If the compaction is already enabled, updates the minification setting.
+     *
+     * @param minify
+     *         if {@code true}, the code is minified in addition to stripping the comments
+     */
+    public void enable(boolean minify) {
+        CompactJs task = (CompactJs) project.getTasks()
+                                            .findByName(compactJs.name());
+        if (task == null) {
+            task = createTask();
+        }
+        task.setEnabled(true);
+        task.getMinify()
+            .set(minify);
+    }
+
+    /**
+     * Disables the compaction of the generated JS code.
+     */
+    public void disable() {
+        Task task = project.getTasks()
+                           .findByName(compactJs.name());
+        if (task != null) {
+            task.setEnabled(false);
+        }
+    }
+
+    private CompactJs createTask() {
+        TaskContainer tasks = project.getTasks();
+        CompactJs task = tasks.create(compactJs.name(), CompactJs.class);
+        task.setDescription("Produces the compact copy of the generated JavaScript code.");
+        Provider<Directory> sourceDir = project.getLayout()
+                                               .dir(project.provider(this::jsOutputDir));
+        task.getSourceDir()
+            .set(sourceDir);
+        task.getOutputDir()
+            .set(project.getLayout()
+                        .getBuildDirectory()
+                        .dir(OUTPUT_DIR));
+        project.afterEvaluate(p -> {
+            dependOnIfPresent(task, generateProto);
+            dependOnIfPresent(task, generateJsonParsers);
+            dependOnIfPresent(task, generateJsParsers);
+            dependOnIfPresent(task, generateJsLazyIndex);
+            Task assembleTask = tasks.findByName(assemble.name());
+            if (assembleTask != null) {
+                assembleTask.dependsOn(task);
+            }
+        });
+        return task;
+    }
+
+    private void dependOnIfPresent(Task task, TaskName name) {
+        Task other = project.getTasks()
+                            .findByName(name.name());
+        if (other != null) {
+            task.dependsOn(other);
+        }
+    }
+
+    private File jsOutputDir() {
+        Task task = project.getTasks()
+                           .findByName(generateProto.name());
+        if (!(task instanceof GenerateProtoTask)) {
+            throw newIllegalStateException(
+                    "Project `%s` does not generate code from Protobuf.", project.getPath()
+            );
+        }
+        String baseDir = ((GenerateProtoTask) task).getOutputBaseDir();
+        return new File(baseDir, JS_BUILT_IN);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.js;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A compactor of JavaScript sources.
+ *
+ * <p>Removes the comments and the blank lines. If the minification is requested, also removes
+ * the indentation and the trailing whitespace.
+ *
+ * <p>The line breaks between the statements are kept, so that the automatic semicolon insertion
+ * works the same way as in the original code. The string, template, and regular expression
+ * literals are copied as is.
+ */
+final class JsCompactor {
+
+    private static final String REGEX_PRECEDERS = "(,=:[!&|?{};+-*%<>~^";
+
+    private final String source;
+    private final boolean minify;
+    private final StringBuilder result;
+    private int position = 0;
+    private char lastSignificant = 0;
+    private boolean lineHasCode = false;
+
+    private JsCompactor(String source, boolean minify) {
+        this.source = source;
+        this.minify = minify;
+        this.result = new StringBuilder(source.length());
+    }
+
+    /**
+     * Compacts the given JS source.
+     *
+     * @param source
+     *         the JS source code
+     * @param minify
+     *         if {@code true}, the indentation and the trailing whitespace are removed as well
+     */
+    static String compact(String source, boolean minify) {
+        checkNotNull(source);
+        JsCompactor compactor = new JsCompactor(source, minify);
+        compactor.run();
+        return compactor.result.toString();
+    }
+
+    private void run() {
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            char next = peek(1);
+            if (c == '/' && next == '/') {
+                skipLineComment();
+            } else if (c == '/' && next == '*') {
+                skipBlockComment();
+            } else if (c == '\'' || c == '"' || c == '`') {
+                copyLiteral(c);
+            } else if (c == '/' && startsRegex()) {
+                copyRegex();
+            } else if (c == '\n') {
+                newLine();
+                position++;
+            } else if (c == '\r') {
+                position++;
+            } else if (Character.isWhitespace(c)) {
+                whitespace(c);
+                position++;
+            } else {
+                emit(c);
+                position++;
+            }
+        }
+        newLine();
+    }
+
+    private char peek(int offset) {
+        int index = position + offset;
+        return index < source.length() ? source.charAt(index) : 0;
+    }
+
+    private boolean startsRegex() {
+        return lastSignificant == 0 || REGEX_PRECEDERS.indexOf(lastSignificant) >= 0;
+    }
+
+    private void skipLineComment() {
+        while (position < source.length() && source.charAt(position) != '\n') {
+            position++;
+        }
+    }
+
+    private void skipBlockComment() {
+        int end = source.indexOf("*/", position + 2);
+        int stop = end < 0 ? source.length() : end + 2;
+        boolean multiline = source.substring(position, stop)
+                                  .indexOf('\n') >= 0;
+        position = stop;
+        if (multiline) {
+            newLine();
+        } else if (lineHasCode && !endsWithWhitespace()) {
+            whitespace(' ');
+        }
+    }
+
+    private void copyLiteral(char quote) {
+        int start = position;
+        position++;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            position++;
+            if (c == '\\') {
+                position++;
+            } else if (c == quote) {
+                break;
+            }
+        }
+        position = Math.min(position, source.length());
+        result.append(source, start, position);
+        lastSignificant = quote;
+        lineHasCode = true;
+    }
+
+    private void copyRegex() {
+        int start = position;
+        position++;
+        boolean inClass = false;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\n') {
+                break;
+            }
+            position++;
+            if (c == '\\') {
+                position++;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                break;
+            }
+        }
+        position = Math.min(position, source.length());
+        result.append(source, start, position);
+        lastSignificant = '/';
+        lineHasCode = true;
+    }
+
+    private void newLine() {
+        trimTrailing();
+        if (lineHasCode) {
+            result.append('\n');
+            lineHasCode = false;
+        }
+    }
+
+    private void whitespace(char c) {
+        if (!lineHasCode) {
+            if (!minify) {
+                result.append(c);
+            }
+            return;
+        }
+        if (!minify || result.charAt(result.length() - 1) != ' ') {
+            result.append(minify ? ' ' : c);
+        }
+    }
+
+    private boolean endsWithWhitespace() {
+        int length = result.length();
+        return length > 0 && Character.isWhitespace(result.charAt(length - 1));
+    }
+
+    private void emit(char c) {
+        result.append(c);
+        lastSignificant = c;
+        lineHasCode = true;
+    }
+
+    private void trimTrailing() {
+        int length = result.length();
+        while (length > 0 && (result.charAt(length - 1) == ' '
+                || result.charAt(length - 1) == '\t')) {
+            length--;
+        }
+        result.setLength(length);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import io.spine.logging.Logging;
+import io.spine.option.OptionsProto;
+
+import java.io.File;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Generated classes which extract the column values of the entity states.
+ *
+ * <p>The storage reads the columns of an entity on every write. Without the extractors,
+ * the values are obtained reflectively. An extractor reads the values through the generated
+ * getters of the state instead, and the primitive values are not boxed.
+ *
+ * <p>For each message with fields marked with the {@code (column)} option, a class called
+ * {@code <State>Columns} is generated in the Java package of the state. For a nested state, the
+ * names of the enclosing types are prepended, e.g. {@code OuterStateColumns}. The class has
+ * the following API:
+ * <pre>
+ *     {@code
+ *     // The names of the columns, in the order of declaration.
+ *     public static List<String> names()
+ *
+ *     // The value of a column with the given name, boxed if it is primitive.
+ *     public static Object value(State state, String column)
+ *
+ *     // The value of the `my_column` column.
+ *     public static <type> getMyColumn(State state)
+ *     }
+ * </pre>
+ *
+ * <p>Repeated fields cannot be columns and are skipped.
+ */
+final class ColumnExtractors implements Logging {
+
+    private static final String HEADER = "// Generated by the Spine Bootstrap plugin. Do not edit.";
+    private static final String CLASS_NAME_SUFFIX = "Columns";
+
+    private final ModelDescriptors model;
+    private final ImmutableList<Extractor> extractors;
+
+    private ColumnExtractors(ModelDescriptors model) {
+        this.model = model;
+        ImmutableList.Builder<Extractor> extractors = ImmutableList.builder();
+        for (ModelType type : model.ownTypes()) {
+            if (type.isMessage()) {
+                extractorOf(type).ifPresent(extractors::add);
+            }
+        }
+        this.extractors = extractors.build();
+    }
+
+    /**
+     * Creates the extractors for the own entity states of the given model.
+     */
+    static ColumnExtractors of(ModelDescriptors model) {
+        checkNotNull(model);
+        return new ColumnExtractors(model);
+    }
+
+    private Optional<Extractor> extractorOf(ModelType state) {
+        ImmutableList.Builder<Column> columns = ImmutableList.builder();
+        for (FieldDescriptorProto field : state.message().getFieldList()) {
+            if (!field.getOptions().getExtension(OptionsProto.column)) {
+                continue;
+            }
+            if (field.getLabel() == LABEL_REPEATED) {
+                _warn().log("Repeated field `%s.%s` cannot be a column.",
+                            state.protoName(), field.getName());
+                continue;
+            }
+            javaType(field).ifPresent(type -> columns.add(new Column(field.getName(), type)));
+        }
+        ImmutableList<Column> result = columns.build();
+        return result.isEmpty()
+               ? Optional.empty()
+               : Optional.of(new Extractor(state, result));
+    }
+
+    private Optional<String> javaType(FieldDescriptorProto field) {
+        switch (field.getType()) {
+            case TYPE_INT32:
+            case TYPE_SINT32:
+            case TYPE_SFIXED32:
+            case TYPE_UINT32:
+            case TYPE_FIXED32:
+                return Optional.of("int");
+            case TYPE_INT64:
+            case TYPE_SINT64:
+            case TYPE_SFIXED64:
+            case TYPE_UINT64:
+            case TYPE_FIXED64:
+                return Optional.of("long");
+            case TYPE_FLOAT:
+                return Optional.of("float");
+            case TYPE_DOUBLE:
+                return Optional.of("double");
+            case TYPE_BOOL:
+                return Optional.of("boolean");
+            case TYPE_STRING:
+                return Optional.of("java.lang.String");
+            case TYPE_BYTES:
+                return Optional.of("com.google.protobuf.ByteString");
+            default:
+                Optional<String> type = model.find(field.getTypeName())
+                                             .map(ModelType::canonicalClassName);
+                if (!type.isPresent()) {
+                    _warn().log("Cannot resolve type `%s` of column `%s`.",
+                                field.getTypeName(), field.getName());
+                }
+                return type;
+        }
+    }
+
+    /**
+     * Obtains the fully-qualified names of the generated classes.
+     */
+    ImmutableList<String> classNames() {
+        return extractors.stream()
+                         .map(Extractor::className)
+                         .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Writes the source code of the extractors into the given source root.
+     */
+    void writeTo(File sourceRoot) {
+        checkNotNull(sourceRoot);
+        for (Extractor extractor : extractors) {
+            SourceLines.writeJava(sourceRoot, extractor.className(), extractor.source());
+        }
+    }
+
+    /**
+     * Composes the source code of the extractor of the given state.
+     *
+     * @param stateProtoName
+     *         the fully-qualified Protobuf name of the state
+     * @return the source code or {@code Optional.empty()} if the state has no columns
+     */
+    Optional<String> source(String stateProtoName) {
+        return extractors.stream()
+                         .filter(extractor -> extractor.state.protoName().equals(stateProtoName))
+                         .findFirst()
+                         .map(Extractor::source);
+    }
+
+    /**
+     * A column of an entity state.
+     */
+    private static final class Column {
+
+        private final String name;
+        private final String javaType;
+
+        private Column(String name, String javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        private String getter() {
+            return "get" + JavaNames.camelCase(name);
+        }
+    }
+
+    /**
+     * The extractor of the columns of an entity state.
+     */
+    private static final class Extractor {
+
+        private final ModelType state;
+        private final ImmutableList<Column> columns;
+
+        private Extractor(ModelType state, ImmutableList<Column> columns) {
+            this.state = state;
+            this.columns = columns;
+        }
+
+        private String javaPackage() {
+            return JavaNames.javaPackage(state.file());
+        }
+
+        private String simpleName() {
+            String protoName = state.protoName();
+            String packagePrefix = state.file().getPackage();
+            String path = packagePrefix.isEmpty()
+                          ? protoName
+                          : protoName.substring(packagePrefix.length() + 1);
+            return path.replace(".", "") + CLASS_NAME_SUFFIX;
+        }
+
+        private String className() {
+            return javaPackage().isEmpty()
+                   ? simpleName()
+                   : javaPackage() + '.' + simpleName();
+        }
+
+        private String source() {
+            String stateClass = state.canonicalClassName();
+            String simpleName = simpleName();
+            String names = columns.stream()
+                                  .map(column -> '"' + column.name + '"')
+                                  .collect(joining(", "));
+            SourceLines code = SourceLines.java();
+            code.add(HEADER);
+            if (!javaPackage().isEmpty()) {
+                code.add("package %s;", javaPackage())
+                    .add("");
+            }
+            code.add("import java.util.Arrays;")
+                .add("import java.util.Collections;")
+                .add("import java.util.List;")
+                .add("")
+                .add("/**")
+                .add(" * Extracts the columns of {@code %s} without reflection.", stateClass)
+                .add(" */")
+                .open("public final class %s {", simpleName)
+                .add("")
+                .add("private static final List<String> NAMES =")
+                .add("        Collections.unmodifiableList(Arrays.asList(%s));", names)
+                .add("")
+                .open("private %s() {", simpleName)
+                .close("}")
+                .add("")
+                .add("/**")
+                .add(" * Obtains the names of the columns.")
+                .add(" */")
+                .open("public static List<String> names() {")
+                .add("return NAMES;")
+                .close("}")
+                .add("")
+                .add("/**")
+                .add(" * Obtains the value of the column with the given name.")
+                .add(" */")
+                .open("public static Object value(%s state, String column) {", stateClass)
+                .open("switch (column) {");
+            for (Column column : columns) {
+                code.open("case \"%s\":", column.name)
+                    .add("return %s(state);", column.getter())
+                    .outdent();
+            }
+            code.open("default:")
+                .add("throw new IllegalArgumentException(\"Unknown column: \" + column);")
+                .outdent()
+                .close("}")
+                .close("}");
+            for (Column column : columns) {
+                code.add("")
+                    .add("/**")
+                    .add(" * Obtains the value of the {@code %s} column.", column.name)
+                    .add(" */")
+                    .open("public static %s %s(%s state) {",
+                          column.javaType, column.getter(), stateClass)
+                    .add("return state.%s();", column.getter())
+                    .close("}");
+            }
+            code.close("}");
+            return code.toString();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+
+/**
+ * Calculates the names of the Java classes generated by {@code protoc} for the Protobuf types.
+ *
+ * <p>Follows the naming rules of the {@code java} built-in of {@code protoc}. Also, obtains
+ * the JSON names of the fields and the map entry types, which the generators of the model
+ * share.
+ */
+final class JavaNames {
+
+    private static final String PROTO_EXTENSION = ".proto";
+    private static final String OUTER_CLASS_SUFFIX = "OuterClass";
+    private static final char NESTED_CLASS_SEPARATOR = '$';
+
+    /**
+     * The field names which {@code protoc} mangles, so that the accessors do not clash with
+     * the methods of {@code Object} and of the generated messages.
+     */
+    private static final ImmutableSet<String> FORBIDDEN_FIELD_NAMES =
+            ImmutableSet.of("class", "cached_size", "serialized_size");
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private JavaNames() {
+    }
+
+    /**
+     * Obtains the Java package of the classes generated for the given file.
+     */
+    static String javaPackage(FileDescriptorProto file) {
+        checkNotNull(file);
+        FileOptions options = file.getOptions();
+        return options.hasJavaPackage()
+               ? options.getJavaPackage()
+               : file.getPackage();
+    }
+
+    /**
+     * Obtains the simple name of the outer class generated for the given file.
+     */
+    static String outerClassName(FileDescriptorProto file) {
+        checkNotNull(file);
+        FileOptions options = file.getOptions();
+        if (options.hasJavaOuterClassname()) {
+            return options.getJavaOuterClassname();
+        }
+        String fileName = file.getName();
+        String baseName = fileName.substring(fileName.lastIndexOf('/') + 1);
+        if (baseName.endsWith(PROTO_EXTENSION)) {
+            baseName = baseName.substring(0, baseName.length() - PROTO_EXTENSION.length());
+        }
+        String name = camelCase(baseName);
+        return conflictsWithType(file, name)
+               ? name + OUTER_CLASS_SUFFIX
+               : name;
+    }
+
+    /**
+     * Obtains the binary name of the class generated for a type declared in the given file.
+     *
+     * <p>The binary name can be passed to {@link Class#forName(String)}.
+     *
+     * @param file
+     *         the file which declares the type
+     * @param path
+     *         the simple names of the type and the types it is nested into, starting with
+     *         the top-level one
+     */
+    static String binaryName(FileDescriptorProto file, List<String> path) {
+        checkNotNull(file);
+        checkArgument(!path.isEmpty(), "Type path must not be empty.");
+        StringBuilder result = new StringBuilder();
+        String javaPackage = javaPackage(file);
+        if (!javaPackage.isEmpty()) {
+            result.append(javaPackage)
+                  .append('.');
+        }
+        if (!file.getOptions().getJavaMultipleFiles()) {
+            result.append(outerClassName(file))
+                  .append(NESTED_CLASS_SEPARATOR);
+        }
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) {
+                result.append(NESTED_CLASS_SEPARATOR);
+            }
+            result.append(path.get(i));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Obtains the canonical name of a class by its binary name.
+     */
+    static String canonicalName(String binaryName) {
+        return binaryName.replace(NESTED_CLASS_SEPARATOR, '.');
+    }
+
+    /**
+     * Obtains the longest common parent of the given Java packages.
+     */
+    static String commonPackage(String first, String second) {
+        String[] firstParts = first.split("\\.");
+        String[] secondParts = second.split("\\.");
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < Math.min(firstParts.length, secondParts.length); i++) {
+            if (!firstParts[i].equals(secondParts[i])) {
+                break;
+            }
+            if (i > 0) {
+                result.append('.');
+            }
+            result.append(firstParts[i]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Obtains the simple class name of the given type prefixed with the enclosing type names.
+     */
+    static String nestedName(ModelType type) {
+        String protoPackage = type.file().getPackage();
+        String path = protoPackage.isEmpty()
+                      ? type.protoName()
+                      : type.protoName().substring(protoPackage.length() + 1);
+        return path.replace(".", "");
+    }
+
+    /**
+     * Obtains the fully-qualified name of a class in the given Java package.
+     */
+    static String qualified(String javaPackage, String simpleName) {
+        return javaPackage.isEmpty()
+               ? simpleName
+               : javaPackage + '.' + simpleName;
+    }
+
+    /**
+     * Obtains the JSON name of the given field.
+     */
+    static String jsonName(FieldDescriptorProto field) {
+        if (field.hasJsonName()) {
+            return field.getJsonName();
+        }
+        String camel = camelCase(field.getName());
+        return camel.isEmpty()
+               ? camel
+               : Character.toLowerCase(camel.charAt(0)) + camel.substring(1);
+    }
+
+    /**
+     * Finds the map entry type of the given field.
+     *
+     * <p>The map entry types are nested into the message which declares the map field.
+     */
+    static Optional<DescriptorProto> mapEntry(ModelType type, FieldDescriptorProto field) {
+        if (field.getLabel() != LABEL_REPEATED || field.getType() != Type.TYPE_MESSAGE) {
+            return Optional.empty();
+        }
+        String typeName = field.getTypeName();
+        String simpleName = typeName.substring(typeName.lastIndexOf('.') + 1);
+        return type.message()
+                   .getNestedTypeList()
+                   .stream()
+                   .filter(nested -> nested.getName().equals(simpleName)
+                           && nested.getOptions().getMapEntry())
+                   .findFirst();
+    }
+
+    /**
+     * Converts the given Protobuf name into the {@code CamelCase}.
+     *
+     * <p>Digits and non-alphanumeric characters start a new word. Non-alphanumeric characters
+     * are dropped.
+     */
+    static String camelCase(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        boolean capitalizeNext = true;
+        for (char c : name.toCharArray()) {
+            if (c >= 'a' && c <= 'z') {
+                result.append(capitalizeNext ? Character.toUpperCase(c) : c);
+                capitalizeNext = false;
+            } else if (c >= 'A' && c <= 'Z') {
+                result.append(c);
+                capitalizeNext = false;
+            } else if (c >= '0' && c <= '9') {
+                result.append(c);
+                capitalizeNext = true;
+            } else {
+                capitalizeNext = true;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Obtains the name of the given field as used in the accessors generated by {@code protoc}.
+     *
+     * <p>For example, the getter of the field {@code ride_id} is {@code getRideId()}, and
+     * the getter of the field {@code class} is {@code getClass_()}. A group field is named after
+     * its type.
+     */
+    static String accessorName(FieldDescriptorProto field) {
+        String name = field.getType() == Type.TYPE_GROUP
+                      ? field.getTypeName()
+                             .substring(field.getTypeName().lastIndexOf('.') + 1)
+                      : field.getName();
+        String camelCase = camelCase(name);
+        return FORBIDDEN_FIELD_NAMES.contains(name)
+               ? camelCase + '_'
+               : camelCase;
+    }
+
+    /**
+     * Converts the given name into a Java identifier in the {@code CamelCase}.
+     *
+     * <p>If the converted name starts with a digit or is empty, prefixes it with an underscore.
+     */
+    static String identifier(String name) {
+        String camelCase = camelCase(name);
+        return camelCase.isEmpty() || Character.isDigit(camelCase.charAt(0))
+               ? '_' + camelCase
+               : camelCase;
+    }
+
+    private static boolean conflictsWithType(FileDescriptorProto file, String name) {
+        for (EnumDescriptorProto enumType : file.getEnumTypeList()) {
+            if (enumType.getName().equals(name)) {
+                return true;
+            }
+        }
+        boolean serviceConflict = file.getServiceList()
+                                      .stream()
+                                      .anyMatch(service -> service.getName().equals(name));
+        return serviceConflict || conflictsWithMessage(file.getMessageTypeList(), name);
+    }
+
+    private static boolean conflictsWithMessage(List<DescriptorProto> messages, String name) {
+        for (DescriptorProto message : messages) {
+            if (message.getName().equals(name)) {
+                return true;
+            }
+            boolean nestedEnumConflict =
+                    message.getEnumTypeList()
+                           .stream()
+                           .anyMatch(enumType -> enumType.getName().equals(name));
+            if (nestedEnumConflict || conflictsWithMessage(message.getNestedTypeList(), name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the given name to the given path of nested types.
+     */
+    static ImmutableList<String> nested(List<String> path, String name) {
+        return ImmutableList.<String>builder()
+                .addAll(path)
+                .add(name)
+                .build();
+    }
+}
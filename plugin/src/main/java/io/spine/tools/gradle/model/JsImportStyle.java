@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+/**
+ * The style of the modules of the generated JavaScript code.
+ *
+ * <p>The names of the enum instances are the values of the {@code import_style} option of
+ * the {@code protoc} JS built-in.
+ */
+public enum JsImportStyle {
+
+    /**
+     * CommonJS modules, loaded with {@code require()}.
+     */
+    commonjs {
+        @Override
+        void importAll(SourceLines code, String alias, String path) {
+            code.add("var %s = require('%s');", alias, path);
+        }
+
+        @Override
+        void importDefault(SourceLines code, String alias, String path) {
+            code.add("var %sModule = require('%s');", alias, path)
+                .add("var %s = %sModule.default || %sModule;", alias, alias, alias);
+        }
+
+        @Override
+        void importForEffect(SourceLines code, String path) {
+            code.add("require('%s');", path);
+        }
+
+        @Override
+        void reexport(SourceLines code, String alias, String path) {
+            code.add("module.exports = %s;", alias);
+        }
+
+        @Override
+        String exportDefault() {
+            return "module.exports = ";
+        }
+    },
+
+    /**
+     * ECMAScript modules, loaded with {@code import}.
+     *
+     * <p>The modules may be tree-shaken by the bundlers. The support of the style in
+     * the {@code protoc} JS built-in is experimental.
+     */
+    es6 {
+        @Override
+        void importAll(SourceLines code, String alias, String path) {
+            code.add("import * as %s from '%s';", alias, path);
+        }
+
+        @Override
+        void importDefault(SourceLines code, String alias, String path) {
+            code.add("import %s from '%s';", alias, path);
+        }
+
+        @Override
+        void importForEffect(SourceLines code, String path) {
+            code.add("import '%s';", path);
+        }
+
+        @Override
+        void reexport(SourceLines code, String alias, String path) {
+            code.add("export * from '%s';", path);
+        }
+
+        @Override
+        String exportDefault() {
+            return "export default ";
+        }
+    };
+
+    private static final String OPTION_PREFIX = "import_style=";
+
+    /**
+     * Obtains the option of the {@code protoc} JS built-in which selects this style.
+     */
+    public String protocOption() {
+        return OPTION_PREFIX + name();
+    }
+
+    /**
+     * Adds the import of the namespace of the module at the given path.
+     */
+    abstract void importAll(SourceLines code, String alias, String path);
+
+    /**
+     * Adds the import of the default export of the module at the given path.
+     */
+    abstract void importDefault(SourceLines code, String alias, String path);
+
+    /**
+     * Adds the import of the module at the given path which is loaded only for its side effects.
+     */
+    abstract void importForEffect(SourceLines code, String path);
+
+    /**
+     * Adds the export of all the exports of the module imported under the given alias.
+     */
+    abstract void reexport(SourceLines code, String alias, String path);
+
+    /**
+     * Obtains the beginning of the statement which exports the default value of the module.
+     */
+    abstract String exportDefault();
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Multimaps.index;
+
+/**
+ * A generated lazy registry of the JavaScript messages of a module.
+ *
+ * <p>The {@code index.js} generated by the Spine Protobuf JS plugin loads all the generated
+ * modules at once. The lazy registry maps each type URL to a loader which imports the module of
+ * the type on demand through the dynamic {@code import()}. The bundlers put such modules into
+ * separate chunks, so that only the types which are actually used are loaded.
+ *
+ * <p>The registry of all the own messages is written into {@code lazy_index.js}. The registry of
+ * the messages of a single bounded context, i.e. of a Protobuf package, is written into
+ * {@code lazy_index/<package>.js}. Each registry has the following API:
+ * <pre>
+ *     {@code
+ *     // The type URLs of the registered messages.
+ *     typeUrls(): string[]
+ *
+ *     // Checks if the message with the given type URL is registered.
+ *     has(typeUrl: string): boolean
+ *
+ *     // Loads the class of the message with the given type URL.
+ *     load(typeUrl: string): Promise<Function>
+ *     }
+ * </pre>
+ *
+ * <p>The messages are loaded through the {@linkplain JsParsers parsers} modules, so that
+ * the specialized parsers are installed along with the message classes.
+ */
+final class JsLazyIndex {
+
+    /**
+     * The name of the registry of all the own messages.
+     */
+    static final String ROOT_FILE = "lazy_index.js";
+
+    private static final String CONTEXTS_DIR = "lazy_index";
+    private static final String NO_PACKAGE = "default";
+
+    private final ImmutableList<ModelType> types;
+    private final JsImportStyle style;
+
+    private JsLazyIndex(ImmutableList<ModelType> types, JsImportStyle style) {
+        this.types = types;
+        this.style = style;
+    }
+
+    /**
+     * Creates the registry of the messages declared in the own files of the given model.
+     *
+     * @param model
+     *         the model of the project
+     * @param style
+     *         the style of the generated modules
+     */
+    static JsLazyIndex of(ModelDescriptors model, JsImportStyle style) {
+        checkNotNull(model);
+        checkNotNull(style);
+        ImmutableList<ModelType> types = model.ownTypes()
+                                              .stream()
+                                              .filter(ModelType::isMessage)
+                                              .collect(toImmutableList());
+        return new JsLazyIndex(types, style);
+    }
+
+    /**
+     * Obtains the paths of the generated files relative to the root of the generated JS code.
+     */
+    ImmutableList<String> fileNames() {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        names.add(ROOT_FILE);
+        byContext().keySet()
+                   .forEach(context -> names.add(contextFile(context)));
+        return names.build();
+    }
+
+    /**
+     * Writes the registries into the given root of the generated JS code.
+     */
+    void writeTo(File jsRoot) {
+        checkNotNull(jsRoot);
+        if (types.isEmpty()) {
+            return;
+        }
+        Path root = jsRoot.toPath();
+        JsParsers.writeIfChanged(root.resolve(ROOT_FILE), rootSource());
+        byContext().asMap()
+                   .forEach((context, contextTypes) -> {
+                       String file = contextFile(context);
+                       JsParsers.writeIfChanged(root.resolve(file),
+                                                source(file, ImmutableList.copyOf(contextTypes)));
+                   });
+    }
+
+    private ImmutableListMultimap<String, ModelType> byContext() {
+        return index(types, type -> {
+            String protoPackage = type.file()
+                                      .getPackage();
+            return protoPackage.isEmpty() ? NO_PACKAGE : protoPackage;
+        });
+    }
+
+    /**
+     * Obtains the path of the registry of the given bounded context.
+     */
+    static String contextFile(String protoPackage) {
+        return CONTEXTS_DIR + '/' + protoPackage + ".js";
+    }
+
+    /**
+     * Composes the source code of the registry of all the own messages.
+     */
+    String rootSource() {
+        return source(ROOT_FILE, types);
+    }
+
+    /**
+     * Composes the source code of the registry of the messages of the given bounded context.
+     */
+    String contextSource(String protoPackage) {
+        checkNotNull(protoPackage);
+        return source(contextFile(protoPackage), byContext().get(protoPackage));
+    }
+
+    private String source(String file, List<ModelType> types) {
+        SourceLines code = SourceLines.javaScript()
+                .add("// Generated by the Spine Bootstrap plugin. Do not edit.")
+                .add("'use strict';")
+                .add("")
+                .open("function exportsOf(module) {")
+                .add("return module.default || module;")
+                .close("}")
+                .add("")
+                .open("var loaders = {");
+        for (ModelType type : types) {
+            String parsers = JsParsers.parsersFile(type.file()
+                                                       .getName());
+            String module = JsParsers.relativePath(file, parsers);
+            code.open("'%s': function () {", type.typeUrl())
+                .open("return import('%s').then(function (module) {", module)
+                .add("return exportsOf(module).%s;", JsParsers.exportedName(type))
+                .close("});")
+                .close("},");
+        }
+        code.close("};")
+            .add("")
+            .open(style.exportDefault() + '{')
+            .open("typeUrls: function () {")
+            .add("return Object.keys(loaders);")
+            .close("},")
+            .open("has: function (typeUrl) {")
+            .add("return Object.prototype.hasOwnProperty.call(loaders, typeUrl);")
+            .close("},")
+            .open("load: function (typeUrl) {")
+            .open("if (!this.has(typeUrl)) {")
+            .add("return Promise.reject(new Error('Unknown type URL: `' + typeUrl + '`.'));")
+            .close("}")
+            .add("return loaders[typeUrl]();")
+            .close("}")
+            .close("};");
+        return code.toString();
+    }
+}
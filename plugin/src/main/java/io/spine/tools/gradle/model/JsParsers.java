@@ -0,0 +1,436 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+
+/**
+ * Generated JavaScript parsers of the messages of a module.
+ *
+ * <p>The Spine JS client parses the JSON received from the server through a generic parser which
+ * walks the message descriptors. For each own file {@code path/foo.proto}, this class generates
+ * {@code path/foo_parsers.js} with a specialized {@code fromObject(object)} function per message.
+ * The function reads the fields of the parsed JSON object by their names and sets them through
+ * the generated setters, without descriptor lookups and intermediate objects. Both the JSON and
+ * the original field names are accepted.
+ *
+ * <p>The functions are installed as the static {@code fromObject} methods of the message classes.
+ * If the message has a {@code Parser} generated by the Spine Protobuf JS plugin, its
+ * {@code fromObject} method is replaced with the specialized one. The messages of
+ * the dependencies are parsed through the {@code TypeParsers} of the Spine JS client.
+ *
+ * <p>The message classes and the enum values are referenced through the imported modules rather
+ * than through the global {@code proto} namespace, so that the parsers work with any
+ * {@linkplain JsImportStyle import style}.
+ *
+ * <p>A parsers file exports the same module as the {@code protoc}-generated file, so that
+ * the messages may be loaded through it. The {@code fast_parsers.js} file in the root of
+ * the generated code loads all the parsers. It should be loaded once before the messages are
+ * parsed.
+ */
+final class JsParsers {
+
+    /**
+     * The name of the file which loads all the parsers.
+     */
+    static final String ROOT_FILE = "fast_parsers.js";
+
+    private static final String PARSERS_SUFFIX = "_parsers.js";
+    private static final String MESSAGES_SUFFIX = "_pb.js";
+    private static final String PROTO_EXTENSION = ".proto";
+    private static final String TYPE_PARSERS_MODULE = "spine-web/client/parser/type-parsers";
+    private static final String MESSAGES = "messages";
+
+    private final ModelDescriptors model;
+    private final JsImportStyle style;
+    private final ImmutableList<FileDescriptorProto> files;
+    private final Set<String> fileNames;
+
+    private JsParsers(ModelDescriptors model, JsImportStyle style) {
+        this.model = model;
+        this.style = style;
+        this.files = model.ownFiles()
+                          .stream()
+                          .filter(file -> file.getMessageTypeCount() > 0)
+                          .collect(toImmutableList());
+        this.fileNames = files.stream()
+                              .map(FileDescriptorProto::getName)
+                              .collect(toImmutableSet());
+    }
+
+    /**
+     * Creates the parsers of the messages declared in the own files of the given model.
+     *
+     * @param model
+     *         the model of the project
+     * @param style
+     *         the style of the generated modules
+     */
+    static JsParsers of(ModelDescriptors model, JsImportStyle style) {
+        checkNotNull(model);
+        checkNotNull(style);
+        return new JsParsers(model, style);
+    }
+
+    /**
+     * Obtains the paths of the generated files relative to the root of the generated JS code.
+     */
+    ImmutableList<String> fileNames() {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        files.forEach(file -> names.add(parsersFile(file.getName())));
+        names.add(ROOT_FILE);
+        return names.build();
+    }
+
+    /**
+     * Writes the parsers into the given root of the generated JS code.
+     *
+     * <p>The files which content has not changed are not overwritten, so that the JS build tools
+     * do not rebuild the bundles which depend on them.
+     */
+    void writeTo(File jsRoot) {
+        checkNotNull(jsRoot);
+        if (files.isEmpty()) {
+            return;
+        }
+        Path root = jsRoot.toPath();
+        for (FileDescriptorProto file : files) {
+            writeIfChanged(root.resolve(parsersFile(file.getName())), source(file));
+        }
+        writeIfChanged(root.resolve(ROOT_FILE), rootSource());
+    }
+
+    /**
+     * Writes the given content into the file unless the file already has such content.
+     */
+    static void writeIfChanged(Path file, String content) {
+        byte[] bytes = content.getBytes(UTF_8);
+        try {
+            if (exists(file) && Arrays.equals(readAllBytes(file), bytes)) {
+                return;
+            }
+            createDirectories(file.getParent());
+            write(file, bytes);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Composes the source code of the file which loads all the parsers.
+     */
+    String rootSource() {
+        SourceLines code = header();
+        for (FileDescriptorProto file : files) {
+            style.importForEffect(code, "./" + parsersFile(file.getName()));
+        }
+        return code.toString();
+    }
+
+    /**
+     * Composes the source code of the parsers of the messages declared in the given file.
+     */
+    String source(FileDescriptorProto file) {
+        checkNotNull(file);
+        ImmutableList<ModelType> types = model.ownTypes()
+                                              .stream()
+                                              .filter(type -> type.isMessage()
+                                                      && type.file().equals(file))
+                                              .collect(toImmutableList());
+        FileScope scope = new FileScope(file.getName());
+        SourceLines body = SourceLines.javaScript();
+        for (ModelType type : types) {
+            appendParser(type, body, scope);
+        }
+        String name = file.getName();
+        String messagesPath = relativePath(name, messagesFile(name));
+        SourceLines code = header();
+        style.importAll(code, MESSAGES, messagesPath);
+        scope.modules.forEach((dependency, alias) -> style.importAll(
+                code, alias, relativePath(name, parsersFile(dependency))
+        ));
+        if (scope.external) {
+            style.importDefault(code, "TypeParsers", TYPE_PARSERS_MODULE);
+        }
+        code.add("");
+        if (!scope.enums.isEmpty()) {
+            scope.enums.forEach((enumType, alias) -> appendEnum(enumType, alias, code));
+            code.open("function enumValue(values, value) {")
+                .add("return typeof value === 'number' ? value : values[value];")
+                .close("}")
+                .add("");
+        }
+        code.open("function install(type) {")
+            .open("if (typeof type.Parser === 'function') {")
+            .open("type.Parser.prototype.fromObject = function (object) {")
+            .add("return type.fromObject(object);")
+            .close("};")
+            .close("}")
+            .close("}")
+            .add("");
+        style.reexport(body, MESSAGES, messagesPath);
+        return code + body.toString();
+    }
+
+    private static SourceLines header() {
+        return SourceLines.javaScript()
+                          .add("// Generated by the Spine Bootstrap plugin. Do not edit.")
+                          .add("'use strict';")
+                          .add("");
+    }
+
+    private static void appendEnum(ModelType enumType, String alias, SourceLines code) {
+        code.open("var %s = {", alias);
+        enumType.enumType()
+                .getValueList()
+                .forEach(value -> code.add("'%s': %d,", value.getName(), value.getNumber()));
+        code.close("};")
+            .add("");
+    }
+
+    private void appendParser(ModelType type, SourceLines code, FileScope scope) {
+        String jsType = scope.reference(type);
+        code.open("%s.fromObject = function (object) {", jsType)
+            .open("if (object === null || object === undefined) {")
+            .add("return null;")
+            .close("}")
+            .add("var message = new %s();", jsType)
+            .add("var value;");
+        for (FieldDescriptorProto field : type.message().getFieldList()) {
+            appendField(type, field, code, scope);
+        }
+        code.add("return message;")
+            .close("};")
+            .add("install(%s);", jsType)
+            .add("");
+    }
+
+    private void appendField(ModelType type,
+                             FieldDescriptorProto field,
+                             SourceLines code,
+                             FileScope scope) {
+        String jsonName = JavaNames.jsonName(field);
+        String protoName = field.getName();
+        if (jsonName.equals(protoName)) {
+            code.add("value = object['%s'];", jsonName);
+        } else {
+            code.add("value = object['%s'] !== undefined ? object['%s'] : object['%s'];",
+                     jsonName, jsonName, protoName);
+        }
+        code.open("if (value !== null && value !== undefined) {");
+        String accessor = accessorName(protoName);
+        Optional<DescriptorProto> mapEntry = JavaNames.mapEntry(type, field);
+        if (mapEntry.isPresent()) {
+            DescriptorProto entry = mapEntry.get();
+            String key = valueOf(entry.getField(0), "key", scope);
+            String entryValue = valueOf(entry.getField(1), "value[key]", scope);
+            code.open("Object.keys(value).forEach(function (key) {")
+                .add("message.get%sMap().set(%s, %s);", accessor, key, entryValue)
+                .close("});");
+        } else if (field.getLabel() == LABEL_REPEATED) {
+            String item = valueOf(field, "item", scope);
+            if (item.equals("item")) {
+                code.add("message.set%sList(value);", accessor);
+            } else {
+                code.open("message.set%sList(value.map(function (item) {", accessor)
+                    .add("return %s;", item)
+                    .close("}));");
+            }
+        } else {
+            code.add("message.set%s(%s);", accessor, valueOf(field, "value", scope));
+        }
+        code.close("}");
+    }
+
+    /**
+     * Composes the expression which converts the given JSON value into the value of the field.
+     */
+    private String valueOf(FieldDescriptorProto field, String value, FileScope scope) {
+        Type type = field.getType();
+        switch (type) {
+            case TYPE_STRING:
+            case TYPE_BYTES:
+                return value;
+            case TYPE_BOOL:
+                return String.format("(%s === true || %s === 'true')", value, value);
+            case TYPE_ENUM:
+                Optional<ModelType> enumType = model.find(field.getTypeName());
+                return enumType.isPresent()
+                       ? String.format("enumValue(%s, %s)", scope.enumValues(enumType.get()),
+                                       value)
+                       : value;
+            case TYPE_MESSAGE:
+            case TYPE_GROUP:
+                Optional<ModelType> messageType = model.find(field.getTypeName());
+                if (messageType.isPresent()
+                        && fileNames.contains(messageType.get().file().getName())) {
+                    return String.format("%s.fromObject(%s)",
+                                         scope.reference(messageType.get()), value);
+                }
+                scope.external = true;
+                String typeUrl = messageType.map(ModelType::typeUrl)
+                                            .orElseGet(() -> defaultTypeUrl(field));
+                return String.format("TypeParsers.parserFor('%s').fromObject(%s)",
+                                     typeUrl, value);
+            default:
+                return String.format("Number(%s)", value);
+        }
+    }
+
+    private static String defaultTypeUrl(FieldDescriptorProto field) {
+        String name = field.getTypeName();
+        return "type.googleapis.com/" + (name.startsWith(".") ? name.substring(1) : name);
+    }
+
+    /**
+     * Obtains the name of the given type relative to the exports of its module.
+     *
+     * <p>The {@code protoc}-generated module exports the top-level types of its package, so
+     * the name is the Protobuf name without the package.
+     */
+    static String exportedName(ModelType type) {
+        String protoPackage = type.file()
+                                  .getPackage();
+        String name = type.protoName();
+        return protoPackage.isEmpty()
+               ? name
+               : name.substring(protoPackage.length() + 1);
+    }
+
+    /**
+     * Obtains the name of the field used in the generated accessors.
+     *
+     * <p>Mirrors the {@code protoc} JS generator: the name is split by underscores, each word is
+     * lower-cased and then capitalized.
+     */
+    static String accessorName(String fieldName) {
+        StringBuilder result = new StringBuilder(fieldName.length());
+        for (String word : fieldName.split("_")) {
+            if (!word.isEmpty()) {
+                String lower = word.toLowerCase(Locale.ROOT);
+                result.append(Character.toUpperCase(lower.charAt(0)))
+                      .append(lower.substring(1));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Obtains the path of the parsers file generated for the given Protobuf file.
+     */
+    static String parsersFile(String protoFile) {
+        return baseName(protoFile) + PARSERS_SUFFIX;
+    }
+
+    private static String messagesFile(String protoFile) {
+        return baseName(protoFile) + MESSAGES_SUFFIX;
+    }
+
+    private static String baseName(String protoFile) {
+        return protoFile.endsWith(PROTO_EXTENSION)
+               ? protoFile.substring(0, protoFile.length() - PROTO_EXTENSION.length())
+               : protoFile;
+    }
+
+    /**
+     * Obtains the path of the given file relative to the directory of the other given file.
+     *
+     * <p>Both paths are relative to the root of the generated JS code. The resulting path starts
+     * with a dot, as required by the JS module loaders.
+     */
+    static String relativePath(String fromFile, String target) {
+        Path from = Paths.get(fromFile).getParent();
+        Path to = Paths.get(target);
+        String path = (from == null ? to : from.relativize(to))
+                .toString()
+                .replace(File.separatorChar, '/');
+        return path.startsWith(".") ? path : "./" + path;
+    }
+
+    /**
+     * The modules and the enum values referenced by the parsers of a file.
+     */
+    private static final class FileScope {
+
+        private final String fileName;
+        private final Map<String, String> modules = new LinkedHashMap<>();
+        private final Map<ModelType, String> enums = new LinkedHashMap<>();
+        private boolean external;
+
+        private FileScope(String fileName) {
+            this.fileName = fileName;
+        }
+
+        /**
+         * Obtains the reference to the class of the given own message.
+         */
+        private String reference(ModelType type) {
+            String typeFile = type.file()
+                                  .getName();
+            String module = typeFile.equals(fileName)
+                            ? MESSAGES
+                            : modules.computeIfAbsent(typeFile,
+                                                      f -> "dependency" + modules.size());
+            return module + '.' + exportedName(type);
+        }
+
+        /**
+         * Obtains the name of the map of the values of the given enum by their names.
+         */
+        private String enumValues(ModelType type) {
+            return enums.computeIfAbsent(type, t -> "ENUM_" + t.protoName()
+                                                               .replace('.', '_')
+                                                               .toUpperCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,764 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import io.spine.logging.Logging;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+
+/**
+ * Generated JSON codecs of the messages of a module.
+ *
+ * <p>The Protobuf {@code JsonFormat} walks the message descriptors and builds an intermediate
+ * tree for each message. A generated codec streams a message to a Gson {@code JsonWriter} and
+ * reads it from a {@code JsonReader} through the generated accessors instead. The output is
+ * compatible with {@code JsonFormat}: the default values are omitted, the fields are named by
+ * their JSON names, and the 64-bit integers are quoted. The parser accepts both the JSON and
+ * the original field names.
+ *
+ * <p>For each own message, a class called {@code <Message>Json} is generated in the Java package
+ * of the message. For a nested message, the names of the enclosing types are prepended.
+ * The class has the following API:
+ * <pre>
+ *     {@code
+ *     public static String toJson(Message message)
+ *     public static void write(Message message, java.io.Writer out) throws IOException
+ *     public static void write(Message message, JsonWriter json) throws IOException
+ *     public static Message fromJson(String json)
+ *     public static Message read(JsonReader json) throws IOException
+ *     public static void merge(JsonReader json, Message.Builder builder) throws IOException
+ *     }
+ * </pre>
+ *
+ * <p>Also, a registry class called {@code <Module>JsonCodecs} is generated in the longest common
+ * package of the messages. It looks up the codec by the class of a message, so that a transport,
+ * such as a web server, may use the codecs for the supported messages and fall back to
+ * {@code JsonFormat} for the rest.
+ *
+ * <p>The fields of the message types declared outside of the module are processed with
+ * {@code io.spine.json.Json}.
+ */
+final class JsonCodecs implements Logging {
+
+    private static final String CODEC_SUFFIX = "Json";
+    private static final String REGISTRY_SUFFIX = "JsonCodecs";
+    private static final String HEADER = "// Generated by the Spine Bootstrap plugin. Do not edit.";
+    private static final String SPINE_JSON = "io.spine.json.Json";
+    private static final ImmutableSet<Type> INT_TYPES =
+            ImmutableSet.of(Type.TYPE_INT32, Type.TYPE_SINT32, Type.TYPE_SFIXED32);
+    private static final ImmutableSet<Type> UNSIGNED_INT_TYPES =
+            ImmutableSet.of(Type.TYPE_UINT32, Type.TYPE_FIXED32);
+    private static final ImmutableSet<Type> LONG_TYPES =
+            ImmutableSet.of(Type.TYPE_INT64, Type.TYPE_SINT64, Type.TYPE_SFIXED64);
+    private static final ImmutableSet<Type> UNSIGNED_LONG_TYPES =
+            ImmutableSet.of(Type.TYPE_UINT64, Type.TYPE_FIXED64);
+
+    private final ModelDescriptors model;
+    private final ImmutableList<ModelType> messages;
+    private final ImmutableSet<String> ownTypes;
+    private final String registryPackage;
+    private final String registryName;
+
+    private JsonCodecs(ModelDescriptors model, String moduleName) {
+        this.model = model;
+        this.messages = model.ownTypes()
+                             .stream()
+                             .filter(ModelType::isMessage)
+                             .collect(ImmutableList.toImmutableList());
+        this.ownTypes = messages.stream()
+                                .map(ModelType::protoName)
+                                .collect(toImmutableSet());
+        this.registryPackage = messages.stream()
+                                       .map(type -> JavaNames.javaPackage(type.file()))
+                                       .reduce(JavaNames::commonPackage)
+                                       .orElse("");
+        this.registryName = JavaNames.camelCase(moduleName) + REGISTRY_SUFFIX;
+    }
+
+    /**
+     * Creates the codecs of the own messages of the given model.
+     *
+     * @param model
+     *         the model of the module
+     * @param moduleName
+     *         the name of the module
+     */
+    static JsonCodecs of(ModelDescriptors model, String moduleName) {
+        checkNotNull(model);
+        checkNotNull(moduleName);
+        return new JsonCodecs(model, moduleName);
+    }
+
+    /**
+     * Obtains the fully-qualified name of the registry class.
+     */
+    String registryClassName() {
+        return JavaNames.qualified(registryPackage, registryName);
+    }
+
+    /**
+     * Obtains the fully-qualified name of the codec of the given message type.
+     */
+    static String codecClassName(ModelType type) {
+        String javaPackage = JavaNames.javaPackage(type.file());
+        return JavaNames.qualified(javaPackage, JavaNames.nestedName(type) + CODEC_SUFFIX);
+    }
+
+    /**
+     * Writes the source code of the codecs and the registry into the given source root.
+     *
+     * <p>If there are no own messages, does nothing.
+     */
+    void writeTo(File sourceRoot) {
+        checkNotNull(sourceRoot);
+        if (messages.isEmpty()) {
+            return;
+        }
+        for (ModelType message : messages) {
+            SourceLines.writeJava(sourceRoot, codecClassName(message), codecSource(message));
+        }
+        SourceLines.writeJava(sourceRoot, registryClassName(), registrySource());
+    }
+
+    /**
+     * Composes the source code of the registry of the codecs.
+     */
+    String registrySource() {
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        if (!registryPackage.isEmpty()) {
+            code.add("package %s;", registryPackage)
+                .add("");
+        }
+        code.add("import com.google.gson.stream.JsonReader;")
+            .add("import com.google.gson.stream.JsonWriter;")
+            .add("import com.google.protobuf.Message;")
+            .add("import java.io.IOException;")
+            .add("import java.io.StringReader;")
+            .add("import java.io.StringWriter;")
+            .add("import java.io.UncheckedIOException;")
+            .add("import java.util.HashMap;")
+            .add("import java.util.Map;")
+            .add("")
+            .add("/**")
+            .add(" * The registry of the generated JSON codecs of the module.")
+            .add(" */")
+            .open("public final class %s {", registryName)
+            .add("")
+            .add("private static final Map<Class<?>, Writing> WRITERS = new HashMap<>();")
+            .add("private static final Map<Class<?>, Reading> READERS = new HashMap<>();")
+            .add("")
+            .open("static {");
+        for (ModelType message : messages) {
+            String messageClass = message.canonicalClassName();
+            String codec = codecClassName(message);
+            code.add("WRITERS.put(%s.class, (message, json) -> %s.write((%s) message, json));",
+                     messageClass, codec, messageClass)
+                .add("READERS.put(%s.class, %s::read);", messageClass, codec);
+        }
+        code.close("}")
+            .add("")
+            .open("private %s() {", registryName)
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Checks if there is a codec for the messages of the given class.")
+            .add(" */")
+            .open("public static boolean supports(Class<? extends Message> messageClass) {")
+            .add("return WRITERS.containsKey(messageClass);")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Writes the given message with its codec.")
+            .add(" *")
+            .add(" * @throws IllegalArgumentException if there is no codec for the message")
+            .add(" */")
+            .open("public static void write(Message message, JsonWriter json) throws IOException {")
+            .add("Writing writing = WRITERS.get(message.getClass());")
+            .open("if (writing == null) {")
+            .add("throw unsupported(message.getClass());")
+            .close("}")
+            .add("writing.write(message, json);")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Converts the given message into JSON with its codec.")
+            .add(" *")
+            .add(" * @throws IllegalArgumentException if there is no codec for the message")
+            .add(" */")
+            .open("public static String toJson(Message message) {")
+            .add("StringWriter out = new StringWriter();")
+            .open("try {")
+            .add("write(message, new JsonWriter(out));")
+            .close("} catch (IOException e) {")
+            .indent()
+            .add("throw new UncheckedIOException(e);")
+            .close("}")
+            .add("return out.toString();")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Reads a message of the given class with its codec.")
+            .add(" *")
+            .add(" * @throws IllegalArgumentException if there is no codec for the message")
+            .add(" */")
+            .add("public static <T extends Message> T read(JsonReader json, Class<T> cls)")
+            .open("        throws IOException {")
+            .add("Reading reading = READERS.get(cls);")
+            .open("if (reading == null) {")
+            .add("throw unsupported(cls);")
+            .close("}")
+            .add("return cls.cast(reading.read(json));")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Parses a message of the given class with its codec.")
+            .add(" *")
+            .add(" * @throws IllegalArgumentException if there is no codec for the message")
+            .add(" */")
+            .open("public static <T extends Message> T fromJson(String json, Class<T> cls) {")
+            .open("try {")
+            .add("return read(new JsonReader(new StringReader(json)), cls);")
+            .close("} catch (IOException e) {")
+            .indent()
+            .add("throw new UncheckedIOException(e);")
+            .close("}")
+            .close("}")
+            .add("")
+            .open("private static IllegalArgumentException unsupported(Class<?> cls) {")
+            .add("return new IllegalArgumentException(\"No JSON codec for \" + cls.getName());")
+            .close("}")
+            .add("")
+            .open("private interface Writing {")
+            .add("")
+            .add("void write(Message message, JsonWriter json) throws IOException;")
+            .close("}")
+            .add("")
+            .open("private interface Reading {")
+            .add("")
+            .add("Message read(JsonReader json) throws IOException;")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+
+    /**
+     * Composes the source code of the codec of the given message type.
+     */
+    String codecSource(ModelType type) {
+        String messageClass = type.canonicalClassName();
+        String codecName = JavaNames.nestedName(type) + CODEC_SUFFIX;
+        Set<Helper> helpers = EnumSet.noneOf(Helper.class);
+        ImmutableList<FieldDescriptorProto> fields = supportedFields(type);
+
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        String javaPackage = JavaNames.javaPackage(type.file());
+        if (!javaPackage.isEmpty()) {
+            code.add("package %s;", javaPackage)
+                .add("");
+        }
+        code.add("import com.google.gson.stream.JsonReader;")
+            .add("import com.google.gson.stream.JsonToken;")
+            .add("import com.google.gson.stream.JsonWriter;")
+            .add("import java.io.IOException;")
+            .add("import java.io.StringReader;")
+            .add("import java.io.StringWriter;")
+            .add("import java.io.UncheckedIOException;")
+            .add("")
+            .add("/**")
+            .add(" * Converts {@code %s} to and from JSON without descriptor lookups.",
+                 messageClass)
+            .add(" */")
+            .open("public final class %s {", codecName)
+            .add("")
+            .open("private %s() {", codecName)
+            .close("}")
+            .add("")
+            .open("public static String toJson(%s message) {", messageClass)
+            .add("StringWriter out = new StringWriter();")
+            .open("try {")
+            .add("write(message, out);")
+            .close("} catch (IOException e) {")
+            .indent()
+            .add("throw new UncheckedIOException(e);")
+            .close("}")
+            .add("return out.toString();")
+            .close("}")
+            .add("")
+            .open("public static void write(%s message, java.io.Writer out) throws IOException {",
+                  messageClass)
+            .add("JsonWriter json = new JsonWriter(out);")
+            .add("write(message, json);")
+            .add("json.flush();")
+            .close("}")
+            .add("")
+            .open("public static void write(%s message, JsonWriter json) throws IOException {",
+                  messageClass)
+            .add("json.beginObject();");
+        for (FieldDescriptorProto field : fields) {
+            writeField(type, field, code, helpers);
+        }
+        code.add("json.endObject();")
+            .close("}")
+            .add("")
+            .open("public static %s fromJson(String json) {", messageClass)
+            .open("try {")
+            .add("JsonReader reader = new JsonReader(new StringReader(json));")
+            .add("reader.setLenient(true);")
+            .add("return read(reader);")
+            .close("} catch (IOException e) {")
+            .indent()
+            .add("throw new UncheckedIOException(e);")
+            .close("}")
+            .close("}")
+            .add("")
+            .open("public static %s read(JsonReader json) throws IOException {", messageClass)
+            .add("%s.Builder builder = %s.newBuilder();", messageClass, messageClass)
+            .add("merge(json, builder);")
+            .add("return builder.build();")
+            .close("}")
+            .add("")
+            .add("public static void merge(JsonReader json, %s.Builder builder)", messageClass)
+            .open("        throws IOException {")
+            .add("json.beginObject();")
+            .open("while (json.hasNext()) {")
+            .add("String name = json.nextName();")
+            .open("if (json.peek() == JsonToken.NULL) {")
+            .add("json.nextNull();")
+            .add("continue;")
+            .close("}")
+            .open("switch (name) {");
+        for (FieldDescriptorProto field : fields) {
+            readField(type, field, code, helpers);
+        }
+        code.add("default:")
+            .indent()
+            .add("json.skipValue();")
+            .outdent()
+            .close("}")
+            .close("}")
+            .add("json.endObject();")
+            .close("}");
+        for (Helper helper : helpers) {
+            code.add("");
+            helper.appendTo(code);
+        }
+        code.close("}");
+        return code.toString();
+    }
+
+    private ImmutableList<FieldDescriptorProto> supportedFields(ModelType type) {
+        ImmutableList.Builder<FieldDescriptorProto> fields = ImmutableList.builder();
+        for (FieldDescriptorProto field : type.message().getFieldList()) {
+            if (field.getType() == Type.TYPE_GROUP) {
+                _warn().log("Groups are not supported. Field `%s.%s` is skipped.",
+                            type.protoName(), field.getName());
+            } else {
+                fields.add(field);
+            }
+        }
+        return fields.build();
+    }
+
+    private void writeField(ModelType type,
+                            FieldDescriptorProto field,
+                            SourceLines code,
+                            Set<Helper> helpers) {
+        String camel = JavaNames.camelCase(field.getName());
+        String jsonName = JavaNames.jsonName(field);
+        Optional<DescriptorProto> mapEntry = JavaNames.mapEntry(type, field);
+        if (mapEntry.isPresent()) {
+            FieldDescriptorProto key = mapEntry.get().getField(0);
+            FieldDescriptorProto value = mapEntry.get().getField(1);
+            boolean enumValue = value.getType() == Type.TYPE_ENUM;
+            code.open("if (message.get%sCount() > 0) {", camel)
+                .add("json.name(\"%s\").beginObject();", jsonName)
+                .open("for (java.util.Map.Entry<%s, %s> entry : message.get%s%sMap().entrySet()) {",
+                      boxedType(key), enumValue ? "Integer" : boxedType(value),
+                      camel, enumValue ? "Value" : "")
+                .add("json.name(%s);", keyToString(key, "entry.getKey()"))
+                .add(writeValue(value, "entry.getValue()", helpers))
+                .close("}")
+                .add("json.endObject();")
+                .close("}");
+        } else if (field.getLabel() == LABEL_REPEATED) {
+            boolean enumValue = field.getType() == Type.TYPE_ENUM;
+            code.open("if (message.get%sCount() > 0) {", camel)
+                .add("json.name(\"%s\").beginArray();", jsonName)
+                .open("for (%s value : message.get%s%sList()) {",
+                      enumValue ? "int" : javaType(field), camel, enumValue ? "Value" : "")
+                .add(writeValue(field, "value", helpers))
+                .close("}")
+                .add("json.endArray();")
+                .close("}");
+        } else {
+            String getter = field.getType() == Type.TYPE_ENUM
+                            ? "message.get" + camel + "Value()"
+                            : "message.get" + camel + "()";
+            code.open("if (%s) {", presence(type, field, camel, getter))
+                .add("json.name(\"%s\");", jsonName)
+                .add(writeValue(field, getter, helpers))
+                .close("}");
+        }
+    }
+
+    private void readField(ModelType type,
+                           FieldDescriptorProto field,
+                           SourceLines code,
+                           Set<Helper> helpers) {
+        String camel = JavaNames.camelCase(field.getName());
+        String jsonName = JavaNames.jsonName(field);
+        code.add("case \"%s\":", jsonName);
+        if (!jsonName.equals(field.getName())) {
+            code.add("case \"%s\":", field.getName());
+        }
+        code.indent();
+        Optional<DescriptorProto> mapEntry = JavaNames.mapEntry(type, field);
+        if (mapEntry.isPresent()) {
+            FieldDescriptorProto key = mapEntry.get().getField(0);
+            FieldDescriptorProto value = mapEntry.get().getField(1);
+            boolean enumValue = value.getType() == Type.TYPE_ENUM;
+            code.add("json.beginObject();")
+                .open("while (json.hasNext()) {")
+                .add("String key = json.nextName();")
+                .add("builder.put%s%s(%s, %s);", camel, enumValue ? "Value" : "",
+                     parseKey(key, "key"), readValue(value, helpers))
+                .close("}")
+                .add("json.endObject();");
+        } else if (field.getLabel() == LABEL_REPEATED) {
+            boolean enumValue = field.getType() == Type.TYPE_ENUM;
+            code.add("json.beginArray();")
+                .open("while (json.hasNext()) {");
+            if (isOwnMessage(field)) {
+                code.add("%s.merge(json, builder.add%sBuilder());", codecOf(field), camel);
+            } else {
+                code.add("builder.add%s%s(%s);", camel, enumValue ? "Value" : "",
+                         readValue(field, helpers));
+            }
+            code.close("}")
+                .add("json.endArray();");
+        } else if (isOwnMessage(field)) {
+            code.add("%s.merge(json, builder.get%sBuilder());", codecOf(field), camel);
+        } else {
+            boolean enumValue = field.getType() == Type.TYPE_ENUM;
+            code.add("builder.set%s%s(%s);", camel, enumValue ? "Value" : "",
+                     readValue(field, helpers));
+        }
+        code.add("break;")
+            .outdent();
+    }
+
+    private String presence(ModelType type,
+                            FieldDescriptorProto field,
+                            String camel,
+                            String getter) {
+        if (field.getProto3Optional() || field.getType() == Type.TYPE_MESSAGE) {
+            return "message.has" + camel + "()";
+        }
+        if (field.hasOneofIndex()) {
+            String oneof = type.message()
+                               .getOneofDecl(field.getOneofIndex())
+                               .getName();
+            String caseName = JavaNames.camelCase(oneof) + "Case";
+            return String.format("message.get%s() == %s.%s.%s",
+                                 caseName, type.canonicalClassName(), caseName,
+                                 field.getName().toUpperCase());
+        }
+        switch (field.getType()) {
+            case TYPE_STRING:
+            case TYPE_BYTES:
+                return '!' + getter + ".isEmpty()";
+            case TYPE_BOOL:
+                return getter;
+            case TYPE_FLOAT:
+                return "Float.floatToRawIntBits(" + getter + ") != 0";
+            case TYPE_DOUBLE:
+                return "Double.doubleToRawLongBits(" + getter + ") != 0L";
+            default:
+                return getter + " != 0";
+        }
+    }
+
+    private String writeValue(FieldDescriptorProto field, String value, Set<Helper> helpers) {
+        Type type = field.getType();
+        if (UNSIGNED_INT_TYPES.contains(type)) {
+            return "json.value(Integer.toUnsignedLong(" + value + "));";
+        }
+        if (LONG_TYPES.contains(type)) {
+            return "json.value(Long.toString(" + value + "));";
+        }
+        if (UNSIGNED_LONG_TYPES.contains(type)) {
+            return "json.value(Long.toUnsignedString(" + value + "));";
+        }
+        switch (type) {
+            case TYPE_FLOAT:
+                helpers.add(Helper.WRITE_FLOAT);
+                return "writeFloat(json, " + value + ");";
+            case TYPE_DOUBLE:
+                helpers.add(Helper.WRITE_DOUBLE);
+                return "writeDouble(json, " + value + ");";
+            case TYPE_BYTES:
+                return "json.value(java.util.Base64.getEncoder().encodeToString("
+                        + value + ".toByteArray()));";
+            case TYPE_ENUM:
+                helpers.add(Helper.WRITE_ENUM);
+                return "writeEnum(json, " + javaType(field) + ".forNumber(" + value + "), "
+                        + value + ");";
+            case TYPE_MESSAGE:
+                return isOwnMessage(field)
+                       ? codecOf(field) + ".write(" + value + ", json);"
+                       : "json.jsonValue(" + SPINE_JSON + ".toCompactJson(" + value + "));";
+            default:
+                return "json.value(" + value + ");";
+        }
+    }
+
+    private String readValue(FieldDescriptorProto field, Set<Helper> helpers) {
+        Type type = field.getType();
+        if (INT_TYPES.contains(type)) {
+            return "json.nextInt()";
+        }
+        if (UNSIGNED_INT_TYPES.contains(type)) {
+            return "Integer.parseUnsignedInt(json.nextString())";
+        }
+        if (LONG_TYPES.contains(type)) {
+            return "json.nextLong()";
+        }
+        if (UNSIGNED_LONG_TYPES.contains(type)) {
+            return "Long.parseUnsignedLong(json.nextString())";
+        }
+        switch (type) {
+            case TYPE_FLOAT:
+                return "(float) json.nextDouble()";
+            case TYPE_DOUBLE:
+                return "json.nextDouble()";
+            case TYPE_BOOL:
+                return "json.nextBoolean()";
+            case TYPE_BYTES:
+                return "com.google.protobuf.ByteString.copyFrom("
+                        + "java.util.Base64.getDecoder().decode(json.nextString()))";
+            case TYPE_ENUM:
+                helpers.add(Helper.READ_ENUM);
+                return "readEnum(json, " + javaType(field) + "::valueOf)";
+            case TYPE_MESSAGE:
+                if (isOwnMessage(field)) {
+                    return codecOf(field) + ".read(json)";
+                }
+                helpers.add(Helper.READ_EXTERNAL);
+                return "readExternal(json, " + javaType(field) + ".class)";
+            default:
+                return "json.nextString()";
+        }
+    }
+
+    private static String keyToString(FieldDescriptorProto key, String value) {
+        Type type = key.getType();
+        if (type == Type.TYPE_STRING) {
+            return value;
+        }
+        if (UNSIGNED_INT_TYPES.contains(type)) {
+            return "Integer.toUnsignedString(" + value + ")";
+        }
+        if (UNSIGNED_LONG_TYPES.contains(type)) {
+            return "Long.toUnsignedString(" + value + ")";
+        }
+        return "String.valueOf(" + value + ")";
+    }
+
+    private static String parseKey(FieldDescriptorProto key, String value) {
+        Type type = key.getType();
+        if (type == Type.TYPE_BOOL) {
+            return "Boolean.parseBoolean(" + value + ")";
+        }
+        if (INT_TYPES.contains(type)) {
+            return "Integer.parseInt(" + value + ")";
+        }
+        if (UNSIGNED_INT_TYPES.contains(type)) {
+            return "Integer.parseUnsignedInt(" + value + ")";
+        }
+        if (LONG_TYPES.contains(type)) {
+            return "Long.parseLong(" + value + ")";
+        }
+        if (UNSIGNED_LONG_TYPES.contains(type)) {
+            return "Long.parseUnsignedLong(" + value + ")";
+        }
+        return value;
+    }
+
+    private String javaType(FieldDescriptorProto field) {
+        Type type = field.getType();
+        if (INT_TYPES.contains(type) || UNSIGNED_INT_TYPES.contains(type)) {
+            return "int";
+        }
+        if (LONG_TYPES.contains(type) || UNSIGNED_LONG_TYPES.contains(type)) {
+            return "long";
+        }
+        switch (type) {
+            case TYPE_FLOAT:
+                return "float";
+            case TYPE_DOUBLE:
+                return "double";
+            case TYPE_BOOL:
+                return "boolean";
+            case TYPE_STRING:
+                return "String";
+            case TYPE_BYTES:
+                return "com.google.protobuf.ByteString";
+            default:
+                return typeOf(field).canonicalClassName();
+        }
+    }
+
+    private String boxedType(FieldDescriptorProto field) {
+        String type = javaType(field);
+        switch (type) {
+            case "int":
+                return "Integer";
+            case "long":
+                return "Long";
+            case "float":
+                return "Float";
+            case "double":
+                return "Double";
+            case "boolean":
+                return "Boolean";
+            default:
+                return type;
+        }
+    }
+
+    private ModelType typeOf(FieldDescriptorProto field) {
+        return model.find(field.getTypeName())
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Unknown type " + field.getTypeName()));
+    }
+
+    private boolean isOwnMessage(FieldDescriptorProto field) {
+        if (field.getType() != Type.TYPE_MESSAGE) {
+            return false;
+        }
+        String typeName = field.getTypeName();
+        return ownTypes.contains(typeName.startsWith(".") ? typeName.substring(1) : typeName);
+    }
+
+    private String codecOf(FieldDescriptorProto field) {
+        return codecClassName(typeOf(field));
+    }
+
+    /**
+     * A private utility method of a generated codec.
+     */
+    private enum Helper {
+
+        WRITE_FLOAT {
+            @Override
+            void appendTo(SourceLines code) {
+                code.add("private static void writeFloat(JsonWriter json, float value)")
+                    .open("        throws IOException {")
+                    .open("if (Float.isFinite(value)) {")
+                    .add("json.value(Float.valueOf(value));")
+                    .close("} else {")
+                    .indent()
+                    .add("json.value(Float.toString(value));")
+                    .close("}")
+                    .close("}");
+            }
+        },
+
+        WRITE_DOUBLE {
+            @Override
+            void appendTo(SourceLines code) {
+                code.add("private static void writeDouble(JsonWriter json, double value)")
+                    .open("        throws IOException {")
+                    .open("if (Double.isFinite(value)) {")
+                    .add("json.value(value);")
+                    .close("} else {")
+                    .indent()
+                    .add("json.value(Double.toString(value));")
+                    .close("}")
+                    .close("}");
+            }
+        },
+
+        WRITE_ENUM {
+            @Override
+            void appendTo(SourceLines code) {
+                code.add("private static void writeEnum(JsonWriter json, Enum<?> value, "
+                                 + "int number)")
+                    .open("        throws IOException {")
+                    .open("if (value == null) {")
+                    .add("json.value(number);")
+                    .close("} else {")
+                    .indent()
+                    .add("json.value(value.name());")
+                    .close("}")
+                    .close("}");
+            }
+        },
+
+        READ_ENUM {
+            @Override
+            void appendTo(SourceLines code) {
+                code.add("private static int readEnum(JsonReader json,")
+                    .add("        java.util.function.Function<String, "
+                                 + "? extends com.google.protobuf.ProtocolMessageEnum> byName)")
+                    .open("        throws IOException {")
+                    .open("if (json.peek() == JsonToken.NUMBER) {")
+                    .add("return json.nextInt();")
+                    .close("}")
+                    .add("return byName.apply(json.nextString()).getNumber();")
+                    .close("}");
+            }
+        },
+
+        READ_EXTERNAL {
+            @Override
+            void appendTo(SourceLines code) {
+                code.add("private static <T extends com.google.protobuf.Message> T "
+                                 + "readExternal(JsonReader json, Class<T> cls) {")
+                    .indent()
+                    .add("String value = com.google.gson.JsonParser.parseReader(json).toString();")
+                    .add("return %s.fromJson(value, cls);", SPINE_JSON)
+                    .close("}");
+            }
+        };
+
+        abstract void appendTo(SourceLines code);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.file.Files.newOutputStream;
+
+/**
+ * A compact binary index of the types known to a module.
+ *
+ * <p>The index allows the runtime to build the type registry without scanning the classpath
+ * and parsing all the descriptors at startup. The file is written into the root of the module
+ * resources under the name {@value #FILE_NAME}.
+ *
+ * <p>The format of the index, all the numbers are big-endian:
+ * <pre>
+ *     magic          4 bytes: {@code SKTI}
+ *     version        int32: {@value #VERSION}
+ *     file count     int32
+ *     file table     for each file: name (modified UTF-8), data offset (int32), length (int32)
+ *     type count     int32
+ *     type table     for each type, sorted by type URL:
+ *                    type URL (modified UTF-8), Java class binary name (modified UTF-8),
+ *                    file index (int32)
+ *     data           serialized {@code FileDescriptorProto}s
+ * </pre>
+ *
+ * <p>The data offsets are relative to the start of the data section. The header and the tables
+ * can be read eagerly, while the descriptors can be read from a memory-mapped data section
+ * and parsed lazily, when a type is first requested.
+ *
+ * <p>The {@code SourceCodeInfo} of the files is not included, as the runtime does not need it.
+ */
+final class KnownTypesIndex {
+
+    static final String FILE_NAME = "known_types.idx";
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = {'S', 'K', 'T', 'I'};
+
+    private final ImmutableList<FileDescriptorProto> files;
+    private final ImmutableList<ModelType> types;
+
+    private KnownTypesIndex(ImmutableList<FileDescriptorProto> files,
+                            ImmutableList<ModelType> types) {
+        this.files = files;
+        this.types = types;
+    }
+
+    /**
+     * Creates an index of the own types of the given model.
+     */
+    static KnownTypesIndex of(ModelDescriptors model) {
+        checkNotNull(model);
+        ImmutableList<ModelType> types = model.ownTypes()
+                                              .stream()
+                                              .sorted(Comparator.comparing(ModelType::typeUrl))
+                                              .collect(toImmutableList());
+        return new KnownTypesIndex(model.ownFiles(), types);
+    }
+
+    /**
+     * Writes the index into the {@value #FILE_NAME} file in the given directory.
+     */
+    void writeTo(File dir) {
+        checkNotNull(dir);
+        File file = new File(dir, FILE_NAME);
+        try (OutputStream out = newOutputStream(file.toPath())) {
+            out.write(toBytes());
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Serializes the index.
+     */
+    byte[] toBytes() {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<String, Integer> fileIndices = new HashMap<>();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            for (FileDescriptorProto file : files) {
+                byte[] descriptor = withoutSourceInfo(file).toByteArray();
+                fileIndices.put(file.getName(), fileIndices.size());
+                out.writeUTF(file.getName());
+                out.writeInt(data.size());
+                out.writeInt(descriptor.length);
+                data.write(descriptor);
+            }
+            out.writeInt(types.size());
+            for (ModelType type : types) {
+                out.writeUTF(type.typeUrl());
+                out.writeUTF(type.javaClass());
+                out.writeInt(fileIndices.get(type.file().getName()));
+            }
+            data.writeTo(out);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static FileDescriptorProto withoutSourceInfo(FileDescriptorProto file) {
+        return file.toBuilder()
+                   .clearSourceCodeInfo()
+                   .build();
+    }
+}
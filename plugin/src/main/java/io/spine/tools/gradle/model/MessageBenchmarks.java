@@ -0,0 +1,273 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * Generated JMH benchmarks of the serialization of the messages of a module.
+ *
+ * <p>For each own message, a class called {@code <Message>Benchmark} is generated in the Java
+ * package of the message. For a nested message, the names of the enclosing types are prepended.
+ * The class measures the average time of the following operations on a random instance of
+ * the message:
+ * <ul>
+ *     <li>{@code parse}, which parses the message from bytes;
+ *     <li>{@code serialize}, which serializes the message into bytes;
+ *     <li>{@code rebuild}, which copies the message with {@code toBuilder().build()}.
+ * </ul>
+ *
+ * <p>The random instances are created by the {@code RandomMessages} class generated in
+ * the longest common package of the messages. The class fills all the fields of a message by its
+ * descriptor, with a fixed seed, so that the measured instances stay the same between the runs.
+ */
+final class MessageBenchmarks {
+
+    private static final String HEADER = "// Generated by the Spine Bootstrap plugin. Do not edit.";
+    private static final String BENCHMARK_SUFFIX = "Benchmark";
+    private static final String RANDOM_MESSAGES = "RandomMessages";
+    private static final String DEFAULT_PACKAGE = "benchmarks";
+
+    private final ImmutableList<ModelType> messages;
+    private final String randomPackage;
+
+    private MessageBenchmarks(ModelDescriptors model) {
+        this.messages = model.ownTypes()
+                             .stream()
+                             .filter(ModelType::isMessage)
+                             .collect(toImmutableList());
+        String commonPackage = messages.stream()
+                                       .map(type -> JavaNames.javaPackage(type.file()))
+                                       .reduce(JavaNames::commonPackage)
+                                       .orElse("");
+        this.randomPackage = commonPackage.isEmpty()
+                             ? DEFAULT_PACKAGE
+                             : commonPackage;
+    }
+
+    /**
+     * Creates the benchmarks of the own messages of the given model.
+     */
+    static MessageBenchmarks of(ModelDescriptors model) {
+        checkNotNull(model);
+        return new MessageBenchmarks(model);
+    }
+
+    /**
+     * Obtains the fully-qualified name of the benchmark of the given message type.
+     */
+    static String benchmarkClassName(ModelType type) {
+        String javaPackage = JavaNames.javaPackage(type.file());
+        return JavaNames.qualified(javaPackage, JavaNames.nestedName(type) + BENCHMARK_SUFFIX);
+    }
+
+    /**
+     * Obtains the fully-qualified name of the random message generator.
+     */
+    String randomMessagesClassName() {
+        return randomPackage + '.' + RANDOM_MESSAGES;
+    }
+
+    /**
+     * Writes the source code of the benchmarks and the random message generator into the given
+     * source root.
+     *
+     * <p>If there are no own messages, does nothing.
+     */
+    void writeTo(File sourceRoot) {
+        checkNotNull(sourceRoot);
+        if (messages.isEmpty()) {
+            return;
+        }
+        for (ModelType message : messages) {
+            SourceLines.writeJava(sourceRoot,
+                                  benchmarkClassName(message),
+                                  benchmarkSource(message));
+        }
+        SourceLines.writeJava(sourceRoot, randomMessagesClassName(), randomMessagesSource());
+    }
+
+    /**
+     * Composes the source code of the benchmark of the given message type.
+     */
+    String benchmarkSource(ModelType message) {
+        String javaPackage = JavaNames.javaPackage(message.file());
+        String className = JavaNames.nestedName(message) + BENCHMARK_SUFFIX;
+        String messageClass = message.canonicalClassName();
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        if (!javaPackage.isEmpty()) {
+            code.add("package %s;", javaPackage)
+                .add("");
+        }
+        code.add("import com.google.protobuf.InvalidProtocolBufferException;")
+            .add("import java.util.concurrent.TimeUnit;")
+            .add("import org.openjdk.jmh.annotations.Benchmark;")
+            .add("import org.openjdk.jmh.annotations.BenchmarkMode;")
+            .add("import org.openjdk.jmh.annotations.Mode;")
+            .add("import org.openjdk.jmh.annotations.OutputTimeUnit;")
+            .add("import org.openjdk.jmh.annotations.Scope;")
+            .add("import org.openjdk.jmh.annotations.Setup;")
+            .add("import org.openjdk.jmh.annotations.State;")
+            .add("")
+            .add("/**")
+            .add(" * The serialization benchmarks of {@code %s}.", message.protoName())
+            .add(" */")
+            .add("@State(Scope.Benchmark)")
+            .add("@BenchmarkMode(Mode.AverageTime)")
+            .add("@OutputTimeUnit(TimeUnit.NANOSECONDS)")
+            .open("public class %s {", className)
+            .add("")
+            .add("private %s message;", messageClass)
+            .add("private byte[] bytes;")
+            .add("")
+            .add("@Setup")
+            .open("public void setUp() {")
+            .add("message = %s.of(%s.getDefaultInstance());",
+                 randomMessagesClassName(), messageClass)
+            .add("bytes = message.toByteArray();")
+            .close("}")
+            .add("")
+            .add("@Benchmark")
+            .open("public %s parse() throws InvalidProtocolBufferException {", messageClass)
+            .add("return %s.parseFrom(bytes);", messageClass)
+            .close("}")
+            .add("")
+            .add("@Benchmark")
+            .open("public byte[] serialize() {")
+            .add("return message.toByteArray();")
+            .close("}")
+            .add("")
+            .add("@Benchmark")
+            .open("public %s rebuild() {", messageClass)
+            .add("return message.toBuilder().build();")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+
+    /**
+     * Composes the source code of the random message generator.
+     */
+    String randomMessagesSource() {
+        SourceLines code = SourceLines.java();
+        code.add(HEADER)
+            .add("package %s;", randomPackage)
+            .add("")
+            .add("import com.google.protobuf.ByteString;")
+            .add("import com.google.protobuf.Descriptors.EnumValueDescriptor;")
+            .add("import com.google.protobuf.Descriptors.FieldDescriptor;")
+            .add("import com.google.protobuf.Descriptors.OneofDescriptor;")
+            .add("import com.google.protobuf.Message;")
+            .add("import java.util.List;")
+            .add("import java.util.Random;")
+            .add("")
+            .add("/**")
+            .add(" * Creates the random instances of the messages for the benchmarks.")
+            .add(" *")
+            .add(" * <p>All the fields of a message are set by its descriptor. The nested messages")
+            .add(" * are filled up to the {@link #MAX_DEPTH}. The same seed is used for each")
+            .add(" * instance, so that the instances stay the same between the runs.")
+            .add(" */")
+            .open("public final class %s {", RANDOM_MESSAGES)
+            .add("")
+            .add("private static final long SEED = 42L;")
+            .add("private static final int MAX_DEPTH = 3;")
+            .add("private static final int MAX_REPEATED = 4;")
+            .add("private static final int MAX_LENGTH = 16;")
+            .add("")
+            .add("private final Random random = new Random(SEED);")
+            .add("")
+            .open("private %s() {", RANDOM_MESSAGES)
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Creates a random instance of the type of the given message.")
+            .add(" */")
+            .add("@SuppressWarnings(\"unchecked\") // The builder creates the same type.")
+            .open("public static <M extends Message> M of(M prototype) {")
+            .add("Message.Builder builder = prototype.newBuilderForType();")
+            .add("return (M) new %s().fill(builder, 0).buildPartial();", RANDOM_MESSAGES)
+            .close("}")
+            .add("")
+            .open("private Message.Builder fill(Message.Builder builder, int depth) {")
+            .open("for (FieldDescriptor field : builder.getDescriptorForType().getFields()) {")
+            .add("OneofDescriptor oneof = field.getContainingOneof();")
+            .add("boolean oneofSet = oneof != null && builder.hasOneof(oneof);")
+            .add("boolean message = field.getJavaType() == FieldDescriptor.JavaType.MESSAGE;")
+            .open("if (oneofSet || (message && depth >= MAX_DEPTH)) {")
+            .add("continue;")
+            .close("}")
+            .open("if (field.isRepeated()) {")
+            .add("int count = random.nextInt(MAX_REPEATED) + 1;")
+            .open("for (int i = 0; i < count; i++) {")
+            .add("builder.addRepeatedField(field, value(builder, field, depth));")
+            .close("}")
+            .outdent()
+            .open("} else {")
+            .add("builder.setField(field, value(builder, field, depth));")
+            .close("}")
+            .close("}")
+            .add("return builder;")
+            .close("}")
+            .add("")
+            .open("private Object value(Message.Builder builder, FieldDescriptor field, "
+                          + "int depth) {")
+            .open("switch (field.getJavaType()) {")
+            .add("case INT: return random.nextInt();")
+            .add("case LONG: return random.nextLong();")
+            .add("case FLOAT: return random.nextFloat();")
+            .add("case DOUBLE: return random.nextDouble();")
+            .add("case BOOLEAN: return random.nextBoolean();")
+            .add("case STRING: return string();")
+            .add("case BYTE_STRING: return ByteString.copyFromUtf8(string());")
+            .open("case ENUM: {")
+            .add("List<EnumValueDescriptor> values = field.getEnumType().getValues();")
+            .add("return values.get(random.nextInt(values.size()));")
+            .close("}")
+            .add("default:")
+            .add("    return fill(builder.newBuilderForField(field), depth + 1).buildPartial();")
+            .close("}")
+            .close("}")
+            .add("")
+            .open("private String string() {")
+            .add("int length = random.nextInt(MAX_LENGTH + 1);")
+            .add("StringBuilder result = new StringBuilder(length);")
+            .open("for (int i = 0; i < length; i++) {")
+            .add("result.append((char) ('a' + random.nextInt(26)));")
+            .close("}")
+            .add("return result.toString();")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import io.spine.logging.Logging;
+import io.spine.option.OptionsProto;
+import org.gradle.api.GradleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.write;
+
+/**
+ * The shapes of the messages of a module checked against a {@link ShapeBudget}.
+ *
+ * <p>For each own message, the shape contains:
+ * <ul>
+ *     <li>the range of the serialized size, from the size of a message with only
+ *         the {@code (required)} fields set to the estimated size of a fully populated message;
+ *     <li>the nesting depth, where a message without message fields has the depth of one;
+ *     <li>the repeated and map fields, which do not have an upper bound of size;
+ *     <li>the number of the {@code Any}, {@code string} and {@code bytes} fields.
+ * </ul>
+ *
+ * <p>The estimated size assumes that each repeated or map field has {@value #ASSUMED_ELEMENTS}
+ * elements, each {@code string} or {@code bytes} field has {@value #ASSUMED_LENGTH} bytes, and
+ * each {@code Any} field packs {@value #ASSUMED_ANY_SIZE} bytes. A recursive message is
+ * estimated without the recursion.
+ */
+final class MessageShapes implements Logging {
+
+    static final String REPORT_FILE = "message-shapes.txt";
+
+    private static final int ASSUMED_ELEMENTS = 8;
+    private static final int ASSUMED_LENGTH = 32;
+    private static final int ASSUMED_ANY_SIZE = 128;
+    private static final String ANY_TYPE = ".google.protobuf.Any";
+    private static final int MAX_VARINT_SIZE = 10;
+
+    private final ModelDescriptors model;
+    private final ImmutableList<ModelType> messages;
+    private final Map<String, Shape> shapes = new HashMap<>();
+    private final Set<String> inProgress = new HashSet<>();
+
+    private MessageShapes(ModelDescriptors model) {
+        this.model = model;
+        this.messages = model.ownTypes()
+                             .stream()
+                             .filter(ModelType::isMessage)
+                             .collect(toImmutableList());
+    }
+
+    /**
+     * Analyzes the own messages of the given model.
+     */
+    static MessageShapes of(ModelDescriptors model) {
+        checkNotNull(model);
+        return new MessageShapes(model);
+    }
+
+    /**
+     * Obtains the shapes of the own messages.
+     */
+    ImmutableList<Shape> shapes() {
+        return messages.stream()
+                       .map(this::shape)
+                       .collect(toImmutableList());
+    }
+
+    /**
+     * Obtains the violations of the given budget by the own messages.
+     */
+    ImmutableList<String> violations(ShapeBudget budget) {
+        checkNotNull(budget);
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        for (Shape shape : shapes()) {
+            String name = shape.typeName;
+            if (shape.estimatedSize > budget.maxSize()) {
+                result.add(format("`%s` is estimated at %d bytes, the budget is %d bytes.",
+                                  name, shape.estimatedSize, budget.maxSize()));
+            }
+            if (shape.recursive) {
+                result.add(format("`%s` is recursive, the depth budget is %d.",
+                                  name, budget.maxDepth()));
+            } else if (shape.depth > budget.maxDepth()) {
+                result.add(format("`%s` is nested %d levels deep, the budget is %d.",
+                                  name, shape.depth, budget.maxDepth()));
+            }
+            if (shape.unboundedFields.size() > budget.maxUnboundedFields()) {
+                result.add(format("`%s` has %d repeated and map fields, the budget is %d.",
+                                  name, shape.unboundedFields.size(),
+                                  budget.maxUnboundedFields()));
+            }
+            if (shape.anyAndStringFields > budget.maxAnyAndStringFields()) {
+                result.add(format("`%s` has %d `Any`, `string` and `bytes` fields, "
+                                          + "the budget is %d.",
+                                  name, shape.anyAndStringFields,
+                                  budget.maxAnyAndStringFields()));
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Checks the own messages against the given budget.
+     *
+     * <p>The violations are logged as warnings, unless the budget
+     * {@linkplain ShapeBudget#failOnViolations() requires} to fail the build.
+     *
+     * @throws GradleException
+     *         if there are violations and the build should fail
+     */
+    void check(ShapeBudget budget) {
+        ImmutableList<String> violations = violations(budget);
+        if (violations.isEmpty()) {
+            return;
+        }
+        String message = "The messages exceed the shape budget:\n    "
+                + String.join("\n    ", violations);
+        if (budget.failOnViolations()) {
+            throw new GradleException(message);
+        }
+        _warn().log("%s", message);
+    }
+
+    /**
+     * Composes the text of the report of the shapes and the budget violations.
+     */
+    String report(ShapeBudget budget) {
+        checkNotNull(budget);
+        StringBuilder report = new StringBuilder();
+        for (Shape shape : shapes()) {
+            String depth = shape.recursive
+                           ? "recursive"
+                           : String.valueOf(shape.depth);
+            String unbounded = shape.unboundedFields.isEmpty()
+                               ? "none"
+                               : String.join(", ", shape.unboundedFields);
+            report.append(shape.typeName)
+                  .append('\n')
+                  .append(format("    size: %d..%d bytes\n", shape.minSize, shape.estimatedSize))
+                  .append(format("    depth: %s\n", depth))
+                  .append(format("    unbounded fields: %s\n", unbounded))
+                  .append(format("    Any, string and bytes fields: %d\n",
+                                 shape.anyAndStringFields));
+        }
+        ImmutableList<String> violations = violations(budget);
+        report.append('\n')
+              .append(format("Budget violations: %d\n", violations.size()));
+        violations.forEach(violation -> report.append("    ")
+                                              .append(violation)
+                                              .append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Writes the {@linkplain #report(ShapeBudget) report} into the given directory.
+     */
+    void writeTo(File outputDir, ShapeBudget budget) {
+        checkNotNull(outputDir);
+        Path file = outputDir.toPath()
+                             .resolve(REPORT_FILE);
+        try {
+            write(file, report(budget).getBytes(UTF_8));
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private Shape shape(ModelType type) {
+        String name = type.protoName();
+        Shape known = shapes.get(name);
+        if (known != null) {
+            return known;
+        }
+        inProgress.add(name);
+        Shape shape = analyze(type);
+        inProgress.remove(name);
+        shapes.put(name, shape);
+        return shape;
+    }
+
+    private Shape analyze(ModelType type) {
+        DescriptorProto message = type.message();
+        Shape shape = new Shape(type.protoName());
+        Map<Integer, Long> oneofSizes = new HashMap<>();
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            FieldShape fieldShape = field(type, field, shape);
+            boolean inOneof = field.hasOneofIndex() && !field.getProto3Optional();
+            if (inOneof) {
+                oneofSizes.merge(field.getOneofIndex(), fieldShape.estimatedSize, Math::max);
+            } else {
+                shape.estimatedSize += fieldShape.estimatedSize;
+            }
+            if (isRequired(field)) {
+                shape.minSize += fieldShape.minSize;
+            }
+        }
+        oneofSizes.values()
+                  .forEach(size -> shape.estimatedSize += size);
+        return shape;
+    }
+
+    private FieldShape field(ModelType type, FieldDescriptorProto field, Shape shape) {
+        int tag = varintSize((long) field.getNumber() << 3);
+        Optional<DescriptorProto> mapEntry = JavaNames.mapEntry(type, field);
+        boolean repeated = field.getLabel() == LABEL_REPEATED;
+        if (repeated) {
+            shape.unboundedFields.add(field.getName());
+        }
+        FieldShape element;
+        if (mapEntry.isPresent()) {
+            DescriptorProto entry = mapEntry.get();
+            FieldShape key = value(entry.getField(0), shape);
+            FieldShape value = value(entry.getField(1), shape);
+            long size = 2 + key.estimatedSize + value.estimatedSize;
+            element = new FieldShape(2 + key.minSize + value.minSize,
+                                     varintSize(size) + size);
+        } else {
+            element = value(field, shape);
+        }
+        long count = repeated ? ASSUMED_ELEMENTS : 1;
+        return new FieldShape(tag + element.minSize, count * (tag + element.estimatedSize));
+    }
+
+    /**
+     * Obtains the size of a single value of the given field without the tag.
+     */
+    private FieldShape value(FieldDescriptorProto field, Shape shape) {
+        Type type = field.getType();
+        switch (type) {
+            case TYPE_STRING:
+            case TYPE_BYTES:
+                shape.anyAndStringFields++;
+                return new FieldShape(2, 1 + ASSUMED_LENGTH);
+            case TYPE_MESSAGE:
+            case TYPE_GROUP:
+                return message(field, shape);
+            default:
+                return new FieldShape(1, scalarSize(type));
+        }
+    }
+
+    private FieldShape message(FieldDescriptorProto field, Shape shape) {
+        String typeName = field.getTypeName();
+        if (ANY_TYPE.equals(typeName)) {
+            shape.anyAndStringFields++;
+            shape.depth = Math.max(shape.depth, 2);
+            return new FieldShape(1, varintSize(ASSUMED_ANY_SIZE) + ASSUMED_ANY_SIZE);
+        }
+        Optional<ModelType> nested = model.find(typeName)
+                                          .filter(ModelType::isMessage);
+        if (!nested.isPresent() || inProgress.contains(nested.get().protoName())) {
+            shape.recursive = shape.recursive || nested.isPresent();
+            return new FieldShape(1, 1);
+        }
+        Shape nestedShape = shape(nested.get());
+        shape.recursive = shape.recursive || nestedShape.recursive;
+        shape.depth = Math.max(shape.depth, nestedShape.depth + 1);
+        long size = nestedShape.estimatedSize;
+        return new FieldShape(varintSize(nestedShape.minSize) + nestedShape.minSize,
+                              varintSize(size) + size);
+    }
+
+    private static int scalarSize(Type type) {
+        switch (type) {
+            case TYPE_BOOL:
+                return 1;
+            case TYPE_FIXED32:
+            case TYPE_SFIXED32:
+            case TYPE_FLOAT:
+                return 4;
+            case TYPE_FIXED64:
+            case TYPE_SFIXED64:
+            case TYPE_DOUBLE:
+                return 8;
+            case TYPE_UINT32:
+            case TYPE_SINT32:
+                return 5;
+            default:
+                return MAX_VARINT_SIZE;
+        }
+    }
+
+    private static boolean isRequired(FieldDescriptorProto field) {
+        return field.getOptions()
+                    .getExtension(OptionsProto.required);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            rest >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * The sizes of a field in bytes.
+     */
+    private static final class FieldShape {
+
+        private final long minSize;
+        private final long estimatedSize;
+
+        private FieldShape(long minSize, long estimatedSize) {
+            this.minSize = minSize;
+            this.estimatedSize = estimatedSize;
+        }
+    }
+
+    /**
+     * The shape of a message.
+     */
+    static final class Shape {
+
+        private final String typeName;
+        private final List<String> unboundedFields = new ArrayList<>();
+        private long minSize = 0;
+        private long estimatedSize = 0;
+        private int depth = 1;
+        private boolean recursive = false;
+        private int anyAndStringFields = 0;
+
+        private Shape(String typeName) {
+            this.typeName = typeName;
+        }
+
+        /**
+         * Obtains the fully-qualified Protobuf name of the message.
+         */
+        String typeName() {
+            return typeName;
+        }
+
+        /**
+         * Obtains the serialized size of the message with only the required fields set.
+         */
+        long minSize() {
+            return minSize;
+        }
+
+        /**
+         * Obtains the estimated serialized size of a fully populated message.
+         */
+        long estimatedSize() {
+            return estimatedSize;
+        }
+
+        /**
+         * Obtains the nesting depth of the message, not counting the recursion.
+         */
+        int depth() {
+            return depth;
+        }
+
+        /**
+         * Tells if the message contains itself, directly or through other messages.
+         */
+        boolean isRecursive() {
+            return recursive;
+        }
+
+        /**
+         * Obtains the names of the repeated and map fields of the message.
+         */
+        ImmutableList<String> unboundedFields() {
+            return ImmutableList.copyOf(unboundedFields);
+        }
+
+        /**
+         * Obtains the number of the {@code Any}, {@code string} and {@code bytes} fields.
+         */
+        int anyAndStringFields() {
+            return anyAndStringFields;
+        }
+    }
+}
@@ -0,0 +1,781 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.OneofDescriptorProto;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import io.spine.logging.Logging;
+import io.spine.option.OptionsProto;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+import static java.util.function.Function.identity;
+
+/**
+ * Generated validators of the messages of a module.
+ *
+ * <p>At runtime, the constraints of a message are discovered by walking its descriptor, reading
+ * the options of each field, and compiling the regular expressions on the way. A generated
+ * validator checks the same constraints through the generated getters instead. The regular
+ * expressions are compiled once into {@code Pattern} constants, and nothing is allocated
+ * for a valid message.
+ *
+ * <p>For each supported own message, a class called {@code <Message>Validator} is generated in
+ * the Java package of the message. For a nested message, the names of the enclosing types are
+ * prepended. The class has the following API:
+ * <pre>
+ *     {@code
+ *     // The violations of the constraints, or an empty list if the message is valid.
+ *     public static List<ConstraintViolation> validate(Message message)
+ *     }
+ * </pre>
+ *
+ * <p>Also, a registry class called {@code <Module>Validators} is generated in the longest common
+ * package of the messages. It looks up the validator by the class of a message, so that the code
+ * which validates the messages, such as the command ingestion, may use the validators for the
+ * supported messages and fall back to the runtime validation for the rest.
+ *
+ * <p>The supported constraints are {@code (required)} along with the implicitly required first
+ * field of a command message, {@code (pattern)}, {@code (min)}, {@code (max)}, and
+ * {@code (validate)} of the own messages. A message which uses any other constraint, or which
+ * refers to a message without a validator in a {@code (validate)} field, gets no validator.
+ */
+final class MessageValidators implements Logging {
+
+    private static final String VALIDATOR_SUFFIX = "Validator";
+    private static final String REGISTRY_SUFFIX = "Validators";
+    private static final String HEADER = "// Generated by the Spine Bootstrap plugin. Do not edit.";
+    private static final String COMMANDS_FILE_SUFFIX = "commands.proto";
+
+    private static final String MISSING = "A value must be set.";
+    private static final String INVALID = "The message must have valid properties.";
+    private static final String MISMATCH = "The string must match the regular expression `%s`.";
+    private static final String BELOW_MIN = "The number must be greater than %s%s.";
+    private static final String ABOVE_MAX = "The number must be less than %s%s.";
+    private static final String OR_EQUAL = "or equal to ";
+
+    /**
+     * The field constraints which are checked only at runtime.
+     */
+    private static final ImmutableSet<String> RUNTIME_FIELD_OPTIONS = ImmutableSet.of(
+            "goes", "set_once", "distinct", "range", "when", "decimal_min", "decimal_max", "digits"
+    );
+
+    /**
+     * The message constraints which are checked only at runtime.
+     */
+    private static final ImmutableSet<String> RUNTIME_MESSAGE_OPTIONS =
+            ImmutableSet.of("required_field", "constraint_for");
+
+    /**
+     * The oneof constraints which are checked only at runtime.
+     */
+    private static final ImmutableSet<String> RUNTIME_ONEOF_OPTIONS =
+            ImmutableSet.of("is_required");
+
+    private static final ImmutableSet<Type> INT_TYPES =
+            ImmutableSet.of(Type.TYPE_INT32, Type.TYPE_SINT32, Type.TYPE_SFIXED32);
+    private static final ImmutableSet<Type> UNSIGNED_INT_TYPES =
+            ImmutableSet.of(Type.TYPE_UINT32, Type.TYPE_FIXED32);
+    private static final ImmutableSet<Type> LONG_TYPES =
+            ImmutableSet.of(Type.TYPE_INT64, Type.TYPE_SINT64, Type.TYPE_SFIXED64);
+    private static final ImmutableSet<Type> UNSIGNED_LONG_TYPES =
+            ImmutableSet.of(Type.TYPE_UINT64, Type.TYPE_FIXED64);
+
+    private final ImmutableMap<String, ModelType> messages;
+    private final ImmutableSet<String> supported;
+    private final String registryPackage;
+    private final String registryName;
+
+    private MessageValidators(ModelDescriptors model, String moduleName) {
+        this.messages = model.ownTypes()
+                             .stream()
+                             .filter(ModelType::isMessage)
+                             .collect(toImmutableMap(ModelType::protoName, identity()));
+        this.supported = supportedTypes();
+        this.registryPackage = supported.stream()
+                                        .map(name -> JavaNames.javaPackage(
+                                                messages.get(name).file()))
+                                        .reduce(JavaNames::commonPackage)
+                                        .orElse("");
+        this.registryName = JavaNames.camelCase(moduleName) + REGISTRY_SUFFIX;
+    }
+
+    /**
+     * Creates the validators of the own messages of the given model.
+     *
+     * @param model
+     *         the model of the module
+     * @param moduleName
+     *         the name of the module
+     */
+    static MessageValidators of(ModelDescriptors model, String moduleName) {
+        checkNotNull(model);
+        checkNotNull(moduleName);
+        return new MessageValidators(model, moduleName);
+    }
+
+    /**
+     * Checks if a validator is generated for the given message type.
+     */
+    boolean supports(ModelType type) {
+        return supported.contains(type.protoName());
+    }
+
+    /**
+     * Obtains the fully-qualified name of the registry class.
+     */
+    String registryClassName() {
+        return JavaNames.qualified(registryPackage, registryName);
+    }
+
+    /**
+     * Obtains the fully-qualified name of the validator of the given message type.
+     */
+    static String validatorClassName(ModelType type) {
+        String javaPackage = JavaNames.javaPackage(type.file());
+        return JavaNames.qualified(javaPackage, JavaNames.nestedName(type) + VALIDATOR_SUFFIX);
+    }
+
+    /**
+     * Writes the source code of the validators and the registry into the given source root.
+     *
+     * <p>If there are no supported messages, does nothing.
+     */
+    void writeTo(File sourceRoot) {
+        checkNotNull(sourceRoot);
+        if (supported.isEmpty()) {
+            return;
+        }
+        for (String name : supported) {
+            ModelType message = messages.get(name);
+            SourceLines.writeJava(sourceRoot,
+                                  validatorClassName(message),
+                                  validatorSource(message));
+        }
+        SourceLines.writeJava(sourceRoot, registryClassName(), registrySource());
+    }
+
+    /**
+     * Selects the messages which can be validated by the generated code.
+     *
+     * <p>A message which refers to a message without a validator in a {@code (validate)} field
+     * is excluded as well, until no more messages are excluded.
+     */
+    private ImmutableSet<String> supportedTypes() {
+        Set<String> result = new LinkedHashSet<>();
+        for (ModelType message : messages.values()) {
+            Optional<String> reason = runtimeOnlyReason(message);
+            if (reason.isPresent()) {
+                _debug().log("Message `%s` is validated at runtime: %s.",
+                             message.protoName(), reason.get());
+            } else {
+                result.add(message.protoName());
+            }
+        }
+        Set<String> excluded = new HashSet<>();
+        do {
+            result.removeAll(excluded);
+            excluded.clear();
+            for (String name : result) {
+                ModelType message = messages.get(name);
+                for (FieldDescriptorProto field : message.message().getFieldList()) {
+                    if (isValidated(field) && !result.contains(typeName(field))) {
+                        _debug().log("Message `%s` is validated at runtime: " +
+                                             "field `%s` refers to a message without " +
+                                             "a validator.", name, field.getName());
+                        excluded.add(name);
+                    }
+                }
+            }
+        } while (!excluded.isEmpty());
+        return ImmutableSet.copyOf(result);
+    }
+
+    /**
+     * Obtains the reason why the given message cannot be validated by the generated code.
+     *
+     * @return the reason, or {@code Optional.empty()} if the generated code supports
+     *         all the constraints of the message
+     */
+    private static Optional<String> runtimeOnlyReason(ModelType type) {
+        for (String option : optionNames(type.message().getOptions())) {
+            if (RUNTIME_MESSAGE_OPTIONS.contains(option)) {
+                return Optional.of("option `(" + option + ")`");
+            }
+        }
+        for (OneofDescriptorProto oneof : type.message().getOneofDeclList()) {
+            for (String option : optionNames(oneof.getOptions())) {
+                if (RUNTIME_ONEOF_OPTIONS.contains(option)) {
+                    return Optional.of("option `(" + option + ")` of `" + oneof.getName() + '`');
+                }
+            }
+        }
+        for (FieldDescriptorProto field : type.message().getFieldList()) {
+            Optional<String> reason = runtimeOnlyReason(type, field);
+            if (reason.isPresent()) {
+                return Optional.of("field `" + field.getName() + "` has " + reason.get());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> runtimeOnlyReason(ModelType type, FieldDescriptorProto field) {
+        if (field.getType() == Type.TYPE_GROUP) {
+            return Optional.of("the group type");
+        }
+        for (String option : optionNames(field.getOptions())) {
+            if (RUNTIME_FIELD_OPTIONS.contains(option)) {
+                return Optional.of("option `(" + option + ")`");
+            }
+        }
+        boolean isMap = JavaNames.mapEntry(type, field)
+                                 .isPresent();
+        Optional<Message> pattern = option(field.getOptions(), "pattern");
+        if (pattern.isPresent() && (isMap || field.getType() != Type.TYPE_STRING)) {
+            return Optional.of("option `(pattern)` on a non-string value");
+        }
+        for (String bound : ImmutableList.of("min", "max")) {
+            Optional<Message> option = option(field.getOptions(), bound);
+            if (option.isPresent()) {
+                String value = stringField(option.get(), "value");
+                if (isMap || !numberLiteral(field.getType(), value).isPresent()) {
+                    return Optional.of("option `(" + bound + ")` with a value `" + value
+                                               + "` which does not fit the field type");
+                }
+            }
+        }
+        if (isValidated(field) && isMap) {
+            return Optional.of("option `(validate)` on a map");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Composes the source code of the registry of the validators.
+     */
+    String registrySource() {
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        if (!registryPackage.isEmpty()) {
+            code.add("package %s;", registryPackage)
+                .add("");
+        }
+        code.add("import com.google.protobuf.Message;")
+            .add("import io.spine.validate.ConstraintViolation;")
+            .add("import java.util.HashMap;")
+            .add("import java.util.List;")
+            .add("import java.util.Map;")
+            .add("")
+            .add("/**")
+            .add(" * The registry of the generated validators of the module.")
+            .add(" */")
+            .open("public final class %s {", registryName)
+            .add("")
+            .add("private static final Map<Class<?>, Validation> VALIDATORS = new HashMap<>();")
+            .add("")
+            .open("static {");
+        for (String name : supported) {
+            ModelType message = messages.get(name);
+            String messageClass = message.canonicalClassName();
+            code.add("VALIDATORS.put(%s.class,", messageClass)
+                .add("               message -> %s.validate((%s) message));",
+                     validatorClassName(message), messageClass);
+        }
+        code.close("}")
+            .add("")
+            .open("private %s() {", registryName)
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Checks if there is a validator for the messages of the given class.")
+            .add(" */")
+            .open("public static boolean supports(Class<? extends Message> messageClass) {")
+            .add("return VALIDATORS.containsKey(messageClass);")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Validates the given message with its validator.")
+            .add(" *")
+            .add(" * @return the violations of the constraints, or an empty list if the message "
+                         + "is valid")
+            .add(" * @throws IllegalArgumentException if there is no validator for the message")
+            .add(" */")
+            .open("public static List<ConstraintViolation> validate(Message message) {")
+            .add("Validation validation = VALIDATORS.get(message.getClass());")
+            .open("if (validation == null) {")
+            .add("throw new IllegalArgumentException(")
+            .add("        \"No validator for \" + message.getClass().getName());")
+            .close("}")
+            .add("return validation.validate(message);")
+            .close("}")
+            .add("")
+            .open("private interface Validation {")
+            .add("")
+            .add("List<ConstraintViolation> validate(Message message);")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+
+    /**
+     * Composes the source code of the validator of the given message type.
+     */
+    String validatorSource(ModelType type) {
+        String messageClass = type.canonicalClassName();
+        String validatorName = JavaNames.nestedName(type) + VALIDATOR_SUFFIX;
+
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        String javaPackage = JavaNames.javaPackage(type.file());
+        if (!javaPackage.isEmpty()) {
+            code.add("package %s;", javaPackage)
+                .add("");
+        }
+        code.add("import io.spine.base.FieldPath;")
+            .add("import io.spine.validate.ConstraintViolation;")
+            .add("import java.util.ArrayList;")
+            .add("import java.util.Arrays;")
+            .add("import java.util.Collections;")
+            .add("import java.util.List;")
+            .add("")
+            .add("/**")
+            .add(" * Validates {@code %s} without descriptor lookups.", messageClass)
+            .add(" */")
+            .open("public final class %s {", validatorName)
+            .add("");
+        for (FieldDescriptorProto field : type.message().getFieldList()) {
+            option(field.getOptions(), "pattern").ifPresent(pattern -> {
+                code.add("private static final java.util.regex.Pattern %s =", patternName(field))
+                    .add("        java.util.regex.Pattern.compile(%s, %s);",
+                         literal(stringField(pattern, "regex")), patternFlags(pattern))
+                    .add("");
+            });
+        }
+        code.open("private %s() {", validatorName)
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Validates the given message.")
+            .add(" *")
+            .add(" * @return the violations of the constraints, or an empty list if the message "
+                         + "is valid")
+            .add(" */")
+            .open("public static List<ConstraintViolation> validate(%s message) {", messageClass)
+            .add("List<ConstraintViolation> violations = null;");
+        for (FieldDescriptorProto field : type.message().getFieldList()) {
+            checkRequired(type, field, code);
+            checkPattern(field, code);
+            checkBound(field, "min", code);
+            checkBound(field, "max", code);
+            checkNested(field, code);
+        }
+        code.add("return violations == null ? Collections.emptyList() : violations;")
+            .close("}")
+            .add("")
+            .add("private static List<ConstraintViolation> add(List<ConstraintViolation> list,")
+            .open("        ConstraintViolation violation) {")
+            .add("List<ConstraintViolation> result = list == null ? new ArrayList<>() : list;")
+            .add("result.add(violation);")
+            .add("return result;")
+            .close("}")
+            .add("")
+            .add("private static ConstraintViolation violation(String format, String field,")
+            .open("        String... params) {")
+            .add("return ConstraintViolation.newBuilder()")
+            .add("        .setMsgFormat(format)")
+            .add("        .addAllParam(Arrays.asList(params))")
+            .add("        .setFieldPath(FieldPath.newBuilder().addFieldName(field))")
+            .add("        .build();")
+            .close("}")
+            .add("")
+            .add("private static ConstraintViolation invalid(String format, String field,")
+            .open("        List<ConstraintViolation> nested) {")
+            .add("return violation(format, field).toBuilder()")
+            .add("                               .addAllViolation(nested)")
+            .add("                               .build();")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+
+    private static void checkRequired(ModelType type,
+                                      FieldDescriptorProto field,
+                                      SourceLines code) {
+        if (!isRequired(type, field)) {
+            return;
+        }
+        String getter = JavaNames.camelCase(field.getName());
+        String condition;
+        if (field.getLabel() == LABEL_REPEATED) {
+            condition = String.format("message.get%sCount() == 0", getter);
+        } else {
+            switch (field.getType()) {
+                case TYPE_STRING:
+                case TYPE_BYTES:
+                    condition = String.format("message.get%s().isEmpty()", getter);
+                    break;
+                case TYPE_MESSAGE:
+                    condition = String.format(
+                            "message.get%s().equals(message.get%s().getDefaultInstanceForType())",
+                            getter, getter);
+                    break;
+                case TYPE_ENUM:
+                    condition = String.format("message.get%sValue() == 0", getter);
+                    break;
+                default:
+                    // Numbers and booleans always have a value.
+                    return;
+            }
+        }
+        String format = messageFormat(field, "if_missing", MISSING);
+        code.open("if (%s) {", condition)
+            .add("violations = add(violations, violation(%s, %s));",
+                 literal(format), literal(field.getName()))
+            .close("}");
+    }
+
+    private static void checkPattern(FieldDescriptorProto field, SourceLines code) {
+        Optional<Message> option = option(field.getOptions(), "pattern");
+        if (!option.isPresent()) {
+            return;
+        }
+        Message pattern = option.get();
+        String getter = JavaNames.camelCase(field.getName());
+        String method = booleanField(stringModifier(pattern), "partial_match")
+                        ? "find"
+                        : "matches";
+        String regex = literal(stringField(pattern, "regex"));
+        String format = literal(messageFormat(pattern, MISMATCH));
+        String value = openValue(field, getter, "String", code);
+        code.open("if (!%s.isEmpty() && !%s.matcher(%s).%s()) {",
+                  value, patternName(field), value, method)
+            .add("violations = add(violations, violation(%s, %s, %s));",
+                 format, literal(field.getName()), regex)
+            .close("}");
+        closeValue(field, code);
+    }
+
+    private static void checkBound(FieldDescriptorProto field, String bound, SourceLines code) {
+        Optional<Message> option = option(field.getOptions(), bound);
+        if (!option.isPresent()) {
+            return;
+        }
+        String value = stringField(option.get(), "value");
+        boolean exclusive = booleanField(option.get(), "exclusive");
+        String limit = numberLiteral(field.getType(), value).orElseThrow(
+                () -> new IllegalStateException("Unsupported value of `" + bound + "`."));
+        boolean isMin = "min".equals(bound);
+        String operator = isMin
+                          ? (exclusive ? "<=" : "<")
+                          : (exclusive ? ">=" : ">");
+        String getter = JavaNames.camelCase(field.getName());
+        String number = openValue(field, getter, javaType(field.getType()), code);
+        String condition;
+        if (UNSIGNED_INT_TYPES.contains(field.getType())) {
+            condition = String.format("Integer.compareUnsigned(%s, %s) %s 0",
+                                      number, limit, operator);
+        } else if (UNSIGNED_LONG_TYPES.contains(field.getType())) {
+            condition = String.format("Long.compareUnsigned(%s, %s) %s 0",
+                                      number, limit, operator);
+        } else {
+            condition = String.format("%s %s %s", number, operator, limit);
+        }
+        String format = literal(messageFormat(option.get(), isMin ? BELOW_MIN : ABOVE_MAX));
+        code.open("if (%s) {", condition)
+            .add("violations = add(violations, violation(%s, %s, %s, %s));",
+                 format, literal(field.getName()),
+                 literal(exclusive ? "" : OR_EQUAL), literal(value))
+            .close("}");
+        closeValue(field, code);
+    }
+
+    private void checkNested(FieldDescriptorProto field, SourceLines code) {
+        if (!isValidated(field)) {
+            return;
+        }
+        ModelType nested = messages.get(typeName(field));
+        String getter = JavaNames.camelCase(field.getName());
+        String format = literal(messageFormat(field, "if_invalid", INVALID));
+        String value = openValue(field, getter, nested.canonicalClassName(), code);
+        if (field.getLabel() != LABEL_REPEATED) {
+            code.open("if (message.has%s()) {", getter);
+        }
+        code.add("List<ConstraintViolation> nested = %s.validate(%s);",
+                 validatorClassName(nested), value)
+            .open("if (!nested.isEmpty()) {")
+            .add("violations = add(violations, invalid(%s, %s, nested));",
+                 format, literal(field.getName()))
+            .close("}");
+        if (field.getLabel() != LABEL_REPEATED) {
+            code.close("}");
+        }
+        closeValue(field, code);
+    }
+
+    /**
+     * Obtains the expression of the value of the given field.
+     *
+     * <p>For a repeated field, opens a loop over the elements by index, so that no iterator
+     * is allocated, and names the current element {@code value}.
+     */
+    private static String openValue(FieldDescriptorProto field,
+                                    String getter,
+                                    String javaType,
+                                    SourceLines code) {
+        if (field.getLabel() != LABEL_REPEATED) {
+            return String.format("message.get%s()", getter);
+        }
+        code.open("for (int i = 0, count = message.get%sCount(); i < count; i++) {", getter)
+            .add("%s value = message.get%s(i);", javaType, getter);
+        return "value";
+    }
+
+    private static void closeValue(FieldDescriptorProto field, SourceLines code) {
+        if (field.getLabel() == LABEL_REPEATED) {
+            code.close("}");
+        }
+    }
+
+    private static boolean isRequired(ModelType type, FieldDescriptorProto field) {
+        if (field.hasOneofIndex() && !field.getProto3Optional()) {
+            return false;
+        }
+        if (field.getOptions().hasExtension(OptionsProto.required)) {
+            return field.getOptions()
+                        .getExtension(OptionsProto.required);
+        }
+        return isCommand(type) && field.getNumber() == type.message()
+                                                           .getField(0)
+                                                           .getNumber();
+    }
+
+    /**
+     * Checks if the given type is a command, the first field of which is required by default.
+     */
+    private static boolean isCommand(ModelType type) {
+        FileDescriptorProto file = type.file();
+        String protoPackage = file.getPackage();
+        String topLevelName = JavaNames.qualified(protoPackage, type.message().getName());
+        return file.getName().endsWith(COMMANDS_FILE_SUFFIX)
+                && type.protoName().equals(topLevelName);
+    }
+
+    private static boolean isValidated(FieldDescriptorProto field) {
+        if (field.getType() != Type.TYPE_MESSAGE) {
+            return false;
+        }
+        return field.getOptions().getAllFields()
+                    .entrySet()
+                    .stream()
+                    .anyMatch(option -> "validate".equals(option.getKey().getName())
+                            && Boolean.TRUE.equals(option.getValue()));
+    }
+
+    private static String typeName(FieldDescriptorProto field) {
+        String typeName = field.getTypeName();
+        return typeName.startsWith(".") ? typeName.substring(1) : typeName;
+    }
+
+    private static ImmutableSet<String> optionNames(Message options) {
+        return options.getAllFields()
+                      .keySet()
+                      .stream()
+                      .filter(FieldDescriptor::isExtension)
+                      .map(FieldDescriptor::getName)
+                      .collect(ImmutableSet.toImmutableSet());
+    }
+
+    /**
+     * Finds the value of a message-typed option with the given name.
+     */
+    private static Optional<Message> option(Message options, String name) {
+        for (Map.Entry<FieldDescriptor, Object> option : options.getAllFields().entrySet()) {
+            if (option.getKey().isExtension()
+                    && option.getKey().getName().equals(name)
+                    && option.getValue() instanceof Message) {
+                return Optional.of((Message) option.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String messageFormat(FieldDescriptorProto field,
+                                        String optionName,
+                                        String defaultFormat) {
+        return option(field.getOptions(), optionName)
+                .map(option -> messageFormat(option, defaultFormat))
+                .orElse(defaultFormat);
+    }
+
+    private static String messageFormat(Message option, String defaultFormat) {
+        String format = stringField(option, "msg_format");
+        return format.isEmpty() ? defaultFormat : format;
+    }
+
+    private static Message stringModifier(Message pattern) {
+        FieldDescriptor field = pattern.getDescriptorForType()
+                                       .findFieldByName("modifier");
+        return field == null
+               ? pattern
+               : (Message) pattern.getField(field);
+    }
+
+    private static String stringField(Message message, String name) {
+        FieldDescriptor field = message.getDescriptorForType()
+                                       .findFieldByName(name);
+        return field == null ? "" : String.valueOf(message.getField(field));
+    }
+
+    private static boolean booleanField(Message message, String name) {
+        FieldDescriptor field = message.getDescriptorForType()
+                                       .findFieldByName(name);
+        return field != null && Boolean.TRUE.equals(message.getField(field));
+    }
+
+    private static String patternName(FieldDescriptorProto field) {
+        return field.getName().toUpperCase(Locale.ROOT) + "_PATTERN";
+    }
+
+    private static String patternFlags(Message pattern) {
+        Message modifier = stringModifier(pattern);
+        StringBuilder flags = new StringBuilder();
+        ImmutableMap<String, String> options = ImmutableMap.of(
+                "case_insensitive", "CASE_INSENSITIVE",
+                "multiline", "MULTILINE",
+                "dot_all", "DOTALL",
+                "unicode", "UNICODE_CASE"
+        );
+        options.forEach((option, flag) -> {
+            if (booleanField(modifier, option)) {
+                if (flags.length() > 0) {
+                    flags.append(" | ");
+                }
+                flags.append("java.util.regex.Pattern.")
+                     .append(flag);
+            }
+        });
+        return flags.length() == 0 ? "0" : flags.toString();
+    }
+
+    /**
+     * Obtains the Java literal of the given bound of a numeric field.
+     *
+     * @return the literal, or {@code Optional.empty()} if the value is not a number of
+     *         the field type
+     */
+    static Optional<String> numberLiteral(Type type, String value) {
+        try {
+            if (INT_TYPES.contains(type)) {
+                return Optional.of(String.valueOf(Integer.parseInt(value)));
+            }
+            if (UNSIGNED_INT_TYPES.contains(type)) {
+                return Optional.of(String.valueOf(Integer.parseUnsignedInt(value)));
+            }
+            if (LONG_TYPES.contains(type)) {
+                return Optional.of(Long.parseLong(value) + "L");
+            }
+            if (UNSIGNED_LONG_TYPES.contains(type)) {
+                return Optional.of(Long.parseUnsignedLong(value) + "L");
+            }
+            if (type == Type.TYPE_FLOAT) {
+                float number = Float.parseFloat(value);
+                return Float.isFinite(number)
+                       ? Optional.of(number + "f")
+                       : Optional.empty();
+            }
+            if (type == Type.TYPE_DOUBLE) {
+                double number = Double.parseDouble(value);
+                return Double.isFinite(number)
+                       ? Optional.of(number + "d")
+                       : Optional.empty();
+            }
+        } catch (NumberFormatException ignored) {
+            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    private static String javaType(Type type) {
+        if (INT_TYPES.contains(type) || UNSIGNED_INT_TYPES.contains(type)) {
+            return "int";
+        }
+        if (LONG_TYPES.contains(type) || UNSIGNED_LONG_TYPES.contains(type)) {
+            return "long";
+        }
+        return type == Type.TYPE_FLOAT ? "float" : "double";
+    }
+
+    /**
+     * Obtains the Java string literal of the given value.
+     */
+    static String literal(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                case '\\':
+                    result.append('\\')
+                          .append(c);
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < ' ' || c > '~') {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"')
+                     .toString();
+    }
+}
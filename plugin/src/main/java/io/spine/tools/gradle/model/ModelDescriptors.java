@@ -0,0 +1,215 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.option.OptionsProto;
+import io.spine.tools.gradle.protoc.ProtoSources;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.file.Files.newInputStream;
+import static java.util.function.Function.identity;
+
+/**
+ * The Protobuf model of a project as described by the descriptor set generated by {@code protoc}.
+ *
+ * <p>The files compiled in the project are called own files. The descriptor set may also contain
+ * the files imported from the dependencies, which are used to resolve references to the types.
+ */
+final class ModelDescriptors {
+
+    private static final String DEFAULT_TYPE_URL_PREFIX = "type.googleapis.com";
+
+    private final ImmutableList<FileDescriptorProto> files;
+    private final ImmutableSet<String> ownFiles;
+    private final ImmutableList<ModelType> types;
+    private final ImmutableMap<String, ModelType> typesByName;
+
+    private ModelDescriptors(ImmutableList<FileDescriptorProto> files,
+                             ImmutableSet<String> ownFiles) {
+        this.files = files;
+        this.ownFiles = ownFiles;
+        ImmutableList.Builder<ModelType> types = ImmutableList.builder();
+        files.forEach(file -> collectTypes(file, types));
+        this.types = types.build();
+        this.typesByName = this.types.stream()
+                                     .collect(toImmutableMap(ModelType::protoName, identity()));
+    }
+
+    /**
+     * Creates the model from the given descriptor set.
+     *
+     * @param descriptorSet
+     *         the descriptor set parsed with the Spine options registered
+     * @param ownFiles
+     *         the names of the files compiled in the project
+     */
+    static ModelDescriptors of(FileDescriptorSet descriptorSet, Set<String> ownFiles) {
+        checkNotNull(descriptorSet);
+        checkNotNull(ownFiles);
+        return new ModelDescriptors(ImmutableList.copyOf(descriptorSet.getFileList()),
+                                    ImmutableSet.copyOf(ownFiles));
+    }
+
+    /**
+     * Loads the model of the main source set of the given project.
+     *
+     * @return the model or {@code Optional.empty()} if the project does not generate
+     *         a descriptor set for the main source set
+     */
+    static Optional<ModelDescriptors> load(Project project) {
+        Optional<GenerateProtoTask> task = generateProtoTask(project);
+        if (!task.isPresent() || !task.get().getGenerateDescriptorSet()) {
+            return Optional.empty();
+        }
+        File descriptorSetFile = descriptorSetFile(task.get());
+        if (!descriptorSetFile.exists()) {
+            return Optional.empty();
+        }
+        ImmutableSet<String> ownFiles = ProtoSources.byImportPath(task.get().getSourceFiles())
+                                                    .keySet();
+        return Optional.of(of(read(descriptorSetFile), ownFiles));
+    }
+
+    /**
+     * Obtains the task which generates the descriptor set of the main source set.
+     */
+    static Optional<GenerateProtoTask> generateProtoTask(Project project) {
+        Task task = project.getTasks()
+                           .findByName(generateProto.name());
+        return task instanceof GenerateProtoTask
+               ? Optional.of((GenerateProtoTask) task)
+               : Optional.empty();
+    }
+
+    /**
+     * Obtains the descriptor set file generated by the given task.
+     */
+    static File descriptorSetFile(GenerateProtoTask task) {
+        return task.getProject()
+                   .file(task.getDescriptorPath());
+    }
+
+    private static FileDescriptorSet read(File file) {
+        ExtensionRegistry registry = ExtensionRegistry.newInstance();
+        OptionsProto.registerAllExtensions(registry);
+        try (InputStream in = newInputStream(file.toPath())) {
+            return FileDescriptorSet.parseFrom(in, registry);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private static void collectTypes(FileDescriptorProto file,
+                                     ImmutableList.Builder<ModelType> types) {
+        String prefix = typeUrlPrefix(file);
+        for (EnumDescriptorProto enumType : file.getEnumTypeList()) {
+            types.add(ModelType.enumType(file, ImmutableList.of(enumType.getName()),
+                                         prefix, enumType));
+        }
+        collectMessages(file, ImmutableList.of(), file.getMessageTypeList(), prefix, types);
+    }
+
+    private static void collectMessages(FileDescriptorProto file,
+                                        List<String> enclosing,
+                                        List<DescriptorProto> messages,
+                                        String prefix,
+                                        ImmutableList.Builder<ModelType> types) {
+        for (DescriptorProto message : messages) {
+            if (message.getOptions().getMapEntry()) {
+                continue;
+            }
+            ImmutableList<String> path = JavaNames.nested(enclosing, message.getName());
+            types.add(ModelType.message(file, path, prefix, message));
+            for (EnumDescriptorProto enumType : message.getEnumTypeList()) {
+                types.add(ModelType.enumType(file, JavaNames.nested(path, enumType.getName()),
+                                             prefix, enumType));
+            }
+            collectMessages(file, path, message.getNestedTypeList(), prefix, types);
+        }
+    }
+
+    private static String typeUrlPrefix(FileDescriptorProto file) {
+        String prefix = file.getOptions()
+                            .getExtension(OptionsProto.typeUrlPrefix);
+        return prefix.isEmpty()
+               ? DEFAULT_TYPE_URL_PREFIX
+               : prefix;
+    }
+
+    /**
+     * Obtains the files compiled in the project.
+     */
+    ImmutableList<FileDescriptorProto> ownFiles() {
+        return files.stream()
+                    .filter(file -> ownFiles.contains(file.getName()))
+                    .collect(toImmutableList());
+    }
+
+    /**
+     * Obtains the types declared in the files compiled in the project.
+     */
+    ImmutableList<ModelType> ownTypes() {
+        return types.stream()
+                    .filter(type -> ownFiles.contains(type.file().getName()))
+                    .collect(toImmutableList());
+    }
+
+    /**
+     * Finds a type declared in the model or in its dependencies.
+     *
+     * @param protoName
+     *         the fully-qualified Protobuf name of the type, with or without the leading dot
+     */
+    Optional<ModelType> find(String protoName) {
+        String name = protoName.startsWith(".")
+                      ? protoName.substring(1)
+                      : protoName;
+        return Optional.ofNullable(typesByName.get(name));
+    }
+}
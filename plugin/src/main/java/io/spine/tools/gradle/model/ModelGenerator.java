@@ -0,0 +1,341 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+
+import java.io.File;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.gradle.ProtoJsTaskName.generateJsonParsers;
+import static io.spine.tools.gradle.model.ModelTaskName.generateBenchmarks;
+import static io.spine.tools.gradle.model.ModelTaskName.generateColumnExtractors;
+import static io.spine.tools.gradle.model.ModelTaskName.generateJsLazyIndex;
+import static io.spine.tools.gradle.model.ModelTaskName.generateJsParsers;
+import static io.spine.tools.gradle.model.ModelTaskName.generateJsonCodecs;
+import static io.spine.tools.gradle.model.ModelTaskName.generateKnownTypesIndex;
+import static io.spine.tools.gradle.model.ModelTaskName.generateNativeImageConfig;
+import static io.spine.tools.gradle.model.ModelTaskName.generateRoutingTable;
+import static io.spine.tools.gradle.model.ModelTaskName.generateValidators;
+import static io.spine.tools.gradle.model.ModelTaskName.reportMessageShapes;
+import static io.spine.util.Exceptions.newIllegalStateException;
+import static org.gradle.language.base.plugins.LifecycleBasePlugin.CHECK_TASK_NAME;
+
+/**
+ * A facade for the generation of code and resources from the Protobuf model of a project.
+ *
+ * <p>Complements the code generated by {@code protoc} with the artifacts which require the whole
+ * model to be known, such as indices and registries.
+ */
+public final class ModelGenerator {
+
+    private static final String JS_BUILT_IN = "js";
+    private static final String IMPORT_STYLE = "importStyle";
+    private static final String BUDGET = "budget";
+
+    private final Project project;
+    private JsImportStyle jsImportStyle = JsImportStyle.commonjs;
+
+    public ModelGenerator(Project project) {
+        this.project = checkNotNull(project);
+    }
+
+    /**
+     * Sets the style of the generated JavaScript modules.
+     *
+     * <p>Defaults to {@link JsImportStyle#commonjs commonjs}.
+     */
+    public void useJsImportStyle(JsImportStyle style) {
+        this.jsImportStyle = checkNotNull(style);
+    }
+
+    /**
+     * Enables generation of the {@linkplain KnownTypesIndex binary index} of the known types.
+     *
+     * <p>The index is packed into the project resources, so that the runtime can load the type
+     * registry without scanning the classpath.
+     */
+    public void enableKnownTypesIndex() {
+        ModelTask.createResourceTask(
+                project, generateKnownTypesIndex,
+                "Generates the binary index of the known Protobuf types.",
+                (model, outputDir) -> KnownTypesIndex.of(model)
+                                                     .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the binary index of the known types.
+     */
+    public void disableKnownTypesIndex() {
+        ModelTask.disable(project, generateKnownTypesIndex);
+    }
+
+    /**
+     * Enables generation of the GraalVM {@code native-image} {@linkplain NativeImageConfig
+     * configuration} of the generated classes.
+     *
+     * <p>The configuration is packed into the project resources under
+     * {@code META-INF/native-image}, so that the module can be used in a native image without
+     * listing its classes by hand.
+     */
+    public void enableNativeImageConfig() {
+        ModelTask.createResourceTask(
+                project, generateNativeImageConfig,
+                "Generates the GraalVM native-image configuration of the Protobuf types.",
+                (model, outputDir) -> {
+                    String group = String.valueOf(project.getGroup());
+                    String directory = NativeImageConfig.directory(group, project.getName());
+                    NativeImageConfig.of(model)
+                                     .writeTo(new File(outputDir, directory));
+                }
+        );
+    }
+
+    /**
+     * Disables generation of the GraalVM {@code native-image} configuration.
+     */
+    public void disableNativeImageConfig() {
+        ModelTask.disable(project, generateNativeImageConfig);
+    }
+
+    /**
+     * Enables generation of the {@linkplain RoutingTable routing table} of the commands and
+     * events declared in the project.
+     *
+     * <p>The table is compiled along with the main sources of the project.
+     */
+    public void enableRoutingTable() {
+        ModelTask.createSourceTask(
+                project, generateRoutingTable,
+                "Generates the routing table of the commands and events.",
+                (model, outputDir) -> RoutingTable.of(model, project.getName())
+                                                  .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the routing table.
+     */
+    public void disableRoutingTable() {
+        ModelTask.disable(project, generateRoutingTable);
+    }
+
+    /**
+     * Enables generation of the {@linkplain ColumnExtractors column extractors} of the entity
+     * states declared in the project.
+     *
+     * <p>The extractors are compiled along with the main sources of the project.
+     */
+    public void enableColumnExtractors() {
+        ModelTask.createSourceTask(
+                project, generateColumnExtractors,
+                "Generates the column extractors of the entity states.",
+                (model, outputDir) -> ColumnExtractors.of(model)
+                                                      .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the column extractors.
+     */
+    public void disableColumnExtractors() {
+        ModelTask.disable(project, generateColumnExtractors);
+    }
+
+    /**
+     * Enables generation of the {@linkplain JsonCodecs JSON codecs} of the messages declared
+     * in the project.
+     *
+     * <p>The codecs are compiled along with the main sources of the project.
+     */
+    public void enableJsonCodecs() {
+        ModelTask.createSourceTask(
+                project, generateJsonCodecs,
+                "Generates the JSON codecs of the messages.",
+                (model, outputDir) -> JsonCodecs.of(model, project.getName())
+                                                .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the JSON codecs.
+     */
+    public void disableJsonCodecs() {
+        ModelTask.disable(project, generateJsonCodecs);
+    }
+
+    /**
+     * Enables generation of the {@linkplain MessageValidators validators} of the messages
+     * declared in the project.
+     *
+     * <p>The validators are compiled along with the main sources of the project.
+     */
+    public void enableValidators() {
+        ModelTask.createSourceTask(
+                project, generateValidators,
+                "Generates the validators of the messages.",
+                (model, outputDir) -> MessageValidators.of(model, project.getName())
+                                                       .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the validators.
+     */
+    public void disableValidators() {
+        ModelTask.disable(project, generateValidators);
+    }
+
+    /**
+     * Enables generation of the specialized {@linkplain JsParsers JavaScript parsers} of
+     * the messages declared in the project.
+     *
+     * <p>The parsers are put next to the JS code generated by {@code protoc}.
+     */
+    public void enableJsParsers() {
+        ModelTask.createOverlayTask(
+                project, generateJsParsers,
+                "Generates the JavaScript parsers of the messages.",
+                this::jsOutputDir,
+                ImmutableList.of(generateJsonParsers),
+                (model, outputDir) -> JsParsers.of(model, jsImportStyle)
+                                               .writeTo(outputDir)
+        );
+        ModelTask.trackSetting(project, generateJsParsers, IMPORT_STYLE, () -> jsImportStyle);
+    }
+
+    /**
+     * Disables generation of the specialized JavaScript parsers of the messages.
+     */
+    public void disableJsParsers() {
+        ModelTask.disable(project, generateJsParsers);
+    }
+
+    /**
+     * Enables generation of the {@linkplain JsLazyIndex lazy registries} of the JavaScript
+     * messages declared in the project.
+     *
+     * <p>The registries are put next to the JS code generated by {@code protoc}.
+     */
+    public void enableJsLazyIndex() {
+        ModelTask.createOverlayTask(
+                project, generateJsLazyIndex,
+                "Generates the lazy registries of the JavaScript messages.",
+                this::jsOutputDir,
+                ImmutableList.of(generateJsParsers),
+                (model, outputDir) -> JsLazyIndex.of(model, jsImportStyle)
+                                                 .writeTo(outputDir)
+        );
+        ModelTask.trackSetting(project, generateJsLazyIndex, IMPORT_STYLE, () -> jsImportStyle);
+    }
+
+    /**
+     * Disables generation of the lazy registries of the JavaScript messages.
+     */
+    public void disableJsLazyIndex() {
+        ModelTask.disable(project, generateJsLazyIndex);
+    }
+
+    /**
+     * Enables generation of the {@linkplain MessageBenchmarks serialization benchmarks} of
+     * the messages declared in the project.
+     *
+     * @param sourceSet
+     *         the name of the source set to compile the benchmarks in
+     */
+    public void enableBenchmarks(String sourceSet) {
+        checkNotNull(sourceSet);
+        ModelTask.createSourceTask(
+                project, generateBenchmarks,
+                "Generates the serialization benchmarks of the messages.",
+                sourceSet,
+                (model, outputDir) -> MessageBenchmarks.of(model)
+                                                       .writeTo(outputDir)
+        );
+    }
+
+    /**
+     * Disables generation of the serialization benchmarks.
+     */
+    public void disableBenchmarks() {
+        ModelTask.disable(project, generateBenchmarks);
+    }
+
+    /**
+     * Enables the {@linkplain MessageShapes report} of the shapes of the messages declared in
+     * the project.
+     *
+     * <p>The report is written into {@code build/reports/spine/reportMessageShapes} as a part of
+     * the {@code check} task. The budget violations are logged as warnings or, if the budget
+     * says so, fail the build.
+     *
+     * @param budget
+     *         the supplier of the budget to check the messages against, called when the task runs
+     */
+    public void enableShapeReport(Supplier<ShapeBudget> budget) {
+        checkNotNull(budget);
+        ModelTask.createReportTask(
+                project, reportMessageShapes,
+                "Reports the shapes of the messages and checks them against the budget.",
+                (model, outputDir) -> {
+                    ShapeBudget currentBudget = budget.get();
+                    MessageShapes shapes = MessageShapes.of(model);
+                    shapes.writeTo(outputDir, currentBudget);
+                    shapes.check(currentBudget);
+                }
+        );
+        ModelTask.trackSetting(project, reportMessageShapes, BUDGET, budget);
+        project.afterEvaluate(p -> {
+            Task check = project.getTasks()
+                                .findByName(CHECK_TASK_NAME);
+            if (check != null) {
+                check.dependsOn(reportMessageShapes.name());
+            }
+        });
+    }
+
+    /**
+     * Disables the report of the shapes of the messages.
+     */
+    public void disableShapeReport() {
+        ModelTask.disable(project, reportMessageShapes);
+    }
+
+    private File jsOutputDir() {
+        GenerateProtoTask task = ModelDescriptors
+                .generateProtoTask(project)
+                .orElseThrow(() -> newIllegalStateException(
+                        "Project `%s` does not generate code from Protobuf.", project.getPath()
+                ));
+        return new File(task.getOutputBaseDir(), JS_BUILT_IN);
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.logging.Logging;
+import io.spine.tools.gradle.TaskName;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskContainer;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
+import static org.gradle.api.tasks.SourceSet.MAIN_SOURCE_SET_NAME;
+
+/**
+ * A task which generates files from the {@linkplain ModelDescriptors Protobuf model} of
+ * the main source set.
+ *
+ * <p>The task reads the descriptor set generated by the {@code generateProto} task and writes
+ * the generated files into {@code build/spine/model/<task name>}. The directory is added either
+ * to the output of the main source set, so that the files are packed into the project JAR, or to
+ * the Java sources of a source set, usually the main one.
+ *
+ * <p>Alternatively, the task may add files to the directory populated by another task, such as
+ * the output directory of a {@code protoc} built-in. Such a task does not own the directory and
+ * does not clean it. The directory is still declared as the task output. As the output overlaps
+ * with the one of the other task, Gradle considers only the files written by this task as its
+ * outputs and does not cache it.
+ *
+ * <p>Besides the descriptor set, the inputs of the task include the project coordinates and
+ * the {@linkplain #trackSetting settings} of the generator, so that the task is not up to date
+ * once any of them changes.
+ */
+final class ModelTask implements Logging {
+
+    private static final String OUTPUT_ROOT = "spine/model";
+    private static final String REPORTS_ROOT = "reports/spine";
+    private static final String JAVA_PLUGIN = "java";
+
+    private final Project project;
+    private final Task task;
+    private final ModelAction action;
+    private final Supplier<File> outputDir;
+    private final boolean ownsOutputDir;
+
+    private ModelTask(Project project,
+                      Task task,
+                      ModelAction action,
+                      Supplier<File> outputDir,
+                      boolean ownsOutputDir) {
+        this.project = project;
+        this.task = task;
+        this.action = action;
+        this.outputDir = outputDir;
+        this.ownsOutputDir = ownsOutputDir;
+    }
+
+    /**
+     * Creates a task which generates resources of the main source set.
+     *
+     * <p>The generated resources are packed along with the other resources of the main source
+     * set, unless the task is {@linkplain #disable(Project, TaskName) disabled}.
+     *
+     * <p>If the task already exists, enables it.
+     *
+     * @param project
+     *         the project to create the task in
+     * @param name
+     *         the name of the task
+     * @param description
+     *         the description of the task
+     * @param action
+     *         the action which generates the files
+     */
+    static void createResourceTask(Project project,
+                                   TaskName name,
+                                   String description,
+                                   ModelAction action) {
+        Task existing = project.getTasks()
+                               .findByName(name.name());
+        if (existing != null) {
+            existing.setEnabled(true);
+            return;
+        }
+        create(project, name, description, action, null)
+                .ifPresent(ModelTask::addResourceDir);
+    }
+
+    /**
+     * Creates a task which generates Java sources of the main source set.
+     *
+     * <p>The generated sources are compiled along with the other sources of the main source set,
+     * unless the task is {@linkplain #disable(Project, TaskName) disabled}.
+     *
+     * <p>If the task already exists, enables it.
+     *
+     * @see #createResourceTask(Project, TaskName, String, ModelAction)
+     */
+    static void createSourceTask(Project project,
+                                 TaskName name,
+                                 String description,
+                                 ModelAction action) {
+        createSourceTask(project, name, description, MAIN_SOURCE_SET_NAME, action);
+    }
+
+    /**
+     * Creates a task which generates Java sources of the given source set.
+     *
+     * <p>The source set is looked up once the {@code java} plugin is applied, so it should be
+     * created by then.
+     *
+     * @param sourceSet
+     *         the name of the source set to add the generated sources to
+     * @see #createSourceTask(Project, TaskName, String, ModelAction)
+     */
+    static void createSourceTask(Project project,
+                                 TaskName name,
+                                 String description,
+                                 String sourceSet,
+                                 ModelAction action) {
+        Task existing = project.getTasks()
+                               .findByName(name.name());
+        if (existing != null) {
+            existing.setEnabled(true);
+            return;
+        }
+        create(project, name, description, action, null)
+                .ifPresent(modelTask -> modelTask.addSourceDir(sourceSet));
+    }
+
+    /**
+     * Creates a task which adds files to the directory populated by another task.
+     *
+     * <p>The directory is not cleaned by the created task. The task runs after
+     * the {@code generateProto} task and after the given tasks, if they exist.
+     *
+     * <p>The overlay generators should rewrite only the files whose content changes, so that
+     * the tasks which consume the directory stay up to date when the owner of the directory
+     * reruns.
+     *
+     * <p>If the task already exists, enables it.
+     *
+     * @param outputDir
+     *         the supplier of the directory to add files to
+     * @param runsAfter
+     *         the tasks which populate the directory
+     * @see #createResourceTask(Project, TaskName, String, ModelAction)
+     */
+    static void createOverlayTask(Project project,
+                                  TaskName name,
+                                  String description,
+                                  Supplier<File> outputDir,
+                                  Iterable<TaskName> runsAfter,
+                                  ModelAction action) {
+        Task existing = project.getTasks()
+                               .findByName(name.name());
+        if (existing != null) {
+            existing.setEnabled(true);
+            return;
+        }
+        create(project, name, description, action, outputDir)
+                .ifPresent(modelTask -> modelTask.runAfter(runsAfter));
+    }
+
+    /**
+     * Creates a task which writes a report into {@code build/reports/spine/<task name>}.
+     *
+     * <p>The report directory is the task output. The report is rewritten once the model or
+     * the {@linkplain #trackSetting settings} of the report change.
+     *
+     * <p>If the task already exists, enables it.
+     *
+     * @see #createResourceTask(Project, TaskName, String, ModelAction)
+     */
+    static void createReportTask(Project project,
+                                 TaskName name,
+                                 String description,
+                                 ModelAction action) {
+        Supplier<File> reportDir = () -> project.getBuildDir()
+                                                .toPath()
+                                                .resolve(REPORTS_ROOT)
+                                                .resolve(name.name())
+                                                .toFile();
+        createOverlayTask(project, name, description, reportDir, ImmutableList.of(), action);
+    }
+
+    /**
+     * Makes the given setting of the generator an input of the task with the given name.
+     *
+     * <p>Does nothing if the task does not exist.
+     *
+     * @param setting
+     *         the name of the setting
+     * @param value
+     *         the supplier of the setting value, called when the task inputs are fingerprinted
+     */
+    static void trackSetting(Project project, TaskName name, String setting, Supplier<?> value) {
+        Task task = project.getTasks()
+                           .findByName(name.name());
+        if (task != null) {
+            task.getInputs()
+                .property(setting, project.provider(() -> String.valueOf(value.get())));
+        }
+    }
+
+    /**
+     * Disables the task with the given name, if it exists.
+     *
+     * <p>The files generated by a disabled source or resource task are neither compiled nor
+     * packed. The files generated by a disabled overlay task stay in place until the directory is
+     * cleaned by its owner.
+     */
+    static void disable(Project project, TaskName name) {
+        Task task = project.getTasks()
+                           .findByName(name.name());
+        if (task != null) {
+            task.setEnabled(false);
+        }
+    }
+
+    /**
+     * Creates the task.
+     *
+     * @param overlayDir
+     *         the supplier of the directory populated by another task, or {@code null} if
+     *         the task owns its output directory
+     */
+    private static Optional<ModelTask> create(Project project,
+                                              TaskName name,
+                                              String description,
+                                              ModelAction action,
+                                              @Nullable Supplier<File> overlayDir) {
+        TaskContainer tasks = project.getTasks();
+        if (tasks.findByName(name.name()) != null) {
+            return Optional.empty();
+        }
+        Task task = tasks.create(name.name());
+        ModelTask modelTask = overlayDir == null
+                              ? new ModelTask(project, task, action, () -> ownDir(task), true)
+                              : new ModelTask(project, task, action, overlayDir, false);
+        task.setDescription(description);
+        Callable<Object> descriptorSet = modelTask::descriptorSetFile;
+        task.getInputs()
+            .files(descriptorSet)
+            .withPropertyName("descriptorSet");
+        // The generated class names and resource paths are derived from the project coordinates.
+        task.getInputs()
+            .property("projectName", project.getName());
+        task.getInputs()
+            .property("projectGroup", project.provider(() -> String.valueOf(project.getGroup())));
+        if (modelTask.ownsOutputDir) {
+            task.getOutputs()
+                .dir(modelTask.outputDir.get());
+        } else {
+            Callable<Object> overlayOutput = modelTask.outputDir::get;
+            task.getOutputs()
+                .dir(overlayOutput);
+        }
+        // Gradle cannot track the implementation of a lambda, so the action is a class.
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                modelTask.generate();
+            }
+        });
+        project.afterEvaluate(p -> {
+            if (tasks.findByName(generateProto.name()) != null) {
+                task.dependsOn(generateProto.name());
+            }
+        });
+        return Optional.of(modelTask);
+    }
+
+    private static File ownDir(Task task) {
+        return task.getProject()
+                   .getBuildDir()
+                   .toPath()
+                   .resolve(OUTPUT_ROOT)
+                   .resolve(task.getName())
+                   .toFile();
+    }
+
+    private void runAfter(Iterable<TaskName> names) {
+        project.afterEvaluate(p -> {
+            for (TaskName name : names) {
+                Task other = project.getTasks()
+                                    .findByName(name.name());
+                if (other != null) {
+                    task.dependsOn(other);
+                }
+            }
+        });
+    }
+
+    private void addResourceDir() {
+        Callable<Object> resourceDir = () -> task.getEnabled()
+                                             ? outputDir.get()
+                                             : project.files();
+        project.getPluginManager()
+               .withPlugin(JAVA_PLUGIN, plugin -> mainSourceSet(project)
+                       .getOutput()
+                       .dir(ImmutableMap.of("builtBy", task), resourceDir));
+    }
+
+    private void addSourceDir(String sourceSetName) {
+        project.getPluginManager()
+               .withPlugin(JAVA_PLUGIN,
+                           plugin -> addSourceDir(sourceSet(project, sourceSetName)));
+    }
+
+    private void addSourceDir(SourceSet sourceSet) {
+        Callable<Object> sourceDir = () -> task.getEnabled()
+                                           ? outputDir.get()
+                                           : project.files();
+        sourceSet.getJava()
+                 .srcDir(sourceDir);
+        project.getTasks()
+               .getByName(sourceSet.getCompileJavaTaskName())
+               .dependsOn(task);
+    }
+
+    private Object descriptorSetFile() {
+        Optional<GenerateProtoTask> task = ModelDescriptors.generateProtoTask(project);
+        if (task.isPresent() && task.get().getGenerateDescriptorSet()) {
+            return ModelDescriptors.descriptorSetFile(task.get());
+        }
+        return project.files();
+    }
+
+    private void generate() {
+        File dir = outputDir.get();
+        if (ownsOutputDir) {
+            project.delete(dir);
+        }
+        project.mkdir(dir);
+        Optional<ModelDescriptors> model = ModelDescriptors.load(project);
+        if (model.isPresent()) {
+            action.generate(model.get(), dir);
+        } else {
+            _warn().log("Project `%s` does not generate a descriptor set of the main scope.",
+                        project.getPath());
+        }
+    }
+
+    private static SourceSet mainSourceSet(Project project) {
+        return sourceSet(project, MAIN_SOURCE_SET_NAME);
+    }
+
+    private static SourceSet sourceSet(Project project, String name) {
+        return project.getConvention()
+                      .getPlugin(JavaPluginConvention.class)
+                      .getSourceSets()
+                      .getByName(name);
+    }
+
+    /**
+     * An action which generates files from the Protobuf model.
+     */
+    @FunctionalInterface
+    interface ModelAction {
+
+        /**
+         * Generates files from the given model into the given directory.
+         */
+        void generate(ModelDescriptors model, File outputDir);
+    }
+}
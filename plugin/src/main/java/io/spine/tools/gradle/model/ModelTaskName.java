@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import io.spine.tools.gradle.TaskName;
+
+/**
+ * Tasks which generate code and resources from the Protobuf model of a project.
+ */
+public enum ModelTaskName implements TaskName {
+
+    /**
+     * Name of the task which generates the binary index of the known types of the main scope.
+     */
+    generateKnownTypesIndex,
+
+    /**
+     * Name of the task which generates the GraalVM {@code native-image} configuration of
+     * the main scope.
+     */
+    generateNativeImageConfig,
+
+    /**
+     * Name of the task which generates the routing table of the commands and events of
+     * the main scope.
+     */
+    generateRoutingTable,
+
+    /**
+     * Name of the task which generates the column extractors of the entity states of
+     * the main scope.
+     */
+    generateColumnExtractors,
+
+    /**
+     * Name of the task which generates the JSON codecs of the messages of the main scope.
+     */
+    generateJsonCodecs,
+
+    /**
+     * Name of the task which generates the JavaScript parsers of the messages of the main scope.
+     */
+    generateJsParsers,
+
+    /**
+     * Name of the task which generates the lazy JavaScript registries of the messages of
+     * the main scope.
+     */
+    generateJsLazyIndex,
+
+    /**
+     * Name of the task which generates the serialization benchmarks of the messages of
+     * the main scope.
+     */
+    generateBenchmarks,
+
+    /**
+     * Name of the task which generates the validators of the messages of the main scope.
+     */
+    generateValidators,
+
+    /**
+     * Name of the task which reports the shapes of the messages of the main scope.
+     */
+    reportMessageShapes
+}
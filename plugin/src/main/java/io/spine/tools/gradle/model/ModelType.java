@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A message or an enum type declared in the Protobuf model.
+ */
+final class ModelType {
+
+    private final FileDescriptorProto file;
+    private final String protoName;
+    private final String javaClass;
+    private final String typeUrl;
+    private final @Nullable DescriptorProto message;
+    private final @Nullable EnumDescriptorProto enumType;
+
+    private ModelType(FileDescriptorProto file,
+                      String protoName,
+                      String javaClass,
+                      String typeUrl,
+                      @Nullable DescriptorProto message,
+                      @Nullable EnumDescriptorProto enumType) {
+        this.file = file;
+        this.protoName = protoName;
+        this.javaClass = javaClass;
+        this.typeUrl = typeUrl;
+        this.message = message;
+        this.enumType = enumType;
+    }
+
+    /**
+     * Creates a message type.
+     *
+     * @param file
+     *         the file which declares the type
+     * @param path
+     *         the simple names of the type and its enclosing types, starting with the top-level one
+     * @param typeUrlPrefix
+     *         the type URL prefix of the file
+     * @param message
+     *         the descriptor of the type
+     */
+    static ModelType message(FileDescriptorProto file,
+                             List<String> path,
+                             String typeUrlPrefix,
+                             DescriptorProto message) {
+        String protoName = protoName(file, path);
+        return new ModelType(file, protoName, JavaNames.binaryName(file, path),
+                             typeUrlPrefix + '/' + protoName, message, null);
+    }
+
+    /**
+     * Creates an enum type.
+     *
+     * @see #message(FileDescriptorProto, List, String, DescriptorProto)
+     */
+    static ModelType enumType(FileDescriptorProto file,
+                              List<String> path,
+                              String typeUrlPrefix,
+                              EnumDescriptorProto enumType) {
+        String protoName = protoName(file, path);
+        return new ModelType(file, protoName, JavaNames.binaryName(file, path),
+                             typeUrlPrefix + '/' + protoName, null, enumType);
+    }
+
+    private static String protoName(FileDescriptorProto file, List<String> path) {
+        String name = String.join(".", path);
+        return file.getPackage().isEmpty()
+               ? name
+               : file.getPackage() + '.' + name;
+    }
+
+    /**
+     * Obtains the file which declares this type.
+     */
+    FileDescriptorProto file() {
+        return file;
+    }
+
+    /**
+     * Obtains the fully-qualified Protobuf name of the type, e.g. {@code spine.base.Error}.
+     */
+    String protoName() {
+        return protoName;
+    }
+
+    /**
+     * Obtains the binary name of the generated Java class.
+     */
+    String javaClass() {
+        return javaClass;
+    }
+
+    /**
+     * Obtains the canonical name of the generated Java class.
+     */
+    String canonicalClassName() {
+        return JavaNames.canonicalName(javaClass);
+    }
+
+    /**
+     * Obtains the type URL.
+     */
+    String typeUrl() {
+        return typeUrl;
+    }
+
+    boolean isMessage() {
+        return message != null;
+    }
+
+    /**
+     * Obtains the descriptor of the message type.
+     *
+     * @throws IllegalStateException
+     *         if this type is an enum
+     */
+    DescriptorProto message() {
+        checkState(message != null, "`%s` is not a message type.", protoName);
+        return message;
+    }
+
+    /**
+     * Obtains the descriptor of the enum type.
+     *
+     * @throws IllegalStateException
+     *         if this type is a message
+     */
+    EnumDescriptorProto enumType() {
+        checkState(enumType != null, "`%s` is not an enum type.", protoName);
+        return enumType;
+    }
+
+    @Override
+    public String toString() {
+        return protoName;
+    }
+}
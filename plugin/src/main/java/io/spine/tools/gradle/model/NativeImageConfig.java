@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import io.spine.option.OptionsProto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.newBufferedWriter;
+
+/**
+ * The GraalVM {@code native-image} configuration of the classes generated for a module.
+ *
+ * <p>Protobuf and Spine access the generated classes reflectively, e.g. to obtain the default
+ * instance of a message or to parse a rejection. Without the configuration, the classes are
+ * removed from a native image or lose their reflective members.
+ *
+ * <p>The configuration consists of two files:
+ * <ul>
+ *     <li>{@value #REFLECT_CONFIG} lists the messages and their builders, the enums,
+ *         the outer classes of the Protobuf files, the rejection throwables and their builders,
+ *         and the column classes of the entity states;
+ *     <li>{@value #RESOURCE_CONFIG} lists the descriptor resources loaded by the type registry.
+ * </ul>
+ *
+ * <p>The files are written into {@code META-INF/native-image/<group>/<name>}, where
+ * {@code native-image} picks them up from the classpath automatically.
+ */
+final class NativeImageConfig {
+
+    static final String REFLECT_CONFIG = "reflect-config.json";
+    static final String RESOURCE_CONFIG = "resource-config.json";
+    private static final String CONFIG_ROOT = "META-INF/native-image";
+    private static final String BUILDER_CLASS = "Builder";
+    private static final String COLUMN_CLASS = "Column";
+    private static final String REJECTIONS_FILE_SUFFIX = "rejections.proto";
+    private static final ImmutableList<String> RESOURCE_PATTERNS = ImmutableList.of(
+            ".*\\.desc$",
+            "desc\\.ref",
+            KnownTypesIndex.FILE_NAME.replace(".", "\\.")
+    );
+
+    private final ImmutableSortedSet<String> classes;
+
+    private NativeImageConfig(ImmutableSortedSet<String> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Creates the configuration for the own types of the given model.
+     */
+    static NativeImageConfig of(ModelDescriptors model) {
+        checkNotNull(model);
+        ImmutableSortedSet.Builder<String> classes = ImmutableSortedSet.naturalOrder();
+        for (FileDescriptorProto file : model.ownFiles()) {
+            String javaPackage = JavaNames.javaPackage(file);
+            classes.add(JavaNames.qualified(javaPackage, JavaNames.outerClassName(file)));
+            if (file.getName().endsWith(REJECTIONS_FILE_SUFFIX)) {
+                for (DescriptorProto message : file.getMessageTypeList()) {
+                    String throwable = JavaNames.qualified(javaPackage, message.getName());
+                    classes.add(throwable);
+                    classes.add(throwable + '$' + BUILDER_CLASS);
+                }
+            }
+        }
+        for (ModelType type : model.ownTypes()) {
+            String javaClass = type.javaClass();
+            classes.add(javaClass);
+            if (type.isMessage()) {
+                classes.add(javaClass + '$' + BUILDER_CLASS);
+                if (hasColumns(type.message())) {
+                    classes.add(javaClass + '$' + COLUMN_CLASS);
+                }
+            }
+        }
+        return new NativeImageConfig(classes.build());
+    }
+
+    private static boolean hasColumns(DescriptorProto message) {
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            if (field.getOptions().getExtension(OptionsProto.column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtains the path of the configuration directory relative to the resources root.
+     *
+     * @param group
+     *         the group of the module, may be empty
+     * @param name
+     *         the name of the module
+     */
+    static String directory(String group, String name) {
+        checkNotNull(group);
+        checkNotNull(name);
+        return group.isEmpty()
+               ? CONFIG_ROOT + '/' + name
+               : CONFIG_ROOT + '/' + group + '/' + name;
+    }
+
+    /**
+     * Obtains the binary names of the classes accessed reflectively.
+     */
+    ImmutableSortedSet<String> classes() {
+        return classes;
+    }
+
+    /**
+     * Writes the configuration files into the given directory.
+     */
+    void writeTo(File dir) {
+        checkNotNull(dir);
+        try {
+            createDirectories(dir.toPath());
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        write(new File(dir, REFLECT_CONFIG), reflectConfig());
+        write(new File(dir, RESOURCE_CONFIG), resourceConfig());
+    }
+
+    /**
+     * Composes the content of the {@value #REFLECT_CONFIG} file.
+     */
+    String reflectConfig() {
+        StringBuilder json = new StringBuilder("[\n");
+        for (Iterator<String> iterator = classes.iterator(); iterator.hasNext(); ) {
+            json.append("  {\"name\": ")
+                .append(quoted(iterator.next()))
+                .append(", \"allDeclaredConstructors\": true")
+                .append(", \"allPublicConstructors\": true")
+                .append(", \"allDeclaredMethods\": true")
+                .append(", \"allPublicMethods\": true")
+                .append(", \"allDeclaredFields\": true}");
+            json.append(iterator.hasNext() ? ",\n" : "\n");
+        }
+        return json.append("]\n")
+                   .toString();
+    }
+
+    /**
+     * Composes the content of the {@value #RESOURCE_CONFIG} file.
+     */
+    static String resourceConfig() {
+        StringBuilder json = new StringBuilder("{\n  \"resources\": {\n    \"includes\": [\n");
+        for (Iterator<String> iterator = RESOURCE_PATTERNS.iterator(); iterator.hasNext(); ) {
+            json.append("      {\"pattern\": ")
+                .append(quoted(iterator.next()))
+                .append('}');
+            json.append(iterator.hasNext() ? ",\n" : "\n");
+        }
+        return json.append("    ]\n  }\n}\n")
+                   .toString();
+    }
+
+    private static String quoted(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                result.append('\\');
+            }
+            result.append(c);
+        }
+        return result.append('"')
+                     .toString();
+    }
+
+    private static void write(File file, String content) {
+        try (Writer writer = newBufferedWriter(file.toPath(), UTF_8)) {
+            writer.write(content);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+}
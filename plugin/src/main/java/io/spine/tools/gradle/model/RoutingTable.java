@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED;
+
+/**
+ * A generated table of the default routes of the commands and events of a bounded context.
+ *
+ * <p>By default, Spine routes a command or an event to the entity with the ID equal to the value
+ * of the first field of the message. The runtime finds the field via the message descriptor.
+ * The generated table obtains the value through the generated getter instead. The name of
+ * the getter follows the rules of {@code protoc}, including the mangling of the reserved names.
+ *
+ * <p>The routed messages are the top-level messages declared in the files which names end with
+ * {@code commands.proto}, {@code events.proto}, and {@code rejections.proto}. Messages with no
+ * fields or with a repeated first field are not routed.
+ *
+ * <p>The table is a Java class called {@code <Module>RoutingTable}, where {@code <Module>} is
+ * the name of the project in {@code CamelCase}, prefixed with an underscore if it starts with
+ * a digit. The class is put into the longest common Java
+ * package of the routed messages and has the following API:
+ * <pre>
+ *     {@code
+ *     // The ID of the entity to route the message to, or `null` if the message is not routed.
+ *     public static @Nullable Object idOf(Object message)
+ *
+ *     // The classes of the routed messages.
+ *     public static Set<Class<?>> messageClasses()
+ *     }
+ * </pre>
+ */
+final class RoutingTable {
+
+    private static final String HEADER = "// Generated by the Spine Bootstrap plugin. Do not edit.";
+    private static final String CLASS_NAME_SUFFIX = "RoutingTable";
+    private static final ImmutableList<String> ROUTED_FILE_SUFFIXES =
+            ImmutableList.of("commands.proto", "events.proto", "rejections.proto");
+
+    private final String javaPackage;
+    private final String className;
+    private final ImmutableList<Route> routes;
+
+    private RoutingTable(String javaPackage, String className, ImmutableList<Route> routes) {
+        this.javaPackage = javaPackage;
+        this.className = className;
+        this.routes = routes;
+    }
+
+    /**
+     * Creates the routing table of the own messages of the given model.
+     *
+     * @param model
+     *         the model of the bounded context
+     * @param moduleName
+     *         the name of the module which declares the model
+     */
+    static RoutingTable of(ModelDescriptors model, String moduleName) {
+        checkNotNull(model);
+        checkNotNull(moduleName);
+        ImmutableList.Builder<Route> routes = ImmutableList.builder();
+        Set<String> packages = new LinkedHashSet<>();
+        for (FileDescriptorProto file : model.ownFiles()) {
+            if (!isRouted(file)) {
+                continue;
+            }
+            for (DescriptorProto message : file.getMessageTypeList()) {
+                if (message.getFieldCount() == 0
+                        || message.getField(0).getLabel() == LABEL_REPEATED) {
+                    continue;
+                }
+                String messageClass =
+                        JavaNames.binaryName(file, ImmutableList.of(message.getName()));
+                routes.add(new Route(JavaNames.canonicalName(messageClass),
+                                     getter(message.getField(0))));
+                packages.add(JavaNames.javaPackage(file));
+            }
+        }
+        String javaPackage = packages.stream()
+                                     .reduce(JavaNames::commonPackage)
+                                     .orElse("");
+        String className = JavaNames.identifier(moduleName) + CLASS_NAME_SUFFIX;
+        return new RoutingTable(javaPackage, className, routes.build());
+    }
+
+    private static boolean isRouted(FileDescriptorProto file) {
+        return ROUTED_FILE_SUFFIXES.stream()
+                                   .anyMatch(file.getName()::endsWith);
+    }
+
+    private static String getter(FieldDescriptorProto field) {
+        return "get" + JavaNames.accessorName(field);
+    }
+
+    /**
+     * Checks if there are any routed messages.
+     */
+    boolean isEmpty() {
+        return routes.isEmpty();
+    }
+
+    /**
+     * Obtains the fully-qualified name of the generated class.
+     */
+    String className() {
+        return javaPackage.isEmpty()
+               ? className
+               : javaPackage + '.' + className;
+    }
+
+    /**
+     * Writes the source code of the table into the given source root.
+     *
+     * <p>If there are no routed messages, does nothing.
+     */
+    void writeTo(File sourceRoot) {
+        checkNotNull(sourceRoot);
+        if (isEmpty()) {
+            return;
+        }
+        SourceLines.writeJava(sourceRoot, className(), source());
+    }
+
+    /**
+     * Composes the source code of the table.
+     */
+    String source() {
+        SourceLines code = SourceLines.java();
+        code.add(HEADER);
+        if (!javaPackage.isEmpty()) {
+            code.add("package %s;", javaPackage)
+                .add("");
+        }
+        code.add("import org.checkerframework.checker.nullness.qual.Nullable;")
+            .add("")
+            .add("import java.util.Collections;")
+            .add("import java.util.HashMap;")
+            .add("import java.util.Map;")
+            .add("import java.util.Set;")
+            .add("import java.util.function.Function;")
+            .add("")
+            .add("/**")
+            .add(" * The default routes of the commands and events of the module.")
+            .add(" */")
+            .open("public final class %s {", className)
+            .add("")
+            .add("private static final Map<Class<?>, Function<Object, Object>> ROUTES = routes();")
+            .add("")
+            .open("private %s() {", className)
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Obtains the ID of the entity to route the given message to.")
+            .add(" *")
+            .add(" * @return the value of the first field of the message or {@code null} if")
+            .add(" *         the message is not routed by this table")
+            .add(" */")
+            .open("public static @Nullable Object idOf(Object message) {")
+            .add("Function<Object, Object> route = ROUTES.get(message.getClass());")
+            .add("return route == null ? null : route.apply(message);")
+            .close("}")
+            .add("")
+            .add("/**")
+            .add(" * Obtains the classes of the messages routed by this table.")
+            .add(" */")
+            .open("public static Set<Class<?>> messageClasses() {")
+            .add("return ROUTES.keySet();")
+            .close("}")
+            .add("")
+            .open("private static Map<Class<?>, Function<Object, Object>> routes() {")
+            .add("Map<Class<?>, Function<Object, Object>> routes = new HashMap<>();");
+        for (Route route : routes) {
+            code.add("routes.put(%s.class, message -> ((%s) message).%s());",
+                     route.messageClass, route.messageClass, route.getter);
+        }
+        code.add("return Collections.unmodifiableMap(routes);")
+            .close("}")
+            .close("}");
+        return code.toString();
+    }
+
+    /**
+     * A route of a message type to the getter of its first field.
+     */
+    private static final class Route {
+
+        private final String messageClass;
+        private final String getter;
+
+        private Route(String messageClass, String getter) {
+            this.messageClass = messageClass;
+            this.getter = getter;
+        }
+    }
+}
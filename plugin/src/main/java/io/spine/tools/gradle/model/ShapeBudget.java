@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The limits of the shapes of the messages checked by the {@linkplain MessageShapes shape
+ * report}.
+ */
+public final class ShapeBudget {
+
+    private final long maxSize;
+    private final int maxDepth;
+    private final int maxUnboundedFields;
+    private final int maxAnyAndStringFields;
+    private final boolean failOnViolations;
+
+    private ShapeBudget(Builder builder) {
+        this.maxSize = builder.maxSize;
+        this.maxDepth = builder.maxDepth;
+        this.maxUnboundedFields = builder.maxUnboundedFields;
+        this.maxAnyAndStringFields = builder.maxAnyAndStringFields;
+        this.failOnViolations = builder.failOnViolations;
+    }
+
+    /**
+     * Obtains the maximum estimated serialized size of a message in bytes.
+     */
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Obtains the maximum nesting depth of a message.
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Obtains the maximum number of the repeated and map fields of a message.
+     */
+    public int maxUnboundedFields() {
+        return maxUnboundedFields;
+    }
+
+    /**
+     * Obtains the maximum number of the {@code Any}, {@code string} and {@code bytes} fields of
+     * a message.
+     */
+    public int maxAnyAndStringFields() {
+        return maxAnyAndStringFields;
+    }
+
+    /**
+     * Tells if the build should fail if a message exceeds the budget.
+     */
+    public boolean failOnViolations() {
+        return failOnViolations;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxSize", maxSize)
+                          .add("maxDepth", maxDepth)
+                          .add("maxUnboundedFields", maxUnboundedFields)
+                          .add("maxAnyAndStringFields", maxAnyAndStringFields)
+                          .add("failOnViolations", failOnViolations)
+                          .toString();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder for the {@code ShapeBudget} instances.
+     */
+    public static final class Builder {
+
+        private long maxSize = 64 * 1024;
+        private int maxDepth = 8;
+        private int maxUnboundedFields = 4;
+        private int maxAnyAndStringFields = 16;
+        private boolean failOnViolations = false;
+
+        /**
+         * Prevents direct instantiation.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum estimated serialized size of a message in bytes.
+         *
+         * <p>Defaults to 64 KiB.
+         */
+        public Builder setMaxSize(long maxSize) {
+            checkArgument(maxSize > 0, "The size budget must be positive.");
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum nesting depth of a message.
+         *
+         * <p>Defaults to 8.
+         */
+        public Builder setMaxDepth(int maxDepth) {
+            checkArgument(maxDepth > 0, "The depth budget must be positive.");
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of the repeated and map fields of a message.
+         *
+         * <p>Defaults to 4.
+         */
+        public Builder setMaxUnboundedFields(int maxUnboundedFields) {
+            checkArgument(maxUnboundedFields >= 0,
+                          "The unbounded field budget must not be negative.");
+            this.maxUnboundedFields = maxUnboundedFields;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of the {@code Any}, {@code string} and {@code bytes} fields of
+         * a message.
+         *
+         * <p>Defaults to 16.
+         */
+        public Builder setMaxAnyAndStringFields(int maxAnyAndStringFields) {
+            checkArgument(maxAnyAndStringFields >= 0,
+                          "The `Any` and string field budget must not be negative.");
+            this.maxAnyAndStringFields = maxAnyAndStringFields;
+            return this;
+        }
+
+        /**
+         * Sets if the build should fail if a message exceeds the budget.
+         *
+         * <p>By default, the violations are only reported.
+         */
+        public Builder setFailOnViolations(boolean failOnViolations) {
+            this.failOnViolations = failOnViolations;
+            return this;
+        }
+
+        /**
+         * Creates a new instance of {@code ShapeBudget}.
+         */
+        public ShapeBudget build() {
+            return new ShapeBudget(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.newBufferedWriter;
+
+/**
+ * Lines of the generated source code with the indentation tracking.
+ */
+final class SourceLines {
+
+    private final String indent;
+    private final StringBuilder code = new StringBuilder();
+    private int depth = 0;
+
+    private SourceLines(String indent) {
+        this.indent = indent;
+    }
+
+    /**
+     * Creates lines of Java code indented with four spaces.
+     */
+    static SourceLines java() {
+        return new SourceLines("    ");
+    }
+
+    /**
+     * Creates lines of JavaScript code indented with two spaces.
+     */
+    static SourceLines javaScript() {
+        return new SourceLines("  ");
+    }
+
+    /**
+     * Writes the source code of the Java class with the given fully-qualified name into
+     * the given source root.
+     */
+    static void writeJava(File sourceRoot, String className, String source) {
+        Path file = sourceRoot.toPath()
+                              .resolve(className.replace('.', '/') + ".java");
+        try {
+            createDirectories(file.getParent());
+            try (Writer writer = newBufferedWriter(file, UTF_8)) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    SourceLines add(String format, Object... args) {
+        String line = args.length == 0 ? format : String.format(format, args);
+        if (!line.isEmpty()) {
+            for (int i = 0; i < depth; i++) {
+                code.append(indent);
+            }
+            code.append(line);
+        }
+        code.append('\n');
+        return this;
+    }
+
+    SourceLines open(String format, Object... args) {
+        add(format, args);
+        return indent();
+    }
+
+    SourceLines close(String line) {
+        outdent();
+        return add(line);
+    }
+
+    SourceLines indent() {
+        depth++;
+        return this;
+    }
+
+    SourceLines outdent() {
+        depth--;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return code.toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.hash.Hashing;
+import io.spine.logging.Logging;
+import org.gradle.api.Project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A machine-wide cache of build files addressed by their content.
+ *
+ * <p>The cache is located in the directory specified by the {@code spine.cache.dir} Gradle
+ * property or, if the property is not set, by the {@code SPINE_CACHE_DIR} environment variable.
+ * The directory may be shared by several builds, e.g. mounted as a volume into CI containers.
+ *
+ * <p>The cache has the following layout:
+ * <pre>
+ *     blobs/&lt;SHA-256 of the content&gt;
+ *     index/&lt;namespace&gt;/&lt;SHA-256 of the key&gt;
+ * </pre>
+ * An index entry holds the hash of the content stored under the key. The entries and the blobs
+ * are written atomically, so concurrent builds never observe a partially written file.
+ */
+final class ContentCache implements Logging {
+
+    private static final String DIR_PROPERTY = "spine.cache.dir";
+    private static final String DIR_VARIABLE = "SPINE_CACHE_DIR";
+    private static final String BLOBS = "blobs";
+    private static final String INDEX = "index";
+
+    private final Path root;
+
+    private ContentCache(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Obtains the cache configured for the given project.
+     *
+     * @return the cache or {@code Optional.empty()} if the cache directory is not specified
+     */
+    static Optional<ContentCache> configuredFor(Project project) {
+        checkNotNull(project);
+        return setting(project, DIR_PROPERTY, DIR_VARIABLE)
+                .map(dir -> new ContentCache(Paths.get(dir)
+                                                  .toAbsolutePath()));
+    }
+
+    /**
+     * Obtains the value of a setting specified either as a Gradle property or as an environment
+     * variable.
+     *
+     * <p>The Gradle property takes precedence.
+     */
+    static Optional<String> setting(Project project, String property, String variable) {
+        Object value = project.findProperty(property);
+        if (value != null) {
+            return Optional.of(value.toString());
+        }
+        return Optional.ofNullable(System.getenv(variable));
+    }
+
+    /**
+     * Looks up the content stored under the given key.
+     *
+     * <p>A blob which does not match its hash is treated as absent.
+     *
+     * @return the file with the content or {@code Optional.empty()} if the key is not cached
+     */
+    Optional<Path> find(String namespace, String key) {
+        Path entry = entry(namespace, key);
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+        try {
+            String hash = new String(Files.readAllBytes(entry), UTF_8).trim();
+            Path blob = blob(hash);
+            if (Files.exists(blob) && hash.equals(hash(blob))) {
+                return Optional.of(blob);
+            }
+            _warn().log("Cache entry `%s` refers to a missing or corrupted blob.", entry);
+            return Optional.empty();
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Stores the content of the given file under the given key.
+     *
+     * @return the file with the stored content
+     */
+    Path put(String namespace, String key, Path content) {
+        checkNotNull(content);
+        try {
+            String hash = hash(content);
+            Path blob = blob(hash);
+            if (!Files.exists(blob)) {
+                Path temp = tempFileFor(blob);
+                Files.copy(content, temp, REPLACE_EXISTING);
+                moveAtomically(temp, blob);
+            }
+            Path entry = entry(namespace, key);
+            Path temp = tempFileFor(entry);
+            Files.write(temp, hash.getBytes(UTF_8));
+            moveAtomically(temp, entry);
+            return blob;
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Makes the cached content available at the given location.
+     *
+     * <p>A hard link is created if possible. Otherwise, e.g. if the build and the cache reside
+     * on different file systems, the content is copied.
+     *
+     * <p>The link is created under a temporary name and then atomically moved to the target
+     * location. Thus, concurrent tasks which link the same content never observe a missing or
+     * partially written file.
+     */
+    static void link(Path blob, Path target) {
+        checkNotNull(blob);
+        checkNotNull(target);
+        try {
+            Path temp = tempFileFor(target);
+            Files.delete(temp);
+            try {
+                Files.createLink(temp, blob);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(blob, temp, REPLACE_EXISTING);
+            }
+            moveAtomically(temp, target);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Checks if the given location has the same content as the given cached one.
+     *
+     * <p>A hard link to the cached content is recognized without reading the files.
+     */
+    static boolean isLinked(Path blob, Path target) {
+        checkNotNull(blob);
+        checkNotNull(target);
+        if (!Files.exists(target)) {
+            return false;
+        }
+        try {
+            if (Files.isSameFile(blob, target)) {
+                return true;
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        String blobHash = blob.getFileName()
+                              .toString();
+        return hash(target).equals(blobHash);
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the given file.
+     */
+    static String hash(Path file) {
+        try {
+            return com.google.common.io.Files.asByteSource(file.toFile())
+                                             .hash(Hashing.sha256())
+                                             .toString();
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private Path blob(String hash) {
+        return root.resolve(BLOBS)
+                   .resolve(hash);
+    }
+
+    private Path entry(String namespace, String key) {
+        String keyHash = Hashing.sha256()
+                                .hashString(key, UTF_8)
+                                .toString();
+        return root.resolve(INDEX)
+                   .resolve(namespace)
+                   .resolve(keyHash);
+    }
+
+    private static Path tempFileFor(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        File temp = File.createTempFile(target.getFileName() + "-", ".tmp",
+                                        target.getParent().toFile());
+        return temp.toPath();
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(source);
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+/**
+ * The form in which the descriptor sets are packed into the resources of a project.
+ *
+ * <p>The descriptor set generated by {@code protoc} is left intact in any case, so that
+ * the documentation tools may use the comments from it.
+ *
+ * @see ShippedDescriptors
+ */
+public enum DescriptorForm {
+
+    /**
+     * The descriptor set as generated by {@code protoc}.
+     */
+    full,
+
+    /**
+     * The descriptor set without the {@code SourceCodeInfo}, i.e. without the comments and
+     * the source locations.
+     */
+    stripped,
+
+    /**
+     * The stripped descriptor set which contains only the files compiled in the project and
+     * omits the JSON names which the Protobuf runtime derives by itself.
+     *
+     * <p>The descriptors of the imported files are expected to be shipped by the dependencies
+     * which declare them.
+     */
+    compact
+}
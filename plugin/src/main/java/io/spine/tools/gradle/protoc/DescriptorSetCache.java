@@ -0,0 +1,276 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.DescriptorSetOptions;
+import io.spine.logging.Logging;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.tasks.StopExecutionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Caches the descriptor sets generated by a {@code GenerateProtoTask} in
+ * the {@linkplain ContentCache machine-wide cache}.
+ *
+ * <p>The descriptor set is keyed by the hash of:
+ * <ul>
+ *     <li>the import paths and the content of the compiled files;
+ *     <li>the import paths and the content of the dependency files which the compiled files
+ *         import directly or transitively;
+ *     <li>the {@code protoc} version and the descriptor set options.
+ * </ul>
+ *
+ * <p>The code generators of the task do not affect the key, so the descriptor set is restored
+ * independently of them. The key is calculated only when the task is about to be executed, i.e.
+ * it is not up to date. Only the files reachable from the sources through imports are read,
+ * rather than all the files on the include path.
+ *
+ * <p>If the descriptor set is cached and the task generates nothing else, the set is copied to
+ * the task output and the task execution is stopped. If the task also generates code,
+ * {@code protoc} still runs for the code generators. As the Protobuf Gradle plugin does not allow
+ * to turn off the descriptor set once the task is configured, {@code protoc} writes it into
+ * a scratch file, and the cached set is copied to the task output after the other actions.
+ *
+ * <p>If the descriptor set is not cached, the generated set is put into the cache after the task
+ * completes, so that the other projects, branches and worktrees with the same sources can
+ * reuse it.
+ *
+ * <p>The cached set is copied rather than linked, as the descriptor set file may be overwritten
+ * in place by {@code protoc} or by the {@linkplain IncrementalCompilation incremental
+ * compilation}.
+ */
+final class DescriptorSetCache implements Logging {
+
+    private static final String CACHE_NAMESPACE = "descriptors";
+    private static final String SCRATCH_FILE = "spine/protoc/%s/cached-descriptor-set.desc";
+    private static final char SEPARATOR = '\0';
+
+    private final GenerateProtoTask task;
+    private final ContentCache cache;
+    private final ProtocExecutable protoc;
+
+    /**
+     * The cache key of a descriptor set to be put into the cache after the task execution.
+     *
+     * <p>Is {@code null} if the task is not executed or the descriptor set is restored.
+     */
+    private @Nullable String key;
+
+    /**
+     * The cached descriptor set to copy to the task output after the other task actions.
+     *
+     * <p>Is {@code null} if the descriptor set is not cached or is already copied.
+     */
+    private @Nullable Path restored;
+
+    /**
+     * The descriptor set path configured in the task before it was pointed at
+     * the scratch file.
+     *
+     * <p>Is {@code null} if the path was not changed.
+     */
+    private @Nullable String originalPath;
+
+    @VisibleForTesting
+    DescriptorSetCache(GenerateProtoTask task, ContentCache cache, ProtocExecutable protoc) {
+        this.task = task;
+        this.cache = cache;
+        this.protoc = protoc;
+    }
+
+    /**
+     * Configures the given task to use the descriptor set cache.
+     *
+     * <p>The cache is looked up before any other action of the task, as the other actions, e.g.
+     * the ones of the {@linkplain IncrementalCompilation incremental compilation}, may alter
+     * the set of the compiled files. For that, the incremental compilation is set up first,
+     * so that the action of the cache added after it runs before it.
+     */
+    static void configure(GenerateProtoTask task, ContentCache cache, ProtocExecutable protoc) {
+        checkNotNull(task);
+        checkNotNull(cache);
+        checkNotNull(protoc);
+        DescriptorSetCache descriptorCache = new DescriptorSetCache(task, cache, protoc);
+        IncrementalCompilation.of(task);
+        // Gradle cannot track the implementation of a lambda, so the actions are classes.
+        task.doFirst(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                descriptorCache.restore();
+            }
+        });
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                descriptorCache.complete();
+            }
+        });
+        task.getProject()
+            .getGradle()
+            .getTaskGraph()
+            .afterTask(descriptorCache::store);
+    }
+
+    /**
+     * Looks up the descriptor set of the task in the cache.
+     *
+     * <p>If the task generates nothing but the descriptor set, the cached set is copied to
+     * the task output right away. Otherwise, {@code protoc} is pointed at a scratch file, and
+     * the cached set is copied after the other actions.
+     *
+     * @throws StopExecutionException
+     *         if the descriptor set is restored and the task has nothing else to generate
+     */
+    @VisibleForTesting
+    void restore() {
+        key = null;
+        restored = null;
+        if (!task.getGenerateDescriptorSet()) {
+            return;
+        }
+        String cacheKey = calculateKey();
+        Optional<Path> cached = cache.find(CACHE_NAMESPACE, cacheKey);
+        if (!cached.isPresent()) {
+            key = cacheKey;
+            return;
+        }
+        if (task.getBuiltins().isEmpty() && task.getPlugins().isEmpty()) {
+            copy(cached.get(), descriptorSet());
+            _debug().log("Descriptor set of task `%s` restored from the cache.", task.getPath());
+            throw new StopExecutionException();
+        }
+        restored = cached.get();
+        DescriptorSetOptions options = task.getDescriptorSetOptions();
+        originalPath = descriptorSet().toString();
+        options.setPath(task.getProject()
+                            .getBuildDir()
+                            .toPath()
+                            .resolve(format(SCRATCH_FILE, task.getName()))
+                            .toString());
+    }
+
+    /**
+     * Copies the cached descriptor set to the task output, if it was found in the cache.
+     */
+    @VisibleForTesting
+    void complete() {
+        Path scratch = descriptorSet();
+        resetPath();
+        if (restored == null) {
+            return;
+        }
+        copy(restored, descriptorSet());
+        restored = null;
+        task.getProject()
+            .delete(scratch.toFile());
+        _debug().log("Descriptor set of task `%s` restored from the cache " +
+                             "after running the code generators.", task.getPath());
+    }
+
+    private void resetPath() {
+        if (originalPath != null) {
+            task.getDescriptorSetOptions()
+                .setPath(originalPath);
+            originalPath = null;
+        }
+    }
+
+    private void store(Task executed) {
+        if (executed == task) {
+            resetPath();
+            if (executed.getState().getFailure() == null) {
+                store();
+            }
+        }
+    }
+
+    /**
+     * Puts the generated descriptor set into the cache, unless it was restored from the cache.
+     */
+    @VisibleForTesting
+    void store() {
+        if (key == null) {
+            return;
+        }
+        Path descriptorSet = descriptorSet();
+        if (Files.exists(descriptorSet)) {
+            cache.put(CACHE_NAMESPACE, key, descriptorSet);
+        }
+        key = null;
+    }
+
+    private Path descriptorSet() {
+        return task.getProject()
+                   .file(task.getDescriptorPath())
+                   .toPath();
+    }
+
+    private static void copy(Path cached, Path descriptorSet) {
+        try {
+            Files.createDirectories(descriptorSet.getParent());
+            Files.copy(cached, descriptorSet, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private String calculateKey() {
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(task.getSourceFiles());
+        DescriptorSetOptions options = task.getDescriptorSetOptions();
+        Hasher hasher = Hashing.sha256()
+                               .newHasher();
+        hasher.putString(protoc.version(), UTF_8)
+              .putChar(SEPARATOR)
+              .putBoolean(options.getIncludeImports())
+              .putBoolean(options.getIncludeSourceInfo());
+        sources.forEach((path, file) -> hasher.putString(path, UTF_8)
+                                              .putChar(SEPARATOR)
+                                              .putString(ContentCache.hash(file.toPath()), UTF_8)
+                                              .putChar(SEPARATOR));
+        hasher.putString(ProtocInputs.imports(task, sources), UTF_8);
+        return hasher.hash()
+                     .toString();
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+
+/**
+ * Utilities for working with the descriptor set files produced by {@code protoc}.
+ */
+final class DescriptorSets {
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private DescriptorSets() {
+    }
+
+    /**
+     * Reads a descriptor set from the given file.
+     */
+    static FileDescriptorSet read(File file) {
+        checkNotNull(file);
+        try (InputStream in = newInputStream(file.toPath())) {
+            return FileDescriptorSet.parseFrom(in);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Writes the given descriptor set into the given file.
+     */
+    static void write(FileDescriptorSet descriptorSet, File file) {
+        checkNotNull(descriptorSet);
+        checkNotNull(file);
+        try {
+            createDirectories(file.toPath().getParent());
+            try (OutputStream out = newOutputStream(file.toPath())) {
+                descriptorSet.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Merges the given descriptor sets into one.
+     *
+     * <p>If several sets contain a file with the same name, the file from the latter set is taken.
+     *
+     * <p>The files of the resulting set go in the order of their dependencies, i.e. each file
+     * follows the files it imports. Files which do not depend on each other keep their order
+     * in the given sets. Thus, the result is the same regardless of the way the files
+     * are distributed between the merged sets, as long as they come in the same order.
+     *
+     * @param sets
+     *         the sets to merge
+     * @param removed
+     *         names of the files to exclude from the result
+     */
+    static FileDescriptorSet merge(Collection<FileDescriptorSet> sets, Set<String> removed) {
+        checkNotNull(sets);
+        checkNotNull(removed);
+        Map<String, FileDescriptorProto> files = new LinkedHashMap<>();
+        for (FileDescriptorSet set : sets) {
+            for (FileDescriptorProto file : set.getFileList()) {
+                if (!removed.contains(file.getName())) {
+                    files.put(file.getName(), file);
+                }
+            }
+        }
+        Map<String, FileDescriptorProto> ordered = new LinkedHashMap<>();
+        files.keySet()
+             .forEach(name -> addWithDependencies(name, files, ordered));
+        return FileDescriptorSet
+                .newBuilder()
+                .addAllFile(ordered.values())
+                .build();
+    }
+
+    /**
+     * Splits the given descriptor set by the Protobuf packages of the given files.
+     *
+     * <p>Each resulting set contains the given files of a package along with all the files
+     * they transitively import, in the order of their dependencies. The given files of other
+     * packages are included only if they are imported.
+     *
+     * @param descriptorSet
+     *         the set to split
+     * @param files
+     *         names of the files to split by packages
+     * @return the sets mapped by the package names, in the order of the first file of
+     *         each package
+     */
+    static ImmutableMap<String, FileDescriptorSet> byPackage(FileDescriptorSet descriptorSet,
+                                                             Set<String> files) {
+        checkNotNull(descriptorSet);
+        checkNotNull(files);
+        Map<String, FileDescriptorProto> all = new LinkedHashMap<>();
+        descriptorSet.getFileList()
+                     .forEach(file -> all.put(file.getName(), file));
+        Map<String, Map<String, FileDescriptorProto>> packages = new LinkedHashMap<>();
+        for (FileDescriptorProto file : descriptorSet.getFileList()) {
+            if (files.contains(file.getName())) {
+                Map<String, FileDescriptorProto> ordered =
+                        packages.computeIfAbsent(file.getPackage(), p -> new LinkedHashMap<>());
+                addWithDependencies(file.getName(), all, ordered);
+            }
+        }
+        ImmutableMap.Builder<String, FileDescriptorSet> result = ImmutableMap.builder();
+        packages.forEach((name, ordered) -> result.put(name, FileDescriptorSet
+                .newBuilder()
+                .addAllFile(ordered.values())
+                .build()));
+        return result.build();
+    }
+
+    /**
+     * Adds the file with the given name to the ordered map, preceded by its dependencies.
+     *
+     * <p>Import cycles are not checked, as {@code protoc} does not allow them.
+     */
+    private static void addWithDependencies(String name,
+                                            Map<String, FileDescriptorProto> files,
+                                            Map<String, FileDescriptorProto> ordered) {
+        FileDescriptorProto file = files.get(name);
+        if (file == null || ordered.containsKey(name)) {
+            return;
+        }
+        for (String dependency : file.getDependencyList()) {
+            addWithDependencies(dependency, files, ordered);
+        }
+        ordered.put(name, file);
+    }
+
+    /**
+     * Removes the {@code SourceCodeInfo}, i.e. the comments and the source locations, from
+     * the files of the given descriptor set.
+     */
+    static FileDescriptorSet stripSourceInfo(FileDescriptorSet descriptorSet) {
+        checkNotNull(descriptorSet);
+        FileDescriptorSet.Builder result = descriptorSet.toBuilder();
+        result.getFileBuilderList()
+              .forEach(FileDescriptorProto.Builder::clearSourceCodeInfo);
+        return result.build();
+    }
+
+    /**
+     * Compacts the given descriptor set for the runtime.
+     *
+     * <p>The resulting set contains only the given files, which are expected to be the ones
+     * compiled in the project, so that the files of the dependencies are not repeated in each
+     * module. The {@code SourceCodeInfo} is removed, and so are the JSON names of the fields
+     * which the Protobuf runtime derives from the field names anyway.
+     *
+     * @param descriptorSet
+     *         the set to compact
+     * @param files
+     *         the names of the files to keep
+     */
+    static FileDescriptorSet compact(FileDescriptorSet descriptorSet, Set<String> files) {
+        checkNotNull(descriptorSet);
+        checkNotNull(files);
+        FileDescriptorSet.Builder result = FileDescriptorSet.newBuilder();
+        for (FileDescriptorProto file : descriptorSet.getFileList()) {
+            if (files.contains(file.getName())) {
+                FileDescriptorProto.Builder compact = file.toBuilder()
+                                                          .clearSourceCodeInfo();
+                compact.getExtensionBuilderList()
+                       .forEach(DescriptorSets::clearDefaultJsonName);
+                compact.getMessageTypeBuilderList()
+                       .forEach(DescriptorSets::clearDefaultJsonNames);
+                result.addFile(compact);
+            }
+        }
+        return result.build();
+    }
+
+    private static void clearDefaultJsonNames(DescriptorProto.Builder message) {
+        message.getFieldBuilderList()
+               .forEach(DescriptorSets::clearDefaultJsonName);
+        message.getExtensionBuilderList()
+               .forEach(DescriptorSets::clearDefaultJsonName);
+        message.getNestedTypeBuilderList()
+               .forEach(DescriptorSets::clearDefaultJsonNames);
+    }
+
+    private static void clearDefaultJsonName(FieldDescriptorProto.Builder field) {
+        if (field.getJsonName()
+                 .equals(defaultJsonName(field.getName()))) {
+            field.clearJsonName();
+        }
+    }
+
+    /**
+     * Obtains the JSON name which {@code protoc} and the Protobuf runtime assign to the field
+     * with the given name unless it is set explicitly.
+     */
+    static String defaultJsonName(String fieldName) {
+        StringBuilder result = new StringBuilder(fieldName.length());
+        boolean capitalizeNext = false;
+        for (char c : fieldName.toCharArray()) {
+            if (c == '_') {
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                result.append(Character.toUpperCase(c));
+                capitalizeNext = false;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
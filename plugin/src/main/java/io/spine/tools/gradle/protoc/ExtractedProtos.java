@@ -0,0 +1,399 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.logging.Logging;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.SourceSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.gradle.api.artifacts.type.ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE;
+import static org.gradle.api.artifacts.type.ArtifactTypeDefinition.DIRECTORY_TYPE;
+import static org.gradle.api.artifacts.type.ArtifactTypeDefinition.JAR_TYPE;
+import static org.gradle.api.artifacts.type.ArtifactTypeDefinition.JVM_RESOURCES_DIRECTORY;
+
+/**
+ * The Protobuf files of the dependencies extracted by the {@link ProtoExtraction} artifact
+ * transform.
+ *
+ * <p>By default, the Protobuf Gradle plugin unpacks the {@code .proto} files of all
+ * the dependency JARs into the {@code build/extracted-include-protos} directory of each project.
+ * When the shared extraction is enabled, the artifacts on the {@code compileProtoPath} are
+ * processed by an artifact transform instead. The JARs are unpacked, and the {@code .proto}
+ * files are copied from the directories to which the dependencies on other projects of the same
+ * build resolve. The transform results of the JARs are shared by all the projects and builds on
+ * the machine, and the {@code extractInclude*Proto} tasks are skipped.
+ *
+ * <p>When the selective extraction is enabled, only the files transitively imported by
+ * the own Protobuf sources of the project are taken from the transform results. Before
+ * the compilation, the {@code select<SourceSet>ImportedProtos} task copies the files into
+ * {@code build/spine/protoc/imported-protos}, which then becomes the only include path for
+ * the dependencies. The smaller include path makes
+ * the file lookups of {@code protoc} cheaper.
+ *
+ * <p>The {@code protobuf} configuration, whose files are compiled rather than only imported,
+ * is not affected.
+ */
+final class ExtractedProtos implements Logging {
+
+    private static final String EXTRA_PROPERTY = "spineExtractedProtos";
+    private static final String TASK_EXTRA_PROPERTY = "spineExtractedProtosConfigured";
+    private static final String ARTIFACT_TYPE = "extracted-protos";
+    private static final String COMPILE_PROTO_PATH = "compileProtoPath";
+    private static final String SELECTED_DIR = "spine/protoc/imported-protos";
+    private static final String INPUTS_PROPERTY = "spineDependencyProtos";
+    private static final String OWN_PROTOS_PROPERTY = "ownProtos";
+    private static final String SELECTED_PROPERTY = "selectedProtos";
+    private static final String SELECTION_TASK_VERB = "select";
+    private static final String SELECTION_TASK_TARGET = "ImportedProtos";
+
+    /**
+     * The types of the artifacts which may hold the Protobuf files of the dependencies.
+     *
+     * <p>The dependencies on other projects of the same build resolve to the resources
+     * directories of the projects rather than to JARs. The classes directories are not listed,
+     * as they hold no Protobuf files.
+     */
+    private static final ImmutableSet<String> EXTRACTED_TYPES =
+            ImmutableSet.of(JAR_TYPE, DIRECTORY_TYPE, JVM_RESOURCES_DIRECTORY);
+
+    private final Project project;
+    private boolean enabled = false;
+    private boolean selective = false;
+
+    private ExtractedProtos(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Obtains the instance for the given project.
+     *
+     * <p>Registers the artifact transform in the project when called for the first time.
+     */
+    static ExtractedProtos in(Project project) {
+        checkNotNull(project);
+        ExtraPropertiesExtension extra = project.getExtensions()
+                                                .getExtraProperties();
+        if (extra.has(EXTRA_PROPERTY)) {
+            return (ExtractedProtos) extra.get(EXTRA_PROPERTY);
+        }
+        for (String artifactType : EXTRACTED_TYPES) {
+            project.getDependencies()
+                   .registerTransform(ProtoExtraction.class, spec -> {
+                       spec.getFrom()
+                           .attribute(ARTIFACT_TYPE_ATTRIBUTE, artifactType);
+                       spec.getTo()
+                           .attribute(ARTIFACT_TYPE_ATTRIBUTE, ARTIFACT_TYPE);
+                   });
+        }
+        ExtractedProtos protos = new ExtractedProtos(project);
+        extra.set(EXTRA_PROPERTY, protos);
+        return protos;
+    }
+
+    /**
+     * Enables or disables the shared extraction.
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Enables or disables the selective extraction.
+     *
+     * <p>The selective extraction works on top of the shared one, regardless of whether
+     * the latter is enabled.
+     */
+    void setSelective(boolean selective) {
+        this.selective = selective;
+    }
+
+    private boolean active() {
+        return enabled || selective;
+    }
+
+    /**
+     * Adds the shared extraction results to the include paths of the given task.
+     *
+     * <p>The include paths are empty while the shared extraction is disabled.
+     */
+    void configure(GenerateProtoTask task) {
+        ExtraPropertiesExtension extra = task.getExtensions()
+                                             .getExtraProperties();
+        if (extra.has(TASK_EXTRA_PROPERTY)) {
+            return;
+        }
+        extra.set(TASK_EXTRA_PROPERTY, true);
+        SourceSet sourceSet = task.getSourceSet();
+        Callable<Object> includeDirs = () -> includeDirs(sourceSet);
+        task.addIncludeDir(project.files(includeDirs));
+        Callable<Object> dependencyProtos = () -> selective
+                                                  ? transformed(sourceSet)
+                                                  : project.files();
+        task.getInputs()
+            .files(dependencyProtos)
+            .withPropertyName(INPUTS_PROPERTY);
+        task.dependsOn(createSelectionTask(task));
+        Task extractTask = project.getTasks()
+                                  .findByName(sourceSet.getTaskName("extractInclude", "Proto"));
+        if (extractTask != null) {
+            File extractedDir = ProtocCommand.extractedIncludeDir(task);
+            // Gradle cannot track the implementation of a lambda, so the specs are classes.
+            extractTask.onlyIf(new Spec<Task>() {
+                @Override
+                public boolean isSatisfiedBy(Task t) {
+                    boolean active = active();
+                    if (active) {
+                        project.delete(extractedDir);
+                    }
+                    return !active;
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the task which selects the dependency files imported by the sources of
+     * the given {@code GenerateProtoTask}.
+     *
+     * <p>The task runs only in the selective mode. It declares the own sources and the extracted
+     * dependency files as its inputs, and the {@linkplain #selectedDir(SourceSet) include
+     * directory} as its output, so it is skipped while none of them changes.
+     */
+    private Task createSelectionTask(GenerateProtoTask generateTask) {
+        SourceSet sourceSet = generateTask.getSourceSet();
+        Task task = project.getTasks()
+                           .create(sourceSet.getTaskName(SELECTION_TASK_VERB,
+                                                         SELECTION_TASK_TARGET));
+        task.setDescription(format(
+                "Copies the dependency Protobuf files imported by the `%s` sources.",
+                sourceSet.getName()
+        ));
+        task.onlyIf(new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task t) {
+                return selective;
+            }
+        });
+        Callable<Object> ownProtos = generateTask::getSourceFiles;
+        Callable<Object> dependencyProtos = () -> selective
+                                                  ? transformed(sourceSet)
+                                                  : project.files();
+        task.getInputs()
+            .files(ownProtos)
+            .withPropertyName(OWN_PROTOS_PROPERTY)
+            .withPathSensitivity(PathSensitivity.RELATIVE);
+        task.getInputs()
+            .files(dependencyProtos)
+            .withPropertyName(INPUTS_PROPERTY)
+            .withPathSensitivity(PathSensitivity.RELATIVE);
+        task.getOutputs()
+            .dir(selectedDir(sourceSet))
+            .withPropertyName(SELECTED_PROPERTY);
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                selectImports(generateTask);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Copies the dependency files transitively imported by the sources of the given task into
+     * the {@linkplain #selectedDir(SourceSet) include directory}.
+     *
+     * <p>The files of the own sources are resolved by {@code protoc} from the source roots and
+     * are not copied. Only the files which are new or changed since the previous selection are
+     * copied. The files which are no longer imported are deleted.
+     */
+    private void selectImports(GenerateProtoTask task) {
+        SourceSet sourceSet = task.getSourceSet();
+        ImmutableMap<String, File> own = ProtoSources.byImportPath(task.getSourceFiles());
+        ImmutableMap<String, File> available = ProtoSources.byImportPath(transformed(sourceSet));
+        Deque<String> queue = new ArrayDeque<>();
+        own.values()
+           .forEach(file -> queue.addAll(ProtoImportGraph.importsIn(file)));
+        Set<String> selected = new TreeSet<>();
+        while (!queue.isEmpty()) {
+            String path = queue.poll();
+            File file = available.get(path);
+            if (!own.containsKey(path) && file != null && selected.add(path)) {
+                queue.addAll(ProtoImportGraph.importsIn(file));
+            }
+        }
+        Path selectedDir = selectedDir(sourceSet).toPath();
+        int copied = 0;
+        try {
+            deleteUnselected(selectedDir, selected);
+            for (String path : selected) {
+                Path source = available.get(path)
+                                       .toPath();
+                Path target = selectedDir.resolve(path);
+                if (!Files.exists(target)
+                        || !ContentCache.hash(source).equals(ContentCache.hash(target))) {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(source, target, REPLACE_EXISTING);
+                    copied++;
+                }
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        _debug().log("Selected %d of %d dependency Protobuf files for task `%s`, %d copied.",
+                     selected.size(), available.size(), task.getPath(), copied);
+    }
+
+    private static void deleteUnselected(Path selectedDir, Set<String> selected)
+            throws IOException {
+        if (!Files.exists(selectedDir)) {
+            return;
+        }
+        ImmutableList<Path> unselected;
+        try (Stream<Path> files = Files.walk(selectedDir)) {
+            unselected = files.filter(Files::isRegularFile)
+                              .filter(file -> !selected.contains(importPath(selectedDir, file)))
+                              .collect(toImmutableList());
+        }
+        for (Path file : unselected) {
+            Files.delete(file);
+        }
+    }
+
+    private static String importPath(Path root, Path file) {
+        return root.relativize(file)
+                   .toString()
+                   .replace(File.separatorChar, '/');
+    }
+
+    private File selectedDir(SourceSet sourceSet) {
+        return project.getBuildDir()
+                      .toPath()
+                      .resolve(SELECTED_DIR)
+                      .resolve(sourceSet.getName())
+                      .toFile();
+    }
+
+    /**
+     * Obtains the directories with the Protobuf files extracted from the dependencies of
+     * the given source set.
+     *
+     * @return the directories or an empty collection if the shared extraction is disabled
+     */
+    FileCollection includeDirs(SourceSet sourceSet) {
+        if (selective) {
+            return project.files(selectedDir(sourceSet));
+        }
+        if (!enabled) {
+            return project.files();
+        }
+        return transformed(sourceSet);
+    }
+
+    /**
+     * Obtains the results of the artifact transform for the dependencies of
+     * the given source set.
+     *
+     * <p>The view is not lenient, so a dependency which cannot be resolved or transformed fails
+     * the build rather than silently disappears from the include path.
+     */
+    private FileCollection transformed(SourceSet sourceSet) {
+        Configuration configuration = compileProtoPath(sourceSet);
+        return configuration.getIncoming()
+                            .artifactView(view -> view.attributes(
+                                    attributes -> attributes.attribute(ARTIFACT_TYPE_ATTRIBUTE,
+                                                                       ARTIFACT_TYPE)
+                            ))
+                            .getFiles();
+    }
+
+    /**
+     * Obtains the configuration which holds the dependencies whose Protobuf files may be
+     * imported by the given source set.
+     *
+     * <p>Falls back to the compile classpath if the Protobuf plugin does not create
+     * a dedicated configuration.
+     */
+    private Configuration compileProtoPath(SourceSet sourceSet) {
+        String name = sourceSet.getTaskName(null, COMPILE_PROTO_PATH);
+        Configuration configuration = project.getConfigurations()
+                                             .findByName(name);
+        if (configuration != null) {
+            return configuration;
+        }
+        return project.getConfigurations()
+                      .getByName(sourceSet.getCompileClasspathConfigurationName());
+    }
+
+    /**
+     * Obtains the directories with the Protobuf files which the given task may import through
+     * the shared extraction.
+     *
+     * <p>In the selective mode, returns all the extracted directories rather than
+     * the selection, as the selection is only made right before the task execution.
+     */
+    static ImmutableList<File> includeRoots(GenerateProtoTask task) {
+        ExtraPropertiesExtension extra = task.getProject()
+                                             .getExtensions()
+                                             .getExtraProperties();
+        if (!extra.has(EXTRA_PROPERTY)) {
+            return ImmutableList.of();
+        }
+        ExtractedProtos protos = (ExtractedProtos) extra.get(EXTRA_PROPERTY);
+        if (!protos.active()) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(protos.transformed(task.getSourceSet())
+                                          .getFiles());
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.PluginOptions;
+import io.spine.logging.Logging;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.StopExecutionException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Sets.union;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newBufferedReader;
+import static java.nio.file.Files.walk;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Incremental compilation of the Protobuf sources of a {@code GenerateProtoTask}.
+ *
+ * <p>After each successful compilation, an {@linkplain ProtoSourceIndex index} of the sources is
+ * stored. When the task is executed again, only the files which changed since the previous build
+ * and the files which import them, directly or transitively, are passed to {@code protoc}.
+ *
+ * <p>The outputs of the previous build are preserved, except for the ones produced from
+ * the recompiled or deleted files. The generated files are matched to their sources by
+ * the {@code source:} header comment, which {@code protoc} puts into the generated code.
+ * The files without such a header are always preserved. The descriptor set, if generated,
+ * is merged with the previous one.
+ *
+ * <p>If there is no index of the previous build, or the code generation configuration has changed,
+ * the whole source set is compiled. The configuration includes the versions of {@code protoc} and
+ * its plugins, as well as the dependency files imported by the sources.
+ *
+ * <p>Independently of the source-level incremental compilation, the code generators may be
+ * isolated from each other. In this mode, when the sources did not change but some built-ins or
+ * plugins were added, removed, or reconfigured, only the changed generators are run. The outputs
+ * of the other generators are preserved as they are, so that, e.g., enabling gRPC does not cause
+ * recompilation of the Java messages. The output directories of the removed generators are
+ * deleted. As the {@code spineProtoc} plugin writes into the Java files through insertion points,
+ * it is always run together with the {@code java} built-in.
+ */
+final class IncrementalCompilation implements Logging {
+
+    private static final String EXTRA_PROPERTY = "spineIncrementalCompilation";
+    private static final String WORKING_DIR = "spine/protoc";
+    private static final String INDEX_FILE = "index.properties";
+    private static final String PREVIOUS_OUTPUT_DIR = "previous-output";
+    private static final String PREVIOUS_DESCRIPTOR_SET = "previous.desc";
+    private static final String BUILTIN_PREFIX = "builtin.";
+    private static final String PLUGIN_PREFIX = "plugin.";
+    private static final String DESCRIPTOR_SET_KEY = "descriptorSet";
+    private static final String COMPILER_KEY = "protoc";
+    private static final String IMPORTS_KEY = "imports";
+
+    /**
+     * The configuration keys whose change requires running all the code generators.
+     */
+    private static final ImmutableSet<String> GLOBAL_KEYS =
+            ImmutableSet.of(DESCRIPTOR_SET_KEY, COMPILER_KEY, IMPORTS_KEY);
+
+    /**
+     * The generators which write into the output of each other and thus must be run together.
+     */
+    private static final ImmutableSet<String> INSERTION_POINT_GROUP = ImmutableSet.of(
+            BUILTIN_PREFIX + ProtocPlugin.Name.java.name(),
+            PLUGIN_PREFIX + ProtocPlugin.Name.spineProtoc.name()
+    );
+
+    /**
+     * The number of leading lines of a generated file to look for the {@code source:} comment in.
+     *
+     * <p>Some generators, e.g. gRPC, put the comment after the imports.
+     */
+    private static final int HEADER_LINES = 40;
+    private static final Pattern SOURCE_COMMENT =
+            Pattern.compile("source:\\s*(\\S+\\.proto)", Pattern.CASE_INSENSITIVE);
+
+    private final GenerateProtoTask task;
+    private final File workingDir;
+    private boolean enabled;
+    private boolean pluginIsolation;
+
+    /**
+     * The code generation configuration of the task taken before any task action.
+     */
+    private ImmutableMap<String, String> configuration = ImmutableMap.of();
+
+    /**
+     * The index of the currently compiled sources.
+     *
+     * <p>Is {@code null} if the compilation is not running or is not incremental.
+     */
+    private @Nullable ProtoSourceIndex currentIndex;
+
+    /**
+     * The sources whose outputs from the previous build should be removed.
+     */
+    private ImmutableSet<String> stale = ImmutableSet.of();
+
+    /**
+     * The sources which were deleted since the previous build.
+     */
+    private ImmutableSet<String> removed = ImmutableSet.of();
+
+    /**
+     * The sources of the task before they were narrowed down.
+     *
+     * <p>Is {@code null} if the sources were not narrowed down.
+     */
+    private @Nullable ImmutableSet<Object> originalSources;
+
+    private IncrementalCompilation(GenerateProtoTask task) {
+        this.task = task;
+        File buildDir = task.getProject()
+                            .getBuildDir();
+        this.workingDir = buildDir.toPath()
+                                  .resolve(WORKING_DIR)
+                                  .resolve(task.getName())
+                                  .toFile();
+    }
+
+    /**
+     * Enables or disables incremental compilation for the given task.
+     */
+    static void configure(GenerateProtoTask task, boolean enabled) {
+        of(task).enabled = enabled;
+    }
+
+    /**
+     * Enables or disables isolation of the code generators of the given task.
+     */
+    static void isolatePlugins(GenerateProtoTask task, boolean isolated) {
+        of(task).pluginIsolation = isolated;
+    }
+
+    /**
+     * Obtains the incremental compilation of the given task.
+     *
+     * <p>The actions of the incremental compilation are added to the task on the first call.
+     */
+    static IncrementalCompilation of(GenerateProtoTask task) {
+        ExtraPropertiesExtension extra = task.getExtensions()
+                                             .getExtraProperties();
+        if (extra.has(EXTRA_PROPERTY)) {
+            return (IncrementalCompilation) extra.get(EXTRA_PROPERTY);
+        }
+        IncrementalCompilation compilation = new IncrementalCompilation(task);
+        extra.set(EXTRA_PROPERTY, compilation);
+        // A `doFirst` action added later runs earlier, and a `doLast` action added later runs
+        // later. Thus, the actions of the sharded compilation, added before the ones of this
+        // class, run between the preparation and the completion, i.e. on the narrowed sources.
+        ShardedCompilation.of(task);
+        // Gradle cannot track the implementation of a lambda, so the actions are classes.
+        task.onlyIf(new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task t) {
+                compilation.takeConfiguration();
+                return true;
+            }
+        });
+        task.doFirst(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                compilation.prepare();
+            }
+        });
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                compilation.complete();
+            }
+        });
+        return compilation;
+    }
+
+    /**
+     * Takes the code generation configuration of the task before any task action alters it.
+     */
+    @VisibleForTesting
+    void takeConfiguration() {
+        configuration = enabled || pluginIsolation
+                        ? configurationOf(task)
+                        : ImmutableMap.of();
+    }
+
+    /**
+     * Narrows down the sources of the task to the changed files and their dependants, or
+     * the code generators to the changed ones.
+     */
+    @VisibleForTesting
+    void prepare() {
+        currentIndex = null;
+        stale = ImmutableSet.of();
+        removed = ImmutableSet.of();
+        if (!enabled && !pluginIsolation) {
+            return;
+        }
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(task.getSourceFiles());
+        ProtoSourceIndex index = ProtoSourceIndex.of(sources, configuration);
+        Optional<ProtoSourceIndex> previous = ProtoSourceIndex.load(indexFile());
+        if (!previous.isPresent() || previousOutputDir().exists()) {
+            compileAll(index);
+            return;
+        }
+        ProtoSourceIndex previousIndex = previous.get();
+        ImmutableSet<String> changed = index.changedSince(previousIndex);
+        ImmutableSet<String> deleted = index.removedSince(previousIndex);
+        boolean sameSources = changed.isEmpty() && deleted.isEmpty();
+        if (pluginIsolation && sameSources && !index.sameConfiguration(previousIndex)) {
+            runChangedGenerators(index, previousIndex);
+            return;
+        }
+        if (!enabled || !index.sameConfiguration(previousIndex)) {
+            compileAll(index);
+            return;
+        }
+        ProtoImportGraph graph = ProtoImportGraph.of(sources);
+        ImmutableSet<String> affected = graph.withDependants(union(changed, deleted));
+        FileCollection sourceFiles = task.getSourceFiles();
+        if (affected.isEmpty()
+                || affected.size() == sources.size()
+                || !(sourceFiles instanceof ConfigurableFileCollection)) {
+            compileAll(index);
+            return;
+        }
+        _debug().log("Compiling %d of %d Protobuf files in task `%s`.",
+                      affected.size(), sources.size(), task.getPath());
+        preservePreviousOutput();
+        ConfigurableFileCollection configurableSources = (ConfigurableFileCollection) sourceFiles;
+        originalSources = ImmutableSet.copyOf(configurableSources.getFrom());
+        configurableSources.setFrom(narrowed(originalSources, affected));
+        currentIndex = index;
+        stale = union(affected, deleted).immutableCopy();
+        removed = deleted;
+    }
+
+    /**
+     * Leaves in the task only the code generators changed since the previous build.
+     *
+     * <p>If there are no generators to run, the task execution is stopped.
+     */
+    private void runChangedGenerators(ProtoSourceIndex index, ProtoSourceIndex previousIndex) {
+        Set<String> changedGenerators = new HashSet<>(index.generatorsChangedSince(previousIndex));
+        if (!Collections.disjoint(changedGenerators, GLOBAL_KEYS)) {
+            compileAll(index);
+            return;
+        }
+        if (!Collections.disjoint(changedGenerators, INSERTION_POINT_GROUP)) {
+            changedGenerators.addAll(INSERTION_POINT_GROUP);
+        }
+        ImmutableSet<String> toRun = changedGenerators.stream()
+                                                      .filter(configuration::containsKey)
+                                                      .collect(toImmutableSet());
+        changedGenerators.stream()
+                         .filter(key -> !configuration.containsKey(key))
+                         .forEach(this::deleteOutputOf);
+        if (toRun.isEmpty()) {
+            _debug().log("Only the output of removed generators is deleted in task `%s`.",
+                         task.getPath());
+            index.store(indexFile());
+            throw new StopExecutionException();
+        }
+        _debug().log("Running generators %s in task `%s`.", toRun, task.getPath());
+        preservePreviousOutput();
+        toRun.forEach(key -> task.getProject()
+                                 .delete(new File(previousOutputDir(), generatorName(key))));
+        task.getBuiltins()
+            .removeIf(builtIn -> !toRun.contains(BUILTIN_PREFIX + builtIn.getName()));
+        task.getPlugins()
+            .removeIf(plugin -> !toRun.contains(PLUGIN_PREFIX + plugin.getName()));
+        currentIndex = index;
+    }
+
+    /**
+     * Obtains the affected files of the given sources.
+     *
+     * <p>The files are filtered out of the source trees rather than listed one by one, so that
+     * the import path of each file stays relative to its source root.
+     */
+    private FileTree narrowed(ImmutableSet<Object> sources, ImmutableSet<String> affected) {
+        return task.getProject()
+                   .files(sources.toArray())
+                   .getAsFileTree()
+                   .matching(filter -> filter.include(affected));
+    }
+
+    private void deleteOutputOf(String generatorKey) {
+        task.getProject()
+            .delete(outputBaseDir().resolve(generatorName(generatorKey)));
+    }
+
+    private static String generatorName(String generatorKey) {
+        return generatorKey.substring(generatorKey.indexOf('.') + 1);
+    }
+
+    private void compileAll(ProtoSourceIndex index) {
+        task.getProject()
+            .delete(previousOutputDir());
+        currentIndex = index;
+    }
+
+    private void preservePreviousOutput() {
+        Path outputDir = outputBaseDir();
+        try {
+            createDirectories(workingDir.toPath());
+            if (task.getGenerateDescriptorSet()) {
+                Path descriptorSet = descriptorSet();
+                if (exists(descriptorSet)) {
+                    copy(descriptorSet, previousDescriptorSet(), REPLACE_EXISTING);
+                }
+            }
+            if (exists(outputDir)) {
+                move(outputDir, previousOutputDir().toPath());
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Restores the preserved outputs, merges the descriptor sets, and stores the new index.
+     */
+    @VisibleForTesting
+    void complete() {
+        restoreSources();
+        if (currentIndex == null) {
+            return;
+        }
+        File previousOutput = previousOutputDir();
+        if (previousOutput.exists()) {
+            restoreOutput(previousOutput.toPath());
+            mergeDescriptorSets();
+            task.getProject()
+                .delete(previousOutput, previousDescriptorSet().toFile());
+        }
+        currentIndex.store(indexFile());
+        currentIndex = null;
+    }
+
+    /**
+     * Restores the sources of the task, so that the tasks which run later in the same build
+     * see the whole source set.
+     */
+    private void restoreSources() {
+        if (originalSources != null) {
+            ((ConfigurableFileCollection) task.getSourceFiles()).setFrom(originalSources);
+            originalSources = null;
+        }
+    }
+
+    private void restoreOutput(Path previousOutput) {
+        Path outputDir = outputBaseDir();
+        try (Stream<Path> files = walk(previousOutput)) {
+            List<Path> regularFiles = files.filter(file -> isRegularFile(file))
+                                           .collect(toImmutableList());
+            for (Path file : regularFiles) {
+                Path target = outputDir.resolve(previousOutput.relativize(file));
+                if (!exists(target) && !isStale(file)) {
+                    createDirectories(target.getParent());
+                    move(file, target);
+                }
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private boolean isStale(Path generatedFile) {
+        try (BufferedReader reader = newBufferedReader(generatedFile, UTF_8)) {
+            for (int i = 0; i < HEADER_LINES; i++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                Matcher matcher = SOURCE_COMMENT.matcher(line);
+                if (matcher.find()) {
+                    return stale.contains(matcher.group(1));
+                }
+            }
+        } catch (IOException e) {
+            _debug().log("Cannot read `%s` as text. The file is preserved.", generatedFile);
+        }
+        return false;
+    }
+
+    private void mergeDescriptorSets() {
+        Path previous = previousDescriptorSet();
+        Path current = descriptorSet();
+        if (!task.getGenerateDescriptorSet() || !exists(previous) || !exists(current)) {
+            return;
+        }
+        FileDescriptorSet merged = DescriptorSets.merge(
+                ImmutableList.of(DescriptorSets.read(previous.toFile()),
+                                 DescriptorSets.read(current.toFile())),
+                removed
+        );
+        DescriptorSets.write(merged, current.toFile());
+    }
+
+    private File indexFile() {
+        return new File(workingDir, INDEX_FILE);
+    }
+
+    private File previousOutputDir() {
+        return new File(workingDir, PREVIOUS_OUTPUT_DIR);
+    }
+
+    private Path previousDescriptorSet() {
+        return new File(workingDir, PREVIOUS_DESCRIPTOR_SET).toPath();
+    }
+
+    private Path outputBaseDir() {
+        return new File(task.getOutputBaseDir()).toPath();
+    }
+
+    private Path descriptorSet() {
+        return task.getProject()
+                   .file(task.getDescriptorPath())
+                   .toPath();
+    }
+
+    /**
+     * Obtains the fingerprints of the code generators configured in the given task.
+     *
+     * <p>Along with the options of the built-ins and plugins, the fingerprints include
+     * the executables of {@code protoc} and its plugins and the dependency files imported by
+     * the sources.
+     *
+     * <p>If the configuration changes, source-level incremental compilation is not possible.
+     */
+    private static ImmutableMap<String, String> configurationOf(GenerateProtoTask task) {
+        Project project = task.getProject();
+        ImmutableMap<String, String> executables = ProtocInputs.plugins(project);
+        ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+        for (PluginOptions builtIn : task.getBuiltins()) {
+            result.put(BUILTIN_PREFIX + builtIn.getName(), builtIn.getOptions().toString());
+        }
+        for (PluginOptions plugin : task.getPlugins()) {
+            String executable = executables.getOrDefault(plugin.getName(), "");
+            result.put(PLUGIN_PREFIX + plugin.getName(),
+                       plugin.getOptions().toString() + '@' + executable);
+        }
+        result.put(DESCRIPTOR_SET_KEY, String.valueOf(task.getGenerateDescriptorSet()));
+        result.put(COMPILER_KEY, ProtocInputs.compiler(project));
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(task.getSourceFiles());
+        result.put(IMPORTS_KEY, ProtocInputs.imports(task, sources));
+        return result.build();
+    }
+}
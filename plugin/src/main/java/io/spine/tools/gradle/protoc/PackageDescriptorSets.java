@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+
+import java.io.File;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A utility which splits a descriptor set into the sets of separate Protobuf packages.
+ *
+ * <p>Allows to run the tools which process a whole descriptor set once per package.
+ */
+public final class PackageDescriptorSets {
+
+    private static final String DESCRIPTOR_EXTENSION = ".desc";
+    private static final String NO_PACKAGE = "default";
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private PackageDescriptorSets() {
+    }
+
+    /**
+     * Splits the given descriptor set file by the Protobuf packages of the given files.
+     *
+     * <p>The set of a package contains the given files of the package along with the files they
+     * transitively import. The sets are written into the given directory as
+     * {@code <package>.desc} files. The files without a package are written into
+     * {@code default.desc}.
+     *
+     * @param descriptorSetFile
+     *         the descriptor set to split
+     * @param files
+     *         the names of the files to split by packages, usually the files compiled in
+     *         the project
+     * @param outputDir
+     *         the directory to write the resulting sets into
+     * @return the written files mapped by the package names, with an empty name standing for
+     *         the files without a package
+     */
+    public static ImmutableMap<String, File> split(File descriptorSetFile,
+                                                   Set<String> files,
+                                                   File outputDir) {
+        checkNotNull(descriptorSetFile);
+        checkNotNull(files);
+        checkNotNull(outputDir);
+        FileDescriptorSet descriptorSet = DescriptorSets.read(descriptorSetFile);
+        ImmutableMap.Builder<String, File> result = ImmutableMap.builder();
+        DescriptorSets.byPackage(descriptorSet, files)
+                      .forEach((protoPackage, set) -> {
+                          String name = protoPackage.isEmpty() ? NO_PACKAGE : protoPackage;
+                          File file = new File(outputDir, name + DESCRIPTOR_EXTENSION);
+                          DescriptorSets.write(set, file);
+                          result.put(protoPackage, file);
+                      });
+        return result.build();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.protobuf.gradle.ExecutableLocator;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+
+import java.io.File;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+/**
+ * The executables of the {@code protoc} plugins configured in a project.
+ *
+ * <p>The Protobuf Gradle plugin resolves the executables of the plugins only for its own
+ * {@code protoc} runs. This class resolves them in the same way, so that {@code protoc} can also
+ * be run outside of a {@code GenerateProtoTask}:
+ * <ol>
+ *     <li>a plugin with a {@code path} is run from that path;
+ *     <li>a plugin with an {@code artifact} is resolved from the artifact. If the artifact spec
+ *         has no classifier, the classifier of the current platform is used. If it has no
+ *         extension, the {@code exe} extension is used.
+ * </ol>
+ */
+final class PluginExecutables {
+
+    private static final int COORDINATES_WITHOUT_CLASSIFIER = 3;
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private PluginExecutables() {
+    }
+
+    /**
+     * Resolves the executable of the plugin with the given name.
+     *
+     * @throws GradleException
+     *         if the plugin is not configured in the project or has neither a path nor
+     *         an artifact
+     */
+    static File resolve(Project project, String pluginName) {
+        checkNotNull(project);
+        checkNotNull(pluginName);
+        ExecutableLocator locator = ProtocInputs.pluginLocators(project)
+                                                .get(pluginName);
+        if (locator == null) {
+            throw new GradleException(format("`protoc` plugin `%s` is not configured in `%s`.",
+                                             pluginName, project.getPath()));
+        }
+        String path = locator.getPath();
+        if (path != null) {
+            return project.file(path);
+        }
+        String artifact = locator.getArtifact();
+        if (artifact == null) {
+            throw new GradleException(format(
+                    "Neither the path nor the artifact is set for `protoc` plugin `%s`.",
+                    pluginName
+            ));
+        }
+        Dependency dependency = project.getDependencies()
+                                       .create(notation(artifact));
+        Configuration configuration = project.getConfigurations()
+                                             .detachedConfiguration(dependency);
+        File executable = configuration.getSingleFile();
+        ProtocExecutable.makeExecutable(executable);
+        return executable;
+    }
+
+    /**
+     * Completes the given artifact spec with the platform classifier and the executable
+     * extension, unless they are already specified.
+     */
+    private static String notation(String artifact) {
+        int extensionStart = artifact.indexOf('@');
+        String coordinates = extensionStart < 0
+                             ? artifact
+                             : artifact.substring(0, extensionStart);
+        String extension = extensionStart < 0
+                           ? ProtocExecutable.EXECUTABLE_EXTENSION
+                           : artifact.substring(extensionStart + 1);
+        String classified = coordinates.split(":").length > COORDINATES_WITHOUT_CLASSIFIER
+                            ? coordinates
+                            : coordinates + ':' + ProtocExecutable.classifier();
+        return classified + '@' + extension;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * An artifact transform which extracts the Protobuf files from a dependency.
+ *
+ * <p>The dependency is either a JAR or a directory, e.g. the resources directory of another
+ * project of the same build. The {@code .proto} files are copied from it preserving their paths.
+ *
+ * <p>Gradle runs the transform once per artifact and keeps the result of a JAR in the transforms
+ * cache of the Gradle user home, so that all the projects and builds on the machine share
+ * the extracted files. The transform is cacheable, so the result can also be taken from
+ * the build cache.
+ *
+ * <p>Instantiated by Gradle.
+ *
+ * @see ExtractedProtos
+ */
+@CacheableTransform
+public abstract class ProtoExtraction implements TransformAction<TransformParameters.None> {
+
+    /**
+     * The name of the directory with the extracted files.
+     */
+    private static final String OUTPUT_DIR = "protos";
+    private static final String PROTO_EXTENSION = ".proto";
+
+    /**
+     * Obtains the JAR or the directory to extract the files from.
+     *
+     * <p>The paths of the files in a directory affect the result, so they are a part of
+     * the input.
+     */
+    @InputArtifact
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(TransformOutputs outputs) {
+        File artifact = getInputArtifact().get()
+                                          .getAsFile();
+        if (!artifact.exists()) {
+            return;
+        }
+        Path outputDir = outputs.dir(OUTPUT_DIR)
+                                .toPath();
+        try {
+            if (artifact.isDirectory()) {
+                copyFrom(artifact.toPath(), outputDir);
+            } else {
+                extractFrom(artifact, outputDir);
+            }
+        } catch (IOException e) {
+            throw new GradleException(
+                    format("Cannot extract Protobuf files from `%s`.", artifact), e
+            );
+        }
+    }
+
+    private static void extractFrom(File jar, Path outputDir) throws IOException {
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(PROTO_EXTENSION)) {
+                    extract(zip, entry, outputDir);
+                }
+            }
+        }
+    }
+
+    private static void extract(ZipFile zip, ZipEntry entry, Path outputDir) throws IOException {
+        Path target = outputDir.resolve(entry.getName())
+                               .normalize();
+        if (!target.startsWith(outputDir)) {
+            throw new IOException(format("Entry `%s` is outside of the target directory.",
+                                         entry.getName()));
+        }
+        Files.createDirectories(target.getParent());
+        try (InputStream in = zip.getInputStream(entry)) {
+            Files.copy(in, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static void copyFrom(Path dir, Path outputDir) throws IOException {
+        ImmutableList<Path> protos;
+        try (Stream<Path> files = Files.walk(dir)) {
+            protos = files.filter(Files::isRegularFile)
+                          .filter(file -> file.getFileName()
+                                              .toString()
+                                              .endsWith(PROTO_EXTENSION))
+                          .collect(toImmutableList());
+        }
+        for (Path proto : protos) {
+            Path target = outputDir.resolve(dir.relativize(proto));
+            Files.createDirectories(target.getParent());
+            Files.copy(proto, target, REPLACE_EXISTING);
+        }
+    }
+}
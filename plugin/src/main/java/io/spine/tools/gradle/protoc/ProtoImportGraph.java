@@ -0,0 +1,170 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllLines;
+
+/**
+ * A graph of the {@code import} statements between Protobuf source files.
+ *
+ * <p>The files are identified by their import paths, i.e. the paths relative to the source root
+ * under which {@code protoc} finds them, for example {@code spine/test/restaurant.proto}.
+ */
+public final class ProtoImportGraph {
+
+    private static final Pattern IMPORT =
+            Pattern.compile("^\\s*import\\s+(?:public\\s+|weak\\s+)?\"([^\"]+)\"\\s*;");
+
+    private final ImmutableMap<String, File> files;
+    private final ImmutableSetMultimap<String, String> imports;
+    private final ImmutableSetMultimap<String, String> dependants;
+
+    private ProtoImportGraph(ImmutableMap<String, File> files,
+                             ImmutableSetMultimap<String, String> imports) {
+        this.files = files;
+        this.imports = imports;
+        this.dependants = imports.inverse();
+    }
+
+    /**
+     * Builds the graph of the given files.
+     *
+     * @param files
+     *         the Protobuf source files mapped by their import paths
+     */
+    public static ProtoImportGraph of(Map<String, File> files) {
+        checkNotNull(files);
+        ImmutableSetMultimap.Builder<String, String> imports = ImmutableSetMultimap.builder();
+        files.forEach((path, file) -> imports.putAll(path, importsIn(file)));
+        return new ProtoImportGraph(ImmutableMap.copyOf(files), imports.build());
+    }
+
+    /**
+     * Reads the import paths declared in the given Protobuf file.
+     */
+    public static ImmutableSet<String> importsIn(File protoFile) {
+        checkNotNull(protoFile);
+        List<String> lines;
+        try {
+            lines = readAllLines(protoFile.toPath(), UTF_8);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        ImmutableSet.Builder<String> result = ImmutableSet.builder();
+        for (String line : lines) {
+            Matcher matcher = IMPORT.matcher(line);
+            if (matcher.find()) {
+                result.add(matcher.group(1));
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Obtains the import paths of all the files in this graph.
+     */
+    public ImmutableSet<String> files() {
+        return files.keySet();
+    }
+
+    /**
+     * Obtains the source file by its import path.
+     */
+    public File file(String path) {
+        checkNotNull(path);
+        File file = files.get(path);
+        checkNotNull(file, "File `%s` is not a part of the graph.", path);
+        return file;
+    }
+
+    /**
+     * Obtains the paths directly imported by the given file.
+     */
+    public ImmutableSet<String> importsOf(String path) {
+        checkNotNull(path);
+        return imports.get(path);
+    }
+
+    /**
+     * Obtains the given files along with all the files of this graph which import them directly
+     * or transitively.
+     *
+     * <p>Paths of the files which are not known to this graph, e.g. deleted files, are allowed.
+     * Such paths are not included into the result, but their dependants are.
+     */
+    public ImmutableSet<String> withDependants(Collection<String> paths) {
+        checkNotNull(paths);
+        return closure(paths, dependants);
+    }
+
+    /**
+     * Obtains the given files along with all the files of this graph which they import directly
+     * or transitively.
+     *
+     * <p>Imports which are not a part of this graph, e.g. files from the dependencies,
+     * are skipped.
+     */
+    public ImmutableSet<String> withDependencies(Collection<String> paths) {
+        checkNotNull(paths);
+        return closure(paths, imports);
+    }
+
+    private ImmutableSet<String> closure(Collection<String> paths,
+                                         ImmutableSetMultimap<String, String> edges) {
+        Set<String> visited = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(paths);
+        while (!queue.isEmpty()) {
+            String path = queue.poll();
+            if (visited.add(path)) {
+                queue.addAll(edges.get(path));
+            }
+        }
+        return visited.stream()
+                      .filter(files::containsKey)
+                      .collect(toImmutableSet());
+    }
+}
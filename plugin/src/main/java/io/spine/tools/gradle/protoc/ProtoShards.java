@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Splits a set of Protobuf files into shards which can be compiled independently.
+ *
+ * <p>The files are split by count, so that the shards have similar sizes regardless of how
+ * the files import each other. A file may import files of other shards, as {@code protoc} finds
+ * the imported files on the include path. The files are sorted by their import paths and each
+ * shard takes a contiguous range of them, so that the files of the same directory, which tend to
+ * import each other, mostly end up in the same shard.
+ *
+ * <p>The split is deterministic: the same files always produce the same shards.
+ */
+final class ProtoShards {
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ProtoShards() {
+    }
+
+    /**
+     * Splits the given files into at most {@code count} non-empty shards.
+     *
+     * <p>The sizes of the shards differ by one file at most.
+     *
+     * @param files
+     *         the import paths of the files to split
+     * @param count
+     *         the maximum number of shards
+     */
+    static ImmutableList<ImmutableSet<String>> split(Collection<String> files, int count) {
+        checkNotNull(files);
+        checkArgument(count > 0, "Shard count must be positive, but was %s.", count);
+        List<String> sorted = ImmutableList.copyOf(new TreeSet<>(files));
+        int shardCount = Math.min(count, sorted.size());
+        ImmutableList.Builder<ImmutableSet<String>> shards = ImmutableList.builder();
+        int start = 0;
+        for (int i = 0; i < shardCount; i++) {
+            int size = sorted.size() / shardCount + (i < sorted.size() % shardCount ? 1 : 0);
+            shards.add(ImmutableSet.copyOf(sorted.subList(start, start + size)));
+            start += size;
+        }
+        return shards.build();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+
+/**
+ * A snapshot of the Protobuf sources compiled by a {@code GenerateProtoTask}.
+ *
+ * <p>Stores a content hash of each source file along with a fingerprint of each code generator
+ * configured in the task, so that the next build could find out which files and which generators
+ * have changed since.
+ */
+final class ProtoSourceIndex {
+
+    /**
+     * The prefix of the keys under which the configuration fingerprints are stored.
+     *
+     * <p>Cannot collide with a file path, as {@code protoc} import paths never start
+     * with {@code @}.
+     */
+    private static final String CONFIGURATION_PREFIX = "@";
+
+    private final ImmutableMap<String, String> hashes;
+    private final ImmutableMap<String, String> configuration;
+
+    private ProtoSourceIndex(ImmutableMap<String, String> hashes,
+                             ImmutableMap<String, String> configuration) {
+        this.hashes = hashes;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Creates an index of the given source files.
+     *
+     * @param sources
+     *         the Protobuf files mapped by their import paths
+     * @param configuration
+     *         the fingerprints of the code generators mapped by the generator keys
+     */
+    static ProtoSourceIndex of(Map<String, File> sources, Map<String, String> configuration) {
+        checkNotNull(sources);
+        checkNotNull(configuration);
+        ImmutableMap.Builder<String, String> hashes = ImmutableMap.builder();
+        sources.forEach((path, file) -> hashes.put(path, hash(file)));
+        return new ProtoSourceIndex(hashes.build(), ImmutableMap.copyOf(configuration));
+    }
+
+    private static String hash(File file) {
+        try {
+            return Files.asByteSource(file)
+                        .hash(Hashing.sha256())
+                        .toString();
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Loads a previously {@linkplain #store(File) stored} index.
+     *
+     * @return the loaded index or {@code Optional.empty()} if the file does not exist
+     */
+    static Optional<ProtoSourceIndex> load(File file) {
+        checkNotNull(file);
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = newInputStream(file.toPath())) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+        ImmutableMap.Builder<String, String> hashes = ImmutableMap.builder();
+        ImmutableMap.Builder<String, String> configuration = ImmutableMap.builder();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (key.startsWith(CONFIGURATION_PREFIX)) {
+                configuration.put(key.substring(CONFIGURATION_PREFIX.length()), value);
+            } else {
+                hashes.put(key, value);
+            }
+        }
+        ProtoSourceIndex index = new ProtoSourceIndex(hashes.build(), configuration.build());
+        return Optional.of(index);
+    }
+
+    /**
+     * Writes this index into the given file.
+     */
+    void store(File file) {
+        checkNotNull(file);
+        Properties properties = new Properties();
+        properties.putAll(hashes);
+        configuration.forEach(
+                (key, value) -> properties.setProperty(CONFIGURATION_PREFIX + key, value)
+        );
+        try {
+            createDirectories(file.toPath().getParent());
+            try (OutputStream out = newOutputStream(file.toPath())) {
+                properties.store(out, "Protobuf sources compiled by the last build.");
+            }
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    /**
+     * Checks if the code generation configuration is the same as in the given index.
+     */
+    boolean sameConfiguration(ProtoSourceIndex other) {
+        return configuration.equals(other.configuration);
+    }
+
+    /**
+     * Obtains the keys of the code generators which were added, removed, or reconfigured since
+     * the given index was taken.
+     */
+    ImmutableSet<String> generatorsChangedSince(ProtoSourceIndex previous) {
+        return Sets.union(configuration.keySet(), previous.configuration.keySet())
+                   .stream()
+                   .filter(key -> !Objects.equals(configuration.get(key),
+                                                  previous.configuration.get(key)))
+                   .collect(toImmutableSet());
+    }
+
+    /**
+     * Obtains the paths of the files which were added or modified since the given index was taken.
+     */
+    ImmutableSet<String> changedSince(ProtoSourceIndex previous) {
+        return hashes.keySet()
+                     .stream()
+                     .filter(path -> !hashes.get(path)
+                                            .equals(previous.hashes.get(path)))
+                     .collect(toImmutableSet());
+    }
+
+    /**
+     * Obtains the paths of the files which were removed since the given index was taken.
+     */
+    ImmutableSet<String> removedSince(ProtoSourceIndex previous) {
+        return previous.hashes.keySet()
+                              .stream()
+                              .filter(path -> !hashes.containsKey(path))
+                              .collect(toImmutableSet());
+    }
+}
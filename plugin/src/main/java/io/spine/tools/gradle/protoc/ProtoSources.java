@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.api.file.FileCollection;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A utility for working with the Protobuf source files known to Gradle.
+ */
+public final class ProtoSources {
+
+    private static final String PROTO_EXTENSION = ".proto";
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ProtoSources() {
+    }
+
+    /**
+     * Collects the Protobuf files of the given collection mapped by their import paths.
+     *
+     * <p>The import path of a file is its path relative to the root of the file tree, e.g.
+     * a source directory, to which the file belongs.
+     *
+     * <p>The resulting map is sorted by the import paths.
+     */
+    public static ImmutableMap<String, File> byImportPath(FileCollection files) {
+        checkNotNull(files);
+        Map<String, File> result = new TreeMap<>();
+        files.getAsFileTree()
+             .visit(details -> {
+                 String path = details.getRelativePath()
+                                      .getPathString();
+                 if (!details.isDirectory() && path.endsWith(PROTO_EXTENSION)) {
+                     result.putIfAbsent(path, details.getFile());
+                 }
+             });
+        return ImmutableMap.copyOf(result);
+    }
+}
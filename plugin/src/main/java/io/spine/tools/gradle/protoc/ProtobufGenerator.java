@@ -34,8 +34,10 @@ import com.google.protobuf.gradle.ProtobufConfigurator.GenerateProtoTaskCollecti
 import com.google.protobuf.gradle.ProtobufConvention;
 import groovy.lang.Closure;
 import io.spine.tools.gradle.PluginId;
+import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.plugins.PluginManager;
 
 import java.util.function.Consumer;
@@ -108,11 +110,242 @@ public final class ProtobufGenerator {
      */
     public void useCompiler(String artifactSpec) {
         checkNotNull(artifactSpec);
-        withProtobufPlugin(() -> protobufConfigurator().protoc(closure(
-                (ExecutableLocator locator) -> locator.setArtifact(artifactSpec))
+        useCompiler(ProtocExecutable.fromArtifact(artifactSpec));
+    }
+
+    /**
+     * Specifies the Protobuf compiler to use to generate code.
+     *
+     * <p>If the compiler is {@linkplain ProtocExecutable preinstalled or cached}, the Protobuf
+     * plugin is pointed at the local executable, which is put in place right before the code
+     * generation. Otherwise, the plugin resolves the compiler artifact by itself.
+     *
+     * @param protoc
+     *         Protobuf compiler executable
+     */
+    public void useCompiler(ProtocExecutable protoc) {
+        checkNotNull(protoc);
+        withProtobufPlugin(() -> {
+            if (protoc.isLocal(project)) {
+                String path = protoc.location(project)
+                                    .getAbsolutePath();
+                protobufConfigurator().protoc(closure(
+                        (ExecutableLocator locator) -> locator.setPath(path))
+                );
+                configureTasks(task -> task.doFirst(new ResolveCompiler(protoc)));
+            } else {
+                protobufConfigurator().protoc(closure(
+                        (ExecutableLocator locator) -> locator.setArtifact(protoc.artifactSpec()))
+                );
+            }
+        });
+    }
+
+    /**
+     * Enables incremental compilation of the Protobuf sources.
+     *
+     * <p>In this mode, {@code protoc} compiles only the files changed since the previous build
+     * along with the files which import them. The outputs of the removed or recompiled files
+     * are deleted.
+     *
+     * @see IncrementalCompilation
+     */
+    public void enableIncrementalCompilation() {
+        toggleIncrementalCompilation(true);
+    }
+
+    /**
+     * Disables incremental compilation of the Protobuf sources.
+     *
+     * <p>This is the default mode. Each time any of the sources changes, the whole source set
+     * is compiled.
+     */
+    public void disableIncrementalCompilation() {
+        toggleIncrementalCompilation(false);
+    }
+
+    private void toggleIncrementalCompilation(boolean enabled) {
+        withProtobufPlugin(() -> configureTasks(
+                task -> IncrementalCompilation.configure(task, enabled)
         ));
     }
 
+    /**
+     * Isolates the outputs of the {@code protoc} built-ins and plugins from each other.
+     *
+     * <p>In this mode, when a built-in or a plugin is added, removed, or reconfigured while
+     * the sources stay the same, only the output of that built-in or plugin is regenerated or
+     * deleted. The outputs of the others are left intact, so that the downstream tasks, such as
+     * the Java compilation, stay up-to-date for them.
+     *
+     * @see IncrementalCompilation
+     */
+    public void enablePluginIsolation() {
+        togglePluginIsolation(true);
+    }
+
+    /**
+     * Disables isolation of the {@code protoc} built-ins and plugins.
+     *
+     * <p>This is the default mode. Any change of the code generation configuration causes
+     * all the outputs to be regenerated.
+     */
+    public void disablePluginIsolation() {
+        togglePluginIsolation(false);
+    }
+
+    private void togglePluginIsolation(boolean isolated) {
+        withProtobufPlugin(() -> configureTasks(
+                task -> IncrementalCompilation.isolatePlugins(task, isolated)
+        ));
+    }
+
+    /**
+     * Enables sharded compilation of the Protobuf sources.
+     *
+     * <p>In this mode, the source set of each task is split into the given number of shards
+     * of similar size. All the code generators of the task are run on the shards in parallel.
+     *
+     * @param shardCount
+     *         the maximum number of shards per task
+     * @param protoc
+     *         the compiler to run the shards with
+     * @see ShardedCompilation
+     */
+    public void enableSharding(int shardCount, ProtocExecutable protoc) {
+        checkNotNull(protoc);
+        withProtobufPlugin(() -> configureTasks(
+                task -> ShardedCompilation.enable(task, shardCount, protoc)
+        ));
+    }
+
+    /**
+     * Disables sharded compilation of the Protobuf sources.
+     *
+     * <p>This is the default mode. Each task runs a single {@code protoc} process.
+     */
+    public void disableSharding() {
+        withProtobufPlugin(() -> configureTasks(ShardedCompilation::disable));
+    }
+
+    /**
+     * Enables caching of the generated descriptor sets in the machine-wide cache.
+     *
+     * <p>Does nothing if the cache directory is not configured.
+     *
+     * @param protoc
+     *         the compiler which generates the descriptor sets
+     * @see DescriptorSetCache
+     */
+    public void enableDescriptorSetCache(ProtocExecutable protoc) {
+        checkNotNull(protoc);
+        withProtobufPlugin(() -> ContentCache
+                .configuredFor(project)
+                .ifPresent(cache -> configureTasks(
+                        task -> DescriptorSetCache.configure(task, cache, protoc)
+                ))
+        );
+    }
+
+    /**
+     * Sets the form in which the descriptor sets are packed into the project resources.
+     *
+     * <p>By default, the descriptor sets are packed {@linkplain DescriptorForm#full as generated}.
+     *
+     * @see ShippedDescriptors
+     */
+    public void shipDescriptors(DescriptorForm form) {
+        checkNotNull(form);
+        withProtobufPlugin(() -> {
+            ShippedDescriptors descriptors = ShippedDescriptors.in(project);
+            descriptors.setForm(form);
+            configureTasks(descriptors::configure);
+        });
+    }
+
+    /**
+     * Enables the shared extraction of the Protobuf files from the dependencies.
+     *
+     * <p>In this mode, the {@code .proto} files of the dependency JARs are extracted by
+     * a cacheable artifact transform once per machine instead of being unpacked in each project.
+     *
+     * @see ExtractedProtos
+     */
+    public void enableSharedExtraction() {
+        toggleSharedExtraction(true);
+    }
+
+    /**
+     * Disables the shared extraction of the Protobuf files from the dependencies.
+     *
+     * <p>This is the default mode. Each project unpacks the dependency JARs by itself.
+     */
+    public void disableSharedExtraction() {
+        toggleSharedExtraction(false);
+    }
+
+    /**
+     * Enables the selective extraction of the Protobuf files from the dependencies.
+     *
+     * <p>In this mode, only the files transitively imported by the project sources are put on
+     * the {@code protoc} include path. The files are taken from the results of
+     * the {@linkplain #enableSharedExtraction() shared extraction}.
+     *
+     * @see ExtractedProtos
+     */
+    public void enableSelectiveExtraction() {
+        toggleSelectiveExtraction(true);
+    }
+
+    /**
+     * Disables the selective extraction of the Protobuf files from the dependencies.
+     *
+     * <p>This is the default mode. All the files of the dependencies are put on the include path.
+     */
+    public void disableSelectiveExtraction() {
+        toggleSelectiveExtraction(false);
+    }
+
+    private void toggleSelectiveExtraction(boolean selective) {
+        withProtobufPlugin(() -> {
+            ExtractedProtos protos = ExtractedProtos.in(project);
+            protos.setSelective(selective);
+            configureTasks(protos::configure);
+        });
+    }
+
+    private void toggleSharedExtraction(boolean enabled) {
+        withProtobufPlugin(() -> {
+            ExtractedProtos protos = ExtractedProtos.in(project);
+            protos.setEnabled(enabled);
+            configureTasks(protos::configure);
+        });
+    }
+
+    /**
+     * Sets the policy on the Protobuf sources which set {@code optimize_for} to anything
+     * but {@code SPEED}.
+     *
+     * @see SpeedOptimization
+     */
+    public void checkOptimizeFor(OptimizeForPolicy policy) {
+        checkNotNull(policy);
+        withProtobufPlugin(() -> {
+            SpeedOptimization optimization = SpeedOptimization.in(project);
+            optimization.setPolicy(policy);
+            configureTasks(optimization::configure);
+        });
+    }
+
+    /**
+     * Adds a task which reports the {@code protoc} command line of each Protobuf generation task.
+     *
+     * @see ProtocTaskName#reportProtocCommands
+     */
+    public void enableCommandReport() {
+        withProtobufPlugin(() -> ProtocCommandReport.registerIn(project));
+    }
+
     private void configureTasks(Consumer<GenerateProtoTask> config) {
         Closure<?> forEachTask = closure(
                 (GenerateProtoTaskCollection tasks) -> tasks.all()
@@ -138,6 +371,25 @@ public final class ProtobufGenerator {
         }
     }
 
+    /**
+     * Puts the local {@code protoc} executable in place before a task runs it.
+     *
+     * <p>Gradle cannot track the implementation of a lambda, so the action is a class.
+     */
+    private static final class ResolveCompiler implements Action<Task> {
+
+        private final ProtocExecutable protoc;
+
+        private ResolveCompiler(ProtocExecutable protoc) {
+            this.protoc = protoc;
+        }
+
+        @Override
+        public void execute(Task task) {
+            protoc.resolve(task.getProject());
+        }
+    }
+
     private interface ContainerSelector
             extends Function<GenerateProtoTask, NamedDomainObjectContainer<PluginOptions>> {
     }
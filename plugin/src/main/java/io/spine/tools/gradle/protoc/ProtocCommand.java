@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.DescriptorSetOptions;
+import com.google.protobuf.gradle.GenerateProtoTask.PluginOptions;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * The command line of {@code protoc} as configured in a {@code GenerateProtoTask}.
+ *
+ * <p>The Protobuf Gradle plugin builds the actual command line when the task is executed.
+ * This class reproduces it from the task configuration, so that the command can be reported or
+ * run outside the task.
+ */
+final class ProtocCommand {
+
+    private static final String EXTRACTED_PROTOS = "extracted-protos";
+    private static final String EXTRACTED_INCLUDE_PROTOS = "extracted-include-protos";
+    private static final Joiner optionJoiner = Joiner.on(',');
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ProtocCommand() {
+    }
+
+    /**
+     * Obtains the arguments of {@code protoc} configured in the given task, except for
+     * the executable itself.
+     *
+     * <p>The {@code protoc} plugins are listed by their names, as the paths to their executables
+     * are only known to the Protobuf Gradle plugin.
+     */
+    static ImmutableList<String> arguments(GenerateProtoTask task) {
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(task.getSourceFiles());
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        result.addAll(includeArgs(task, sources));
+        for (PluginOptions builtIn : task.getBuiltins()) {
+            result.add(outputArg(builtIn, new File(task.getOutputDir(builtIn))));
+        }
+        for (PluginOptions plugin : task.getPlugins()) {
+            result.add("--plugin=protoc-gen-" + plugin.getName());
+            result.add(outputArg(plugin, new File(task.getOutputDir(plugin))));
+        }
+        if (task.getGenerateDescriptorSet()) {
+            result.addAll(descriptorSetArgs(task, task.getProject()
+                                                      .file(task.getDescriptorPath())));
+        }
+        sources.values()
+               .forEach(file -> result.add(file.getAbsolutePath()));
+        return result.build();
+    }
+
+    /**
+     * Obtains the {@code --*_out} argument for the given built-in or plugin.
+     */
+    static String outputArg(PluginOptions plugin, File outputDir) {
+        String options = plugin.getOptions().isEmpty()
+                         ? ""
+                         : optionJoiner.join(plugin.getOptions()) + ':';
+        return "--" + plugin.getName() + "_out=" + options + outputDir.getAbsolutePath();
+    }
+
+    /**
+     * Obtains the arguments which make {@code protoc} write the descriptor set with the options
+     * of the given task into the given file.
+     */
+    static ImmutableList<String> descriptorSetArgs(GenerateProtoTask task, File descriptorSet) {
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        result.add("--descriptor_set_out=" + descriptorSet.getAbsolutePath());
+        DescriptorSetOptions options = task.getDescriptorSetOptions();
+        if (options.getIncludeImports()) {
+            result.add("--include_imports");
+        }
+        if (options.getIncludeSourceInfo()) {
+            result.add("--include_source_info");
+        }
+        return result.build();
+    }
+
+    /**
+     * Obtains the {@code -I} arguments for the source roots and for the protos extracted
+     * from the dependencies.
+     *
+     * @param task
+     *         the task which compiles the sources
+     * @param sources
+     *         the sources mapped by their import paths
+     */
+    static ImmutableList<String> includeArgs(GenerateProtoTask task, Map<String, File> sources) {
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        includeRoots(task, sources).forEach(root -> result.add("-I" + root.getAbsolutePath()));
+        return result.build();
+    }
+
+    /**
+     * Obtains the source roots and the directories with the protos extracted
+     * from the dependencies.
+     *
+     * <p>The roots of the {@linkplain ExtractedProtos shared extraction} go last, in the same way
+     * as the Protobuf Gradle plugin passes its include directories.
+     *
+     * @param task
+     *         the task which compiles the sources
+     * @param sources
+     *         the sources mapped by their import paths
+     */
+    static ImmutableList<File> includeRoots(GenerateProtoTask task, Map<String, File> sources) {
+        SortedSet<String> roots = new TreeSet<>();
+        sources.forEach((path, file) -> roots.add(sourceRoot(path, file)));
+        for (String extracted : ImmutableList.of(EXTRACTED_PROTOS, EXTRACTED_INCLUDE_PROTOS)) {
+            File dir = extractedDir(task, extracted);
+            if (dir.exists()) {
+                roots.add(dir.getAbsolutePath());
+            }
+        }
+        return ImmutableList.<File>builder()
+                .addAll(roots.stream()
+                             .map(File::new)
+                             .collect(toImmutableList()))
+                .addAll(ExtractedProtos.includeRoots(task))
+                .build();
+    }
+
+    /**
+     * Obtains the directory into which the Protobuf Gradle plugin extracts the protos imported
+     * by the given task.
+     */
+    static File extractedIncludeDir(GenerateProtoTask task) {
+        return extractedDir(task, EXTRACTED_INCLUDE_PROTOS);
+    }
+
+    private static File extractedDir(GenerateProtoTask task, String extracted) {
+        return task.getProject()
+                   .getBuildDir()
+                   .toPath()
+                   .resolve(extracted)
+                   .resolve(task.getSourceSet().getName())
+                   .toFile();
+    }
+
+    private static String sourceRoot(String importPath, File file) {
+        Path root = file.getAbsoluteFile()
+                        .toPath();
+        int depth = Paths.get(importPath)
+                         .getNameCount();
+        for (int i = 0; i < depth; i++) {
+            root = root.getParent();
+        }
+        return root.toString();
+    }
+}
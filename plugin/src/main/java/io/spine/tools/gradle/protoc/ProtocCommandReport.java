@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.logging.Logging;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.tasks.TaskContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.gradle.protoc.ProtocTaskName.reportProtocCommands;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A report on the {@code protoc} invocations of a project.
+ *
+ * <p>For each {@code GenerateProtoTask}, writes the {@code protoc} command line into
+ * {@code build/reports/protoc/<task name>.txt}.
+ *
+ * <p>The command line is not captured from the actual {@code protoc} run, as the Protobuf Gradle
+ * plugin does not expose it. Instead, it is {@linkplain ProtocCommand reconstructed} from
+ * the configuration of the task. Thus, the report may differ from the actual invocation:
+ * the plugins are listed without the paths to their executables, and the Protobuf Gradle plugin
+ * may split a very long command line into several {@code protoc} runs. Each report starts with
+ * a comment which says so.
+ *
+ * <p>All the code generators should run in a single {@code protoc} invocation per source set,
+ * so that the sources are parsed once. If a source set is compiled by several tasks,
+ * the report warns about it.
+ */
+final class ProtocCommandReport implements Logging {
+
+    private static final String REPORT_DIR = "reports/protoc";
+    private static final String LINE_BREAK = " \\" + System.lineSeparator() + "    ";
+    private static final Joiner argJoiner = Joiner.on(LINE_BREAK);
+    private static final String HEADER =
+            "# Reconstructed from the configuration of task `%s`. The plugins are listed"
+                    + " without their executables.";
+
+    private final Project project;
+
+    private ProtocCommandReport(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Adds the report task to the given project unless it is already present.
+     */
+    static void registerIn(Project project) {
+        checkNotNull(project);
+        TaskContainer tasks = project.getTasks();
+        if (tasks.findByName(reportProtocCommands.name()) != null) {
+            return;
+        }
+        ProtocCommandReport report = new ProtocCommandReport(project);
+        Task task = tasks.create(reportProtocCommands.name());
+        task.setDescription("Writes down the `protoc` command line of each generation task.");
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                report.write();
+            }
+        });
+    }
+
+    private void write() {
+        File reportDir = project.mkdir(new File(project.getBuildDir(), REPORT_DIR));
+        SetMultimap<String, String> tasksBySourceSet = LinkedHashMultimap.create();
+        project.getTasks()
+               .withType(GenerateProtoTask.class)
+               .forEach(task -> {
+                   tasksBySourceSet.put(task.getSourceSet().getName(), task.getPath());
+                   writeCommand(task, new File(reportDir, task.getName() + ".txt"));
+               });
+        tasksBySourceSet.asMap()
+                        .forEach(this::checkSinglePass);
+        _debug().log("`protoc` command report written to `%s`.", reportDir);
+    }
+
+    private static void writeCommand(GenerateProtoTask task, File reportFile) {
+        ImmutableList<String> command = ImmutableList.<String>builder()
+                .add("protoc")
+                .addAll(ProtocCommand.arguments(task))
+                .build();
+        String report = format(HEADER, task.getPath()) + System.lineSeparator()
+                + argJoiner.join(command) + System.lineSeparator();
+        try {
+            Files.write(reportFile.toPath(), report.getBytes(UTF_8));
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private void checkSinglePass(String sourceSet, Collection<String> tasks) {
+        if (tasks.size() > 1) {
+            _warn().log("Source set `%s` is compiled by %d `protoc` invocations: %s.",
+                        sourceSet, tasks.size(), tasks);
+        }
+    }
+}
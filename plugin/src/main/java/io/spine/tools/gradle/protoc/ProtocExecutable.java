@@ -0,0 +1,246 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.io.CharStreams;
+import io.spine.logging.Logging;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The Protobuf compiler executable.
+ *
+ * <p>The executable is resolved in the following order:
+ * <ol>
+ *     <li>A preinstalled {@code protoc} specified by the {@code spine.protoc.path} Gradle
+ *         property or the {@code SPINE_PROTOC_PATH} environment variable. The version of
+ *         the executable must match the version of the artifact.
+ *     <li>The {@linkplain ContentCache machine-wide cache}, if configured. The executable is
+ *         hard-linked from the cache into the build directory. On a cache miss, the artifact is
+ *         downloaded and put into the cache.
+ *     <li>A Maven artifact published with a platform-specific classifier, resolved in the same
+ *         way as the Protobuf Gradle plugin does it.
+ * </ol>
+ */
+public final class ProtocExecutable implements Logging {
+
+    static final String EXECUTABLE_EXTENSION = "exe";
+    private static final String PATH_PROPERTY = "spine.protoc.path";
+    private static final String PATH_VARIABLE = "SPINE_PROTOC_PATH";
+    private static final String CACHE_NAMESPACE = "protoc";
+    private static final String VERSION_PREFIX = "libprotoc ";
+    private static final String BIN_DIR = "spine/protoc/bin";
+
+    private final String artifactSpec;
+
+    private ProtocExecutable(String artifactSpec) {
+        this.artifactSpec = artifactSpec;
+    }
+
+    /**
+     * Creates the executable resolved from the given artifact.
+     *
+     * @param artifactSpec
+     *         the artifact spec without a classifier,
+     *         e.g. {@code com.google.protobuf:protoc:3.13.0}
+     */
+    public static ProtocExecutable fromArtifact(String artifactSpec) {
+        checkNotNull(artifactSpec);
+        return new ProtocExecutable(artifactSpec);
+    }
+
+    /**
+     * Obtains the spec of the artifact of the executable.
+     */
+    public String artifactSpec() {
+        return artifactSpec;
+    }
+
+    /**
+     * Obtains the version of the compiler.
+     */
+    String version() {
+        return artifactSpec.substring(artifactSpec.lastIndexOf(':') + 1);
+    }
+
+    /**
+     * Checks if the executable is resolved without the Gradle dependency resolution, i.e. it is
+     * preinstalled or taken from the machine-wide cache.
+     */
+    boolean isLocal(Project project) {
+        return preinstalled(project).isPresent()
+                || ContentCache.configuredFor(project).isPresent();
+    }
+
+    /**
+     * Obtains the location of a {@linkplain #isLocal(Project) local} executable.
+     *
+     * <p>The executable may not exist at this location until it is {@linkplain #resolve resolved}.
+     */
+    File location(Project project) {
+        return preinstalled(project).orElseGet(() -> linkIn(project));
+    }
+
+    /**
+     * Resolves the executable file for the current platform.
+     *
+     * @throws GradleException
+     *         if the artifact cannot be resolved or the preinstalled executable has a different
+     *         version
+     */
+    File resolve(Project project) {
+        Optional<File> preinstalled = preinstalled(project);
+        if (preinstalled.isPresent()) {
+            File executable = preinstalled.get();
+            checkVersion(executable);
+            return executable;
+        }
+        Optional<ContentCache> cache = ContentCache.configuredFor(project);
+        if (cache.isPresent()) {
+            return installFrom(cache.get(), project);
+        }
+        return download(project);
+    }
+
+    private static Optional<File> preinstalled(Project project) {
+        return ContentCache.setting(project, PATH_PROPERTY, PATH_VARIABLE)
+                           .map(File::new);
+    }
+
+    private void checkVersion(File executable) {
+        String output;
+        try {
+            @SuppressWarnings("UseOfProcessBuilder")
+            Process process = new ProcessBuilder(executable.getAbsolutePath(), "--version")
+                    .redirectErrorStream(true)
+                    .start();
+            try (Reader reader = new InputStreamReader(process.getInputStream(), UTF_8)) {
+                output = CharStreams.toString(reader)
+                                    .trim();
+            }
+            process.waitFor();
+        } catch (IOException e) {
+            throw new GradleException(format("Cannot run `%s`.", executable), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new GradleException(format("Interrupted while running `%s`.", executable), e);
+        }
+        String expected = VERSION_PREFIX + version();
+        if (!output.equals(expected)) {
+            throw new GradleException(format(
+                    "`%s` reports version `%s` while `%s` is required.",
+                    executable, output, expected
+            ));
+        }
+    }
+
+    private File installFrom(ContentCache cache, Project project) {
+        String key = artifactSpec + ':' + classifier();
+        Path blob = cache.find(CACHE_NAMESPACE, key)
+                         .orElseGet(() -> {
+                             _debug().log("`%s` is not cached, downloading.", key);
+                             return cache.put(CACHE_NAMESPACE, key, download(project).toPath());
+                         });
+        File executable = linkIn(project);
+        if (!ContentCache.isLinked(blob, executable.toPath())) {
+            ContentCache.link(blob, executable.toPath());
+        }
+        makeExecutable(executable);
+        return executable;
+    }
+
+    private File linkIn(Project project) {
+        String fileName = format("protoc-%s-%s.%s", version(), classifier(), EXECUTABLE_EXTENSION);
+        return project.getBuildDir()
+                      .toPath()
+                      .resolve(BIN_DIR)
+                      .resolve(fileName)
+                      .toFile();
+    }
+
+    private File download(Project project) {
+        String notation = format("%s:%s@%s", artifactSpec, classifier(), EXECUTABLE_EXTENSION);
+        Dependency dependency = project.getDependencies()
+                                       .create(notation);
+        Configuration configuration = project.getConfigurations()
+                                             .detachedConfiguration(dependency);
+        File executable = configuration.getSingleFile();
+        makeExecutable(executable);
+        return executable;
+    }
+
+    static void makeExecutable(File executable) {
+        if (!executable.canExecute() && !executable.setExecutable(true)) {
+            throw new GradleException(format("Cannot make `%s` executable.", executable));
+        }
+    }
+
+    /**
+     * Obtains the classifier of the {@code protoc} and plugin artifacts for the current platform.
+     *
+     * <p>The value is similar to the one produced by the {@code osdetector} Gradle plugin,
+     * for example, {@code linux-x86_64} or {@code osx-aarch_64}.
+     */
+    static String classifier() {
+        String osName = System.getProperty("os.name")
+                              .toLowerCase(Locale.ROOT);
+        String os;
+        if (osName.startsWith("windows")) {
+            os = "windows";
+        } else if (osName.startsWith("mac") || osName.startsWith("os x")) {
+            os = "osx";
+        } else {
+            os = "linux";
+        }
+        String archName = System.getProperty("os.arch")
+                                .toLowerCase(Locale.ROOT);
+        String arch;
+        if (archName.equals("aarch64") || archName.equals("arm64")) {
+            arch = "aarch_64";
+        } else if (archName.endsWith("86") || archName.equals("x86_32")) {
+            arch = "x86_32";
+        } else {
+            arch = "x86_64";
+        }
+        return os + '-' + arch;
+    }
+}
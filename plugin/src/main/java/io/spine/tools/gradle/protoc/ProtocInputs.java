@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.gradle.ExecutableLocator;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.ProtobufConfigurator;
+import com.google.protobuf.gradle.ProtobufConvention;
+import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.Project;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.tools.groovy.ConsumerClosure.closure;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The inputs of a {@code GenerateProtoTask} other than its own sources.
+ *
+ * <p>The output of {@code protoc} depends on the versions of the compiler and of its plugins,
+ * as well as on the Protobuf files imported from the dependencies. The fingerprints of these
+ * inputs let the incremental compilation notice that all the sources should be recompiled.
+ */
+final class ProtocInputs {
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ProtocInputs() {
+    }
+
+    /**
+     * Obtains the fingerprint of the {@code protoc} executable configured in the given project.
+     */
+    static String compiler(Project project) {
+        checkNotNull(project);
+        StringBuilder fingerprint = new StringBuilder();
+        protobuf(project).protoc(closure(
+                (ExecutableLocator locator) -> fingerprint.append(fingerprintOf(locator))
+        ));
+        return fingerprint.toString();
+    }
+
+    /**
+     * Obtains the fingerprints of the {@code protoc} plugin executables configured in
+     * the given project mapped by the names of the plugins.
+     */
+    static ImmutableMap<String, String> plugins(Project project) {
+        checkNotNull(project);
+        ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+        pluginLocators(project).forEach(
+                (name, locator) -> result.put(name, fingerprintOf(locator))
+        );
+        return result.build();
+    }
+
+    /**
+     * Obtains the locators of the {@code protoc} plugin executables configured in the given
+     * project mapped by the names of the plugins.
+     */
+    static ImmutableMap<String, ExecutableLocator> pluginLocators(Project project) {
+        checkNotNull(project);
+        ImmutableMap.Builder<String, ExecutableLocator> result = ImmutableMap.builder();
+        protobuf(project).plugins(closure(
+                (NamedDomainObjectContainer<ExecutableLocator> locators) -> locators.forEach(
+                        locator -> result.put(locator.getName(), locator)
+                )
+        ));
+        return result.build();
+    }
+
+    /**
+     * Obtains the fingerprint of the dependency files imported by the given sources directly or
+     * transitively.
+     *
+     * <p>Only the files reachable from the sources are read. The files of the dependencies which
+     * no source imports do not affect the fingerprint.
+     *
+     * @param task
+     *         the task which compiles the sources
+     * @param sources
+     *         the sources mapped by their import paths
+     */
+    static String imports(GenerateProtoTask task, Map<String, File> sources) {
+        checkNotNull(task);
+        checkNotNull(sources);
+        List<File> roots = ProtocCommand.includeRoots(task, sources);
+        ImmutableMap<String, File> dependencies =
+                ProtoSources.byImportPath(task.getProject()
+                                              .files(roots));
+        Hasher hasher = Hashing.sha256()
+                               .newHasher();
+        Set<String> visited = new HashSet<>(sources.keySet());
+        Deque<String> queue = new ArrayDeque<>();
+        sources.values()
+               .forEach(file -> queue.addAll(ProtoImportGraph.importsIn(file)));
+        while (!queue.isEmpty()) {
+            String path = queue.poll();
+            File file = dependencies.get(path);
+            if (file == null || !visited.add(path)) {
+                continue;
+            }
+            hasher.putString(path, UTF_8)
+                  .putString(ContentCache.hash(file.toPath()), UTF_8);
+            queue.addAll(ProtoImportGraph.importsIn(file));
+        }
+        return hasher.hash()
+                     .toString();
+    }
+
+    /**
+     * Obtains the fingerprint of the given executable.
+     *
+     * <p>An executable resolved from an artifact is identified by the artifact coordinates.
+     * A local executable is identified by its path, size, and modification time.
+     */
+    private static String fingerprintOf(ExecutableLocator locator) {
+        String artifact = locator.getArtifact();
+        if (artifact != null) {
+            return artifact;
+        }
+        String path = locator.getPath();
+        if (path == null) {
+            return "";
+        }
+        File file = new File(path);
+        return path + '@' + file.length() + '@' + file.lastModified();
+    }
+
+    private static ProtobufConfigurator protobuf(Project project) {
+        return project.getConvention()
+                      .getPlugin(ProtobufConvention.class)
+                      .getProtobuf();
+    }
+}
@@ -58,10 +58,23 @@ public final class ProtocPlugin {
         return new ProtocPlugin(name, option);
     }
 
+    /**
+     * Adds this plugin to the given container.
+     *
+     * <p>If the plugin is already present, it is reused. The option is added only once, so that
+     * enabling the same plugin repeatedly does not alter the {@code protoc} invocation. An option
+     * of the {@code key=value} form replaces the present option with the same key.
+     */
     public void createIn(NamedDomainObjectContainer<GenerateProtoTask.PluginOptions> plugins) {
         checkNotNull(plugins);
         GenerateProtoTask.PluginOptions options = plugins.maybeCreate(name.name());
-        if (option != null) {
+        if (option != null && !options.getOptions().contains(option)) {
+            int separator = option.indexOf('=');
+            if (separator > 0) {
+                String key = option.substring(0, separator + 1);
+                options.getOptions()
+                       .removeIf(present -> present.startsWith(key));
+            }
             options.option(option);
         }
     }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.base.Joiner;
+import org.gradle.api.GradleException;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.google.common.io.ByteStreams.copy;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A unit of work which runs {@code protoc} on a shard of a source set.
+ *
+ * <p>Instantiated by the Gradle Worker API.
+ */
+public abstract class ProtocShard implements WorkAction<ProtocShard.Parameters> {
+
+    private static final Joiner commandJoiner = Joiner.on(' ');
+
+    @Override
+    public void execute() {
+        List<String> command = getParameters().getCommand()
+                                              .get();
+        @SuppressWarnings("UseOfProcessBuilder")
+        ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int exitCode;
+        try {
+            Process process = processBuilder.start();
+            try (InputStream in = process.getInputStream()) {
+                copy(in, output);
+            }
+            exitCode = process.waitFor();
+        } catch (IOException | InterruptedException e) {
+            throw new GradleException(format("Failed to execute `%s`.", command.get(0)), e);
+        }
+        if (exitCode != 0) {
+            throw new GradleException(format("Command `%s` exited with code %s:%n%s",
+                                             commandJoiner.join(command),
+                                             exitCode,
+                                             new String(output.toByteArray(), UTF_8)));
+        }
+    }
+
+    /**
+     * Parameters of a {@code protoc} shard.
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * The full command line of the {@code protoc} invocation.
+         */
+        ListProperty<String> getCommand();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.PluginOptions;
+import io.spine.logging.Logging;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * Compilation of the sources of a {@code GenerateProtoTask} split into shards which run
+ * in parallel.
+ *
+ * <p>The source set is {@linkplain ProtoShards split} by the number of files. Each shard is
+ * compiled by a separate {@code protoc} process through the Gradle Worker API. The imports of
+ * a shard are resolved through the include path, which contains all the source roots and
+ * the protos extracted from the dependencies.
+ *
+ * <p>Every code generator of the task, i.e. each built-in and each plugin, is run on every shard.
+ * Thus, a plugin which writes into the output of a built-in through insertion points, such as
+ * {@code spineProtoc} with {@code java}, always works with the files generated in the same
+ * {@code protoc} run. Each shard writes into the same output directories as the task would.
+ * Since every generated file belongs to exactly one shard, the result does not depend on
+ * the order in which the shards complete.
+ *
+ * <p>If the task generates a descriptor set, each shard writes its own one. The descriptor sets of
+ * the shards are then {@linkplain DescriptorSets#merge merged} into the descriptor set of
+ * the task.
+ *
+ * <p>After the shards are compiled, the sources of the task are cleared, so that the Protobuf
+ * Gradle plugin does not run {@code protoc} once again. The sources are restored after the task
+ * actions.
+ *
+ * <p>If the {@linkplain IncrementalCompilation incremental compilation} is enabled, the shards
+ * are made of the sources it narrowed down, as its actions enclose the actions of this class.
+ */
+abstract class ShardedCompilation implements Logging {
+
+    private static final String EXTRA_PROPERTY = "spineShardedCompilation";
+    private static final String WORKING_DIR = "spine/protoc-shards";
+    private static final String DESCRIPTOR_SET_EXTENSION = ".desc";
+
+    private final GenerateProtoTask task;
+
+    /**
+     * The compiler to run the shards with.
+     *
+     * <p>Is {@code null} if sharding is disabled.
+     */
+    private @Nullable ProtocExecutable protoc;
+    private int shardCount;
+
+    /**
+     * The sources of the task before they were cleared.
+     *
+     * <p>Is {@code null} if the sources were not cleared.
+     */
+    private @Nullable ImmutableSet<Object> originalSources;
+
+    @Inject
+    ShardedCompilation(GenerateProtoTask task) {
+        this.task = task;
+    }
+
+    /**
+     * Obtains the Gradle service which runs the shards.
+     */
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Enables sharded compilation for the given task.
+     */
+    static void enable(GenerateProtoTask task, int shardCount, ProtocExecutable protoc) {
+        checkArgument(shardCount > 0, "Shard count must be positive, but was %s.", shardCount);
+        checkNotNull(protoc);
+        ShardedCompilation compilation = of(task);
+        compilation.shardCount = shardCount;
+        compilation.protoc = protoc;
+    }
+
+    /**
+     * Disables sharded compilation for the given task.
+     */
+    static void disable(GenerateProtoTask task) {
+        of(task).protoc = null;
+    }
+
+    /**
+     * Obtains the sharded compilation of the given task.
+     *
+     * <p>The actions of the sharded compilation are added to the task on the first call.
+     * The {@linkplain IncrementalCompilation incremental compilation} makes sure it happens before
+     * its own actions are added.
+     */
+    static ShardedCompilation of(GenerateProtoTask task) {
+        ExtraPropertiesExtension extra = task.getExtensions()
+                                             .getExtraProperties();
+        if (extra.has(EXTRA_PROPERTY)) {
+            return (ShardedCompilation) extra.get(EXTRA_PROPERTY);
+        }
+        ShardedCompilation compilation = task.getProject()
+                                             .getObjects()
+                                             .newInstance(ShardedCompilation.class, task);
+        extra.set(EXTRA_PROPERTY, compilation);
+        // Gradle cannot track the implementation of a lambda, so the actions are classes.
+        task.doFirst(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                compilation.compileShards();
+            }
+        });
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                compilation.restoreSources();
+            }
+        });
+        return compilation;
+    }
+
+    /**
+     * Compiles the shards of the source set in parallel and clears the sources of the task.
+     *
+     * <p>Does nothing if sharding is disabled or the sources make a single shard.
+     */
+    private void compileShards() {
+        originalSources = null;
+        FileCollection sourceFiles = task.getSourceFiles();
+        if (protoc == null || !(sourceFiles instanceof ConfigurableFileCollection)) {
+            return;
+        }
+        ImmutableMap<String, File> sources = ProtoSources.byImportPath(sourceFiles);
+        ImmutableList<ImmutableSet<String>> shards = ProtoShards.split(sources.keySet(),
+                                                                       shardCount);
+        if (shards.size() < 2) {
+            _debug().log("Task `%s` has too few Protobuf files to shard.", task.getPath());
+            return;
+        }
+        Project project = task.getProject();
+        File workingDir = workingDir();
+        project.delete(workingDir);
+        project.mkdir(workingDir);
+        ImmutableList<String> baseCommand = baseCommand(sources);
+        _debug().log("Compiling %d Protobuf files of task `%s` in %d shards.",
+                     sources.size(), task.getPath(), shards.size());
+        WorkQueue queue = getWorkerExecutor().noIsolation();
+        ImmutableList.Builder<File> descriptorSets = ImmutableList.builder();
+        for (int i = 0; i < shards.size(); i++) {
+            ImmutableList.Builder<String> command = ImmutableList.<String>builder()
+                    .addAll(baseCommand);
+            if (task.getGenerateDescriptorSet()) {
+                File descriptorSet = new File(workingDir, i + DESCRIPTOR_SET_EXTENSION);
+                command.addAll(ProtocCommand.descriptorSetArgs(task, descriptorSet));
+                descriptorSets.add(descriptorSet);
+            }
+            shards.get(i)
+                  .forEach(path -> command.add(sources.get(path).getAbsolutePath()));
+            ImmutableList<String> shardCommand = command.build();
+            queue.submit(ProtocShard.class, params -> params.getCommand().set(shardCommand));
+        }
+        queue.await();
+        if (task.getGenerateDescriptorSet()) {
+            mergeDescriptorSets(descriptorSets.build());
+        }
+        project.delete(workingDir);
+        ConfigurableFileCollection configurableSources = (ConfigurableFileCollection) sourceFiles;
+        originalSources = ImmutableSet.copyOf(configurableSources.getFrom());
+        configurableSources.setFrom();
+    }
+
+    /**
+     * Obtains the part of the {@code protoc} command which is the same for all the shards.
+     *
+     * <p>The command runs all the built-ins and plugins of the task.
+     */
+    private ImmutableList<String> baseCommand(ImmutableMap<String, File> sources) {
+        checkNotNull(protoc);
+        Project project = task.getProject();
+        ImmutableList.Builder<String> command = ImmutableList.<String>builder()
+                .add(protoc.resolve(project).getAbsolutePath())
+                .addAll(ProtocCommand.includeArgs(task, sources));
+        for (PluginOptions builtIn : task.getBuiltins()) {
+            File outputDir = project.mkdir(task.getOutputDir(builtIn));
+            command.add(ProtocCommand.outputArg(builtIn, outputDir));
+        }
+        for (PluginOptions plugin : task.getPlugins()) {
+            File executable = PluginExecutables.resolve(project, plugin.getName());
+            File outputDir = project.mkdir(task.getOutputDir(plugin));
+            command.add("--plugin=protoc-gen-" + plugin.getName()
+                                + '=' + executable.getAbsolutePath());
+            command.add(ProtocCommand.outputArg(plugin, outputDir));
+        }
+        return command.build();
+    }
+
+    private void mergeDescriptorSets(List<File> descriptorSets) {
+        ImmutableList<FileDescriptorSet> sets = descriptorSets.stream()
+                                                              .map(DescriptorSets::read)
+                                                              .collect(toImmutableList());
+        File descriptorSet = task.getProject()
+                                 .file(task.getDescriptorPath());
+        DescriptorSets.write(DescriptorSets.merge(sets, ImmutableSet.of()), descriptorSet);
+    }
+
+    /**
+     * Restores the sources of the task, so that the actions which run later see the sources
+     * the task was started with.
+     */
+    private void restoreSources() {
+        if (originalSources != null) {
+            ((ConfigurableFileCollection) task.getSourceFiles()).setFrom(originalSources);
+            originalSources = null;
+        }
+    }
+
+    private File workingDir() {
+        return task.getProject()
+                   .getBuildDir()
+                   .toPath()
+                   .resolve(WORKING_DIR)
+                   .resolve(task.getName())
+                   .toFile();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.language.jvm.tasks.ProcessResources;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The descriptor sets packed into the resources of a project.
+ *
+ * <p>The descriptor set generated by a {@code generateProto} task is put into the resources,
+ * so that the runtime can read the known types from it. By default, the set contains
+ * the comments of the Protobuf sources and the descriptors of all the imported files, which
+ * inflates the JAR and costs time and memory when the set is parsed at startup.
+ *
+ * <p>For each source set, a {@code ship<SourceSet>Descriptors} task writes the descriptor set in
+ * the configured {@linkplain DescriptorForm form} into
+ * {@code build/spine/shipped-descriptors/<source set>}. The task declares the generated set,
+ * the form, and the own Protobuf files as its inputs, and the written set as its output.
+ * The {@code processResources} task of the same source set packs the written set instead of
+ * the generated one. The set generated by {@code protoc} stays as is, so that the documentation
+ * tools may use it.
+ */
+final class ShippedDescriptors {
+
+    private static final String EXTRA_PROPERTY = "spineShippedDescriptors";
+    private static final String OUTPUT_DIR = "spine/shipped-descriptors";
+    private static final String TASK_VERB = "ship";
+    private static final String TASK_TARGET = "descriptors";
+    private static final String DESCRIPTOR_SET_PROPERTY = "descriptorSet";
+    private static final String FORM_PROPERTY = "descriptorForm";
+    private static final String OWN_FILES_PROPERTY = "ownFiles";
+    private static final String OUTPUT_PROPERTY = "shippedDescriptorSet";
+
+    private final Project project;
+    private DescriptorForm form = DescriptorForm.full;
+
+    private ShippedDescriptors(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Obtains the instance for the given project.
+     */
+    static ShippedDescriptors in(Project project) {
+        checkNotNull(project);
+        ExtraPropertiesExtension extra = project.getExtensions()
+                                                .getExtraProperties();
+        if (extra.has(EXTRA_PROPERTY)) {
+            return (ShippedDescriptors) extra.get(EXTRA_PROPERTY);
+        }
+        ShippedDescriptors descriptors = new ShippedDescriptors(project);
+        extra.set(EXTRA_PROPERTY, descriptors);
+        return descriptors;
+    }
+
+    /**
+     * Sets the form of the shipped descriptor sets.
+     */
+    void setForm(DescriptorForm form) {
+        this.form = checkNotNull(form);
+    }
+
+    /**
+     * Creates the task which writes the descriptor set of the given generation task in
+     * the configured form, and makes the {@code processResources} task of the same source set
+     * pack the written set instead of the generated one.
+     *
+     * <p>If the task already exists, does nothing.
+     */
+    void configure(GenerateProtoTask generateTask) {
+        SourceSet sourceSet = generateTask.getSourceSet();
+        String taskName = sourceSet.getTaskName(TASK_VERB, TASK_TARGET);
+        if (project.getTasks()
+                   .findByName(taskName) != null) {
+            return;
+        }
+        Task processResources = project.getTasks()
+                                       .findByName(sourceSet.getProcessResourcesTaskName());
+        if (!(processResources instanceof ProcessResources)) {
+            return;
+        }
+        File outputDir = new File(new File(project.getBuildDir(), OUTPUT_DIR),
+                                  sourceSet.getName());
+        Task task = createTask(taskName, generateTask, outputDir);
+        ProcessResources resources = (ProcessResources) processResources;
+        resources.exclude(new GeneratedDescriptorSet(generateTask));
+        Callable<Object> resourceDir = () -> resourceDir(sourceSet, generateTask);
+        resources.from(task, spec -> spec.into(resourceDir));
+    }
+
+    private Task createTask(String name, GenerateProtoTask generateTask, File outputDir) {
+        Task task = project.getTasks()
+                           .create(name);
+        task.setDescription(String.format(
+                "Writes the `%s` descriptor set to be packed into the resources.",
+                generateTask.getSourceSet().getName()
+        ));
+        task.dependsOn(generateTask);
+        Callable<Object> descriptorSet = () -> descriptorSetFile(generateTask);
+        task.getInputs()
+            .files(descriptorSet)
+            .withPropertyName(DESCRIPTOR_SET_PROPERTY)
+            .withPathSensitivity(PathSensitivity.NONE);
+        task.getInputs()
+            .property(FORM_PROPERTY, project.provider(() -> form.name()));
+        task.getInputs()
+            .property(OWN_FILES_PROPERTY, project.provider(() -> ownFiles(generateTask).asList()));
+        task.getOutputs()
+            .dir(outputDir)
+            .withPropertyName(OUTPUT_PROPERTY);
+        // Gradle cannot track the implementation of a lambda, so the action is a class.
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                write(generateTask, outputDir);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Writes the descriptor set of the given task in the configured form into the given
+     * directory.
+     *
+     * <p>If the task does not generate a descriptor set, leaves the directory empty.
+     */
+    private void write(GenerateProtoTask generateTask, File outputDir) {
+        project.delete(outputDir);
+        project.mkdir(outputDir);
+        File descriptorSetFile = descriptorSetFile(generateTask);
+        if (!generateTask.getGenerateDescriptorSet() || !descriptorSetFile.exists()) {
+            return;
+        }
+        FileDescriptorSet descriptorSet = DescriptorSets.read(descriptorSetFile);
+        FileDescriptorSet shipped;
+        switch (form) {
+            case compact:
+                shipped = DescriptorSets.compact(descriptorSet, ownFiles(generateTask));
+                break;
+            case stripped:
+                shipped = DescriptorSets.stripSourceInfo(descriptorSet);
+                break;
+            case full:
+            default:
+                shipped = descriptorSet;
+        }
+        DescriptorSets.write(shipped, new File(outputDir, descriptorSetFile.getName()));
+    }
+
+    private static File descriptorSetFile(GenerateProtoTask generateTask) {
+        return generateTask.getProject()
+                           .file(generateTask.getDescriptorPath());
+    }
+
+    private static ImmutableSet<String> ownFiles(GenerateProtoTask generateTask) {
+        return ProtoSources.byImportPath(generateTask.getSourceFiles())
+                           .keySet();
+    }
+
+    /**
+     * Obtains the directory of the resources in which the generated descriptor set is packed.
+     *
+     * <p>The descriptor set is put into the resources by adding its directory to the resource
+     * directories of the source set. If none of them contains the set, it is packed into
+     * the root of the resources.
+     */
+    private static String resourceDir(SourceSet sourceSet, GenerateProtoTask generateTask) {
+        Path descriptorDir = descriptorSetFile(generateTask).toPath()
+                                                            .getParent();
+        for (File srcDir : sourceSet.getResources()
+                                    .getSrcDirs()) {
+            Path root = srcDir.toPath();
+            if (descriptorDir.startsWith(root)) {
+                return root.relativize(descriptorDir)
+                           .toString();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Matches the descriptor set generated by {@code protoc} among the resources, so that it is
+     * replaced with the shipped one.
+     */
+    private static final class GeneratedDescriptorSet implements Spec<FileTreeElement> {
+
+        private final GenerateProtoTask generateTask;
+
+        private GeneratedDescriptorSet(GenerateProtoTask generateTask) {
+            this.generateTask = generateTask;
+        }
+
+        @Override
+        public boolean isSatisfiedBy(FileTreeElement element) {
+            return generateTask.getGenerateDescriptorSet()
+                    && element.getFile()
+                              .equals(descriptorSetFile(generateTask));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.logging.Logging;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SourceSet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.util.Exceptions.illegalStateWithCauseOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The check of the {@code optimize_for} option of the Protobuf sources.
+ *
+ * <p>For a file with {@code option optimize_for = CODE_SIZE;}, {@code protoc} generates Java
+ * messages which are parsed and serialized reflectively, several times slower than the default
+ * {@code SPEED} ones. The {@code LITE_RUNTIME} messages have no descriptors, which the Spine
+ * runtime relies upon.
+ *
+ * <p>Before a {@code GenerateProtoTask} runs, the {@code check<SourceSet>OptimizeFor} task scans
+ * its sources for the option. The files which set it to anything but {@code SPEED} are listed in
+ * {@code build/reports/protoc/optimize-for/<task name>.txt} and handled according to
+ * the {@linkplain OptimizeForPolicy policy}.
+ */
+final class SpeedOptimization implements Logging {
+
+    private static final String EXTRA_PROPERTY = "spineSpeedOptimization";
+    private static final String TASK_EXTRA_PROPERTY = "spineSpeedOptimizationConfigured";
+    private static final String POLICY_PROPERTY = "optimizeForPolicy";
+    private static final String SOURCES_PROPERTY = "protoSources";
+    private static final String REPORT_PROPERTY = "report";
+    private static final String CHECK_TASK_VERB = "check";
+    private static final String CHECK_TASK_TARGET = "OptimizeFor";
+    private static final String REPORT_DIR = "reports/protoc/optimize-for";
+    private static final String SPEED = "SPEED";
+    private static final Pattern OPTIMIZE_FOR =
+            Pattern.compile("^\\s*option\\s+optimize_for\\s*=\\s*(\\w+)\\s*;");
+
+    private final Project project;
+    private OptimizeForPolicy policy = OptimizeForPolicy.warn;
+
+    private SpeedOptimization(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Obtains the instance for the given project.
+     */
+    static SpeedOptimization in(Project project) {
+        checkNotNull(project);
+        ExtraPropertiesExtension extra = project.getExtensions()
+                                                .getExtraProperties();
+        if (extra.has(EXTRA_PROPERTY)) {
+            return (SpeedOptimization) extra.get(EXTRA_PROPERTY);
+        }
+        SpeedOptimization optimization = new SpeedOptimization(project);
+        extra.set(EXTRA_PROPERTY, optimization);
+        return optimization;
+    }
+
+    /**
+     * Sets the policy on the files which are not optimized for speed.
+     */
+    void setPolicy(OptimizeForPolicy policy) {
+        this.policy = checkNotNull(policy);
+    }
+
+    /**
+     * Makes the given task check its sources before running {@code protoc}.
+     *
+     * <p>The check is performed by a separate task, on which the given task depends.
+     */
+    void configure(GenerateProtoTask task) {
+        ExtraPropertiesExtension extra = task.getExtensions()
+                                             .getExtraProperties();
+        if (extra.has(TASK_EXTRA_PROPERTY)) {
+            return;
+        }
+        extra.set(TASK_EXTRA_PROPERTY, true);
+        task.dependsOn(createCheckTask(task));
+    }
+
+    /**
+     * Creates the task which checks the sources of the given {@code GenerateProtoTask}.
+     *
+     * <p>The task declares the whole source set of the generation task and the policy as its
+     * inputs, and the report as its output. It runs before the generation task, so it always
+     * sees all the sources, even if the generation task is going to compile only some of them.
+     */
+    private Task createCheckTask(GenerateProtoTask generateTask) {
+        SourceSet sourceSet = generateTask.getSourceSet();
+        Task task = project.getTasks()
+                           .create(sourceSet.getTaskName(CHECK_TASK_VERB, CHECK_TASK_TARGET));
+        task.setDescription(String.format(
+                "Checks that the `%s` Protobuf sources are optimized for speed.",
+                sourceSet.getName()
+        ));
+        Callable<Object> sources = generateTask::getSourceFiles;
+        task.getInputs()
+            .files(sources)
+            .withPropertyName(SOURCES_PROPERTY)
+            .withPathSensitivity(PathSensitivity.RELATIVE);
+        task.getInputs()
+            .property(POLICY_PROPERTY, project.provider(() -> policy.name()));
+        File report = new File(new File(project.getBuildDir(), REPORT_DIR),
+                               generateTask.getName() + ".txt");
+        task.getOutputs()
+            .file(report)
+            .withPropertyName(REPORT_PROPERTY);
+        task.doLast(new Action<Task>() {
+            @Override
+            public void execute(Task t) {
+                check(generateTask, report);
+            }
+        });
+        return task;
+    }
+
+    private void check(GenerateProtoTask task, File report) {
+        if (policy == OptimizeForPolicy.ignore) {
+            project.delete(report);
+            return;
+        }
+        ImmutableMap<String, String> offenders =
+                offenders(ProtoSources.byImportPath(task.getSourceFiles()));
+        if (offenders.isEmpty()) {
+            project.delete(report);
+            return;
+        }
+        write(report, offenders);
+        String message = String.format(
+                "%d Protobuf files of task `%s` are not optimized for speed. See `%s`.",
+                offenders.size(), task.getName(), report);
+        if (policy == OptimizeForPolicy.fail) {
+            throw new GradleException(message);
+        }
+        _warn().log("%s", message);
+    }
+
+    /**
+     * Selects the files which set {@code optimize_for} to anything but {@code SPEED}.
+     *
+     * @param files
+     *         the Protobuf source files mapped by their import paths
+     * @return the mode of each offending file mapped by its import path
+     */
+    static ImmutableMap<String, String> offenders(Map<String, File> files) {
+        checkNotNull(files);
+        ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+        files.forEach((path, file) -> optimizeFor(file)
+                .filter(mode -> !SPEED.equals(mode))
+                .ifPresent(mode -> result.put(path, mode)));
+        return result.build();
+    }
+
+    /**
+     * Reads the value of the {@code optimize_for} option of the given file.
+     *
+     * @return the mode, or {@code Optional.empty()} if the option is not set
+     */
+    static Optional<String> optimizeFor(File protoFile) {
+        checkNotNull(protoFile);
+        try (BufferedReader reader = Files.newBufferedReader(protoFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = OPTIMIZE_FOR.matcher(line);
+                if (matcher.find()) {
+                    return Optional.of(matcher.group(1));
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+
+    private static void write(File report, Map<String, String> offenders) {
+        StringBuilder content = new StringBuilder();
+        offenders.forEach((path, mode) -> content.append(path)
+                                                 .append(": ")
+                                                 .append(mode)
+                                                 .append('\n'));
+        try {
+            Files.createDirectories(report.getParentFile()
+                                          .toPath());
+            Files.write(report.toPath(), content.toString()
+                                                .getBytes(UTF_8));
+        } catch (IOException e) {
+            throw illegalStateWithCauseOf(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.bootstrap;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("DartTypesIndex should")
+class DartTypesIndexTest {
+
+    @Test
+    @DisplayName("place registries by package name")
+    void registryFile() {
+        assertThat(DartTypesIndex.registryFile("spine.test.tasks"))
+                .isEqualTo("types/spine_test_tasks.dart");
+        assertThat(DartTypesIndex.registryFile(""))
+                .isEqualTo("types/no_package.dart");
+    }
+
+    @Test
+    @DisplayName("import registries as deferred libraries")
+    void deferredImports() {
+        String source = DartTypesIndex.of(ImmutableList.of("spine.test", "spine.test.tasks"))
+                                      .source();
+        assertThat(source).contains(
+                "import 'types/spine_test.dart' deferred as spine_test;\n"
+                        + "import 'types/spine_test_tasks.dart' deferred as spine_test_tasks;\n"
+        );
+        assertThat(source).contains(
+                "const List<String> packages = ['spine.test', 'spine.test.tasks'];"
+        );
+        assertThat(source).contains(
+                "    case 'spine.test.tasks':\n"
+                        + "      await spine_test_tasks.loadLibrary();\n"
+                        + "      return spine_test_tasks.types();\n"
+        );
+    }
+}
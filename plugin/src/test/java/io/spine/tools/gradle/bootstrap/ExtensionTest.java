@@ -26,19 +26,32 @@
 
 package io.spine.tools.gradle.bootstrap;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.truth.Correspondence;
 import com.google.common.truth.IterableSubject;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.PluginOptions;
 import com.google.protobuf.gradle.ProtobufPlugin;
 import io.spine.dart.gradle.ProtoDartPlugin;
 import io.spine.js.gradle.ProtoJsPlugin;
 import io.spine.testing.TempDir;
 import io.spine.tools.gradle.GradlePlugin;
+import io.spine.tools.gradle.ModelCompilerTaskName;
 import io.spine.tools.gradle.TaskName;
+import io.spine.tools.gradle.benchmark.BenchmarkTaskName;
 import io.spine.tools.gradle.bootstrap.given.FakeArtifacts;
 import io.spine.tools.gradle.compiler.ModelCompilerPlugin;
+import io.spine.tools.gradle.js.CompactJs;
+import io.spine.tools.gradle.js.JsProfile;
+import io.spine.tools.gradle.js.JsTaskName;
+import io.spine.tools.gradle.model.JsImportStyle;
+import io.spine.tools.gradle.model.ModelTaskName;
+import io.spine.tools.gradle.model.ShapeBudget;
 import io.spine.tools.gradle.project.PlugableProject;
 import io.spine.tools.gradle.project.PluginTarget;
+import io.spine.tools.gradle.protoc.DescriptorForm;
+import io.spine.tools.gradle.protoc.OptimizeForPolicy;
 import io.spine.tools.gradle.testing.MemoizingDependant;
 import io.spine.tools.gradle.testing.MemoizingSourceSuperset;
 import io.spine.tools.groovy.ConsumerClosure;
@@ -46,7 +59,9 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.JavaExec;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.BeforeEach;
@@ -54,10 +69,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.truth.Truth.assertThat;
 import static io.spine.tools.gradle.ProtobufDependencies.protobufLite;
 import static io.spine.tools.gradle.bootstrap.given.FakeArtifacts.GRPC_PROTO_DEPENDENCY;
@@ -66,6 +84,7 @@ import static io.spine.tools.gradle.bootstrap.given.FakeArtifacts.spineVersion;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("`spine` extension should")
@@ -173,6 +192,24 @@ class ExtensionTest {
             assertNotApplied(ProtoJsPlugin.class);
         }
 
+        @Test
+        @DisplayName("declare the outputs of the rejection generation")
+        void rejectionOutputs() {
+            extension.enableJava();
+
+            Task task = project.getTasks()
+                               .findByName(ModelCompilerTaskName.generateRejections.name());
+            assertNotNull(task);
+            String rejectionsDir = io.spine.tools.gradle.compiler.Extension
+                    .getTargetGenRejectionsRootDir(project);
+            File rejections = project.file(rejectionsDir);
+            assertThat(task.getOutputs()
+                           .getFiles()
+                           .getFiles()).contains(rejections);
+            assertTrue(task.getInputs()
+                           .getHasInputs());
+        }
+
         @Test
         @DisplayName("apply `java` plugin to a Java project")
         void applyJava() {
@@ -409,6 +446,35 @@ class ExtensionTest {
             assertApplied(ProtobufPlugin.class);
         }
 
+        @Test
+        @DisplayName("generate all the languages and the descriptor set in one task per source set")
+        void singleProtocPass() {
+            extension.enableJava();
+            extension.enableJavaScript();
+            extension.enableDart();
+            ((ProjectInternal) project).evaluate();
+
+            ImmutableList<GenerateProtoTask> tasks =
+                    ImmutableList.copyOf(project.getTasks()
+                                                .withType(GenerateProtoTask.class));
+            assertThat(tasks.stream()
+                            .map(task -> task.getSourceSet().getName())
+                            .collect(toImmutableList()))
+                    .containsExactly("main", "test");
+            for (GenerateProtoTask task : tasks) {
+                assertThat(names(task.getBuiltins())).containsAtLeast("java", "js");
+                assertThat(names(task.getPlugins())).contains("dart");
+                assertTrue(task.getGenerateDescriptorSet());
+            }
+        }
+
+        private ImmutableList<String> names(Iterable<PluginOptions> options) {
+            return ImmutableList.copyOf(options)
+                                .stream()
+                                .map(PluginOptions::getName)
+                                .collect(toImmutableList());
+        }
+
         private String baseDependency() {
             return "io.spine:spine-base:" + spineVersion;
         }
@@ -501,6 +567,259 @@ class ExtensionTest {
             assertTrue(codegen.getProtobuf());
         }
 
+        @Test
+        @DisplayName("policy on `optimize_for`")
+        void optimizeFor() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertThat(codegen.getOptimizeFor()).isEqualTo(OptimizeForPolicy.warn);
+            codegen.setOptimizeFor(OptimizeForPolicy.fail);
+            assertThat(codegen.getOptimizeFor()).isEqualTo(OptimizeForPolicy.fail);
+        }
+
+        @Test
+        @DisplayName("JSON codecs codegen")
+        void jsonCodecs() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertFalse(codegen.getJsonCodecs());
+            codegen.setJsonCodecs(true);
+            assertTrue(codegen.getJsonCodecs());
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateJsonCodecs.name())).isNotNull();
+        }
+
+        @Test
+        @DisplayName("message serialization benchmarks")
+        void benchmarks() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertFalse(codegen.getBenchmarks());
+            codegen.setBenchmarks(true);
+            assertTrue(codegen.getBenchmarks());
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateBenchmarks.name())).isNotNull();
+            assertThat(project.getTasks()
+                              .findByName(BenchmarkTaskName.runBenchmarks.name())).isNotNull();
+        }
+
+        @Test
+        @DisplayName("routing table of the commands and events")
+        void routingTable() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertFalse(codegen.getRoutingTable());
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateRoutingTable.name())).isNull();
+            codegen.setRoutingTable(true);
+            assertTrue(codegen.getRoutingTable());
+            Task task = project.getTasks()
+                               .getByName(ModelTaskName.generateRoutingTable.name());
+            assertTrue(task.getEnabled());
+
+            codegen.setSpine(false);
+            assertFalse(task.getEnabled());
+        }
+
+        @Test
+        @DisplayName("index of the known types")
+        void knownTypesIndex() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertFalse(codegen.getKnownTypesIndex());
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateKnownTypesIndex.name())).isNull();
+            codegen.setKnownTypesIndex(true);
+            assertTrue(codegen.getKnownTypesIndex());
+            Task task = project.getTasks()
+                               .getByName(ModelTaskName.generateKnownTypesIndex.name());
+            assertTrue(task.getEnabled());
+
+            codegen.setKnownTypesIndex(false);
+            assertFalse(task.getEnabled());
+        }
+
+        @Test
+        @DisplayName("`native-image` configuration")
+        void nativeImageConfig() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertFalse(codegen.getNativeImageConfig());
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateNativeImageConfig.name()))
+                    .isNull();
+            codegen.setNativeImageConfig(true);
+            assertTrue(codegen.getNativeImageConfig());
+            Task task = project.getTasks()
+                               .getByName(ModelTaskName.generateNativeImageConfig.name());
+            assertTrue(task.getEnabled());
+
+            codegen.setProtobuf(false);
+            assertFalse(task.getEnabled());
+        }
+
+        @Test
+        @DisplayName("JMH options of the benchmarks overridden by the task arguments")
+        void benchmarkOptions() {
+            extension.enableJava()
+                     .getCodegen()
+                     .setBenchmarks(true);
+            JavaExec task = (JavaExec) project.getTasks()
+                                              .getByName(BenchmarkTaskName.runBenchmarks.name());
+            task.args("-i", "10");
+            ImmutableList.Builder<String> defaults = ImmutableList.builder();
+            task.getArgumentProviders()
+                .forEach(provider -> defaults.addAll(provider.asArguments()));
+            assertThat(defaults.build()).contains("-wi");
+            assertThat(defaults.build()).doesNotContain("-i");
+        }
+
+        @Test
+        @DisplayName("generated message validators")
+        void validation() {
+            JavaCodegenExtension codegen = extension.enableJava()
+                                                    .getCodegen();
+            assertThat(codegen.getValidation()).isEqualTo(ValidationMode.runtime);
+            codegen.setValidation("generated");
+            assertThat(codegen.getValidation()).isEqualTo(ValidationMode.generated);
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.generateValidators.name())).isNotNull();
+            assertThrows(IllegalArgumentException.class, () -> codegen.setValidation("reflective"));
+        }
+
+        @Test
+        @DisplayName("message shape report")
+        void shapeReport() {
+            extension.assembleModel(model -> {
+                assertFalse(model.getShapeReport());
+                model.setShapeReport(true);
+                model.setMaxNestingDepth(3);
+                model.setFailOnShapeViolations(true);
+            });
+            assertThat(project.getTasks()
+                              .findByName(ModelTaskName.reportMessageShapes.name())).isNotNull();
+            AtomicReference<ShapeBudget> budgetRef = new AtomicReference<>();
+            extension.assembleModel(model -> budgetRef.set(model.getShapeBudget()));
+            ShapeBudget budget = budgetRef.get();
+            assertThat(budget.maxDepth()).isEqualTo(3);
+            assertTrue(budget.failOnViolations());
+        }
+
+        @Test
+        @DisplayName("form of shipped descriptors")
+        void descriptorForm() {
+            extension.enableJava();
+            ProtocExtension protoc = extension.getProtoc();
+            assertThat(protoc.getDescriptorForm()).isEqualTo(DescriptorForm.full);
+            protoc.setDescriptorForm("compact");
+            assertThat(protoc.getDescriptorForm()).isEqualTo(DescriptorForm.compact);
+            assertThrows(IllegalArgumentException.class, () -> protoc.setDescriptorForm("tiny"));
+
+            ((ProjectInternal) project).evaluate();
+            Task task = project.getTasks()
+                               .findByName("shipDescriptors");
+            assertThat(task).isNotNull();
+            assertThat(task.getOutputs()
+                           .getHasOutput()).isTrue();
+        }
+
+        @Test
+        @DisplayName("lazy JS registries")
+        void lazyIndex() {
+            extension.enableJavaScript(js -> {
+                assertFalse(js.getLazyIndex());
+                js.setLazyIndex(true);
+            });
+            Task task = project.getTasks()
+                               .findByName(ModelTaskName.generateJsLazyIndex.name());
+            assertThat(task).isNotNull();
+            assertTrue(task.getEnabled());
+
+            extension.enableJavaScript(js -> js.setLazyIndex(false));
+            assertFalse(task.getEnabled());
+        }
+
+        @Test
+        @DisplayName("JS parsers and lazy registries along with the JS generation")
+        void jsModelTasks() {
+            JavaScriptExtension js = extension.enableJavaScript();
+            js.setLazyIndex(true);
+            Task parsers = project.getTasks()
+                                  .getByName(ModelTaskName.generateJsParsers.name());
+            Task lazyIndex = project.getTasks()
+                                    .getByName(ModelTaskName.generateJsLazyIndex.name());
+
+            js.disableGeneration();
+            assertFalse(parsers.getEnabled());
+            assertFalse(lazyIndex.getEnabled());
+
+            js.enableGeneration();
+            assertTrue(parsers.getEnabled());
+            assertTrue(lazyIndex.getEnabled());
+        }
+
+        @Test
+        @DisplayName("JS import style")
+        void jsImportStyle() {
+            extension.enableJavaScript(js -> {
+                assertThat(js.getImportStyle()).isEqualTo(JsImportStyle.commonjs);
+                js.setImportStyle("es6");
+                assertThat(js.getImportStyle()).isEqualTo(JsImportStyle.es6);
+            });
+        }
+
+        @Test
+        @DisplayName("JS production profile")
+        void jsProductionProfile() {
+            extension.enableJavaScript(js -> {
+                assertThat(js.getProfile()).isEqualTo(JsProfile.development);
+                js.setProfile("production");
+                js.setMinify(true);
+            });
+            Task task = project.getTasks()
+                               .findByName(JsTaskName.compactJs.name());
+            assertThat(task).isInstanceOf(CompactJs.class);
+            assertTrue(((CompactJs) task).getMinify()
+                                         .get());
+
+            extension.enableJavaScript(js -> js.setProfile(JsProfile.development));
+            assertFalse(task.getEnabled());
+        }
+
+        @Test
+        @DisplayName("sharded `protoc` compilation")
+        void shardedProtoc() {
+            ProtocExtension protoc = extension.getProtoc();
+            assertFalse(protoc.getSharded());
+            assertThat(protoc.getShards())
+                    .isEqualTo(Runtime.getRuntime().availableProcessors());
+            extension.protoc(config -> {
+                config.setSharded(true);
+                config.setShards(4);
+            });
+            assertTrue(protoc.getSharded());
+            assertThat(protoc.getShards())
+                    .isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("shared extraction of dependency protos")
+        void sharedProtoExtraction() {
+            ProtocExtension protoc = extension.getProtoc();
+            assertFalse(protoc.getSharedExtraction());
+            extension.protoc(config -> config.setSharedExtraction(true));
+            assertTrue(protoc.getSharedExtraction());
+        }
+
+        @Test
+        @DisplayName("selective extraction of dependency protos")
+        void selectiveProtoExtraction() {
+            ProtocExtension protoc = extension.getProtoc();
+            assertFalse(protoc.getSelectiveExtraction());
+            extension.protoc(config -> config.setSelectiveExtraction(true));
+            assertTrue(protoc.getSelectiveExtraction());
+        }
+
         @Nested
         @DisplayName("Java")
         class Java {
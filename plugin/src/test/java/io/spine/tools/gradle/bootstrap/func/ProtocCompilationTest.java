@@ -0,0 +1,306 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.bootstrap.func;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import io.spine.code.proto.FileDescriptors;
+import io.spine.testing.SlowTest;
+import io.spine.testing.TempDir;
+import io.spine.tools.gradle.testing.GradleProject;
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.tools.gradle.BaseTaskName.build;
+import static io.spine.tools.gradle.ProtobufTaskName.generateProto;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SlowTest
+@DisplayName("`spine.protoc` settings should")
+class ProtocCompilationTest {
+
+    private static final String ADDITIONAL_CONFIG_SCRIPT = "config.gradle";
+
+    private GradleProject.Builder project;
+    private Path projectDir;
+
+    @BeforeEach
+    void setUp() {
+        this.projectDir = TempDir.forClass(ProtocCompilationTest.class).toPath();
+        projectDir.toFile().deleteOnExit();
+        this.project = GradleProject
+                .newBuilder()
+                .setProjectName("func-test")
+                .setProjectFolder(projectDir.toFile())
+                .withPluginClasspath()
+                .addProtoFile("roller_coaster.proto")
+                .addProtoFile("ride_schedule.proto")
+                .addProtoFile("ride_stats.proto");
+    }
+
+    @Test
+    @DisplayName("recompile only the changed Protobuf files and their dependants")
+    void compileIncrementally() throws IOException {
+        writeConfigGradle("spine.enableJava()",
+                          "spine.protoc.incremental = true");
+        GradleProject project = this.project
+                .addProtoFile("restaurant.proto")
+                .build();
+        project.executeTask(build);
+        FileTime coasterCompiled = lastModified("RollerCoaster");
+        FileTime scheduleCompiled = lastModified("RideSchedule");
+        FileTime statsCompiled = lastModified("RideStats");
+        assertThat(exists(generatedJava("Order"))).isTrue();
+
+        Files.write(protoFile("roller_coaster.proto"),
+                    ImmutableList.of("", "message Track {", "    string name = 1;", "}"),
+                    UTF_8, APPEND);
+        Files.delete(protoFile("restaurant.proto"));
+        project.executeTask(build);
+
+        assertThat(exists(generatedJava("Track"))).isTrue();
+        assertThat(lastModified("RollerCoaster")).isNotEqualTo(coasterCompiled);
+        assertThat(lastModified("RideSchedule")).isNotEqualTo(scheduleCompiled);
+        assertThat(lastModified("RideStats")).isEqualTo(statsCompiled);
+        assertThat(exists(generatedJava("Order"))).isFalse();
+        assertThat(exists(generatedJava("RestaurantProto"))).isFalse();
+
+        ImmutableSet<String> described = describedFiles();
+        assertThat(described).containsAtLeast("roller_coaster.proto",
+                                              "ride_schedule.proto",
+                                              "ride_stats.proto");
+        assertThat(described).doesNotContain("restaurant.proto");
+        FileDescriptorProto coaster = describedFile("roller_coaster.proto");
+        assertThat(coaster.getMessageTypeList()
+                          .stream()
+                          .map(DescriptorProto::getName)
+                          .collect(toImmutableSet()))
+                .contains("Track");
+    }
+
+    @Test
+    @DisplayName("compile the Protobuf files in shards along with the Spine `protoc` plugin")
+    void compileInShards() throws IOException {
+        writeConfigGradle("spine.enableJava()",
+                          "spine.enableJavaScript()",
+                          "spine.protoc {",
+                          "    sharded = true",
+                          "    shards = 2",
+                          "}");
+        GradleProject project = this.project.build();
+        BuildResult result = project.executeTask(build);
+
+        assertThat(result.task(generateProto.path())
+                         .getOutcome()).isEqualTo(SUCCESS);
+        assertThat(exists(generatedJava("RollerCoaster"))).isTrue();
+        assertThat(exists(generatedJava("RideSchedule"))).isTrue();
+        assertThat(exists(generatedJava("RideStats"))).isTrue();
+        Path generatedJs = projectDir.resolve("generated")
+                                     .resolve("main")
+                                     .resolve("js");
+        assertThat(exists(generatedJs.resolve("roller_coaster_pb.js"))).isTrue();
+        assertThat(exists(generatedJs.resolve("ride_stats_pb.js"))).isTrue();
+        assertThat(describedFiles()).containsAtLeast("roller_coaster.proto",
+                                                     "ride_schedule.proto",
+                                                     "ride_stats.proto");
+    }
+
+    @Test
+    @DisplayName("compile the changed Protobuf files in shards")
+    void compileIncrementallyInShards() throws IOException {
+        writeConfigGradle("spine.enableJava()",
+                          "spine.protoc {",
+                          "    incremental = true",
+                          "    sharded = true",
+                          "    shards = 2",
+                          "}");
+        GradleProject project = this.project
+                .addProtoFile("restaurant.proto")
+                .build();
+        project.executeTask(build);
+        FileTime statsCompiled = lastModified("RideStats");
+
+        Files.write(protoFile("roller_coaster.proto"),
+                    ImmutableList.of("", "message Track {", "    string name = 1;", "}"),
+                    UTF_8, APPEND);
+        project.executeTask(build);
+
+        assertThat(exists(generatedJava("Track"))).isTrue();
+        assertThat(exists(generatedJava("Order"))).isTrue();
+        assertThat(lastModified("RideStats")).isEqualTo(statsCompiled);
+        assertThat(describedFiles()).containsAtLeast("roller_coaster.proto",
+                                                     "ride_schedule.proto",
+                                                     "ride_stats.proto",
+                                                     "restaurant.proto");
+    }
+
+    @Test
+    @DisplayName("run only the code generators whose configuration changed")
+    void runChangedGenerators() throws IOException {
+        writeConfigGradle(javaConfig(false, true));
+        GradleProject project = this.project
+                .addProtoFile("restaurant.proto")
+                .build();
+        project.executeTask(build);
+        FileTime javaCompiled = lastModified("RollerCoaster");
+        assertThat(exists(generatedGrpc("OrderServiceGrpc"))).isFalse();
+
+        rewriteConfigGradle(javaConfig(true, true));
+        project.executeTask(build);
+
+        assertThat(exists(generatedGrpc("OrderServiceGrpc"))).isTrue();
+        assertThat(lastModified("RollerCoaster")).isEqualTo(javaCompiled);
+    }
+
+    @Test
+    @DisplayName("run the `java` built-in along with the Spine `protoc` plugin")
+    void runJavaWithSpineProtoc() throws IOException {
+        writeConfigGradle(javaConfig(true, false));
+        GradleProject project = this.project
+                .addProtoFile("restaurant.proto")
+                .build();
+        project.executeTask(build);
+        FileTime javaCompiled = lastModified("RollerCoaster");
+        FileTime grpcCompiled = getLastModifiedTime(generatedGrpc("OrderServiceGrpc"));
+
+        rewriteConfigGradle(javaConfig(true, true));
+        project.executeTask(build);
+
+        assertThat(lastModified("RollerCoaster")).isNotEqualTo(javaCompiled);
+        assertThat(getLastModifiedTime(generatedGrpc("OrderServiceGrpc")))
+                .isEqualTo(grpcCompiled);
+    }
+
+    private static String[] javaConfig(boolean grpc, boolean spine) {
+        return new String[]{
+                "spine {",
+                "    protoc.isolatedPlugins = true",
+                "    enableJava {",
+                "        codegen.grpc = " + grpc,
+                "        codegen.spine = " + spine,
+                "    }",
+                "}"
+        };
+    }
+
+    private void rewriteConfigGradle(String... lines) throws IOException {
+        Files.write(projectDir.resolve(ADDITIONAL_CONFIG_SCRIPT),
+                    ImmutableList.copyOf(lines),
+                    UTF_8);
+    }
+
+    @SuppressWarnings("CheckReturnValue")
+    private void writeConfigGradle(String... lines) {
+        project.createFile(ADDITIONAL_CONFIG_SCRIPT, ImmutableSet.copyOf(lines));
+    }
+
+    private Path protoFile(String name) {
+        return projectDir.resolve("src")
+                         .resolve("main")
+                         .resolve("proto")
+                         .resolve(name);
+    }
+
+    private Path generatedJava(String className) {
+        return generatedFile("java", className);
+    }
+
+    private Path generatedFile(String generator, String className) {
+        return projectDir.resolve("generated")
+                         .resolve("main")
+                         .resolve(generator)
+                         .resolve("io")
+                         .resolve("spine")
+                         .resolve("tools")
+                         .resolve("bootstrap")
+                         .resolve("test")
+                         .resolve(className + ".java");
+    }
+
+    private Path generatedGrpc(String className) {
+        return generatedFile("grpc", className);
+    }
+
+    private FileTime lastModified(String generatedClass) throws IOException {
+        return getLastModifiedTime(generatedJava(generatedClass));
+    }
+
+    /**
+     * Obtains the names of the files in the descriptor sets assembled into the resources.
+     */
+    private ImmutableSet<String> describedFiles() throws IOException {
+        return descriptorSets().stream()
+                               .flatMap(set -> set.getFileList().stream())
+                               .map(FileDescriptorProto::getName)
+                               .collect(toImmutableSet());
+    }
+
+    private FileDescriptorProto describedFile(String name) throws IOException {
+        return descriptorSets().stream()
+                               .flatMap(set -> set.getFileList().stream())
+                               .filter(file -> name.equals(file.getName()))
+                               .findFirst()
+                               .orElseThrow(() -> new AssertionError(name + " is not described."));
+    }
+
+    private ImmutableList<FileDescriptorSet> descriptorSets() throws IOException {
+        File resourceDir = projectDir.resolve("build")
+                                     .resolve("resources")
+                                     .resolve("main")
+                                     .toFile();
+        String projectName = projectDir.getFileName()
+                                       .toString();
+        File[] descriptorSets = resourceDir.listFiles(
+                (dir, name) -> name.endsWith(FileDescriptors.DESC_EXTENSION)
+                        && name.contains(projectName)
+        );
+        assertNotNull(descriptorSets);
+        ImmutableList.Builder<FileDescriptorSet> result = ImmutableList.builder();
+        for (File file : descriptorSets) {
+            result.add(FileDescriptorSet.parseFrom(Files.readAllBytes(file.toPath())));
+        }
+        return result.build();
+    }
+}
@@ -39,17 +39,29 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.google.common.truth.Truth.assertThat;
 import static io.spine.tools.gradle.BaseTaskName.build;
+import static io.spine.tools.gradle.BaseTaskName.clean;
+import static io.spine.tools.gradle.ModelCompilerTaskName.generateRejections;
 import static io.spine.tools.gradle.ProtoJsTaskName.generateJsonParsers;
 import static io.spine.tools.gradle.bootstrap.DartExtension.TYPES_FILE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.readAllLines;
 import static java.util.Collections.emptySet;
+import static org.gradle.testkit.runner.TaskOutcome.FROM_CACHE;
 import static org.gradle.testkit.runner.TaskOutcome.SUCCESS;
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -173,6 +185,56 @@ class SpineBootstrapPluginTest {
         assertThat(jsFileNames).contains("index.js");
     }
 
+    @Test
+    @DisplayName("generate specialized JS parsers")
+    void generateJsParsers() {
+        configureJsGeneration();
+        GradleProject project = this.project.build();
+        project.executeTask(build);
+
+        Collection<String> jsFileNames = generatedJsFileNames();
+        assertThat(jsFileNames).containsAtLeast("roller_coaster_parsers.js", "fast_parsers.js");
+    }
+
+    @Test
+    @DisplayName("generate lazy JS registries if requested")
+    void generateLazyIndex() {
+        writeConfigGradle(
+                "spine.enableJavaScript { lazyIndex = true }"
+        );
+        GradleProject project = this.project.build();
+        project.executeTask(build);
+
+        assertThat(generatedJsFileNames()).containsAtLeast("lazy_index.js", "lazy_index");
+        Path contextIndex = generatedJsFiles().resolve("lazy_index")
+                                              .resolve("spine.tools.bootstrap.test.js");
+        assertTrue(contextIndex.toFile()
+                               .exists());
+    }
+
+    @Test
+    @DisplayName("produce compact JS in the production profile")
+    void compactJs() throws IOException {
+        writeConfigGradle(
+                "spine.enableJavaScript { profile = 'production'; minify = true }"
+        );
+        GradleProject project = this.project.build();
+        project.executeTask(build);
+
+        Path compactFile = projectDir.resolve("build")
+                                     .resolve("spine")
+                                     .resolve("js")
+                                     .resolve("compact")
+                                     .resolve("roller_coaster_pb.js");
+        assertTrue(compactFile.toFile()
+                              .exists());
+        String compact = new String(readAllBytes(compactFile), UTF_8);
+        assertThat(compact).doesNotContain("/**");
+        String original = new String(readAllBytes(generatedJsFiles().resolve(
+                "roller_coaster_pb.js")), UTF_8);
+        assertThat(original).contains("/**");
+    }
+
     @Test
     @DisplayName("not generate transitive Spine dependencies for pure JS projects")
     void skipTransitiveProtos() {
@@ -251,6 +313,100 @@ class SpineBootstrapPluginTest {
         assertThat(resourceFiles).contains(resourceName);
     }
 
+    @Test
+    @DisplayName("generate `native-image` configuration for the model classes")
+    void generateNativeImageConfig() throws IOException {
+        writeConfigGradle("spine.enableJava().codegen.nativeImageConfig = true");
+        GradleProject project = this.project
+                .addProtoFile("restaurant_rejections.proto")
+                .build();
+        project.executeTask(build);
+        Path configDir = projectDir.resolve("build")
+                                   .resolve("resources")
+                                   .resolve("main")
+                                   .resolve("META-INF")
+                                   .resolve("native-image")
+                                   .resolve("func-test");
+        assertTrue(exists(configDir.resolve("resource-config.json")));
+        String reflectConfig = new String(readAllBytes(configDir.resolve("reflect-config.json")),
+                                          UTF_8);
+        Matcher matcher = Pattern.compile("\"name\": \"([^\"]+)\"")
+                                 .matcher(reflectConfig);
+        List<String> classes = new ArrayList<>();
+        while (matcher.find()) {
+            classes.add(matcher.group(1));
+        }
+        String testPackage = "io.spine.tools.bootstrap.test.";
+        assertThat(classes).containsAtLeast(testPackage + "LunaParkProto",
+                                            testPackage + "RollerCoaster",
+                                            testPackage + "RollerCoaster$Builder",
+                                            testPackage + "Altitude",
+                                            testPackage + "RestaurantRejections",
+                                            testPackage + "RestaurantRejections$RunOutOfIngredient",
+                                            testPackage + "RunOutOfIngredient");
+        Path compiledClasses = compiledJavaClasses();
+        for (String className : classes) {
+            Path classFile = compiledClasses.resolve(className.replace('.', '/') + ".class");
+            assertTrue(exists(classFile), className + " is not compiled.");
+        }
+    }
+
+    @Test
+    @DisplayName("generate a routing table for the commands and events")
+    void generateRoutingTable() {
+        writeConfigGradle("spine.enableJava().codegen.routingTable = true");
+        GradleProject project = this.project
+                .addProtoFile("restaurant_rejections.proto")
+                .build();
+        project.executeTask(build);
+        Collection<String> classFileNames = generatedClassFileNames();
+        assertThat(classFileNames).contains("FuncTestRoutingTable.class");
+    }
+
+    @Test
+    @DisplayName("index message handlers of server projects")
+    void generateDispatchIndex() throws IOException {
+        configureJavaServer();
+        GradleProject project = this.project
+                .createFile("src/main/java/io/spine/tools/bootstrap/test/CoasterWatcher.java",
+                            ImmutableSet.of(
+                                    "package io.spine.tools.bootstrap.test;",
+                                    "import io.spine.core.Subscribe;",
+                                    "public final class CoasterWatcher {",
+                                    "    @Subscribe",
+                                    "    void on(RollerCoaster coaster) {}",
+                                    "}"
+                            ))
+                .build();
+        project.executeTask(build);
+        Path index = projectDir.resolve("build")
+                               .resolve("resources")
+                               .resolve("main")
+                               .resolve("META-INF")
+                               .resolve("spine")
+                               .resolve("dispatch.idx");
+        List<String> entries = readAllLines(index, UTF_8);
+        assertThat(entries).containsExactly(
+                "SUBSCRIBE\t"
+                        + "io.spine.tools.bootstrap.test.CoasterWatcher\t"
+                        + "io.spine.tools.bootstrap.test.RollerCoaster\t"
+                        + "on\t"
+                        + "(Lio/spine/tools/bootstrap/test/RollerCoaster;)V"
+        );
+    }
+
+    @Test
+    @DisplayName("generate column extractors for server projects")
+    void generateColumnExtractors() {
+        configureJavaServer();
+        GradleProject project = this.project
+                .addProtoFile("ride_stats.proto")
+                .build();
+        project.executeTask(build);
+        Collection<String> classFileNames = generatedClassFileNames();
+        assertThat(classFileNames).contains("RideStatsColumns.class");
+    }
+
     @Test
     @DisplayName("disable Java codegen")
     void disableJava() {
@@ -267,6 +423,26 @@ class SpineBootstrapPluginTest {
         assertFalse(exists(compiledClasses));
     }
 
+    @Test
+    @DisplayName("take the rejections from the build cache")
+    void cacheRejections() {
+        configureJavaGeneration();
+        GradleProject project = this.project
+                .addProtoFile("restaurant_rejections.proto")
+                .createFile("gradle.properties", ImmutableSet.of("org.gradle.caching=true"))
+                .build();
+        project.executeTask(build);
+
+        BuildResult rebuild = project.executeTask(build);
+        assertThat(rebuild.task(generateRejections.path())
+                          .getOutcome()).isEqualTo(UP_TO_DATE);
+
+        project.executeTask(clean);
+        BuildResult cleanBuild = project.executeTask(build);
+        assertThat(cleanBuild.task(generateRejections.path())
+                             .getOutcome()).isEqualTo(FROM_CACHE);
+    }
+
     @Test
     @DisplayName("disable rejection throwable generation")
     void ignoreRejections() {
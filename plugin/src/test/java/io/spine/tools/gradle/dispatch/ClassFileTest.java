@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.dispatch;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("ClassFile should")
+class ClassFileTest {
+
+    @Test
+    @DisplayName("read the class name and the annotated methods")
+    void readMethods() throws IOException {
+        ClassFile classFile = ClassFile.read(bytesOf(Handler.class));
+
+        assertThat(classFile.className()).isEqualTo(Handler.class.getName());
+        Map<String, ClassFile.Method> methods =
+                classFile.methods()
+                         .stream()
+                         .collect(toImmutableMap(ClassFile.Method::name, Function.identity()));
+        assertThat(methods.keySet()).containsExactly("<init>", "handle", "plain");
+        ClassFile.Method handle = methods.get("handle");
+        assertThat(handle.descriptor()).isEqualTo("(Ljava/lang/String;J)V");
+        assertThat(handle.annotations()).containsExactly("Ljava/lang/Deprecated;");
+        assertThat(methods.get("plain").annotations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("reject bytes which are not a class file")
+    void rejectMalformed() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> ClassFile.read(new byte[]{1, 2, 3, 4}));
+    }
+
+    private static byte[] bytesOf(Class<?> cls) throws IOException {
+        String resource = cls.getName().replace('.', '/') + ".class";
+        try (InputStream in = cls.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(in);
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    @SuppressWarnings({"unused", "DeprecatedIsStillUsed"}) // Read as a class file.
+    private static final class Handler {
+
+        private static final double RATIO = 0.5;
+        private final long count = 42L;
+
+        @Deprecated
+        void handle(String message, long count) {
+            System.out.println(message + count * RATIO);
+        }
+
+        int plain() {
+            return (int) count;
+        }
+    }
+}
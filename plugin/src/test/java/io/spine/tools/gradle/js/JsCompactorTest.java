@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.js;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("JsCompactor should")
+class JsCompactorTest {
+
+    private static final String SOURCE =
+            "/**\n"
+                    + " * The message.\n"
+                    + " * @constructor\n"
+                    + " */\n"
+                    + "proto.test.Ride = function(opt_data) {\n"
+                    + "  // Initializes the message.\n"
+                    + "  jspb.Message.initialize(this, opt_data, 0, -1, null, null);\n"
+                    + "};\n"
+                    + "\n"
+                    + "\n"
+                    + "var url = 'http://spine.io'; /* inline */ var re = /a\\/b/g;\n";
+
+    @Test
+    @DisplayName("strip comments and blank lines")
+    void stripComments() {
+        String compact = JsCompactor.compact(SOURCE, false);
+
+        assertThat(compact).isEqualTo(
+                "proto.test.Ride = function(opt_data) {\n"
+                        + "  jspb.Message.initialize(this, opt_data, 0, -1, null, null);\n"
+                        + "};\n"
+                        + "var url = 'http://spine.io';  var re = /a\\/b/g;\n"
+        );
+    }
+
+    @Test
+    @DisplayName("remove indentation when minifying")
+    void minify() {
+        String compact = JsCompactor.compact(SOURCE, true);
+
+        assertThat(compact).isEqualTo(
+                "proto.test.Ride = function(opt_data) {\n"
+                        + "jspb.Message.initialize(this, opt_data, 0, -1, null, null);\n"
+                        + "};\n"
+                        + "var url = 'http://spine.io'; var re = /a\\/b/g;\n"
+        );
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FieldOptions;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import io.spine.option.OptionsProto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+
+@DisplayName("ColumnExtractors should")
+class ColumnExtractorsTest {
+
+    private static final String FILE = "spine/test/park.proto";
+
+    @Test
+    @DisplayName("generate an extractor for each state with columns")
+    void generateExtractors() {
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test")
+                                       .setJavaMultipleFiles(true))
+                .addEnumType(EnumDescriptorProto.newBuilder()
+                                                .setName("Status"))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addField(field("id", Type.TYPE_STRING, false))
+                                        .addField(field("rides_today", Type.TYPE_INT32, true))
+                                        .addField(field("status", Type.TYPE_ENUM, true)
+                                                          .setTypeName(".spine.test.Status"))
+                                        .addField(field("tags", Type.TYPE_STRING, true)
+                                                          .setLabel(Label.LABEL_REPEATED)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Visitor")
+                                        .addField(field("id", Type.TYPE_STRING, false)))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file)
+                .build();
+        ColumnExtractors extractors =
+                ColumnExtractors.of(ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE)));
+
+        assertThat(extractors.classNames()).containsExactly("io.spine.test.RideColumns");
+        assertThat(extractors.source("spine.test.Visitor")).isEmpty();
+        String source = extractors.source("spine.test.Ride")
+                                  .orElseThrow(AssertionError::new);
+        assertThat(source).contains("Arrays.asList(\"rides_today\", \"status\")");
+        assertThat(source).contains(
+                "public static int getRidesToday(io.spine.test.Ride state) {\n"
+                        + "        return state.getRidesToday();"
+        );
+        assertThat(source).contains(
+                "public static io.spine.test.Status getStatus(io.spine.test.Ride state) {"
+        );
+        assertThat(source).doesNotContain("getTags");
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, Type type, boolean column) {
+        return FieldDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setType(type)
+                .setOptions(FieldOptions.newBuilder()
+                                        .setExtension(OptionsProto.column, column));
+    }
+}
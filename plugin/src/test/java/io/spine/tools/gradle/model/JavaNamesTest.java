@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("JavaNames should")
+class JavaNamesTest {
+
+    @Test
+    @DisplayName("convert file names into `CamelCase`")
+    void camelCase() {
+        assertThat(JavaNames.camelCase("roller_coaster")).isEqualTo("RollerCoaster");
+        assertThat(JavaNames.camelCase("luna-park2go")).isEqualTo("LunaPark2Go");
+    }
+
+    @Test
+    @DisplayName("obtain the common parent of Java packages")
+    void commonPackage() {
+        assertThat(JavaNames.commonPackage("io.spine.test.park", "io.spine.test.ride"))
+                .isEqualTo("io.spine.test");
+        assertThat(JavaNames.commonPackage("io.spine", "org.spine")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("qualify a class name with a Java package")
+    void qualified() {
+        assertThat(JavaNames.qualified("io.spine.test", "Ride")).isEqualTo("io.spine.test.Ride");
+        assertThat(JavaNames.qualified("", "Ride")).isEqualTo("Ride");
+    }
+
+    @Test
+    @DisplayName("obtain the accessor names of fields as `protoc` does")
+    void accessorName() {
+        FieldDescriptorProto field = FieldDescriptorProto
+                .newBuilder()
+                .setName("max_speed")
+                .build();
+        assertThat(JavaNames.accessorName(field)).isEqualTo("MaxSpeed");
+        FieldDescriptorProto reserved = field.toBuilder()
+                                             .setName("class")
+                                             .build();
+        assertThat(JavaNames.accessorName(reserved)).isEqualTo("Class_");
+    }
+
+    @Test
+    @DisplayName("convert names into Java identifiers")
+    void identifier() {
+        assertThat(JavaNames.identifier("luna-park")).isEqualTo("LunaPark");
+        assertThat(JavaNames.identifier("3d-park")).isEqualTo("_3DPark");
+    }
+
+    @Test
+    @DisplayName("obtain the JSON name of a field")
+    void jsonName() {
+        FieldDescriptorProto field = FieldDescriptorProto
+                .newBuilder()
+                .setName("max_speed")
+                .build();
+        assertThat(JavaNames.jsonName(field)).isEqualTo("maxSpeed");
+        FieldDescriptorProto customField = field.toBuilder()
+                                                .setJsonName("speed")
+                                                .build();
+        assertThat(JavaNames.jsonName(customField)).isEqualTo("speed");
+    }
+
+    @Test
+    @DisplayName("obtain the outer class name")
+    void outerClass() {
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName("spine/test/luna_park.proto")
+                .build();
+        assertThat(JavaNames.outerClassName(file)).isEqualTo("LunaPark");
+    }
+
+    @Test
+    @DisplayName("add a suffix to the outer class name conflicting with a type")
+    void conflictingOuterClass() {
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName("spine/test/wagon.proto")
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Wagon"))
+                .build();
+        assertThat(JavaNames.outerClassName(file)).isEqualTo("WagonOuterClass");
+    }
+
+    @Test
+    @DisplayName("obtain binary names of nested classes")
+    void binaryName() {
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName("spine/test/roller_coaster.proto")
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test"))
+                .build();
+        assertThat(JavaNames.binaryName(file, ImmutableList.of("Wagon", "Seat")))
+                .isEqualTo("io.spine.test.RollerCoaster$Wagon$Seat");
+
+        FileDescriptorProto multipleFiles = file
+                .toBuilder()
+                .setOptions(file.getOptions()
+                                .toBuilder()
+                                .setJavaMultipleFiles(true))
+                .build();
+        assertThat(JavaNames.binaryName(multipleFiles, ImmutableList.of("Wagon", "Seat")))
+                .isEqualTo("io.spine.test.Wagon$Seat");
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import io.spine.option.OptionsProto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("JsLazyIndex should")
+class JsLazyIndexTest {
+
+    private static final String PARK_FILE = "spine/test/park.proto";
+    private static final String SHOP_FILE = "spine/shop/shop.proto";
+
+    private JsLazyIndex index;
+    private JsLazyIndex esIndex;
+
+    @BeforeEach
+    void setUp() {
+        FileDescriptorProto park = FileDescriptorProto
+                .newBuilder()
+                .setName(PARK_FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setExtension(OptionsProto.typeUrlPrefix,
+                                                     "type.spine.io"))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addNestedType(DescriptorProto.newBuilder()
+                                                                      .setName("Ticket")))
+                .build();
+        FileDescriptorProto shop = FileDescriptorProto
+                .newBuilder()
+                .setName(SHOP_FILE)
+                .setPackage("spine.shop")
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Souvenir"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(park)
+                .addFile(shop)
+                .build();
+        ModelDescriptors model =
+                ModelDescriptors.of(descriptorSet, ImmutableSet.of(PARK_FILE, SHOP_FILE));
+        index = JsLazyIndex.of(model, JsImportStyle.commonjs);
+        esIndex = JsLazyIndex.of(model, JsImportStyle.es6);
+    }
+
+    @Test
+    @DisplayName("map type URLs to loaders of the message modules")
+    void mapTypeUrls() {
+        String source = index.rootSource();
+
+        assertThat(source).contains("'type.spine.io/spine.test.Ride.Ticket': function () {");
+        assertThat(source).contains(
+                "return import('./spine/test/park_parsers.js').then(function (module) {"
+        );
+        assertThat(source).contains("return exportsOf(module).Ride.Ticket;");
+        assertThat(source).contains(
+                "'type.googleapis.com/spine.shop.Souvenir': function () {"
+        );
+    }
+
+    @Test
+    @DisplayName("generate a registry per bounded context")
+    void registryPerContext() {
+        assertThat(index.fileNames())
+                .containsExactly(JsLazyIndex.ROOT_FILE,
+                                 "lazy_index/spine.test.js",
+                                 "lazy_index/spine.shop.js");
+        String source = index.contextSource("spine.shop");
+
+        assertThat(source).contains("return import('../spine/shop/shop_parsers.js')");
+        assertThat(source).doesNotContain("spine.test.Ride");
+    }
+
+    @Test
+    @DisplayName("export the registry in the chosen module style")
+    void moduleStyle() {
+        assertThat(index.rootSource()).contains("module.exports = {");
+        assertThat(esIndex.rootSource()).contains("export default {");
+    }
+}
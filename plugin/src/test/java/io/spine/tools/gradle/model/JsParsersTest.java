@@ -0,0 +1,170 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.MessageOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("JsParsers should")
+class JsParsersTest {
+
+    private static final String FILE = "spine/test/park.proto";
+    private static final String TIME_FILE = "google/protobuf/timestamp.proto";
+
+    private FileDescriptorProto file;
+    private ModelDescriptors model;
+
+    @BeforeEach
+    void setUp() {
+        DescriptorProto labelsEntry = DescriptorProto
+                .newBuilder()
+                .setName("LabelsEntry")
+                .setOptions(MessageOptions.newBuilder()
+                                          .setMapEntry(true))
+                .addField(field("key", Type.TYPE_STRING))
+                .addField(field("value", Type.TYPE_INT64))
+                .build();
+        FileDescriptorProto time = FileDescriptorProto
+                .newBuilder()
+                .setName(TIME_FILE)
+                .setPackage("google.protobuf")
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Timestamp"))
+                .build();
+        file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .addDependency(TIME_FILE)
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Wagon")
+                                        .addField(field("seat_count", Type.TYPE_UINT32)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addNestedType(labelsEntry)
+                                        .addField(field("ride_name", Type.TYPE_STRING))
+                                        .addField(field("wagon", Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.Wagon")
+                                                          .setLabel(Label.LABEL_REPEATED))
+                                        .addField(field("labels", Type.TYPE_MESSAGE)
+                                                          .setTypeName(
+                                                                  ".spine.test.Ride.LabelsEntry")
+                                                          .setLabel(Label.LABEL_REPEATED))
+                                        .addField(field("when_started", Type.TYPE_MESSAGE)
+                                                          .setTypeName(
+                                                                  ".google.protobuf.Timestamp")))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(time)
+                .addFile(file)
+                .build();
+        model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE));
+    }
+
+    @Test
+    @DisplayName("read fields by their JSON and original names")
+    void readFields() {
+        String source = JsParsers.of(model, JsImportStyle.commonjs)
+                                 .source(file);
+
+        assertThat(source).contains("var messages = require('./park_pb.js');");
+        assertThat(source).contains(
+                "value = object['rideName'] !== undefined"
+                        + " ? object['rideName'] : object['ride_name'];"
+        );
+        assertThat(source).contains("message.setRideName(value);");
+        assertThat(source).contains("message.setSeatCount(Number(value));");
+    }
+
+    @Test
+    @DisplayName("parse nested messages, lists, and maps without descriptors")
+    void parseComposites() {
+        String source = JsParsers.of(model, JsImportStyle.commonjs)
+                                 .source(file);
+
+        assertThat(source).contains("messages.Ride.fromObject = function (object) {");
+        assertThat(source).contains("return messages.Wagon.fromObject(item);");
+        assertThat(source).contains("message.getLabelsMap().set(key, Number(value[key]));");
+        assertThat(source).contains(
+                "TypeParsers.parserFor('type.googleapis.com/google.protobuf.Timestamp')"
+        );
+        assertThat(source).contains("install(messages.Ride);");
+        assertThat(source).endsWith("module.exports = messages;\n");
+    }
+
+    @Test
+    @DisplayName("load the parsers of all own files")
+    void loadAll() {
+        JsParsers parsers = JsParsers.of(model, JsImportStyle.commonjs);
+
+        assertThat(parsers.fileNames())
+                .containsExactly("spine/test/park_parsers.js", JsParsers.ROOT_FILE);
+        assertThat(parsers.rootSource()).contains("require('./spine/test/park_parsers.js');");
+    }
+
+    @Test
+    @DisplayName("generate ES modules")
+    void esModules() {
+        String source = JsParsers.of(model, JsImportStyle.es6)
+                                 .source(file);
+
+        assertThat(source).contains("import * as messages from './park_pb.js';");
+        assertThat(source).contains(
+                "import TypeParsers from 'spine-web/client/parser/type-parsers';"
+        );
+        assertThat(source).endsWith("export * from './park_pb.js';\n");
+        assertThat(source).doesNotContain("require(");
+    }
+
+    @Test
+    @DisplayName("name accessors as the `protoc` JS generator does")
+    void accessorNames() {
+        assertThat(JsParsers.accessorName("ride_name")).isEqualTo("RideName");
+        assertThat(JsParsers.accessorName("URL_v2")).isEqualTo("UrlV2");
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, Type type) {
+        return FieldDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setType(type);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import com.google.protobuf.DescriptorProtos.MessageOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("JsonCodecs should")
+class JsonCodecsTest {
+
+    private static final String FILE = "spine/test/park.proto";
+
+    private ModelDescriptors model;
+
+    @BeforeEach
+    void setUp() {
+        DescriptorProto labelsEntry = DescriptorProto
+                .newBuilder()
+                .setName("LabelsEntry")
+                .setOptions(MessageOptions.newBuilder()
+                                          .setMapEntry(true))
+                .addField(field("key", Type.TYPE_STRING))
+                .addField(field("value", Type.TYPE_INT64))
+                .build();
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test")
+                                       .setJavaMultipleFiles(true))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Wagon")
+                                        .addField(field("seat_count", Type.TYPE_UINT32)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addNestedType(labelsEntry)
+                                        .addField(field("ride_name", Type.TYPE_STRING))
+                                        .addField(field("wagon", Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.Wagon")
+                                                          .setLabel(Label.LABEL_REPEATED))
+                                        .addField(field("labels", Type.TYPE_MESSAGE)
+                                                          .setTypeName(
+                                                                  ".spine.test.Ride.LabelsEntry")
+                                                          .setLabel(Label.LABEL_REPEATED)))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file)
+                .build();
+        model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE));
+    }
+
+    @Test
+    @DisplayName("write fields by their JSON names omitting the defaults")
+    void writeFields() {
+        ModelType ride = model.find("spine.test.Ride")
+                              .orElseThrow(AssertionError::new);
+        String source = JsonCodecs.of(model, "park")
+                                  .codecSource(ride);
+
+        assertThat(source).contains("public final class RideJson {");
+        assertThat(source).contains("if (!message.getRideName().isEmpty()) {");
+        assertThat(source).contains("json.name(\"rideName\");");
+        assertThat(source).contains("io.spine.test.WagonJson.write(value, json);");
+        assertThat(source).contains(
+                "for (java.util.Map.Entry<String, Long> entry : "
+                        + "message.getLabelsMap().entrySet()) {"
+        );
+        assertThat(source).contains("json.value(Long.toString(entry.getValue()));");
+    }
+
+    @Test
+    @DisplayName("read fields by their JSON and original names")
+    void readFields() {
+        ModelType ride = model.find("spine.test.Ride")
+                              .orElseThrow(AssertionError::new);
+        String source = JsonCodecs.of(model, "park")
+                                  .codecSource(ride);
+
+        assertThat(source).contains("case \"rideName\":\n"
+                                            + "                case \"ride_name\":\n"
+                                            + "                    builder.setRideName("
+                                            + "json.nextString());");
+        assertThat(source).contains(
+                "io.spine.test.WagonJson.merge(json, builder.addWagonBuilder());"
+        );
+        assertThat(source).contains("builder.putLabels(key, json.nextLong());");
+    }
+
+    @Test
+    @DisplayName("register the codecs of all messages")
+    void registerCodecs() {
+        JsonCodecs codecs = JsonCodecs.of(model, "amusement-park");
+
+        assertThat(codecs.registryClassName()).isEqualTo("io.spine.test.AmusementParkJsonCodecs");
+        String source = codecs.registrySource();
+        assertThat(source).contains("READERS.put(io.spine.test.Ride.class, "
+                                            + "io.spine.test.RideJson::read);");
+        assertThat(source).contains("READERS.put(io.spine.test.Wagon.class, "
+                                            + "io.spine.test.WagonJson::read);");
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, Type type) {
+        return FieldDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setType(type);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("KnownTypesIndex should")
+class KnownTypesIndexTest {
+
+    private static final String OWN_FILE = "spine/test/roller_coaster.proto";
+    private static final String IMPORTED_FILE = "spine/test/imported.proto";
+
+    @Test
+    @DisplayName("index own types sorted by type URL")
+    void indexOwnTypes() throws IOException {
+        FileDescriptorProto own = FileDescriptorProto
+                .newBuilder()
+                .setName(OWN_FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test")
+                                       .setJavaMultipleFiles(true))
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Wagon")
+                                               .addNestedType(DescriptorProto.newBuilder()
+                                                                             .setName("Seat")))
+                .addEnumType(EnumDescriptorProto.newBuilder()
+                                                .setName("Altitude"))
+                .build();
+        FileDescriptorProto imported = FileDescriptorProto
+                .newBuilder()
+                .setName(IMPORTED_FILE)
+                .setPackage("spine.test")
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Imported"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(imported)
+                .addFile(own)
+                .build();
+        ModelDescriptors model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(OWN_FILE));
+        byte[] bytes = KnownTypesIndex.of(model)
+                                      .toBytes();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertThat(new String(magic, "US-ASCII")).isEqualTo("SKTI");
+        assertThat(in.readInt()).isEqualTo(KnownTypesIndex.VERSION);
+        assertThat(in.readInt()).isEqualTo(1);
+        assertThat(in.readUTF()).isEqualTo(OWN_FILE);
+        int offset = in.readInt();
+        int length = in.readInt();
+        assertThat(in.readInt()).isEqualTo(3);
+        assertType(in, "type.googleapis.com/spine.test.Altitude", "io.spine.test.Altitude");
+        assertType(in, "type.googleapis.com/spine.test.Wagon", "io.spine.test.Wagon");
+        assertType(in, "type.googleapis.com/spine.test.Wagon.Seat", "io.spine.test.Wagon$Seat");
+
+        byte[] data = new byte[length];
+        in.skipBytes(offset);
+        in.readFully(data);
+        assertThat(FileDescriptorProto.parseFrom(data)).isEqualTo(own);
+    }
+
+    private static void assertType(DataInputStream in, String typeUrl, String javaClass)
+            throws IOException {
+        assertThat(in.readUTF()).isEqualTo(typeUrl);
+        assertThat(in.readUTF()).isEqualTo(javaClass);
+        assertThat(in.readInt()).isEqualTo(0);
+    }
+}
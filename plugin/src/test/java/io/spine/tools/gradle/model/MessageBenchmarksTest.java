@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("MessageBenchmarks should")
+class MessageBenchmarksTest {
+
+    private static final String FILE = "spine/test/park.proto";
+
+    private ModelDescriptors model;
+
+    @BeforeEach
+    void setUp() {
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test")
+                                       .setJavaMultipleFiles(true))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addField(FieldDescriptorProto
+                                                          .newBuilder()
+                                                          .setName("ride_name")
+                                                          .setType(Type.TYPE_STRING))
+                                        .addNestedType(DescriptorProto
+                                                               .newBuilder()
+                                                               .setName("Seat")))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file)
+                .build();
+        model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE));
+    }
+
+    @Test
+    @DisplayName("name benchmarks after the messages")
+    void nameBenchmarks() {
+        ModelType seat = model.find("spine.test.Ride.Seat")
+                              .orElseThrow(AssertionError::new);
+
+        assertThat(MessageBenchmarks.benchmarkClassName(seat))
+                .isEqualTo("io.spine.test.RideSeatBenchmark");
+        assertThat(MessageBenchmarks.of(model)
+                                    .randomMessagesClassName())
+                .isEqualTo("io.spine.test.RandomMessages");
+    }
+
+    @Test
+    @DisplayName("measure parsing, serialization and rebuilding of a random instance")
+    void benchmarkOperations() {
+        ModelType ride = model.find("spine.test.Ride")
+                              .orElseThrow(AssertionError::new);
+        String source = MessageBenchmarks.of(model)
+                                         .benchmarkSource(ride);
+
+        assertThat(source).contains("public class RideBenchmark {");
+        assertThat(source).contains(
+                "message = io.spine.test.RandomMessages.of("
+                        + "io.spine.test.Ride.getDefaultInstance());"
+        );
+        assertThat(source).contains("return io.spine.test.Ride.parseFrom(bytes);");
+        assertThat(source).contains("return message.toByteArray();");
+        assertThat(source).contains("return message.toBuilder().build();");
+    }
+
+    @Test
+    @DisplayName("fill random messages by descriptors")
+    void randomMessages() {
+        String source = MessageBenchmarks.of(model)
+                                         .randomMessagesSource();
+
+        assertThat(source).contains("package io.spine.test;");
+        assertThat(source).contains(
+                "for (FieldDescriptor field : builder.getDescriptorForType().getFields()) {"
+        );
+        assertThat(source).contains(
+                "return fill(builder.newBuilderForField(field), depth + 1).buildPartial();"
+        );
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FieldOptions;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.MessageOptions;
+import io.spine.option.OptionsProto;
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("MessageShapes should")
+class MessageShapesTest {
+
+    private static final String FILE = "spine/test/park.proto";
+
+    private ModelDescriptors model;
+
+    @BeforeEach
+    void setUp() {
+        DescriptorProto labelsEntry = DescriptorProto
+                .newBuilder()
+                .setName("LabelsEntry")
+                .setOptions(MessageOptions.newBuilder()
+                                          .setMapEntry(true))
+                .addField(field("key", 1, Type.TYPE_STRING))
+                .addField(field("value", 2, Type.TYPE_INT64))
+                .build();
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Seat")
+                                        .addField(field("number", 1, Type.TYPE_UINT32)
+                                                          .setOptions(required())))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Wagon")
+                                        .addField(field("front", 1, Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.Seat")
+                                                          .setOptions(required())))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Ride")
+                                        .addNestedType(labelsEntry)
+                                        .addField(field("ride_name", 1, Type.TYPE_STRING))
+                                        .addField(field("wagon", 2, Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.Wagon")
+                                                          .setLabel(Label.LABEL_REPEATED))
+                                        .addField(field("labels", 3, Type.TYPE_MESSAGE)
+                                                          .setTypeName(
+                                                                  ".spine.test.Ride.LabelsEntry")
+                                                          .setLabel(Label.LABEL_REPEATED)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Route")
+                                        .addField(field("next", 1, Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.Route")))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file)
+                .build();
+        model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE));
+    }
+
+    @Test
+    @DisplayName("estimate sizes of bounded messages")
+    void boundedSize() {
+        MessageShapes.Shape wagon = shape("spine.test.Wagon");
+
+        // The tag and the length of `front`, and a tag with at most 5 bytes of `uint32`.
+        assertThat(wagon.estimatedSize()).isEqualTo(8);
+        // The tag and the length of `front`, and a tag with a single byte of `uint32`.
+        assertThat(wagon.minSize()).isEqualTo(4);
+        assertThat(wagon.depth()).isEqualTo(2);
+        assertThat(wagon.unboundedFields()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("report repeated, map and string fields")
+    void unboundedFields() {
+        MessageShapes.Shape ride = shape("spine.test.Ride");
+
+        assertThat(ride.unboundedFields()).containsExactly("wagon", "labels");
+        assertThat(ride.anyAndStringFields()).isEqualTo(2);
+        assertThat(ride.depth()).isEqualTo(3);
+        assertThat(ride.minSize()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("detect recursive messages")
+    void recursive() {
+        MessageShapes.Shape route = shape("spine.test.Route");
+
+        assertThat(route.isRecursive()).isTrue();
+        assertThat(shape("spine.test.Ride").isRecursive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("check messages against the budget")
+    void violations() {
+        ShapeBudget budget = ShapeBudget
+                .newBuilder()
+                .setMaxDepth(2)
+                .setMaxUnboundedFields(1)
+                .build();
+        ImmutableList<String> violations = MessageShapes.of(model)
+                                                        .violations(budget);
+
+        assertThat(violations).containsExactly(
+                "`spine.test.Ride` is nested 3 levels deep, the budget is 2.",
+                "`spine.test.Ride` has 2 repeated and map fields, the budget is 1.",
+                "`spine.test.Route` is recursive, the depth budget is 2."
+        );
+    }
+
+    @Test
+    @DisplayName("fail the build if the budget says so")
+    void failOnViolations() {
+        ShapeBudget budget = ShapeBudget
+                .newBuilder()
+                .setMaxSize(8)
+                .setFailOnViolations(true)
+                .build();
+
+        assertThrows(GradleException.class, () -> MessageShapes.of(model)
+                                                               .check(budget));
+    }
+
+    private MessageShapes.Shape shape(String typeName) {
+        return MessageShapes.of(model)
+                            .shapes()
+                            .stream()
+                            .filter(shape -> shape.typeName().equals(typeName))
+                            .findFirst()
+                            .orElseThrow(AssertionError::new);
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, int number, Type type) {
+        return FieldDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setNumber(number)
+                .setType(type);
+    }
+
+    private static FieldOptions required() {
+        return FieldOptions.newBuilder()
+                           .setExtension(OptionsProto.required, true)
+                           .build();
+    }
+}
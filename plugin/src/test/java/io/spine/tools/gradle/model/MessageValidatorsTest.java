@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FieldOptions;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import io.spine.option.MinOption;
+import io.spine.option.OptionsProto;
+import io.spine.option.PatternOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+
+@DisplayName("MessageValidators should")
+class MessageValidatorsTest {
+
+    private static final String FILE = "spine/test/commands.proto";
+
+    private ModelDescriptors model;
+    private MessageValidators validators;
+
+    @BeforeEach
+    void setUp() {
+        FieldOptions pattern = FieldOptions
+                .newBuilder()
+                .setExtension(OptionsProto.pattern, PatternOption.newBuilder()
+                                                                 .setRegex("[a-z]+\\d*")
+                                                                 .build())
+                .build();
+        FieldOptions min = FieldOptions
+                .newBuilder()
+                .setExtension(OptionsProto.min, MinOption.newBuilder()
+                                                         .setValue("1")
+                                                         .build())
+                .build();
+        FieldOptions validate = FieldOptions
+                .newBuilder()
+                .setExtension(OptionsProto.validate, true)
+                .build();
+        FieldOptions distinct = FieldOptions
+                .newBuilder()
+                .setExtension(OptionsProto.distinct, true)
+                .build();
+        FileDescriptorProto file = FileDescriptorProto
+                .newBuilder()
+                .setName(FILE)
+                .setPackage("spine.test")
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("StartRide")
+                                        .addNestedType(DescriptorProto
+                                                               .newBuilder()
+                                                               .setName("Wagon")
+                                                               .addField(field("label", 1,
+                                                                               Type.TYPE_STRING)))
+                                        .addField(field("ride_name", 1, Type.TYPE_STRING)
+                                                          .setOptions(pattern))
+                                        .addField(field("seats", 2, Type.TYPE_UINT32)
+                                                          .setOptions(min))
+                                        .addField(field("wagon", 3, Type.TYPE_MESSAGE)
+                                                          .setTypeName(
+                                                                  ".spine.test.StartRide.Wagon")
+                                                          .setLabel(Label.LABEL_REPEATED)
+                                                          .setOptions(validate)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("StopRide")
+                                        .addField(field("ride_name", 1, Type.TYPE_STRING))
+                                        .addField(field("reasons", 2, Type.TYPE_STRING)
+                                                          .setLabel(Label.LABEL_REPEATED)
+                                                          .setOptions(distinct)))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("RestartRide")
+                                        .addField(field("stop", 1, Type.TYPE_MESSAGE)
+                                                          .setTypeName(".spine.test.StopRide")
+                                                          .setOptions(validate)))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file)
+                .build();
+        model = ModelDescriptors.of(descriptorSet, ImmutableSet.of(FILE));
+        validators = MessageValidators.of(model, "rides");
+    }
+
+    @Test
+    @DisplayName("leave the messages with runtime-only constraints to the runtime validation")
+    void runtimeOnly() {
+        assertThat(validators.supports(type("spine.test.StartRide"))).isTrue();
+        assertThat(validators.supports(type("spine.test.StartRide.Wagon"))).isTrue();
+        assertThat(validators.supports(type("spine.test.StopRide"))).isFalse();
+        // Refers to `StopRide` in a `(validate)` field.
+        assertThat(validators.supports(type("spine.test.RestartRide"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("check the constraints through the generated getters")
+    void validator() {
+        String source = validators.validatorSource(type("spine.test.StartRide"));
+
+        assertThat(source).contains("package spine.test;");
+        assertThat(source).contains("public final class StartRideValidator {");
+        // The first field of a command is required by default.
+        assertThat(source).contains("if (message.getRideName().isEmpty()) {");
+        assertThat(source).contains(
+                "RIDE_NAME_PATTERN.matcher(message.getRideName()).matches()");
+        assertThat(source).contains("Integer.compareUnsigned(message.getSeats(), 1) < 0");
+        assertThat(source).contains(
+                "for (int i = 0, count = message.getWagonCount(); i < count; i++) {");
+        assertThat(source).contains(
+                "spine.test.StartRideWagonValidator.validate(value);");
+        assertThat(source).contains(
+                "return violations == null ? Collections.emptyList() : violations;");
+    }
+
+    @Test
+    @DisplayName("precompile the regular expressions")
+    void patterns() {
+        String source = validators.validatorSource(type("spine.test.StartRide"));
+
+        assertThat(source).contains(
+                "private static final java.util.regex.Pattern RIDE_NAME_PATTERN =");
+        assertThat(source).contains("java.util.regex.Pattern.compile(\"[a-z]+\\\\d*\", 0);");
+    }
+
+    @Test
+    @DisplayName("not require the fields of non-command messages by default")
+    void notRequired() {
+        String source = validators.validatorSource(type("spine.test.StartRide.Wagon"));
+
+        assertThat(source).doesNotContain("isEmpty()) {");
+    }
+
+    @Test
+    @DisplayName("register the supported validators")
+    void registry() {
+        assertThat(validators.registryClassName()).isEqualTo("spine.test.RidesValidators");
+        String source = validators.registrySource();
+
+        assertThat(source).contains("VALIDATORS.put(spine.test.Commands.StartRide.class,");
+        assertThat(source).doesNotContain("StopRide");
+    }
+
+    @Test
+    @DisplayName("convert the bounds into Java literals of the field type")
+    void numberLiterals() {
+        assertThat(MessageValidators.numberLiteral(Type.TYPE_INT32, "5")).hasValue("5");
+        assertThat(MessageValidators.numberLiteral(Type.TYPE_INT64, "5")).hasValue("5L");
+        assertThat(MessageValidators.numberLiteral(Type.TYPE_FLOAT, "1.5")).hasValue("1.5f");
+        assertThat(MessageValidators.numberLiteral(Type.TYPE_INT32, "1.5")).isEmpty();
+        assertThat(MessageValidators.numberLiteral(Type.TYPE_STRING, "1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("escape string literals")
+    void literals() {
+        assertThat(MessageValidators.literal("a\"b\\c\n")).isEqualTo("\"a\\\"b\\\\c\\n\"");
+    }
+
+    private ModelType type(String name) {
+        return model.find(name)
+                    .orElseThrow(IllegalStateException::new);
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, int number, Type type) {
+        return FieldDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setNumber(number)
+                .setType(type)
+                .setLabel(Label.LABEL_OPTIONAL);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldOptions;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import io.spine.option.OptionsProto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("NativeImageConfig should")
+class NativeImageConfigTest {
+
+    private static final String MODEL_FILE = "spine/test/roller_coaster.proto";
+    private static final String REJECTIONS_FILE = "spine/test/park_rejections.proto";
+
+    @Test
+    @DisplayName("list the generated classes")
+    void listClasses() {
+        FileDescriptorProto model = FileDescriptorProto
+                .newBuilder()
+                .setName(MODEL_FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test")
+                                       .setJavaMultipleFiles(true))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("Wagon")
+                                        .addField(FieldDescriptorProto
+                                                          .newBuilder()
+                                                          .setName("seats")
+                                                          .setOptions(column())))
+                .addEnumType(EnumDescriptorProto.newBuilder()
+                                                .setName("Altitude"))
+                .build();
+        FileDescriptorProto rejections = FileDescriptorProto
+                .newBuilder()
+                .setName(REJECTIONS_FILE)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage("io.spine.test"))
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("ParkClosed"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(model)
+                .addFile(rejections)
+                .build();
+        ModelDescriptors descriptors =
+                ModelDescriptors.of(descriptorSet, ImmutableSet.of(MODEL_FILE, REJECTIONS_FILE));
+        NativeImageConfig config = NativeImageConfig.of(descriptors);
+
+        assertThat(config.classes()).containsExactly(
+                "io.spine.test.RollerCoaster",
+                "io.spine.test.Wagon",
+                "io.spine.test.Wagon$Builder",
+                "io.spine.test.Wagon$Column",
+                "io.spine.test.Altitude",
+                "io.spine.test.ParkRejections",
+                "io.spine.test.ParkRejections$ParkClosed",
+                "io.spine.test.ParkRejections$ParkClosed$Builder",
+                "io.spine.test.ParkClosed",
+                "io.spine.test.ParkClosed$Builder"
+        );
+        assertThat(config.reflectConfig())
+                .contains("{\"name\": \"io.spine.test.Wagon$Builder\", "
+                                  + "\"allDeclaredConstructors\": true");
+    }
+
+    @Test
+    @DisplayName("put the configuration into the module directory")
+    void resolveDirectory() {
+        assertThat(NativeImageConfig.directory("io.spine.test", "park"))
+                .isEqualTo("META-INF/native-image/io.spine.test/park");
+        assertThat(NativeImageConfig.directory("", "park"))
+                .isEqualTo("META-INF/native-image/park");
+    }
+
+    private static FieldOptions column() {
+        return FieldOptions.newBuilder()
+                           .setExtension(OptionsProto.column, true)
+                           .build();
+    }
+}
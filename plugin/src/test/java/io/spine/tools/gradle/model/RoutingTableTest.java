@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.model;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.FileOptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("RoutingTable should")
+class RoutingTableTest {
+
+    private static final String COMMANDS_FILE = "spine/test/park/commands.proto";
+    private static final String EVENTS_FILE = "spine/test/park/ride/events.proto";
+    private static final String MODEL_FILE = "spine/test/park/model.proto";
+
+    @Test
+    @DisplayName("route commands and events by the first field getter")
+    void routeByFirstField() {
+        FileDescriptorProto commands = file(COMMANDS_FILE, "io.spine.test.park", true)
+                .addMessageType(message("OpenPark", "park_id"))
+                .addMessageType(DescriptorProto
+                                        .newBuilder()
+                                        .setName("CloseAll")
+                                        .addField(FieldDescriptorProto
+                                                          .newBuilder()
+                                                          .setName("park_id")
+                                                          .setLabel(Label.LABEL_REPEATED)))
+                .build();
+        FileDescriptorProto events = file(EVENTS_FILE, "io.spine.test.park.ride", false)
+                .addMessageType(message("RideStarted", "ride_2d_id"))
+                .addMessageType(DescriptorProto.newBuilder()
+                                               .setName("Empty"))
+                .build();
+        FileDescriptorProto model = file(MODEL_FILE, "io.spine.test.park", true)
+                .addMessageType(message("Park", "id"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(commands)
+                .addFile(events)
+                .addFile(model)
+                .build();
+        ModelDescriptors descriptors = ModelDescriptors.of(
+                descriptorSet, ImmutableSet.of(COMMANDS_FILE, EVENTS_FILE, MODEL_FILE)
+        );
+        RoutingTable table = RoutingTable.of(descriptors, "amusement-park");
+
+        assertThat(table.className()).isEqualTo("io.spine.test.park.AmusementParkRoutingTable");
+        String source = table.source();
+        assertThat(source).contains("package io.spine.test.park;");
+        assertThat(source).contains("public static @Nullable Object idOf(Object message) {");
+        assertThat(source).contains(
+                "routes.put(io.spine.test.park.OpenPark.class, "
+                        + "message -> ((io.spine.test.park.OpenPark) message).getParkId());"
+        );
+        assertThat(source).contains(
+                "routes.put(io.spine.test.park.ride.Events.RideStarted.class, "
+                        + "message -> ((io.spine.test.park.ride.Events.RideStarted) message)"
+                        + ".getRide2DId());"
+        );
+        assertThat(source).doesNotContain("CloseAll");
+        assertThat(source).doesNotContain("Empty");
+        assertThat(source).doesNotContain("Park.class");
+    }
+
+    @Test
+    @DisplayName("mangle the reserved field names and sanitize the module name")
+    void mangleNames() {
+        FileDescriptorProto commands = file(COMMANDS_FILE, "io.spine.test.park", true)
+                .addMessageType(message("AssignRide", "class"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(commands)
+                .build();
+        ModelDescriptors descriptors =
+                ModelDescriptors.of(descriptorSet, ImmutableSet.of(COMMANDS_FILE));
+        RoutingTable table = RoutingTable.of(descriptors, "3d-park");
+
+        assertThat(table.className()).isEqualTo("io.spine.test.park._3DParkRoutingTable");
+        assertThat(table.source()).contains(
+                "message -> ((io.spine.test.park.AssignRide) message).getClass_());"
+        );
+    }
+
+    @Test
+    @DisplayName("be empty if there are no commands or events")
+    void beEmpty() {
+        FileDescriptorProto model = file(MODEL_FILE, "io.spine.test.park", true)
+                .addMessageType(message("Park", "id"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(model)
+                .build();
+        ModelDescriptors descriptors =
+                ModelDescriptors.of(descriptorSet, ImmutableSet.of(MODEL_FILE));
+
+        assertThat(RoutingTable.of(descriptors, "park").isEmpty()).isTrue();
+    }
+
+    private static FileDescriptorProto.Builder file(String name,
+                                                    String javaPackage,
+                                                    boolean multipleFiles) {
+        return FileDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setPackage("spine.test")
+                .setOptions(FileOptions.newBuilder()
+                                       .setJavaPackage(javaPackage)
+                                       .setJavaMultipleFiles(multipleFiles));
+    }
+
+    private static DescriptorProto message(String name, String firstField) {
+        return DescriptorProto
+                .newBuilder()
+                .setName(name)
+                .addField(FieldDescriptorProto.newBuilder()
+                                              .setName(firstField))
+                .build();
+    }
+}
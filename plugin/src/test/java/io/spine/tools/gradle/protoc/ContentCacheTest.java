@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import io.spine.testing.TempDir;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@DisplayName("ContentCache should")
+class ContentCacheTest {
+
+    private static final String NAMESPACE = "test";
+    private static final String KEY = "io.spine:test:1.0";
+    private static final int THREADS = 4;
+
+    private File projectDir;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        projectDir = TempDir.forClass(ContentCacheTest.class);
+        projectDir.deleteOnExit();
+        project = ProjectBuilder
+                .builder()
+                .withName(ContentCacheTest.class.getSimpleName())
+                .withProjectDir(projectDir)
+                .build();
+    }
+
+    @Test
+    @DisplayName("not be configured by default")
+    void notConfigured() {
+        assertThat(ContentCache.configuredFor(project)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("store and find content by key")
+    void storeAndFind() throws IOException {
+        ContentCache cache = configuredCache();
+        assertThat(cache.find(NAMESPACE, KEY)).isEmpty();
+
+        Path content = write("content.bin", "protoc");
+        Path blob = cache.put(NAMESPACE, KEY, content);
+        Optional<Path> found = cache.find(NAMESPACE, KEY);
+        assertThat(found).hasValue(blob);
+        assertThat(blob.getFileName()
+                       .toString())
+                .isEqualTo(ContentCache.hash(content));
+    }
+
+    @Test
+    @DisplayName("ignore a corrupted blob")
+    void corrupted() throws IOException {
+        ContentCache cache = configuredCache();
+        Path blob = cache.put(NAMESPACE, KEY, write("content.bin", "protoc"));
+        Files.write(blob, "corrupted".getBytes(UTF_8));
+        assertThat(cache.find(NAMESPACE, KEY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("make the cached content available in the build")
+    void link() throws IOException {
+        ContentCache cache = configuredCache();
+        Path blob = cache.put(NAMESPACE, KEY, write("content.bin", "protoc"));
+        Path target = projectDir.toPath()
+                                .resolve("build")
+                                .resolve("linked.bin");
+        ContentCache.link(blob, target);
+        assertThat(Files.readAllBytes(target)).isEqualTo(Files.readAllBytes(blob));
+    }
+
+    @Test
+    @DisplayName("recognize a link with different content of the same size")
+    void replaceDifferentContent() throws IOException {
+        ContentCache cache = configuredCache();
+        Path blob = cache.put(NAMESPACE, KEY, write("content.bin", "protoc"));
+        Path target = write("linked.bin", "protok");
+        assertThat(ContentCache.isLinked(blob, target)).isFalse();
+
+        ContentCache.link(blob, target);
+        assertThat(ContentCache.isLinked(blob, target)).isTrue();
+        assertThat(Files.readAllBytes(target)).isEqualTo(Files.readAllBytes(blob));
+    }
+
+    @Test
+    @DisplayName("link the same content concurrently")
+    void linkConcurrently() throws Exception {
+        ContentCache cache = configuredCache();
+        Path blob = cache.put(NAMESPACE, KEY, write("content.bin", "protoc"));
+        Path target = projectDir.toPath()
+                                .resolve("build")
+                                .resolve("linked.bin");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> links = new ArrayList<>();
+            for (int i = 0; i < THREADS * 4; i++) {
+                links.add(executor.submit(() -> ContentCache.link(blob, target)));
+            }
+            for (Future<?> link : links) {
+                link.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(Files.readAllBytes(blob));
+    }
+
+    private ContentCache configuredCache() {
+        File cacheDir = new File(projectDir, "cache");
+        project.getExtensions()
+               .getExtraProperties()
+               .set("spine.cache.dir", cacheDir.getAbsolutePath());
+        Optional<ContentCache> cache = ContentCache.configuredFor(project);
+        assertThat(cache).isPresent();
+        return cache.get();
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        Path file = projectDir.toPath()
+                              .resolve(fileName);
+        Files.write(file, content.getBytes(UTF_8));
+        return file;
+    }
+}
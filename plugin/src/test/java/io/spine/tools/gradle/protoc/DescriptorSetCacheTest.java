@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.testing.TempDir;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.tasks.StopExecutionException;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.tools.gradle.ProtobufDependencies.gradlePlugin;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("DescriptorSetCache should")
+class DescriptorSetCacheTest {
+
+    private static final ProtocExecutable PROTOC =
+            ProtocExecutable.fromArtifact("com.google.protobuf:protoc:3.13.0");
+    private static final byte[] DESCRIPTOR_SET = {1, 2, 3};
+
+    private File projectDir;
+    private Project project;
+    private ContentCache cache;
+    private GenerateProtoTask task;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projectDir = TempDir.forClass(DescriptorSetCacheTest.class);
+        projectDir.deleteOnExit();
+        project = ProjectBuilder
+                .builder()
+                .withName(DescriptorSetCacheTest.class.getSimpleName())
+                .withProjectDir(projectDir)
+                .build();
+        project.getExtensions()
+               .getExtraProperties()
+               .set("spine.cache.dir", new File(projectDir, "cache").getAbsolutePath());
+        Optional<ContentCache> configured = ContentCache.configuredFor(project);
+        assertThat(configured.isPresent()).isTrue();
+        cache = configured.get();
+        project.getPluginManager()
+               .apply("java");
+        project.getPluginManager()
+               .apply(gradlePlugin().value());
+        ((ProjectInternal) project).evaluate();
+        task = (GenerateProtoTask) project.getTasks()
+                                          .getByName("generateProto");
+        task.setGenerateDescriptorSet(true);
+        writeProto("message Ride { string name = 1; }");
+    }
+
+    @Test
+    @DisplayName("restore the descriptor set of a task which generates nothing else")
+    void restore() throws IOException {
+        task.getBuiltins()
+            .clear();
+        generate();
+
+        Files.delete(descriptorSet());
+        assertThrows(StopExecutionException.class,
+                     () -> new DescriptorSetCache(task, cache, PROTOC).restore());
+        assertThat(Files.readAllBytes(descriptorSet())).isEqualTo(DESCRIPTOR_SET);
+    }
+
+    @Test
+    @DisplayName("miss the cache if the sources change")
+    void missOnChange() throws IOException {
+        task.getBuiltins()
+            .clear();
+        generate();
+
+        writeProto("message Ride { string name = 1; int32 seats = 2; }");
+        new DescriptorSetCache(task, cache, PROTOC).restore();
+    }
+
+    @Test
+    @DisplayName("restore the descriptor set of a task which generates code")
+    void restoreWithCodeGeneration() throws IOException {
+        assertThat(task.getBuiltins()).isNotEmpty();
+        generate();
+        Path descriptorSet = descriptorSet();
+        Files.delete(descriptorSet);
+
+        DescriptorSetCache descriptorCache = new DescriptorSetCache(task, cache, PROTOC);
+        descriptorCache.restore();
+        Path scratch = descriptorSet();
+        assertThat(scratch).isNotEqualTo(descriptorSet);
+        Files.createDirectories(scratch.getParent());
+        Files.write(scratch, new byte[]{4, 5});
+        descriptorCache.complete();
+
+        assertThat(descriptorSet()).isEqualTo(descriptorSet);
+        assertThat(Files.readAllBytes(descriptorSet)).isEqualTo(DESCRIPTOR_SET);
+        assertThat(Files.exists(scratch)).isFalse();
+    }
+
+    /**
+     * Runs the cache actions around a fake {@code protoc} run.
+     */
+    private void generate() throws IOException {
+        DescriptorSetCache descriptorCache = new DescriptorSetCache(task, cache, PROTOC);
+        descriptorCache.restore();
+        Path descriptorSet = descriptorSet();
+        Files.createDirectories(descriptorSet.getParent());
+        Files.write(descriptorSet, DESCRIPTOR_SET);
+        descriptorCache.complete();
+        descriptorCache.store();
+    }
+
+    private Path descriptorSet() {
+        return project.file(task.getDescriptorPath())
+                      .toPath();
+    }
+
+    private void writeProto(String message) throws IOException {
+        Path proto = projectDir.toPath()
+                               .resolve("src")
+                               .resolve("main")
+                               .resolve("proto")
+                               .resolve("ride.proto");
+        Files.createDirectories(proto.getParent());
+        String content = "syntax = \"proto3\";\n" + message + '\n';
+        Files.write(proto, content.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.SourceCodeInfo;
+import com.google.protobuf.DescriptorProtos.SourceCodeInfo.Location;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.stream.Collectors.toList;
+
+@DisplayName("DescriptorSets should")
+class DescriptorSetsTest {
+
+    private static final String TYPE_FILE = "google/protobuf/any.proto";
+    private static final String EVENTS_FILE = "spine/test/events.proto";
+    private static final String COMMANDS_FILE = "spine/test/commands.proto";
+    private static final String TASKS_FILE = "spine/test/tasks/tasks.proto";
+
+    @Test
+    @DisplayName("split own files by package with their dependencies")
+    void byPackage() {
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file(TYPE_FILE, "google.protobuf"))
+                .addFile(file(EVENTS_FILE, "spine.test", TYPE_FILE))
+                .addFile(file(TASKS_FILE, "spine.test.tasks", EVENTS_FILE))
+                .addFile(file(COMMANDS_FILE, "spine.test", TYPE_FILE))
+                .build();
+        ImmutableSet<String> ownFiles = ImmutableSet.of(EVENTS_FILE, COMMANDS_FILE, TASKS_FILE);
+
+        ImmutableMap<String, FileDescriptorSet> packages =
+                DescriptorSets.byPackage(descriptorSet, ownFiles);
+
+        assertThat(packages.keySet())
+                .containsExactly("spine.test", "spine.test.tasks")
+                .inOrder();
+        assertThat(fileNames(packages.get("spine.test")))
+                .containsExactly(TYPE_FILE, EVENTS_FILE, COMMANDS_FILE)
+                .inOrder();
+        assertThat(fileNames(packages.get("spine.test.tasks")))
+                .containsExactly(TYPE_FILE, EVENTS_FILE, TASKS_FILE)
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("strip source info")
+    void stripSourceInfo() {
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file(EVENTS_FILE, "spine.test").toBuilder()
+                                                        .setSourceCodeInfo(sourceInfo()))
+                .build();
+
+        FileDescriptorSet stripped = DescriptorSets.stripSourceInfo(descriptorSet);
+
+        assertThat(stripped.getFile(0)
+                           .hasSourceCodeInfo()).isFalse();
+        assertThat(stripped.getFile(0)
+                           .getName()).isEqualTo(EVENTS_FILE);
+    }
+
+    @Test
+    @DisplayName("compact own files omitting default JSON names")
+    void compact() {
+        DescriptorProto event = DescriptorProto
+                .newBuilder()
+                .setName("RideStarted")
+                .addField(FieldDescriptorProto.newBuilder()
+                                              .setName("ride_id")
+                                              .setJsonName("rideId"))
+                .addField(FieldDescriptorProto.newBuilder()
+                                              .setName("seat")
+                                              .setJsonName("place"))
+                .build();
+        FileDescriptorSet descriptorSet = FileDescriptorSet
+                .newBuilder()
+                .addFile(file(TYPE_FILE, "google.protobuf"))
+                .addFile(file(EVENTS_FILE, "spine.test", TYPE_FILE)
+                                 .toBuilder()
+                                 .addMessageType(event)
+                                 .setSourceCodeInfo(sourceInfo()))
+                .build();
+
+        FileDescriptorSet compact =
+                DescriptorSets.compact(descriptorSet, ImmutableSet.of(EVENTS_FILE));
+
+        assertThat(fileNames(compact)).containsExactly(EVENTS_FILE);
+        FileDescriptorProto file = compact.getFile(0);
+        assertThat(file.hasSourceCodeInfo()).isFalse();
+        DescriptorProto message = file.getMessageType(0);
+        assertThat(message.getField(0)
+                          .hasJsonName()).isFalse();
+        assertThat(message.getField(1)
+                          .getJsonName()).isEqualTo("place");
+    }
+
+    @Test
+    @DisplayName("derive JSON names as `protoc` does")
+    void defaultJsonName() {
+        assertThat(DescriptorSets.defaultJsonName("ride_id")).isEqualTo("rideId");
+        assertThat(DescriptorSets.defaultJsonName("seat")).isEqualTo("seat");
+        assertThat(DescriptorSets.defaultJsonName("wagon_2_seat")).isEqualTo("wagon2Seat");
+    }
+
+    private static SourceCodeInfo sourceInfo() {
+        return SourceCodeInfo
+                .newBuilder()
+                .addLocation(Location.newBuilder()
+                                     .setLeadingComments(" A comment.\n"))
+                .build();
+    }
+
+    private static FileDescriptorProto file(String name, String protoPackage,
+                                            String... dependencies) {
+        FileDescriptorProto.Builder file = FileDescriptorProto
+                .newBuilder()
+                .setName(name)
+                .setPackage(protoPackage);
+        for (String dependency : dependencies) {
+            file.addDependency(dependency);
+        }
+        return file.build();
+    }
+
+    private static Iterable<String> fileNames(FileDescriptorSet descriptorSet) {
+        return descriptorSet.getFileList()
+                            .stream()
+                            .map(FileDescriptorProto::getName)
+                            .collect(toList());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.protobuf.gradle.GenerateProtoTask;
+import io.spine.testing.TempDir;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.tools.gradle.ProtobufDependencies.gradlePlugin;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@DisplayName("IncrementalCompilation should")
+class IncrementalCompilationTest {
+
+    private static final String RIDE = "park/ride.proto";
+    private static final String GATE = "gate.proto";
+    private static final String TICKET = "ticket.proto";
+    private static final String DEPENDENCY = "spine/fare.proto";
+
+    private File projectDir;
+    private Project project;
+    private GenerateProtoTask task;
+    private IncrementalCompilation compilation;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projectDir = TempDir.forClass(IncrementalCompilationTest.class);
+        projectDir.deleteOnExit();
+        project = ProjectBuilder
+                .builder()
+                .withName(IncrementalCompilationTest.class.getSimpleName())
+                .withProjectDir(projectDir)
+                .build();
+        project.getPluginManager()
+               .apply("java");
+        project.getPluginManager()
+               .apply(gradlePlugin().value());
+        ((ProjectInternal) project).evaluate();
+        task = (GenerateProtoTask) project.getTasks()
+                                          .getByName("generateProto");
+        IncrementalCompilation.configure(task, true);
+        compilation = IncrementalCompilation.of(task);
+        writeProto(source(RIDE), "message Ride { string name = 1; }");
+        writeProto(source(GATE), "import \"park/ride.proto\";",
+                   "message Gate { Ride ride = 1; }");
+        writeProto(source(TICKET), "import \"spine/fare.proto\";",
+                   "message Ticket { Fare fare = 1; }");
+        writeProto(dependency(), "message Fare { int32 cents = 1; }");
+    }
+
+    @Test
+    @DisplayName("narrow the sources to the changed files keeping their import paths")
+    void narrowSources() throws IOException {
+        compile();
+        writeProto(source(RIDE), "message Ride { string name = 1; int32 seats = 2; }");
+
+        compilation.takeConfiguration();
+        compilation.prepare();
+        assertThat(sources()).containsExactly(RIDE, GATE);
+
+        compilation.complete();
+        assertThat(sources()).containsExactly(RIDE, GATE, TICKET);
+    }
+
+    @Test
+    @DisplayName("compile all the sources if an imported dependency changes")
+    void recompileOnDependencyChange() throws IOException {
+        compile();
+        writeProto(dependency(), "message Fare { int64 cents = 1; }");
+        writeProto(source(RIDE), "message Ride { string name = 1; int32 seats = 2; }");
+
+        compilation.takeConfiguration();
+        compilation.prepare();
+        assertThat(sources()).containsExactly(RIDE, GATE, TICKET);
+        compilation.complete();
+    }
+
+    @Test
+    @DisplayName("compile all the sources if the compiler changes")
+    void recompileOnCompilerChange() throws IOException {
+        ProtobufGenerator generator = new ProtobufGenerator(project);
+        generator.useCompiler("com.google.protobuf:protoc:3.13.0");
+        compile();
+        generator.useCompiler("com.google.protobuf:protoc:3.14.0");
+        writeProto(source(RIDE), "message Ride { string name = 1; int32 seats = 2; }");
+
+        compilation.takeConfiguration();
+        compilation.prepare();
+        assertThat(sources()).containsExactly(RIDE, GATE, TICKET);
+        compilation.complete();
+    }
+
+    @Test
+    @DisplayName("run only the code generators added since the previous build")
+    void runAddedGenerators() {
+        IncrementalCompilation.isolatePlugins(task, true);
+        assertThat(task.getBuiltins()).isNotEmpty();
+        compile();
+        task.getPlugins()
+            .create("grpc");
+
+        compilation.takeConfiguration();
+        compilation.prepare();
+        assertThat(task.getBuiltins()).isEmpty();
+        assertThat(task.getPlugins()
+                       .getNames()).containsExactly("grpc");
+        assertThat(sources()).containsExactly(RIDE, GATE, TICKET);
+        compilation.complete();
+    }
+
+    /**
+     * Runs the compilation actions around a {@code protoc} run which generates nothing.
+     */
+    private void compile() {
+        compilation.takeConfiguration();
+        compilation.prepare();
+        compilation.complete();
+    }
+
+    private Set<String> sources() {
+        return ProtoSources.byImportPath(task.getSourceFiles())
+                           .keySet();
+    }
+
+    private Path source(String importPath) {
+        return projectDir.toPath()
+                         .resolve("src")
+                         .resolve("main")
+                         .resolve("proto")
+                         .resolve(importPath);
+    }
+
+    private Path dependency() {
+        return ProtocCommand.extractedIncludeDir(task)
+                            .toPath()
+                            .resolve(DEPENDENCY);
+    }
+
+    private static void writeProto(Path file, String... lines) throws IOException {
+        Files.createDirectories(file.getParent());
+        String content = "syntax = \"proto3\";\n" + String.join("\n", lines) + '\n';
+        Files.write(file, content.getBytes(UTF_8));
+    }
+}
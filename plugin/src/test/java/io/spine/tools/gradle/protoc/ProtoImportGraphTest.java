@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.spine.testing.TempDir;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.write;
+
+@DisplayName("ProtoImportGraph should")
+class ProtoImportGraphTest {
+
+    private static final String ROOT = "spine/test/root.proto";
+    private static final String MIDDLE = "spine/test/middle.proto";
+    private static final String LEAF = "spine/test/leaf.proto";
+    private static final String SEPARATE = "spine/test/separate.proto";
+    private static final String EXTERNAL = "google/protobuf/any.proto";
+
+    private ProtoImportGraph graph;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path sourceRoot = TempDir.forClass(ProtoImportGraphTest.class).toPath();
+        sourceRoot.toFile().deleteOnExit();
+        ImmutableMap<String, File> files = ImmutableMap.of(
+                ROOT, protoFile(sourceRoot, ROOT, "import \"" + MIDDLE + "\";"),
+                MIDDLE, protoFile(sourceRoot, MIDDLE,
+                                  "import public \"" + LEAF + "\";",
+                                  "import \"" + EXTERNAL + "\";"),
+                LEAF, protoFile(sourceRoot, LEAF),
+                SEPARATE, protoFile(sourceRoot, SEPARATE, "// import \"" + LEAF + "\";")
+        );
+        graph = ProtoImportGraph.of(files);
+    }
+
+    private static File protoFile(Path root, String path, String... imports) throws IOException {
+        Path file = root.resolve(path);
+        createDirectories(file.getParent());
+        ImmutableList<String> lines = ImmutableList.<String>builder()
+                .add("syntax = \"proto3\";")
+                .add("package spine.test;")
+                .add(imports)
+                .build();
+        write(file, lines, UTF_8);
+        return file.toFile();
+    }
+
+    @Test
+    @DisplayName("read direct imports")
+    void imports() {
+        assertThat(graph.importsOf(MIDDLE))
+                .containsExactly(LEAF, EXTERNAL);
+        assertThat(graph.importsOf(SEPARATE))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("find transitive dependants")
+    void dependants() {
+        assertThat(graph.withDependants(ImmutableList.of(LEAF)))
+                .containsExactly(LEAF, MIDDLE, ROOT);
+    }
+
+    @Test
+    @DisplayName("find dependants of an unknown file")
+    void dependantsOfUnknown() {
+        assertThat(graph.withDependants(ImmutableList.of(EXTERNAL)))
+                .containsExactly(MIDDLE, ROOT);
+    }
+
+    @Test
+    @DisplayName("find transitive dependencies within the graph")
+    void dependencies() {
+        assertThat(graph.withDependencies(ImmutableList.of(ROOT)))
+                .containsExactly(ROOT, MIDDLE, LEAF);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("ProtoShards should")
+class ProtoShardsTest {
+
+    private static final ImmutableSet<String> files = ImmutableSet.of(
+            "f.proto", "park/a.proto", "park/b.proto", "c.proto", "d.proto", "e.proto", "g.proto"
+    );
+
+    @Test
+    @DisplayName("split files by count into shards of similar size")
+    void balance() {
+        ImmutableList<ImmutableSet<String>> shards = ProtoShards.split(files, 3);
+        assertThat(shards).containsExactly(
+                ImmutableSet.of("c.proto", "d.proto", "e.proto"),
+                ImmutableSet.of("f.proto", "g.proto"),
+                ImmutableSet.of("park/a.proto", "park/b.proto")
+        ).inOrder();
+    }
+
+    @Test
+    @DisplayName("split regardless of the order of the files")
+    void deterministic() {
+        ImmutableList<String> reversed = files.asList()
+                                              .reverse();
+        assertThat(ProtoShards.split(reversed, 3)).isEqualTo(ProtoShards.split(files, 3));
+    }
+
+    @Test
+    @DisplayName("not produce empty shards")
+    void noEmptyShards() {
+        assertThat(ProtoShards.split(files, 10)).hasSize(files.size());
+        assertThat(ProtoShards.split(ImmutableSet.of(), 4)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("require a positive shard count")
+    void positiveCount() {
+        assertThrows(IllegalArgumentException.class, () -> ProtoShards.split(files, 0));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.gradle.GenerateProtoTask;
+import com.google.protobuf.gradle.GenerateProtoTask.PluginOptions;
+import io.spine.testing.TempDir;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.tools.gradle.ProtobufDependencies.gradlePlugin;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.dart;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.grpc;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.java;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.js;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.Name.spineProtoc;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.called;
+import static io.spine.tools.gradle.protoc.ProtocPlugin.withOption;
+
+@DisplayName("ProtobufGenerator should")
+class ProtobufGeneratorTest {
+
+    private static final String JS_OPTION = "import_style=commonjs";
+
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        File projectDir = TempDir.forClass(ProtobufGeneratorTest.class);
+        projectDir.deleteOnExit();
+        project = ProjectBuilder
+                .builder()
+                .withName(ProtobufGeneratorTest.class.getSimpleName())
+                .withProjectDir(projectDir)
+                .build();
+        project.getPluginManager()
+               .apply("java");
+        project.getPluginManager()
+               .apply(gradlePlugin().value());
+    }
+
+    @Test
+    @DisplayName("generate all the languages in a single `protoc` invocation per source set")
+    void singlePass() {
+        ProtobufGenerator javaGenerator = new ProtobufGenerator(project);
+        ProtobufGenerator jsGenerator = new ProtobufGenerator(project);
+        javaGenerator.enableBuiltIn(called(java));
+        javaGenerator.enablePlugin(called(grpc));
+        javaGenerator.enablePlugin(called(spineProtoc));
+        jsGenerator.enableBuiltIn(withOption(js, JS_OPTION));
+        jsGenerator.enableBuiltIn(withOption(js, JS_OPTION));
+        jsGenerator.enablePlugin(called(dart));
+        evaluate();
+
+        List<GenerateProtoTask> tasks = generateProtoTasks();
+        ImmutableList<String> sourceSets = tasks
+                .stream()
+                .map(task -> task.getSourceSet().getName())
+                .collect(toImmutableList());
+        assertThat(sourceSets).containsExactly("main", "test");
+        for (GenerateProtoTask task : tasks) {
+            assertThat(names(task.getBuiltins())).containsExactly(java.name(), js.name());
+            assertThat(names(task.getPlugins()))
+                    .containsExactly(grpc.name(), spineProtoc.name(), dart.name());
+            assertThat(task.getBuiltins()
+                           .getByName(js.name())
+                           .getOptions())
+                    .containsExactly(JS_OPTION);
+        }
+    }
+
+    @Test
+    @DisplayName("register the `protoc` command report task")
+    void commandReport() {
+        ProtobufGenerator generator = new ProtobufGenerator(project);
+        generator.enableCommandReport();
+        generator.enableCommandReport();
+        assertThat(project.getTasks()
+                          .findByName(ProtocTaskName.reportProtocCommands.name()))
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("check the `optimize_for` option in a separate task before `protoc` runs")
+    void optimizeForCheck() {
+        ProtobufGenerator generator = new ProtobufGenerator(project);
+        generator.checkOptimizeFor(OptimizeForPolicy.fail);
+        evaluate();
+
+        Task check = project.getTasks()
+                            .getByName("checkOptimizeFor");
+        GenerateProtoTask generateProto = (GenerateProtoTask) project.getTasks()
+                                                                     .getByName("generateProto");
+        assertThat(generateProto.getTaskDependencies()
+                                .getDependencies(generateProto)).contains(check);
+        assertThat(check.getOutputs()
+                        .getHasOutput()).isTrue();
+    }
+
+    private void evaluate() {
+        ((ProjectInternal) project).evaluate();
+    }
+
+    private List<GenerateProtoTask> generateProtoTasks() {
+        return ImmutableList.copyOf(project.getTasks()
+                                           .withType(GenerateProtoTask.class));
+    }
+
+    private static ImmutableList<String> names(Iterable<PluginOptions> options) {
+        ImmutableList<String> result = ImmutableList.copyOf(options)
+                                                    .stream()
+                                                    .map(PluginOptions::getName)
+                                                    .collect(toImmutableList());
+        return result;
+    }
+}
@@ -65,4 +65,33 @@ class ProtocPluginTest {
         plugin.removeFrom(options);
         assertThat(options).isEmpty();
     }
+
+    @Test
+    @DisplayName("not duplicate the option when added twice")
+    void singleOption() {
+        TestPluginOptionsContainer options = new TestPluginOptionsContainer();
+        String option = "import_style=commonjs";
+        ProtocPlugin plugin = ProtocPlugin.withOption(js, option);
+        plugin.createIn(options);
+        plugin.createIn(options);
+        assertThat(options).hasSize(1);
+        assertThat(options.getByName(js.name())
+                          .getOptions())
+                .containsExactly(option);
+    }
+
+    @Test
+    @DisplayName("replace the option with the same key")
+    void replaceOption() {
+        TestPluginOptionsContainer options = new TestPluginOptionsContainer();
+        ProtocPlugin.withOption(js, "import_style=commonjs")
+                    .createIn(options);
+        ProtocPlugin.withOption(js, "binary")
+                    .createIn(options);
+        ProtocPlugin.withOption(js, "import_style=es6")
+                    .createIn(options);
+        assertThat(options.getByName(js.name())
+                          .getOptions())
+                .containsExactly("binary", "import_style=es6");
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.tools.gradle.protoc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.spine.testing.TempDir;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.write;
+
+@DisplayName("SpeedOptimization should")
+class SpeedOptimizationTest {
+
+    private static final String FAST = "spine/test/fast.proto";
+    private static final String DEFAULT = "spine/test/default.proto";
+    private static final String SMALL = "spine/test/small.proto";
+    private static final String LITE = "spine/test/lite.proto";
+
+    private ImmutableMap<String, File> files;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path sourceRoot = TempDir.forClass(SpeedOptimizationTest.class).toPath();
+        sourceRoot.toFile().deleteOnExit();
+        files = ImmutableMap.of(
+                FAST, protoFile(sourceRoot, FAST, "option optimize_for = SPEED;"),
+                DEFAULT, protoFile(sourceRoot, DEFAULT, "// option optimize_for = CODE_SIZE;"),
+                SMALL, protoFile(sourceRoot, SMALL, "option optimize_for=CODE_SIZE;"),
+                LITE, protoFile(sourceRoot, LITE, "  option optimize_for = LITE_RUNTIME ;")
+        );
+    }
+
+    private static File protoFile(Path root, String path, String option) throws IOException {
+        Path file = root.resolve(path);
+        createDirectories(file.getParent());
+        ImmutableList<String> lines = ImmutableList.of(
+                "syntax = \"proto3\";",
+                "package spine.test;",
+                option
+        );
+        write(file, lines, UTF_8);
+        return file.toFile();
+    }
+
+    @Test
+    @DisplayName("read the `optimize_for` option")
+    void readOption() {
+        assertThat(SpeedOptimization.optimizeFor(files.get(FAST))).hasValue("SPEED");
+        assertThat(SpeedOptimization.optimizeFor(files.get(DEFAULT))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("select the files which are not optimized for speed")
+    void offenders() {
+        assertThat(SpeedOptimization.offenders(files))
+                .containsExactly(SMALL, "CODE_SIZE",
+                                 LITE, "LITE_RUNTIME");
+    }
+}